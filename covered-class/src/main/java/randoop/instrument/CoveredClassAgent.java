@@ -1,11 +1,22 @@
 package randoop.instrument;
 
 import java.lang.instrument.Instrumentation;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Defines the Java agent to instrument classes for covered-class filtering. Sets up {@code
  * Instrumentation} for JVM so that bytecode first passed through an {@link CoveredClassTransformer}
  * that performs instrumentation.
+ *
+ * <p>The agent argument is a comma-separated list of the instrumentations to perform:
+ *
+ * <ul>
+ *   <li>{@code --covered-classes}: the default; see {@link CoveredClassTransformer}.
+ *   <li>{@code --track-static-writes}: for {@code --static-state-isolation}; see {@link
+ *       StaticWriteTransformer}.
+ *   <li>{@code --deadline-checks}: stops calls that exceed {@code --call-timeout-millis} without
+ *       {@code --usethreads}; see {@link DeadlineTransformer}.
+ * </ul>
  */
 public final class CoveredClassAgent {
 
@@ -20,7 +31,26 @@ public final class CoveredClassAgent {
    * @param agentArgs agent options
    * @param inst the instrumentation
    */
-  public static void premain(String agentArgs, Instrumentation inst) {
-    inst.addTransformer(new CoveredClassTransformer());
+  public static void premain(@Nullable String agentArgs, Instrumentation inst) {
+    if (agentArgs == null || agentArgs.isEmpty()) {
+      agentArgs = "--covered-classes";
+    }
+    for (String arg : agentArgs.split(",")) {
+      switch (arg.trim()) {
+        case "--covered-classes":
+          inst.addTransformer(new CoveredClassTransformer());
+          break;
+        case "--track-static-writes":
+          StaticStateTracker.enable();
+          inst.addTransformer(new StaticWriteTransformer());
+          break;
+        case "--deadline-checks":
+          DeadlineTracker.enable();
+          inst.addTransformer(new DeadlineTransformer());
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown covered-class agent argument: " + arg);
+      }
+    }
   }
 }
@@ -60,7 +60,43 @@ public class CoveredClassTransformer implements ClassFileTransformer {
     byte[] bytecode;
 
     String qualifiedName = className.replace('/', '.');
+    if (!shouldTransform(qualifiedName)) {
+      return null;
+    }
 
+    CtClass cc;
+    try {
+      cc = pool.makeClassIfNew(new ByteArrayInputStream(classfileBuffer));
+    } catch (Exception e) {
+      throw new RandoopBug("Unable to instrument file: " + e);
+    }
+
+    if (cc.isFrozen() || cc.isInterface()) {
+      return null;
+    }
+
+    // OK to transform bytecode
+    modifyClass(cc);
+    try {
+      bytecode = cc.toBytecode();
+    } catch (IOException e) {
+      throw new RandoopBug("Unable to convert instrumentation to bytecode: " + e);
+    } catch (CannotCompileException e) {
+      throw new RandoopBug("Error in instrumentation code: " + e);
+    }
+    cc.detach(); // done with class, remove from ClassPool
+
+    return bytecode;
+  }
+
+  /**
+   * Returns true if the class may be instrumented: it is not part of the JDK, the run environment
+   * (such as JUnit), Randoop, or the agent.
+   *
+   * @param qualifiedName the fully-qualified name of a class
+   * @return true if the class may be instrumented
+   */
+  static boolean shouldTransform(String qualifiedName) {
     // For performance reasons, don't transform rt.jar classes except
     // java.awt and javax.swing.  (List derived from jdk1.8.0_71.)
     if (qualifiedName.startsWith("java.") // start of rt.jar name prefixes
@@ -77,7 +113,7 @@ public class CoveredClassTransformer implements ClassFileTransformer {
         || qualifiedName.startsWith("org.xml.")
         || qualifiedName.startsWith("sun.") // end of rt.jar name prefixes
     ) {
-      return null;
+      return false;
     }
 
     // run environment classes
@@ -85,44 +121,22 @@ public class CoveredClassTransformer implements ClassFileTransformer {
         || qualifiedName.startsWith("org.hamcrest.")
         || qualifiedName.startsWith("org.gradle.")
         || qualifiedName.startsWith("worker.org.gradle.")) {
-      return null;
+      return false;
     }
 
     // randoop classes
     if (qualifiedName.startsWith("randoop.")
         || qualifiedName.startsWith("replacecall.")
         || qualifiedName.startsWith("org.plumelib.")) {
-      return null;
+      return false;
     }
 
     // agent dependency classes -- see build script for package relocation details
     if (qualifiedName.startsWith("coveredclass.")) {
-      return null;
-    }
-
-    CtClass cc;
-    try {
-      cc = pool.makeClassIfNew(new ByteArrayInputStream(classfileBuffer));
-    } catch (Exception e) {
-      throw new RandoopBug("Unable to instrument file: " + e);
-    }
-
-    if (cc.isFrozen() || cc.isInterface()) {
-      return null;
-    }
-
-    // OK to transform bytecode
-    modifyClass(cc);
-    try {
-      bytecode = cc.toBytecode();
-    } catch (IOException e) {
-      throw new RandoopBug("Unable to convert instrumentation to bytecode: " + e);
-    } catch (CannotCompileException e) {
-      throw new RandoopBug("Error in instrumentation code: " + e);
+      return false;
     }
-    cc.detach(); // done with class, remove from ClassPool
 
-    return bytecode;
+    return true;
   }
 
   /**
@@ -0,0 +1,162 @@
+package randoop.instrument;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.security.ProtectionDomain;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtBehavior;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.CodeIterator;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.main.RandoopBug;
+
+/**
+ * A {@code java.lang.instrument.ClassTransformer} that instruments loaded classes so that Randoop
+ * can stop calls that run past a deadline (see {@link DeadlineTracker}). Does the following
+ * instrumentation of each class:
+ *
+ * <ol>
+ *   <li>Adds a call to {@link DeadlineTracker#check} at the beginning of each method and
+ *       constructor.
+ *   <li>Adds a call to {@link DeadlineTracker#check} before each backward branch, in every method
+ *       and constructor.
+ * </ol>
+ *
+ * Avoids the same classes as {@link CoveredClassTransformer}, and interfaces. Does not instrument
+ * static initializers: a {@link DeadlineExceededError} thrown from one would leave the class
+ * unusable for the rest of the run.
+ *
+ * @see CoveredClassAgent
+ */
+public class DeadlineTransformer implements ClassFileTransformer {
+
+  /** The name of the class whose methods the instrumentation calls. */
+  private static final String TRACKER = DeadlineTracker.class.getName();
+
+  /** The class pool used to load class files. */
+  private ClassPool pool;
+
+  /** Create {@code DeadlineTransformer}. */
+  DeadlineTransformer() {
+    super();
+    pool = ClassPool.getDefault();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Transforms bytecode for a class by adding deadline checks. Avoids JDK and JUnit classes,
+   * interfaces and any "frozen" classes that have already been loaded.
+   */
+  @Override
+  public byte @Nullable [] transform(
+      @Nullable ClassLoader loader,
+      String className,
+      @Nullable Class<?> classBeingRedefined,
+      ProtectionDomain protectionDomain,
+      byte[] classfileBuffer)
+      throws IllegalClassFormatException {
+
+    if (!CoveredClassTransformer.shouldTransform(className.replace('/', '.'))) {
+      return null;
+    }
+
+    CtClass cc;
+    try {
+      cc = pool.makeClassIfNew(new ByteArrayInputStream(classfileBuffer));
+    } catch (Exception e) {
+      throw new RandoopBug("Unable to instrument file: " + e);
+    }
+
+    if (cc.isFrozen() || cc.isInterface()) {
+      return null;
+    }
+
+    modifyClass(cc);
+    byte[] bytecode;
+    try {
+      bytecode = cc.toBytecode();
+    } catch (IOException e) {
+      throw new RandoopBug("Unable to convert instrumentation to bytecode: " + e);
+    } catch (CannotCompileException e) {
+      throw new RandoopBug("Error in instrumentation code: " + e);
+    }
+    cc.detach(); // done with class, remove from ClassPool
+
+    return bytecode;
+  }
+
+  /**
+   * Adds deadline checks to the methods and constructors of the given class.
+   *
+   * @param cc the {@code javassist.CtClass} object
+   */
+  private void modifyClass(CtClass cc) {
+    ClassFile classFile = cc.getClassFile();
+    ConstPool constPool = classFile.getConstPool();
+    int checkRef = constPool.addMethodrefInfo(constPool.addClassInfo(TRACKER), "check", "()V");
+    byte[] checkCall = {(byte) Opcode.INVOKESTATIC, (byte) (checkRef >>> 8), (byte) checkRef};
+
+    for (CtBehavior behavior : cc.getDeclaredBehaviors()) {
+      if (behavior instanceof CtConstructor && ((CtConstructor) behavior).isClassInitializer()) {
+        continue;
+      }
+      MethodInfo methodInfo = behavior.getMethodInfo();
+      CodeAttribute code = methodInfo.getCodeAttribute();
+      if (code == null) { // abstract or native
+        continue;
+      }
+      try {
+        if (insertBeforeBackwardBranches(code.iterator(), checkCall)) {
+          methodInfo.rebuildStackMapIf6(cc.getClassPool(), classFile);
+        }
+        behavior.insertBefore(TRACKER + ".check();");
+      } catch (BadBytecode | CannotCompileException e) {
+        throw new Error("error instrumenting deadline checks: " + e);
+      }
+    }
+  }
+
+  /**
+   * Inserts the given call before each backward branch, which ends an iteration of a loop. A branch
+   * to the branch instruction itself also executes the call.
+   *
+   * @param iterator an iterator over the code of a method
+   * @param checkCall the bytecode of the call to insert
+   * @return true if the call was inserted
+   * @throws BadBytecode if the code cannot be modified
+   */
+  private static boolean insertBeforeBackwardBranches(CodeIterator iterator, byte[] checkCall)
+      throws BadBytecode {
+    boolean inserted = false;
+    while (iterator.hasNext()) {
+      int pos = iterator.next();
+      int opcode = iterator.byteAt(pos);
+      int offset;
+      if ((opcode >= Opcode.IFEQ && opcode <= Opcode.GOTO)
+          || opcode == Opcode.IFNULL
+          || opcode == Opcode.IFNONNULL) {
+        offset = iterator.s16bitAt(pos + 1);
+      } else if (opcode == Opcode.GOTO_W) {
+        offset = iterator.s32bitAt(pos + 1);
+      } else {
+        continue;
+      }
+      if (offset <= 0) {
+        iterator.insert(pos, checkCall);
+        inserted = true;
+      }
+    }
+    return inserted;
+  }
+}
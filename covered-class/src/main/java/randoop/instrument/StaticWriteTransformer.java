@@ -0,0 +1,190 @@
+package randoop.instrument;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.security.ProtectionDomain;
+import java.util.Objects;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtBehavior;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.Modifier;
+import javassist.NotFoundException;
+import javassist.bytecode.AccessFlag;
+import javassist.expr.ExprEditor;
+import javassist.expr.FieldAccess;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.main.RandoopBug;
+
+/**
+ * A {@code java.lang.instrument.ClassTransformer} that instruments loaded classes so that Randoop
+ * can restore their static state (see {@link StaticStateTracker}). Does the following
+ * instrumentation of each class:
+ *
+ * <ol>
+ *   <li>Adds a private static boolean field named {@link StaticStateTracker#WRITTEN_FIELD}.
+ *   <li>After each write to a static field, outside the static initializer, calls {@link
+ *       StaticStateTracker#staticWrite} with the class that declares the field. If the class
+ *       itself declares the field, calls it only if the added field is false, and sets the added
+ *       field. If the declaring class is not accessible, calls {@link
+ *       StaticStateTracker#staticWriteInherited} with the class named in the instruction and the
+ *       name of the declaring class, which the tracker finds among its superclasses.
+ *   <li>At the end of the static initializer, calls {@link StaticStateTracker#classInitialized}.
+ * </ol>
+ *
+ * Avoids the same classes as {@link CoveredClassTransformer}, and interfaces.
+ *
+ * @see CoveredClassAgent
+ */
+public class StaticWriteTransformer implements ClassFileTransformer {
+
+  /** The name of the class whose methods the instrumentation calls. */
+  private static final String TRACKER = StaticStateTracker.class.getName();
+
+  /** The class pool used to load class files. */
+  private ClassPool pool;
+
+  /** Create {@code StaticWriteTransformer}. */
+  StaticWriteTransformer() {
+    super();
+    pool = ClassPool.getDefault();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Transforms bytecode for a class by adding static-write instrumentation. Avoids JDK and JUnit
+   * classes, interfaces and any "frozen" classes that have already been loaded.
+   */
+  @Override
+  public byte @Nullable [] transform(
+      @Nullable ClassLoader loader,
+      String className,
+      @Nullable Class<?> classBeingRedefined,
+      ProtectionDomain protectionDomain,
+      byte[] classfileBuffer)
+      throws IllegalClassFormatException {
+
+    if (!CoveredClassTransformer.shouldTransform(className.replace('/', '.'))) {
+      return null;
+    }
+
+    CtClass cc;
+    try {
+      cc = pool.makeClassIfNew(new ByteArrayInputStream(classfileBuffer));
+    } catch (Exception e) {
+      throw new RandoopBug("Unable to instrument file: " + e);
+    }
+
+    // The static fields of an interface are final.
+    if (cc.isFrozen() || cc.isInterface()) {
+      return null;
+    }
+
+    modifyClass(cc);
+    byte[] bytecode;
+    try {
+      bytecode = cc.toBytecode();
+    } catch (IOException e) {
+      throw new RandoopBug("Unable to convert instrumentation to bytecode: " + e);
+    } catch (CannotCompileException e) {
+      throw new RandoopBug("Error in instrumentation code: " + e);
+    }
+    cc.detach(); // done with class, remove from ClassPool
+
+    return bytecode;
+  }
+
+  /**
+   * Instruments the static field writes and the static initializer of the given class.
+   *
+   * @param cc the {@code javassist.CtClass} object
+   */
+  private void modifyClass(CtClass cc) {
+    String written = StaticStateTracker.WRITTEN_FIELD;
+    try {
+      CtField flag = new CtField(CtClass.booleanType, written, cc);
+      flag.getFieldInfo()
+          .setAccessFlags(AccessFlag.PRIVATE | AccessFlag.STATIC | AccessFlag.SYNTHETIC);
+      cc.addField(flag);
+    } catch (CannotCompileException e) {
+      throw new Error("error adding field " + written + ": " + e);
+    }
+
+    ExprEditor staticWrites =
+        new ExprEditor() {
+          @Override
+          public void edit(FieldAccess f) throws CannotCompileException {
+            if (!(f.isStatic() && f.isWriter())) {
+              return;
+            }
+            // The instruction names the class through which the field is accessed, which may be
+            // a subclass of the class that declares the field.
+            String declaringClass = f.getClassName();
+            try {
+              CtClass declaring = f.getField().getDeclaringClass();
+              if (Modifier.isPublic(declaring.getModifiers())
+                  || Objects.equals(declaring.getPackageName(), cc.getPackageName())) {
+                declaringClass = declaring.getName();
+              } else {
+                // A class literal for an inaccessible class would fail at run time, so the tracker
+                // finds the declaring class among the superclasses of the named class.
+                f.replace(
+                    "{ $proceed($$); "
+                        + TRACKER
+                        + ".staticWriteInherited("
+                        + f.getClassName()
+                        + ".class, \""
+                        + declaring.getName()
+                        + "\"); }");
+                return;
+              }
+            } catch (NotFoundException e) {
+              // The field cannot be resolved, so record the class named in the instruction.
+            }
+            if (declaringClass.equals(cc.getName())) {
+              f.replace(
+                  "{ $proceed($$); if (!"
+                      + written
+                      + ") { "
+                      + written
+                      + " = true; "
+                      + TRACKER
+                      + ".staticWrite("
+                      + declaringClass
+                      + ".class); } }");
+            } else {
+              f.replace(
+                  "{ $proceed($$); "
+                      + TRACKER
+                      + ".staticWrite("
+                      + declaringClass
+                      + ".class); }");
+            }
+          }
+        };
+    try {
+      for (CtBehavior behavior : cc.getDeclaredBehaviors()) {
+        // The static initializer sets the initial values, which Randoop restores.
+        if (!(behavior instanceof CtConstructor
+            && ((CtConstructor) behavior).isClassInitializer())) {
+          behavior.instrument(staticWrites);
+        }
+      }
+    } catch (CannotCompileException e) {
+      throw new Error("error instrumenting static field write: " + e);
+    }
+
+    // Add a static initializer if there is none, so that the initial values are saved.
+    try {
+      CtConstructor initializer = cc.makeClassInitializer();
+      initializer.insertAfter(TRACKER + ".classInitialized(" + cc.getName() + ".class);");
+    } catch (CannotCompileException e) {
+      throw new Error("error instrumenting static initializer: " + e);
+    }
+  }
+}
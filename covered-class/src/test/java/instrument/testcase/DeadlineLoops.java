@@ -0,0 +1,68 @@
+package instrument.testcase;
+
+public class DeadlineLoops {
+  public static int sum(int n) {
+    int total = 0;
+    for (int i = 0; i < n; i++) {
+      total += i;
+    }
+    return total;
+  }
+
+  public static int nested(int n) {
+    int total = 0;
+    for (int i = 0; i < n; i++) {
+      int j = 0;
+      while (j < n) {
+        total++;
+        j++;
+      }
+    }
+    return total;
+  }
+
+  public static int switchInLoop(int n) {
+    int total = 0;
+    for (int i = 0; i < n; i++) {
+      switch (i % 3) {
+        case 0:
+          total += 1;
+          break;
+        case 1:
+          total += 10;
+          break;
+        default:
+          total += 100;
+      }
+    }
+    return total;
+  }
+
+  public static int tryCatchInLoop(int n) {
+    int caught = 0;
+    for (int i = 0; i < n; i++) {
+      try {
+        if (i % 2 == 0) {
+          throw new IllegalStateException();
+        }
+      } catch (IllegalStateException e) {
+        caught++;
+      }
+    }
+    return caught;
+  }
+
+  public static void spin() {
+    while (true) {}
+  }
+
+  public static void spinCatchingThrowable() {
+    while (true) {
+      try {
+        sum(10);
+      } catch (Throwable t) {
+        // ignore
+      }
+    }
+  }
+}
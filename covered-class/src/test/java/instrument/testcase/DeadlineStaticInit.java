@@ -0,0 +1,11 @@
+package instrument.testcase;
+
+public class DeadlineStaticInit {
+  public static int total;
+
+  static {
+    for (int i = 0; i < 100_000; i++) {
+      total += i % 7;
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package instrument.testcase;
+
+import instrument.testcase.hidden.HiddenChild;
+
+public class StaticCounter extends StaticCounterBase {
+  public static int own = 0;
+
+  public static void incrementOwn() {
+    own++;
+  }
+
+  public static void incrementInherited() {
+    StaticCounter.inherited++;
+  }
+
+  public static void incrementHidden() {
+    HiddenChild.hidden++;
+  }
+
+  public static int read() {
+    return own + inherited;
+  }
+}
@@ -0,0 +1,5 @@
+package instrument.testcase;
+
+public class StaticCounterBase {
+  public static int inherited = 0;
+}
@@ -0,0 +1,9 @@
+package instrument.testcase;
+
+public class StaticHolder {
+  public static int value = 1;
+
+  public static void setValue(int newValue) {
+    value = newValue;
+  }
+}
@@ -0,0 +1,5 @@
+package instrument.testcase.hidden;
+
+class HiddenBase {
+  public static int hidden = 0;
+}
@@ -0,0 +1,3 @@
+package instrument.testcase.hidden;
+
+public class HiddenChild extends HiddenBase {}
@@ -0,0 +1,114 @@
+package randoop.instrument;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeadlineTransformerTest {
+
+  /** The instrumented copy of {@code instrument.testcase.DeadlineLoops}. */
+  private Class<?> loops;
+
+  @Before
+  public void loadLoops() throws ClassNotFoundException {
+    loops = load("instrument.testcase.DeadlineLoops");
+  }
+
+  @After
+  public void disarm() {
+    DeadlineTracker.disarm();
+  }
+
+  @Test
+  public void testLoopsComputeSameResults() throws ReflectiveOperationException {
+    DeadlineTracker.arm(60_000);
+    assertEquals(4950, invoke("sum", 100));
+    assertEquals(2500, invoke("nested", 50));
+    assertEquals(1 + 10 + 100 + 1 + 10, invoke("switchInLoop", 5));
+    assertEquals(50, invoke("tryCatchInLoop", 100));
+    assertFalse(DeadlineTracker.disarm());
+  }
+
+  @Test
+  public void testLoopsRunWithoutDeadline() throws ReflectiveOperationException {
+    assertEquals(4950, invoke("sum", 100));
+    assertEquals(2500, invoke("nested", 50));
+  }
+
+  @Test
+  public void testInfiniteLoopStopped() throws ReflectiveOperationException {
+    DeadlineTracker.arm(100);
+    expectDeadlineExceeded("spin");
+    assertTrue(DeadlineTracker.disarm());
+  }
+
+  @Test
+  public void testInfiniteLoopCatchingThrowableStopped() throws ReflectiveOperationException {
+    DeadlineTracker.arm(100);
+    expectDeadlineExceeded("spinCatchingThrowable");
+    assertTrue(DeadlineTracker.disarm());
+  }
+
+  @Test
+  public void testExpiredDeadlineClearedByArm() throws ReflectiveOperationException {
+    DeadlineTracker.arm(100);
+    expectDeadlineExceeded("spin");
+    DeadlineTracker.arm(60_000);
+    assertEquals(4950, invoke("sum", 100));
+  }
+
+  @Test
+  public void testStaticInitializerNotInstrumented() throws ClassNotFoundException {
+    // The deadline has already passed, but the static initializer runs to completion.
+    DeadlineTracker.arm(0);
+    Class<?> init = load("instrument.testcase.DeadlineStaticInit");
+    assertEquals("instrument.testcase.DeadlineStaticInit", init.getName());
+    assertFalse(DeadlineTracker.disarm());
+  }
+
+  /**
+   * Loads the given class, instrumented with deadline checks, and initializes it.
+   *
+   * @param className the binary name of the class
+   * @return the instrumented class
+   * @throws ClassNotFoundException if the class cannot be loaded
+   */
+  private static Class<?> load(String className) throws ClassNotFoundException {
+    ClassLoader loader = new TransformingClassLoader(new DeadlineTransformer(), className);
+    return Class.forName(className, true, loader);
+  }
+
+  /**
+   * Invokes a static method of the instrumented class that takes an {@code int}.
+   *
+   * @param methodName the name of the method
+   * @param arg the argument
+   * @return the result of the method
+   * @throws ReflectiveOperationException if the method cannot be invoked
+   */
+  private Object invoke(String methodName, int arg) throws ReflectiveOperationException {
+    return loops.getMethod(methodName, int.class).invoke(null, arg);
+  }
+
+  /**
+   * Invokes a static method of the instrumented class that takes no arguments, and checks that it
+   * throws {@link DeadlineExceededError}.
+   *
+   * @param methodName the name of the method
+   * @throws ReflectiveOperationException if the method cannot be invoked
+   */
+  private void expectDeadlineExceeded(String methodName) throws ReflectiveOperationException {
+    try {
+      loops.getMethod(methodName).invoke(null);
+      fail(methodName + " returned");
+    } catch (InvocationTargetException e) {
+      assertTrue(e.getCause() instanceof DeadlineExceededError);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package randoop.instrument;
+
+import static org.junit.Assert.assertEquals;
+
+import instrument.testcase.StaticHolder;
+import java.util.Collections;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import randoop.generation.StaticStateVisitor;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+
+// Tracking cannot be disabled once enabled, so the test without tracking runs first.
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class StaticStateVisitorTest {
+
+  @Test
+  public void test1RestoreChangedFieldsWithoutTracking() {
+    StaticStateVisitor visitor =
+        new StaticStateVisitor(Collections.<Class<?>>singletonList(StaticHolder.class));
+    StaticHolder.setValue(5);
+    visitor.initialize(new ExecutableSequence(new Sequence()));
+    assertEquals(1, StaticHolder.value);
+  }
+
+  @Test
+  public void test2RestoreWrittenClassesWithTracking() throws ReflectiveOperationException {
+    StaticStateTracker.enable();
+    StaticStateVisitor visitor = new StaticStateVisitor(Collections.<Class<?>>emptyList());
+
+    // The visitor saves the initial state at the end of the static initializer.
+    ClassLoader loader =
+        new TransformingClassLoader(
+            new StaticWriteTransformer(), "instrument.testcase.StaticHolder");
+    Class<?> holder = Class.forName("instrument.testcase.StaticHolder", true, loader);
+
+    holder.getMethod("setValue", int.class).invoke(null, 5);
+    visitor.initialize(new ExecutableSequence(new Sequence()));
+    assertEquals(1, holder.getField("value").getInt(null));
+
+    // A write through reflection is not instrumented, so it is not restored.
+    holder.getField("value").setInt(null, 7);
+    visitor.initialize(new ExecutableSequence(new Sequence()));
+    assertEquals(7, holder.getField("value").getInt(null));
+  }
+}
@@ -0,0 +1,101 @@
+package randoop.instrument;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StaticWriteTransformerTest {
+
+  /** The instrumented copy of {@code instrument.testcase.StaticCounter}. */
+  private Class<?> counter;
+
+  @Before
+  public void loadCounter() throws ClassNotFoundException {
+    ClassLoader loader =
+        new TransformingClassLoader(
+            new StaticWriteTransformer(), "instrument.testcase.StaticCounter");
+    counter = Class.forName("instrument.testcase.StaticCounter", true, loader);
+    StaticStateTracker.drainDirtyClasses();
+  }
+
+  @Test
+  public void testOwnWriteRecordsClass() throws ReflectiveOperationException {
+    invoke("incrementOwn");
+    assertTrue(writtenFlag());
+    List<Class<?>> dirty = StaticStateTracker.drainDirtyClasses();
+    assertTrue(dirty.contains(counter));
+    assertFalse(writtenFlag());
+  }
+
+  @Test
+  public void testRepeatedWriteRecordedOnce() throws ReflectiveOperationException {
+    invoke("incrementOwn");
+    invoke("incrementOwn");
+    List<Class<?>> dirty = StaticStateTracker.drainDirtyClasses();
+    assertEquals(1, dirty.stream().filter(c -> c == counter).count());
+    assertEquals(2, counter.getField("own").getInt(null));
+  }
+
+  @Test
+  public void testWriteAfterDrainRecordedAgain() throws ReflectiveOperationException {
+    invoke("incrementOwn");
+    StaticStateTracker.drainDirtyClasses();
+    invoke("incrementOwn");
+    assertTrue(StaticStateTracker.drainDirtyClasses().contains(counter));
+  }
+
+  @Test
+  public void testInheritedWriteRecordsDeclaringClass() throws ReflectiveOperationException {
+    invoke("incrementInherited");
+    List<Class<?>> dirty = StaticStateTracker.drainDirtyClasses();
+    // The write names StaticCounter, but the field is declared by StaticCounterBase.
+    assertTrue(dirty.contains(counter.getSuperclass()));
+    assertFalse(dirty.contains(counter));
+  }
+
+  @Test
+  public void testInaccessibleInheritedWriteRecordsDeclaringClass()
+      throws ReflectiveOperationException {
+    invoke("incrementHidden");
+    List<Class<?>> dirty = StaticStateTracker.drainDirtyClasses();
+    // The field is declared by a package-private superclass that StaticCounter cannot name.
+    Class<?> child = Class.forName("instrument.testcase.hidden.HiddenChild");
+    assertTrue(dirty.contains(child.getSuperclass()));
+    assertFalse(dirty.contains(child));
+    assertEquals(1, child.getField("hidden").getInt(null));
+  }
+
+  @Test
+  public void testNoWriteRecordsNothing() throws ReflectiveOperationException {
+    invoke("read");
+    assertFalse(StaticStateTracker.drainDirtyClasses().contains(counter));
+  }
+
+  /**
+   * Invokes a static method of the instrumented counter class.
+   *
+   * @param methodName the name of the method
+   * @return the result of the method
+   * @throws ReflectiveOperationException if the method cannot be invoked
+   */
+  private Object invoke(String methodName) throws ReflectiveOperationException {
+    return counter.getMethod(methodName).invoke(null);
+  }
+
+  /**
+   * Returns the value of the field added by the instrumentation to the counter class.
+   *
+   * @return the value of the added field
+   * @throws ReflectiveOperationException if the field cannot be read
+   */
+  private boolean writtenFlag() throws ReflectiveOperationException {
+    Field written = counter.getDeclaredField(StaticStateTracker.WRITTEN_FIELD);
+    written.setAccessible(true);
+    return written.getBoolean(null);
+  }
+}
@@ -0,0 +1,88 @@
+package randoop.instrument;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A class loader that defines the given classes from their class files, after passing them through
+ * a transformer, and delegates every other class to its parent. Lets a test apply a transformer
+ * that the agent does not apply in the test JVM.
+ */
+final class TransformingClassLoader extends ClassLoader {
+
+  /** The transformer applied to each class. */
+  private final ClassFileTransformer transformer;
+
+  /** The binary names of the classes to transform. */
+  private final Set<String> classNames;
+
+  /**
+   * Creates a class loader that transforms the given classes.
+   *
+   * @param transformer the transformer applied to each class
+   * @param classNames the binary names of the classes to transform
+   */
+  TransformingClassLoader(ClassFileTransformer transformer, String... classNames) {
+    super(TransformingClassLoader.class.getClassLoader());
+    this.transformer = transformer;
+    this.classNames = new HashSet<>(Arrays.asList(classNames));
+  }
+
+  @Override
+  protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+    if (!classNames.contains(name)) {
+      return super.loadClass(name, resolve);
+    }
+    synchronized (getClassLoadingLock(name)) {
+      Class<?> c = findLoadedClass(name);
+      if (c == null) {
+        String internalName = name.replace('.', '/');
+        byte[] bytes = readClassFile(internalName + ".class");
+        byte[] transformed;
+        try {
+          transformed = transformer.transform(this, internalName, null, null, bytes);
+        } catch (IllegalClassFormatException e) {
+          throw new ClassNotFoundException(name, e);
+        }
+        if (transformed == null) {
+          transformed = bytes;
+        }
+        c = defineClass(name, transformed, 0, transformed.length);
+      }
+      if (resolve) {
+        resolveClass(c);
+      }
+      return c;
+    }
+  }
+
+  /**
+   * Reads a class file from the parent class loader.
+   *
+   * @param resourceName the resource name of the class file
+   * @return the contents of the class file
+   * @throws ClassNotFoundException if the class file cannot be read
+   */
+  private byte[] readClassFile(String resourceName) throws ClassNotFoundException {
+    try (InputStream in = getParent().getResourceAsStream(resourceName)) {
+      if (in == null) {
+        throw new ClassNotFoundException(resourceName);
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new ClassNotFoundException(resourceName, e);
+    }
+  }
+}
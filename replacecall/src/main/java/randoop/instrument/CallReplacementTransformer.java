@@ -9,6 +9,7 @@ import java.nio.file.Path;
 import java.security.ProtectionDomain;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import org.apache.bcel.Const;
@@ -61,6 +62,15 @@ public class CallReplacementTransformer extends InstructionListUtils
   /** The list of package prefixes (package name + ".") to exclude from transformation. */
   private final Set<String> excludedPackagePrefixes;
 
+  /**
+   * The internal names (such as {@code java/lang/System}) of the classes that declare a method in
+   * {@link #replacementMap}. A class that calls no method of these classes is not transformed.
+   */
+  private final Set<String> replacedOwners;
+
+  /** The cache of transformed classes, or null if there is none. */
+  private final @Nullable TransformedClassCache cache;
+
   /**
    * Create a {@link CallReplacementTransformer} that transforms method calls in classes other than
    * those named in the given exclusion set.
@@ -68,11 +78,19 @@ public class CallReplacementTransformer extends InstructionListUtils
    * @param replacementMap the hash map with method replacements
    * @param excludedPackagePrefixes the period-terminated prefixes for packages from which classes
    *     should not be transformed
+   * @param cache the cache of transformed classes, or null to transform every class anew
    */
   CallReplacementTransformer(
-      Map<MethodSignature, MethodSignature> replacementMap, Set<String> excludedPackagePrefixes) {
+      Map<MethodSignature, MethodSignature> replacementMap,
+      Set<String> excludedPackagePrefixes,
+      @Nullable TransformedClassCache cache) {
     this.replacementMap = replacementMap;
     this.excludedPackagePrefixes = excludedPackagePrefixes;
+    this.replacedOwners = new HashSet<>();
+    for (MethodSignature signature : replacementMap.keySet()) {
+      replacedOwners.add(signature.getClassname().replace('.', '/'));
+    }
+    this.cache = cache;
     // debugInstrument.enabled = ReplaceCallAgent.debug;
   }
 
@@ -83,7 +101,9 @@ public class CallReplacementTransformer extends InstructionListUtils
    * determined by {@link #replacementMap}.
    *
    * <p>Excludes bootloaded classes that are not AWT/Swing classes. Other exclusions are determined
-   * by the set of {@link #excludedPackagePrefixes}.
+   * by the set of {@link #excludedPackagePrefixes}. Classes whose constant pool refers to no method
+   * of a class in {@link #replacedOwners} are not parsed. If there is a {@link #cache}, the result
+   * of transforming a class is looked up there first, and stored there afterward.
    *
    * @see ReplaceCallAgent
    */
@@ -115,6 +135,20 @@ public class CallReplacementTransformer extends InstructionListUtils
       return null;
     }
 
+    if (!ConstantPoolScanner.mayCallMethodOf(classfileBuffer, replacedOwners)) {
+      debug_transform.log(
+          "transform: ignoring class %s, which calls no replaced method%n", className);
+      return null;
+    }
+
+    if (cache != null) {
+      byte[] cached = cache.get(classfileBuffer);
+      if (cached != null) {
+        debug_transform.log("transform: using cached result for class %s%n", className);
+        return cached.length == 0 ? null : cached;
+      }
+    }
+
     debug_transform.log("%ntransform class: ENTER %s%n", className);
 
     // Parse the bytes of the classfile
@@ -140,10 +174,17 @@ public class CallReplacementTransformer extends InstructionListUtils
           javaClass.dump(filepath.toFile());
         }
         debug_transform.log("transform class: EXIT %s transformed%n", className);
-        return javaClass.getBytes();
+        byte[] result = javaClass.getBytes();
+        if (cache != null) {
+          cache.put(classfileBuffer, result);
+        }
+        return result;
       } else {
         debug_transform.log(
             "transform class: EXIT %s not transformed (nothing to replace)%n", className);
+        if (cache != null) {
+          cache.put(classfileBuffer, null);
+        }
         return null;
       }
     } catch (
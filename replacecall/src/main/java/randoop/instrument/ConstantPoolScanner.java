@@ -0,0 +1,153 @@
+package randoop.instrument;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Reads the method owners referenced by a class file directly from the bytes of its constant pool,
+ * without parsing the rest of the class. {@link CallReplacementTransformer} uses it to skip classes
+ * that cannot contain a call to a replaced method, which is most of them.
+ *
+ * <p>A call instruction refers to a {@code CONSTANT_Methodref} or {@code
+ * CONSTANT_InterfaceMethodref} entry, whose class is the class named in the call. So if no such
+ * entry names an owner of a replaced method, the transformer would make no replacement.
+ */
+final class ConstantPoolScanner {
+
+  // The constant pool tags, from the JVM specification, section 4.4.
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_FLOAT = 4;
+  private static final int CONSTANT_LONG = 5;
+  private static final int CONSTANT_DOUBLE = 6;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_STRING = 8;
+  private static final int CONSTANT_FIELDREF = 9;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_INTERFACE_METHODREF = 11;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+  private static final int CONSTANT_METHOD_HANDLE = 15;
+  private static final int CONSTANT_METHOD_TYPE = 16;
+  private static final int CONSTANT_DYNAMIC = 17;
+  private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+  private static final int CONSTANT_MODULE = 19;
+  private static final int CONSTANT_PACKAGE = 20;
+
+  /** Do not instantiate. */
+  private ConstantPoolScanner() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Returns true if the class file may call a method of one of the given classes. Returns true if
+   * the class file cannot be scanned, so that the caller falls back to a full parse.
+   *
+   * @param classfile the bytes of a class file
+   * @param owners the internal names (such as {@code java/lang/System}) of the classes whose
+   *     methods are replaced
+   * @return false if no method reference in the constant pool of the class file has one of the
+   *     given owners, true otherwise
+   */
+  static boolean mayCallMethodOf(byte[] classfile, Set<String> owners) {
+    try {
+      for (String owner : methodOwners(classfile)) {
+        if (owners.contains(owner)) {
+          return true;
+        }
+      }
+      return false;
+    } catch (IOException | RuntimeException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Returns the internal names of the classes named by the method references in the constant pool
+   * of a class file.
+   *
+   * @param classfile the bytes of a class file
+   * @return the internal names of the owners of methods referenced by the class
+   * @throws IOException if the class file is truncated or malformed
+   */
+  static Set<String> methodOwners(byte[] classfile) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(classfile));
+    if (in.readInt() != 0xCAFEBABE) {
+      throw new IOException("not a class file");
+    }
+    in.readUnsignedShort(); // minor version
+    in.readUnsignedShort(); // major version
+    int count = in.readUnsignedShort();
+    // The UTF8 strings, and the name index of each class entry, by constant pool index.
+    @Nullable String[] utf8 = new String[count];
+    int[] classNameIndex = new int[count];
+    // The class index of each method reference, in order.
+    int[] methodClassIndex = new int[count];
+    int methodCount = 0;
+    for (int i = 1; i < count; i++) {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case CONSTANT_UTF8:
+          utf8[i] = in.readUTF();
+          break;
+        case CONSTANT_CLASS:
+          classNameIndex[i] = in.readUnsignedShort();
+          break;
+        case CONSTANT_METHODREF:
+        case CONSTANT_INTERFACE_METHODREF:
+          methodClassIndex[methodCount++] = in.readUnsignedShort();
+          in.readUnsignedShort(); // name and type
+          break;
+        case CONSTANT_STRING:
+        case CONSTANT_METHOD_TYPE:
+        case CONSTANT_MODULE:
+        case CONSTANT_PACKAGE:
+          skip(in, 2);
+          break;
+        case CONSTANT_METHOD_HANDLE:
+          skip(in, 3);
+          break;
+        case CONSTANT_INTEGER:
+        case CONSTANT_FLOAT:
+        case CONSTANT_FIELDREF:
+        case CONSTANT_NAME_AND_TYPE:
+        case CONSTANT_DYNAMIC:
+        case CONSTANT_INVOKE_DYNAMIC:
+          skip(in, 4);
+          break;
+        case CONSTANT_LONG:
+        case CONSTANT_DOUBLE:
+          skip(in, 8);
+          i++; // These entries take two slots.
+          break;
+        default:
+          throw new IOException("unknown constant pool tag " + tag);
+      }
+    }
+    Set<String> result = new HashSet<>();
+    for (int m = 0; m < methodCount; m++) {
+      String name = utf8[classNameIndex[methodClassIndex[m]]];
+      if (name == null) {
+        throw new IOException("bad method reference");
+      }
+      result.add(name);
+    }
+    return result;
+  }
+
+  /**
+   * Skips bytes of the input.
+   *
+   * @param in the input
+   * @param n the number of bytes to skip
+   * @throws IOException if the input has fewer than {@code n} bytes left
+   */
+  private static void skip(DataInputStream in, int n) throws IOException {
+    if (in.skipBytes(n) != n) {
+      throw new IOException("truncated class file");
+    }
+  }
+}
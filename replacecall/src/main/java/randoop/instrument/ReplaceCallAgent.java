@@ -80,6 +80,14 @@ public final class ReplaceCallAgent {
   @Option("file listing packages whose classes should not be transformed")
   public static @MonotonicNonNull Path dont_transform = null;
 
+  /**
+   * A directory in which to cache transformed classes. JVMs that use the same directory and the
+   * same replacements share the cache, so that each class is transformed only once.
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Option("directory in which to cache transformed classes across JVM runs")
+  public static @MonotonicNonNull Path transform_cache_dir = null;
+
   /**
    * Entry point of the replacecall Java agent. Initializes the {@link CallReplacementTransformer}
    * so that when classes are loaded they are transformed to replace calls to methods as specified
@@ -192,7 +200,8 @@ public final class ReplaceCallAgent {
        * argument string is rebuilt.
        */
       MethodReplacements.setAgentPath(getAgentPath());
-      MethodReplacements.setAgentArgs(createAgentArgs(replacementFilePath, exclusionFilePath));
+      MethodReplacements.setAgentArgs(
+          createAgentArgs(replacementFilePath, exclusionFilePath, transform_cache_dir));
 
       /*
       if (debug) {
@@ -209,9 +218,21 @@ public final class ReplaceCallAgent {
           CollectionsPlume.mapList(MethodSignature::toString, replacementMap.keySet());
       MethodReplacements.setReplacedMethods(signatureList);
 
+      // Open the cache of transformed classes, if any. The agent works without it.
+      TransformedClassCache cache = null;
+      if (transform_cache_dir != null) {
+        try {
+          cache = new TransformedClassCache(transform_cache_dir, replacementMap);
+        } catch (IOException e) {
+          System.err.format(
+              "Not caching transformed classes: cannot create directory %s:%n  %s%n",
+              transform_cache_dir, e.getMessage());
+        }
+      }
+
       // Create the transformer and add to the class loader instrumentation
       CallReplacementTransformer transformer =
-          new CallReplacementTransformer(replacementMap, excludedPackagePrefixes);
+          new CallReplacementTransformer(replacementMap, excludedPackagePrefixes, cache);
       transformer.addMapFileShutdownHook();
       instrumentation.addTransformer(transformer);
 
@@ -308,17 +329,21 @@ public final class ReplaceCallAgent {
   }
 
   /**
-   * Creates an argument string using absolute paths for the replacement and exclusion file.
+   * Creates an argument string using absolute paths for the replacement file, the exclusion file,
+   * and the cache directory.
    *
    * <p>This is necessary because the flaky filter in Randoop needs to call the agent using the same
    * files used in the original use of the agent.
    *
    * @param replacementFilePath the {@code Path} for the replacement file
    * @param exclusionFilePath the {@code Path} for the replacement file
+   * @param cacheDirectory the {@code Path} for the transformed-class cache directory
    * @return the argument string for the current run using absolute paths
    */
   private static String createAgentArgs(
-      @Nullable Path replacementFilePath, @Nullable Path exclusionFilePath) {
+      @Nullable Path replacementFilePath,
+      @Nullable Path exclusionFilePath,
+      @Nullable Path cacheDirectory) {
     StringJoiner result = new StringJoiner(",");
     if (replacementFilePath != null) {
       result.add("--replacement-file=" + replacementFilePath.toAbsolutePath());
@@ -326,6 +351,9 @@ public final class ReplaceCallAgent {
     if (exclusionFilePath != null) {
       result.add("--dont-transform=" + exclusionFilePath.toAbsolutePath());
     }
+    if (cacheDirectory != null) {
+      result.add("--transform-cache-dir=" + cacheDirectory.toAbsolutePath());
+    }
     return result.toString();
   }
 
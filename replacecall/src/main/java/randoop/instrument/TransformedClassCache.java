@@ -0,0 +1,163 @@
+package randoop.instrument;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An on-disk cache of the results of {@link CallReplacementTransformer}, shared by every JVM that
+ * runs the agent with the same {@code --transform-cache-dir}. Randoop runs the agent in the JVM
+ * that generates tests and in each JVM that runs tests, and these JVMs load mostly the same
+ * classes, so the cache lets all but the first JVM skip parsing and transforming them.
+ *
+ * <p>An entry is keyed by the SHA-256 hash of the original class bytes, and lives in a
+ * subdirectory named for the hash of the method replacements. An entry holds the transformed class
+ * bytes, or is empty if the transformer left the class unchanged. Entries are written to a
+ * temporary file and then renamed, so a JVM never reads a partly-written entry. Any I/O error
+ * makes the cache behave as if the entry were absent.
+ */
+final class TransformedClassCache {
+
+  /**
+   * The version of the transformation. Change it whenever a change to the transformer would change
+   * its output, so that old entries are not used.
+   */
+  private static final String FORMAT_VERSION = "1";
+
+  /** The number of bytes of the hash of the class bytes that name an entry. */
+  private static final int KEY_LENGTH = 32;
+
+  /** The directory that holds the entries for the current method replacements. */
+  private final Path directory;
+
+  /**
+   * Creates a cache in the given directory, for the given method replacements.
+   *
+   * @param cacheDirectory the cache directory, which is created if it does not exist
+   * @param replacementMap the method replacements that the transformer applies
+   * @throws IOException if the directory cannot be created
+   */
+  TransformedClassCache(Path cacheDirectory, Map<MethodSignature, MethodSignature> replacementMap)
+      throws IOException {
+    this.directory = cacheDirectory.resolve(replacementsHash(replacementMap));
+    Files.createDirectories(directory);
+  }
+
+  /**
+   * Returns the cached result of transforming a class.
+   *
+   * @param classfile the original bytes of the class
+   * @return the transformed bytes, an empty array if the class is not transformed, or null if the
+   *     class is not in the cache
+   */
+  byte @Nullable [] get(byte[] classfile) {
+    try {
+      return Files.readAllBytes(entry(classfile));
+    } catch (IOException e) {
+      // Usually NoSuchFileException: the class has not been transformed before.
+      return null;
+    }
+  }
+
+  /**
+   * Stores the result of transforming a class. Does nothing if the result cannot be written.
+   *
+   * @param classfile the original bytes of the class
+   * @param transformed the transformed bytes, or null if the class is not transformed
+   */
+  void put(byte[] classfile, byte @Nullable [] transformed) {
+    Path entry = entry(classfile);
+    @Nullable Path temp = null;
+    try {
+      temp = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+      Files.write(temp, transformed == null ? new byte[0] : transformed);
+      try {
+        Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+      }
+      temp = null;
+    } catch (IOException e) {
+      // Another JVM may have written the entry, or the disk is full; either way, carry on.
+    } finally {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the path of the entry for a class.
+   *
+   * @param classfile the original bytes of the class
+   * @return the path of the entry for the class
+   */
+  private Path entry(byte[] classfile) {
+    return directory.resolve(toHex(sha256(classfile), KEY_LENGTH));
+  }
+
+  /**
+   * Returns a hash of the method replacements and of {@link #FORMAT_VERSION}. It does not depend
+   * on the order of the map.
+   *
+   * @param replacementMap the method replacements
+   * @return a hexadecimal hash of the replacements
+   */
+  static String replacementsHash(Map<MethodSignature, MethodSignature> replacementMap) {
+    List<String> lines = new ArrayList<>(replacementMap.size());
+    for (Map.Entry<MethodSignature, MethodSignature> entry : replacementMap.entrySet()) {
+      lines.add(entry.getKey() + " " + entry.getValue());
+    }
+    Collections.sort(lines);
+    StringBuilder text = new StringBuilder(FORMAT_VERSION).append('\n');
+    for (String line : lines) {
+      text.append(line).append('\n');
+    }
+    return toHex(sha256(text.toString().getBytes(UTF_8)), 16);
+  }
+
+  /**
+   * Returns the SHA-256 hash of the given bytes.
+   *
+   * @param bytes the bytes to hash
+   * @return the hash
+   */
+  private static byte[] sha256(byte[] bytes) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(bytes);
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new Error("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Returns the hexadecimal representation of a prefix of the given bytes.
+   *
+   * @param bytes the bytes
+   * @param length the number of bytes to represent
+   * @return a string of {@code 2 * length} hexadecimal digits
+   */
+  private static String toHex(byte[] bytes, int length) {
+    StringBuilder result = new StringBuilder(2 * length);
+    for (int i = 0; i < length; i++) {
+      result.append(String.format("%02x", bytes[i]));
+    }
+    return result.toString();
+  }
+}
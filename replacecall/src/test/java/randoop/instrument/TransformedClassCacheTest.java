@@ -0,0 +1,111 @@
+package randoop.instrument;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests for {@link ConstantPoolScanner} and {@link TransformedClassCache}. */
+public class TransformedClassCacheTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  /** A class that calls a method of {@code java.awt.Component}, which is replaced. */
+  static class CallsComponent {
+    void m(java.awt.Component c) {
+      c.setVisible(true);
+    }
+  }
+
+  /** A class that calls only methods of {@code java.lang.String} and {@code StringBuilder}. */
+  static class CallsString {
+    String m(String s) {
+      return new StringBuilder(s.trim()).reverse().toString();
+    }
+  }
+
+  /**
+   * Returns the bytes of the class file of a class.
+   *
+   * @param c the class
+   * @return the bytes of the class file of {@code c}
+   * @throws IOException if the class file cannot be read
+   */
+  private static byte[] classfile(Class<?> c) throws IOException {
+    String resource = "/" + c.getName().replace('.', '/') + ".class";
+    try (InputStream in = c.getResourceAsStream(resource)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  /**
+   * Returns the replacements in the test class replacement file.
+   *
+   * @return the replacements for {@code java.awt.Component}
+   * @throws IOException if the file cannot be read
+   * @throws ReplacementFileException if the file is malformed
+   */
+  private static Map<MethodSignature, MethodSignature> componentReplacements()
+      throws IOException, ReplacementFileException {
+    Path file = Paths.get("build/resources/test/randoop/instrument/classreplacement.txt");
+    return ReplacementFileReader.readReplacements(file);
+  }
+
+  @Test
+  public void testMethodOwners() throws IOException {
+    Set<String> owners = ConstantPoolScanner.methodOwners(classfile(CallsString.class));
+    assertTrue(owners.contains("java/lang/String"));
+    assertTrue(owners.contains("java/lang/StringBuilder"));
+    assertFalse(owners.contains("java/awt/Component"));
+    Set<String> component = Collections.singleton("java/awt/Component");
+    assertTrue(ConstantPoolScanner.mayCallMethodOf(classfile(CallsComponent.class), component));
+    assertFalse(ConstantPoolScanner.mayCallMethodOf(classfile(CallsString.class), component));
+    // A malformed class file is never skipped.
+    assertTrue(ConstantPoolScanner.mayCallMethodOf(new byte[] {1, 2, 3}, component));
+  }
+
+  @Test
+  public void testCache() throws IOException, ReplacementFileException {
+    Map<MethodSignature, MethodSignature> replacements = componentReplacements();
+    TransformedClassCache cache =
+        new TransformedClassCache(folder.getRoot().toPath(), replacements);
+    byte[] first = classfile(CallsComponent.class);
+    byte[] second = classfile(CallsString.class);
+    assertNull(cache.get(first));
+    byte[] transformed = {(byte) 0xCA, (byte) 0xFE};
+    cache.put(first, transformed);
+    cache.put(second, null);
+    assertArrayEquals(transformed, cache.get(first));
+    assertEquals(0, cache.get(second).length);
+
+    // Another JVM sees the same entries, unless its replacements differ.
+    TransformedClassCache sameReplacements =
+        new TransformedClassCache(folder.getRoot().toPath(), componentReplacements());
+    assertArrayEquals(transformed, sameReplacements.get(first));
+    TransformedClassCache noReplacements =
+        new TransformedClassCache(folder.getRoot().toPath(), Collections.emptyMap());
+    assertNull(noReplacements.get(first));
+    assertNotEquals(
+        TransformedClassCache.replacementsHash(replacements),
+        TransformedClassCache.replacementsHash(Collections.emptyMap()));
+  }
+}
@@ -1,5 +1,7 @@
 package randoop;
 
+import randoop.execution.WorkerException;
+
 /** Means that the execution of a statement threw an exception. */
 public class ExceptionalExecution extends ExecutionOutcome {
 
@@ -35,8 +37,14 @@ public class ExceptionalExecution extends ExecutionOutcome {
    */
   @Override
   public String toString() {
-    return String.format(
-        "[ExceptionalExecution, %s, at %s]",
-        exception.getClass().getName(), exception.getStackTrace()[0]);
+    StackTraceElement[] stackTrace = exception.getStackTrace();
+    String className =
+        (exception instanceof WorkerException)
+            ? ((WorkerException) exception).getClassName()
+            : exception.getClass().getName();
+    if (stackTrace.length == 0) {
+      return String.format("[ExceptionalExecution, %s]", className);
+    }
+    return String.format("[ExceptionalExecution, %s, at %s]", className, stackTrace[0]);
   }
 }
@@ -23,7 +23,7 @@ public class RandoopSpecificationError extends Exception {
    *
    * @param message the error message
    */
-  RandoopSpecificationError(String message) {
+  public RandoopSpecificationError(String message) {
     super(message);
   }
 
@@ -47,6 +47,15 @@ public final class ObserverEqArray extends ObjectContract {
     }
   }
 
+  /**
+   * Returns the expected run-time result of calling the observer.
+   *
+   * @return the array that the value is expected to equal
+   */
+  public Object getValue() {
+    return value;
+  }
+
   /**
    * Returns true if the value can be represented as a literal in Java source code. If value is of
    * type Enum or another class that is not built-in, an accessibility check is performed.
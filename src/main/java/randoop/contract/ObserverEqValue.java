@@ -5,6 +5,9 @@ import java.util.Arrays;
 import java.util.Objects;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.util.StringsPlume;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.NormalExecution;
 import randoop.main.RandoopBug;
 import randoop.operation.CallableOperation;
 import randoop.operation.TypedOperation;
@@ -124,8 +127,13 @@ public final class ObserverEqValue extends ObjectContract {
 
   @Override
   public boolean evaluate(Object... objects) throws Throwable {
-    assert objects.length == 0;
-    throw new RuntimeException("not implemented.");
+    assert objects.length == 1;
+    ExecutionOutcome outcome = observer.execute(new Object[] {objects[0]});
+    if (outcome instanceof ExceptionalExecution) {
+      throw ((ExceptionalExecution) outcome).getException();
+    }
+    Object actual = ((NormalExecution) outcome).getRuntimeValue();
+    return Objects.equals(value, actual);
   }
 
   @Override
@@ -0,0 +1,342 @@
+package randoop.execution;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.ExecutionVisitor;
+import randoop.NormalExecution;
+import randoop.condition.RandoopSpecificationError;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceParseException;
+import randoop.test.Check;
+import randoop.test.CheckLines;
+import randoop.test.ErrorRevealingChecks;
+import randoop.test.ExceptionCheck;
+import randoop.test.InvalidValueCheck;
+import randoop.test.RegressionChecks;
+import randoop.test.TestCheckGenerator;
+import randoop.test.TestChecks;
+import randoop.types.PrimitiveTypes;
+
+/**
+ * The worker side of an {@link ExecutionWorkerPool}: a child JVM that executes sequences on behalf
+ * of the generator, so that code under test that exits, crashes, or hangs the JVM does not take
+ * down the generator. See {@link WorkerProtocol} for the protocol.
+ *
+ * <p>A worker is a {@code gentests} process with the same command-line arguments as the generator,
+ * plus {@code --serve-execution-requests}. It sets up test generation just as the generator does,
+ * so it executes each sequence with the same visitors and generates the same checks, including
+ * those for the user-supplied specifications; then it serves requests instead of generating tests.
+ */
+public final class ExecutionWorker {
+
+  /** Do not instantiate. */
+  private ExecutionWorker() {
+    throw new Error("Do not instantiate");
+  }
+
+  /** The stream of requests from the pool, or null before {@link #takeStandardStreams}. */
+  private static @MonotonicNonNull DataInputStream requests = null;
+
+  /** The stream of results to the pool, or null before {@link #takeStandardStreams}. */
+  private static @MonotonicNonNull DataOutputStream results = null;
+
+  /**
+   * Takes the standard input and output of this JVM for the protocol. Afterward, the code under
+   * test sees an empty standard input, and its standard output, like Randoop's, goes to standard
+   * error. Must be called before anything is written to standard output.
+   */
+  public static void takeStandardStreams() {
+    requests = new DataInputStream(new BufferedInputStream(System.in));
+    results =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+    System.setIn(new ByteArrayInputStream(new byte[0]));
+    System.setOut(System.err);
+  }
+
+  /**
+   * Serves requests on the streams taken by {@link #takeStandardStreams} until the pool shuts the
+   * worker down or closes standard input, and then exits the JVM.
+   *
+   * @param visitor the visitor to use while executing each sequence
+   * @param checkGenerator the generator of the checks of each sequence
+   */
+  public static void serveAndExit(ExecutionVisitor visitor, TestCheckGenerator checkGenerator) {
+    DataInputStream in = requests;
+    DataOutputStream out = results;
+    if (in == null || out == null) {
+      throw new IllegalStateException("takeStandardStreams() was not called");
+    }
+    int status = 0;
+    try {
+      serve(in, out, visitor, checkGenerator);
+    } catch (IOException e) {
+      System.err.println("Execution worker: " + e);
+      status = 1;
+    }
+    // Exit even if the code under test started non-daemon threads.
+    System.exit(status);
+  }
+
+  /**
+   * Serves requests until a shutdown request or the end of the input.
+   *
+   * @param in the stream of requests
+   * @param out the stream of results
+   * @param visitor the visitor to use while executing each sequence
+   * @param checkGenerator the generator of the checks of each sequence
+   * @throws IOException if a stream cannot be read or written
+   */
+  static void serve(
+      DataInputStream in,
+      DataOutputStream out,
+      ExecutionVisitor visitor,
+      TestCheckGenerator checkGenerator)
+      throws IOException {
+    while (true) {
+      int tag = in.read();
+      if (tag == -1 || tag == WorkerProtocol.SHUTDOWN) {
+        return;
+      }
+      if (tag != WorkerProtocol.BATCH) {
+        throw new IOException("Unknown request tag " + tag);
+      }
+      for (String sequence : WorkerProtocol.readBatch(in)) {
+        WorkerProtocol.writeResult(out, execute(sequence, visitor, checkGenerator));
+      }
+    }
+  }
+
+  /**
+   * Executes one sequence.
+   *
+   * @param parsableSequence the sequence, in parsable form
+   * @param visitor the visitor to use while executing the sequence
+   * @param checkGenerator the generator of the checks to perform
+   * @return the result of executing the sequence
+   */
+  static WorkerResult execute(
+      String parsableSequence, ExecutionVisitor visitor, TestCheckGenerator checkGenerator) {
+    Sequence sequence;
+    try {
+      sequence = Sequence.parse(parsableSequence);
+    } catch (SequenceParseException e) {
+      System.err.printf("Execution worker: cannot parse sequence: %s%n%s%n", e, parsableSequence);
+      return WorkerResult.incomplete(WorkerResult.Status.PARSE_ERROR);
+    }
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    try {
+      eseq.execute(visitor, checkGenerator);
+    } catch (RandoopSpecificationError e) {
+      // The generator reports the error as it would without workers.
+      return new WorkerResult(
+          WorkerResult.Status.COMPLETED,
+          new ArrayList<>(),
+          WorkerResult.ChecksKind.SPECIFICATION_ERROR,
+          e.getMessage(),
+          new ArrayList<>(),
+          0);
+    }
+
+    List<WorkerResult.StatementResult> statements = new ArrayList<>(eseq.size());
+    for (int i = 0; i < eseq.size(); i++) {
+      statements.add(statementResult(eseq.getResult(i)));
+    }
+
+    WorkerResult.ChecksKind checksKind;
+    @Nullable String checks = null;
+    if (!eseq.checksGenerated()) {
+      checksKind = WorkerResult.ChecksKind.NONE;
+    } else if (eseq.hasFailure()) {
+      checks = failureChecks(eseq);
+      checksKind =
+          (checks == null)
+              ? WorkerResult.ChecksKind.UNTRANSFERABLE
+              : WorkerResult.ChecksKind.FAILURE;
+    } else if (eseq.hasInvalidBehavior()) {
+      checksKind = WorkerResult.ChecksKind.INVALID;
+      checks = invalidChecks(eseq);
+    } else {
+      checks = regressionChecks(eseq);
+      checksKind =
+          (checks == null)
+              ? WorkerResult.ChecksKind.UNTRANSFERABLE
+              : WorkerResult.ChecksKind.REGRESSION;
+    }
+
+    List<String> coveredClasses = new ArrayList<>();
+    for (Class<?> c : eseq.getCoveredClasses()) {
+      coveredClasses.add(c.getName());
+    }
+    return new WorkerResult(
+        WorkerResult.Status.COMPLETED,
+        statements,
+        checksKind,
+        checks,
+        coveredClasses,
+        eseq.exectime);
+  }
+
+  /**
+   * Returns the result of one statement.
+   *
+   * @param outcome the outcome of executing the statement
+   * @return the result of the statement
+   */
+  private static WorkerResult.StatementResult statementResult(ExecutionOutcome outcome) {
+    if (outcome instanceof NormalExecution) {
+      Object value = ((NormalExecution) outcome).getRuntimeValue();
+      String className = "";
+      @Nullable String transferred = null;
+      int arrayLength = -1;
+      if (value == null
+          || value instanceof String
+          || PrimitiveTypes.isBoxedPrimitive(value.getClass())) {
+        transferred = CheckLines.encodeValue(value);
+      }
+      if (value != null) {
+        className = value.getClass().getName();
+        if (value.getClass().isArray()) {
+          arrayLength = Array.getLength(value);
+        }
+      }
+      return WorkerResult.StatementResult.normal(
+          summarize(value), outcome.getExecutionTimeNanos(), className, transferred, arrayLength);
+    } else if (outcome instanceof ExceptionalExecution) {
+      Throwable e = ((ExceptionalExecution) outcome).getException();
+      @Nullable String message = null;
+      boolean messageThrows = false;
+      try {
+        message = e.getMessage();
+      } catch (Throwable t) {
+        messageThrows = true;
+      }
+      Class<?> c = e.getClass();
+      StackTraceElement[] stackTrace = e.getStackTrace();
+      return WorkerResult.StatementResult.exception(
+          outcome.getExecutionTimeNanos(),
+          c.getName(),
+          c.getCanonicalName(),
+          c.isAnonymousClass(),
+          message,
+          messageThrows,
+          Arrays.asList(stackTrace)
+              .subList(0, Math.min(stackTrace.length, WorkerProtocol.MAX_STACK_FRAMES)));
+    } else {
+      return WorkerResult.StatementResult.notExecuted();
+    }
+  }
+
+  /**
+   * Returns the transferred form of the regression checks of a sequence, in the format of {@link
+   * CheckLines}, or null if they cannot be transferred: if one of them cannot be written, or does
+   * not read back as the same check.
+   *
+   * @param eseq a sequence whose checks have been generated
+   * @return the transferred form of its regression checks, or null
+   */
+  private static @Nullable String regressionChecks(ExecutableSequence eseq) {
+    TestChecks<?> testChecks = eseq.getChecks();
+    if (!(testChecks instanceof RegressionChecks)) {
+      return null;
+    }
+    RegressionChecks checks = (RegressionChecks) testChecks;
+    String lines = CheckLines.write(checks);
+    if (lines == null) {
+      return null;
+    }
+    try {
+      return CheckLines.read(lines, eseq).equals(checks) ? lines : null;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the transferred form of the failing check of an error-revealing sequence, in the format
+   * of {@link CheckLines#writeFailure}, or null if it cannot be transferred: if it cannot be
+   * written, or does not read back as the same check.
+   *
+   * @param eseq a sequence that reveals a failure
+   * @return the transferred form of its failing check, or null
+   */
+  private static @Nullable String failureChecks(ExecutableSequence eseq) {
+    TestChecks<?> testChecks = eseq.getChecks();
+    if (!(testChecks instanceof ErrorRevealingChecks)) {
+      return null;
+    }
+    ErrorRevealingChecks checks = (ErrorRevealingChecks) testChecks;
+    String line = CheckLines.writeFailure(checks);
+    if (line == null) {
+      return null;
+    }
+    try {
+      return CheckLines.readFailure(line, eseq).equals(checks) ? line : null;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the transferred form of the invalid checks of a sequence: the index of the statement
+   * that behaved invalidly and, if it threw an exception, a tab and the name of the class that the
+   * test catches.
+   *
+   * @param eseq a sequence that has invalid behavior
+   * @return the transferred form of its invalid checks
+   */
+  private static String invalidChecks(ExecutableSequence eseq) {
+    for (Check check : eseq.getChecks().checks()) {
+      if (check instanceof ExceptionCheck) {
+        ExceptionCheck exceptionCheck = (ExceptionCheck) check;
+        return exceptionCheck.getStatementIndex() + "\t" + exceptionCheck.getCatchClassName();
+      } else if (check instanceof InvalidValueCheck) {
+        return Integer.toString(((InvalidValueCheck) check).getIndex());
+      }
+    }
+    throw new IllegalArgumentException("No invalid check in " + eseq.getChecks());
+  }
+
+  /**
+   * Returns a summary of a run-time value. To avoid running more code under test, this never calls
+   * a method of a value whose class might be under test.
+   *
+   * @param value a run-time value
+   * @return the value if it is null, a primitive, or a string; otherwise its run-time class
+   */
+  static String summarize(@Nullable Object value) {
+    if (value == null) {
+      return "null";
+    }
+    Class<?> c = value.getClass();
+    String result;
+    if (value instanceof String || PrimitiveTypes.isBoxedPrimitive(c)) {
+      result = value.toString();
+    } else if (value instanceof Enum) {
+      Enum<?> e = (Enum<?>) value;
+      result = e.getDeclaringClass().getName() + "." + e.name();
+    } else if (c.isArray()) {
+      result = c.getComponentType().getName() + "[" + Array.getLength(value) + "]";
+    } else {
+      result = c.getName();
+    }
+    if (result.length() > WorkerProtocol.MAX_SUMMARY_LENGTH) {
+      result = result.substring(0, WorkerProtocol.MAX_SUMMARY_LENGTH);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,323 @@
+package randoop.execution;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.main.RandoopBug;
+import randoop.sequence.Sequence;
+import randoop.util.Log;
+
+/**
+ * A pool of long-lived child JVMs, called execution workers, that execute sequences outside the
+ * generator's JVM. Code under test that calls {@code System.exit}, crashes the JVM, or loops forever
+ * kills or hangs only a worker; the pool reports the sequence that did so, and transparently
+ * restarts the worker.
+ *
+ * <p>Sequences are sent to the workers in batches, in parsable form, over the binary protocol of
+ * {@link WorkerProtocol}. A batch passed to {@link #execute(List)} is divided among the workers,
+ * which execute their parts in parallel. A worker's results stream back one by one, so a single
+ * round trip amortizes the cost of the pipes over the whole batch.
+ *
+ * <p>Each worker is started by a command that the caller supplies: a {@code gentests} process
+ * that serves requests, as described in {@link ExecutionWorker}. The standard output and error of
+ * the code under test go to a log file for each worker.
+ */
+public final class ExecutionWorkerPool implements AutoCloseable {
+
+  /** The workers. */
+  private final List<Worker> workers;
+
+  /** Runs the parts of a batch on the workers in parallel. */
+  private final ExecutorService executor;
+
+  /** Kills workers that take too long to execute a sequence. */
+  private final ScheduledExecutorService watchdog;
+
+  /** How long a worker may take to execute one sequence, in milliseconds. */
+  private final long timeoutMillis;
+
+  /** Kills the workers if this JVM exits without closing the pool. */
+  private final Thread shutdownHook;
+
+  /** The command that starts a worker. */
+  private final List<String> workerCommand;
+
+  /** The number of times a worker has been restarted. */
+  private final AtomicInteger numRestarts = new AtomicInteger();
+
+  /**
+   * Creates a pool. Each worker is started when it is first needed.
+   *
+   * @param numWorkers the number of workers; must be positive
+   * @param timeoutMillis how long a worker may take to execute one sequence, in milliseconds
+   * @param workerCommand the command that starts a worker
+   */
+  public ExecutionWorkerPool(int numWorkers, long timeoutMillis, List<String> workerCommand) {
+    if (numWorkers <= 0) {
+      throw new IllegalArgumentException("numWorkers must be positive: " + numWorkers);
+    }
+    this.timeoutMillis = timeoutMillis;
+    this.workerCommand = new ArrayList<>(workerCommand);
+    this.workers = new ArrayList<>(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      workers.add(new Worker(i));
+    }
+    this.executor = Executors.newFixedThreadPool(numWorkers);
+    this.watchdog = Executors.newSingleThreadScheduledExecutor();
+    this.shutdownHook = new Thread(this::killAll);
+    Runtime.getRuntime().addShutdownHook(shutdownHook);
+  }
+
+  /**
+   * Executes a batch of sequences, dividing it among the workers.
+   *
+   * @param sequences the sequences to execute
+   * @return the results, in the same order as the sequences
+   */
+  public List<WorkerResult> execute(List<Sequence> sequences) {
+    int numParts = Math.min(workers.size(), sequences.size());
+    List<Future<List<WorkerResult>>> parts = new ArrayList<>(numParts);
+    for (int i = 0; i < numParts; i++) {
+      // Contiguous parts keep the results in order when they are concatenated.
+      int from = (int) ((long) sequences.size() * i / numParts);
+      int to = (int) ((long) sequences.size() * (i + 1) / numParts);
+      List<String> part = new ArrayList<>(to - from);
+      for (Sequence sequence : sequences.subList(from, to)) {
+        part.add(sequence.toParsableString());
+      }
+      Worker worker = workers.get(i);
+      parts.add(executor.submit(() -> worker.run(part)));
+    }
+    List<WorkerResult> result = new ArrayList<>(sequences.size());
+    for (Future<List<WorkerResult>> part : parts) {
+      try {
+        result.addAll(part.get());
+      } catch (InterruptedException | ExecutionException e) {
+        throw new RandoopBug("Error executing sequences in execution workers", e);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of workers, which is the number of sequences that the pool can execute at
+   * once.
+   *
+   * @return the number of workers
+   */
+  public int numWorkers() {
+    return workers.size();
+  }
+
+  /**
+   * Returns the number of times a worker has been restarted, because it crashed or timed out.
+   *
+   * @return the number of worker restarts
+   */
+  public int numRestarts() {
+    return numRestarts.get();
+  }
+
+  /** Asks the workers to exit, and kills any that do not. */
+  @Override
+  public void close() {
+    for (Worker worker : workers) {
+      worker.shutDown();
+    }
+    executor.shutdownNow();
+    watchdog.shutdownNow();
+    try {
+      Runtime.getRuntime().removeShutdownHook(shutdownHook);
+    } catch (IllegalStateException e) {
+      // This JVM is already shutting down, and the hook will kill the workers.
+    }
+  }
+
+  /** Kills every worker. */
+  private void killAll() {
+    for (Worker worker : workers) {
+      worker.kill();
+    }
+  }
+
+  /** One worker JVM, which is started when first needed and restarted when it dies. */
+  private final class Worker {
+
+    /** The index of this worker in the pool, used in its log file name. */
+    private final int index;
+
+    /** The worker process, or null if it is not running. */
+    private @Nullable Process process = null;
+
+    /** The stream of results from the worker process. */
+    private @Nullable DataInputStream in = null;
+
+    /** The stream of requests to the worker process. */
+    private @Nullable DataOutputStream out = null;
+
+    /** The file to which the standard output and error of the worker process are appended. */
+    private @Nullable File logFile = null;
+
+    /** The number of results read so far; used to tell which read a watchdog timer belongs to. */
+    private final AtomicLong numReads = new AtomicLong();
+
+    /** True if the watchdog killed the worker process. */
+    private volatile boolean timedOut = false;
+
+    /**
+     * Creates a Worker, without starting its process.
+     *
+     * @param index the index of this worker in the pool
+     */
+    Worker(int index) {
+      this.index = index;
+    }
+
+    /**
+     * Executes a batch of sequences. If the worker dies, the sequence it was executing is reported
+     * as crashed or timed out, and the rest of the batch is sent to a new worker process.
+     *
+     * @param batch the sequences, in parsable form
+     * @return the results, in the same order as the sequences
+     */
+    synchronized List<WorkerResult> run(List<String> batch) {
+      List<WorkerResult> results = new ArrayList<>(batch.size());
+      while (results.size() < batch.size()) {
+        List<String> remaining = batch.subList(results.size(), batch.size());
+        boolean newProcess = (process == null);
+        if (newProcess) {
+          start();
+        }
+        DataInputStream fromWorker = in;
+        DataOutputStream toWorker = out;
+        if (fromWorker == null || toWorker == null) {
+          throw new RandoopBug("Execution worker was not started");
+        }
+        try {
+          WorkerProtocol.writeBatch(toWorker, remaining);
+        } catch (IOException e) {
+          if (newProcess) {
+            throw new RandoopBug("Unable to send sequences to a new execution worker", e);
+          }
+          // The worker died between batches, for example in a thread started by an earlier
+          // sequence. No sequence of this batch is to blame.
+          restart();
+          continue;
+        }
+        for (int i = 0; i < remaining.size(); i++) {
+          long readNumber = numReads.get();
+          ScheduledFuture<?> timer =
+              watchdog.schedule(() -> timeOut(readNumber), timeoutMillis, TimeUnit.MILLISECONDS);
+          WorkerResult result;
+          try {
+            result = WorkerProtocol.readResult(fromWorker);
+          } catch (IOException e) {
+            result =
+                WorkerResult.incomplete(
+                    timedOut ? WorkerResult.Status.TIMED_OUT : WorkerResult.Status.CRASHED);
+          } finally {
+            numReads.incrementAndGet();
+            timer.cancel(false);
+          }
+          results.add(result);
+          if (!result.isSafe()) {
+            Log.logPrintf(
+                "Execution worker %d: %s for%n%s%n", index, result.status, remaining.get(i));
+            restart();
+            break;
+          }
+        }
+      }
+      return results;
+    }
+
+    /**
+     * Kills the worker process if it is still executing the sequence of the given read.
+     *
+     * @param readNumber the value of {@link #numReads} when the timer was started
+     */
+    private void timeOut(long readNumber) {
+      Process p = process;
+      if (p != null && numReads.get() == readNumber) {
+        timedOut = true;
+        p.destroyForcibly();
+      }
+    }
+
+    /** Starts the worker process. */
+    private void start() {
+      List<String> command = workerCommand;
+      try {
+        if (logFile == null) {
+          logFile = File.createTempFile("randoop-worker-" + index + "-", ".log");
+          logFile.deleteOnExit();
+        }
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectError(ProcessBuilder.Redirect.appendTo(logFile));
+        Process p = builder.start();
+        process = p;
+        in = new DataInputStream(new BufferedInputStream(p.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(p.getOutputStream()));
+      } catch (IOException e) {
+        throw new RandoopBug("Unable to start execution worker: " + command, e);
+      }
+      timedOut = false;
+    }
+
+    /** Kills the worker process; the next batch starts a new one. */
+    private void restart() {
+      kill();
+      numRestarts.incrementAndGet();
+    }
+
+    /** Kills the worker process, if it is running. */
+    private void kill() {
+      Process p = process;
+      if (p != null) {
+        p.destroyForcibly();
+      }
+      process = null;
+      in = null;
+      out = null;
+    }
+
+    /** Asks the worker process to exit, and kills it if it does not exit promptly. */
+    synchronized void shutDown() {
+      Process p = process;
+      DataOutputStream toWorker = out;
+      if (p == null || toWorker == null) {
+        return;
+      }
+      try {
+        toWorker.writeByte(WorkerProtocol.SHUTDOWN);
+        toWorker.flush();
+        if (!p.waitFor(1, TimeUnit.SECONDS)) {
+          p.destroyForcibly();
+        }
+      } catch (IOException e) {
+        p.destroyForcibly();
+      } catch (InterruptedException e) {
+        p.destroyForcibly();
+        Thread.currentThread().interrupt();
+      }
+      process = null;
+      in = null;
+      out = null;
+    }
+  }
+}
@@ -2,8 +2,11 @@ package randoop.execution;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import org.apache.commons.exec.CommandLine;
@@ -37,7 +40,7 @@ public final class RunCommand {
    * @return the {@link Status} capturing the outcome of executing the command
    * @throws CommandException if there is an error running the command
    */
-  static Status run(List<String> command, Path workingDirectory, long timeoutMillis) {
+  public static Status run(List<String> command, Path workingDirectory, long timeoutMillis) {
 
     String[] args = command.toArray(new String[0]);
     CommandLine cmdLine = new CommandLine(args[0]); // constructor requires executable name
@@ -96,6 +99,22 @@ public final class RunCommand {
     return new Status(command, exitValue, timedOut, standardOutputLines, errorOutputLines);
   }
 
+  /**
+   * Returns the beginning of a command that runs a class in a new JVM that is like this one: it has
+   * the same Java executable, the same JVM arguments (such as heap size and Java agents), and the
+   * same classpath. The caller appends the name of the main class and its arguments.
+   *
+   * @return the command to start a JVM like this one
+   */
+  public static List<String> javaCommand() {
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+    command.add("-classpath");
+    command.add(Globals.getClassPath());
+    return command;
+  }
+
   /**
    * Represents the status of a process that has been executed. Captures the command, exit status,
    * and lines written to standard output and error.
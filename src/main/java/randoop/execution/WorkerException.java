@@ -0,0 +1,121 @@
+package randoop.execution;
+
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Stands in, in Randoop's JVM, for an exception that a statement threw in an execution worker (see
+ * {@link ExecutionWorkerPool}). It records what Randoop needs to write a test that expects the
+ * exception, the class of the exception and its message, and the top frames of its stack trace,
+ * which identify the failure of an error-revealing test.
+ */
+public final class WorkerException extends RuntimeException {
+
+  /** Unique identifier for serialization. If you add or remove fields, change this number. */
+  private static final long serialVersionUID = 20261020;
+
+  /** The name of the class of the exception, as returned by {@link Class#getName()}. */
+  private final String className;
+
+  /** The canonical name of the class of the exception, or null if it has none. */
+  private final @Nullable String canonicalName;
+
+  /** True if the class of the exception is anonymous. */
+  private final boolean anonymous;
+
+  /** True if {@code getMessage()} of the exception threw an exception. */
+  private final boolean messageThrows;
+
+  /**
+   * Creates a WorkerException with the stack trace of the exception in the worker.
+   *
+   * @param className the name of the class of the exception
+   * @param canonicalName the canonical name of the class of the exception, or null if it has none
+   * @param anonymous true if the class of the exception is anonymous
+   * @param message the message of the exception
+   * @param messageThrows true if {@code getMessage()} of the exception threw an exception, in which
+   *     case {@code message} is ignored
+   * @param stackTrace the top frames of the stack trace of the exception
+   */
+  WorkerException(
+      String className,
+      @Nullable String canonicalName,
+      boolean anonymous,
+      @Nullable String message,
+      boolean messageThrows,
+      List<StackTraceElement> stackTrace) {
+    super(message, null, false, true);
+    this.className = className;
+    this.canonicalName = canonicalName;
+    this.anonymous = anonymous;
+    this.messageThrows = messageThrows;
+    setStackTrace(stackTrace.toArray(new StackTraceElement[0]));
+  }
+
+  /**
+   * Does not record the stack of this JVM: the stack trace is the one from the worker.
+   *
+   * @return this exception
+   */
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+
+  /**
+   * Returns the name of the class of the exception.
+   *
+   * @return the name of the class of the exception, as returned by {@link Class#getName()}
+   */
+  public String getClassName() {
+    return className;
+  }
+
+  /**
+   * Returns the canonical name of the class of the exception.
+   *
+   * @return the canonical name of the class of the exception, or null if it has none
+   */
+  public @Nullable String getCanonicalName() {
+    return canonicalName;
+  }
+
+  /**
+   * Returns true if the class of the exception is anonymous.
+   *
+   * @return true if the class of the exception is anonymous
+   */
+  public boolean isAnonymous() {
+    return anonymous;
+  }
+
+  /**
+   * Returns the message of the exception.
+   *
+   * @return the message of the exception
+   * @throws IllegalStateException if {@code getMessage()} of the exception threw an exception in
+   *     the worker
+   */
+  @Override
+  public @Nullable String getMessage() {
+    if (messageThrows) {
+      throw new IllegalStateException("getMessage() of " + className + " threw an exception");
+    }
+    return super.getMessage();
+  }
+
+  /**
+   * Returns true if {@code getMessage()} of the exception threw an exception in the worker.
+   *
+   * @return true if the message of the exception is not known
+   */
+  boolean messageThrows() {
+    return messageThrows;
+  }
+
+  @Override
+  public String toString() {
+    String message = messageThrows ? null : super.getMessage();
+    return message == null ? className : className + ": " + message;
+  }
+}
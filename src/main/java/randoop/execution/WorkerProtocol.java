@@ -0,0 +1,223 @@
+package randoop.execution;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The binary protocol between an {@link ExecutionWorkerPool} and an {@link ExecutionWorker}.
+ *
+ * <p>The pool writes a batch: {@link #BATCH}, the number of sequences, and each sequence in the
+ * format of {@link randoop.sequence.Sequence#toParsableString()}. The worker reads the whole batch
+ * before executing any of it, so neither side can block on a full pipe while the other is writing.
+ * Then the worker writes one result per sequence, in order, flushing after each one; if the worker
+ * dies, the results it already wrote identify the sequence that killed it. The pool ends the
+ * session by writing {@link #SHUTDOWN}.
+ *
+ * <p>Strings are written as a length followed by UTF-8 bytes, because {@link
+ * DataOutputStream#writeUTF} is limited to 64K bytes.
+ */
+final class WorkerProtocol {
+
+  /** Tag of a request that contains a batch of sequences. */
+  static final byte BATCH = 1;
+
+  /** Tag of a request that asks the worker to exit. */
+  static final byte SHUTDOWN = 2;
+
+  /** The maximum length of a value summary, in characters. */
+  static final int MAX_SUMMARY_LENGTH = 200;
+
+  /** The maximum number of stack frames sent for an exception. */
+  static final int MAX_STACK_FRAMES = 50;
+
+  /** Do not instantiate. */
+  private WorkerProtocol() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Writes a batch of sequences.
+   *
+   * @param out the stream to the worker
+   * @param parsableSequences the sequences, in parsable form
+   * @throws IOException if the stream cannot be written
+   */
+  static void writeBatch(DataOutputStream out, List<String> parsableSequences)
+      throws IOException {
+    out.writeByte(BATCH);
+    out.writeInt(parsableSequences.size());
+    for (String sequence : parsableSequences) {
+      writeString(out, sequence);
+    }
+    out.flush();
+  }
+
+  /**
+   * Reads the sequences of a batch, after its {@link #BATCH} tag has been read.
+   *
+   * @param in the stream from the pool
+   * @return the sequences, in parsable form
+   * @throws IOException if the stream cannot be read
+   */
+  static List<String> readBatch(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    List<String> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(readString(in));
+    }
+    return result;
+  }
+
+  /**
+   * Writes the result of one sequence.
+   *
+   * @param out the stream to the pool
+   * @param result the result
+   * @throws IOException if the stream cannot be written
+   */
+  static void writeResult(DataOutputStream out, WorkerResult result) throws IOException {
+    out.writeByte(result.status.ordinal());
+    out.writeInt(result.statements.size());
+    for (WorkerResult.StatementResult statement : result.statements) {
+      out.writeByte(statement.kind.ordinal());
+      writeString(out, statement.summary);
+      out.writeLong(statement.executionTimeNanos);
+      writeString(out, statement.className);
+      writeNullableString(out, statement.value);
+      out.writeInt(statement.arrayLength);
+      writeNullableString(out, statement.canonicalName);
+      out.writeBoolean(statement.anonymous);
+      writeNullableString(out, statement.message);
+      out.writeBoolean(statement.messageThrows);
+      out.writeInt(statement.stackTrace.size());
+      for (StackTraceElement frame : statement.stackTrace) {
+        writeString(out, frame.getClassName());
+        writeString(out, frame.getMethodName());
+        writeNullableString(out, frame.getFileName());
+        out.writeInt(frame.getLineNumber());
+      }
+    }
+    out.writeByte(result.checksKind.ordinal());
+    writeNullableString(out, result.checks);
+    out.writeInt(result.coveredClasses.size());
+    for (String className : result.coveredClasses) {
+      writeString(out, className);
+    }
+    out.writeLong(result.executionTimeNanos);
+    out.flush();
+  }
+
+  /**
+   * Reads the result of one sequence.
+   *
+   * @param in the stream from the worker
+   * @return the result
+   * @throws IOException if the stream cannot be read, for example because the worker exited
+   */
+  static WorkerResult readResult(DataInputStream in) throws IOException {
+    WorkerResult.Status status = WorkerResult.Status.values()[in.readByte()];
+    int size = in.readInt();
+    List<WorkerResult.StatementResult> statements = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      WorkerResult.Kind kind = WorkerResult.Kind.values()[in.readByte()];
+      String summary = readString(in);
+      long nanos = in.readLong();
+      String className = readString(in);
+      @Nullable String value = readNullableString(in);
+      int arrayLength = in.readInt();
+      @Nullable String canonicalName = readNullableString(in);
+      boolean anonymous = in.readBoolean();
+      @Nullable String message = readNullableString(in);
+      boolean messageThrows = in.readBoolean();
+      int numFrames = in.readInt();
+      List<StackTraceElement> stackTrace = new ArrayList<>(numFrames);
+      for (int j = 0; j < numFrames; j++) {
+        String declaringClass = readString(in);
+        String methodName = readString(in);
+        @Nullable String fileName = readNullableString(in);
+        int lineNumber = in.readInt();
+        stackTrace.add(new StackTraceElement(declaringClass, methodName, fileName, lineNumber));
+      }
+      statements.add(
+          new WorkerResult.StatementResult(
+              kind,
+              summary,
+              nanos,
+              className,
+              value,
+              arrayLength,
+              canonicalName,
+              anonymous,
+              message,
+              messageThrows,
+              stackTrace));
+    }
+    WorkerResult.ChecksKind checksKind = WorkerResult.ChecksKind.values()[in.readByte()];
+    @Nullable String checks = readNullableString(in);
+    int numCovered = in.readInt();
+    List<String> coveredClasses = new ArrayList<>(numCovered);
+    for (int i = 0; i < numCovered; i++) {
+      coveredClasses.add(readString(in));
+    }
+    long executionTimeNanos = in.readLong();
+    return new WorkerResult(
+        status, statements, checksKind, checks, coveredClasses, executionTimeNanos);
+  }
+
+  /**
+   * Writes a string of any length.
+   *
+   * @param out the stream
+   * @param s the string
+   * @throws IOException if the stream cannot be written
+   */
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a string written by {@link #writeString}.
+   *
+   * @param in the stream
+   * @return the string
+   * @throws IOException if the stream cannot be read
+   */
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes a string that may be null.
+   *
+   * @param out the stream
+   * @param s the string, or null
+   * @throws IOException if the stream cannot be written
+   */
+  private static void writeNullableString(DataOutputStream out, @Nullable String s)
+      throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) {
+      writeString(out, s);
+    }
+  }
+
+  /**
+   * Reads a string written by {@link #writeNullableString}.
+   *
+   * @param in the stream
+   * @return the string, or null
+   * @throws IOException if the stream cannot be read
+   */
+  private static @Nullable String readNullableString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? readString(in) : null;
+  }
+}
@@ -0,0 +1,474 @@
+package randoop.execution;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.NormalExecution;
+import randoop.NotExecuted;
+import randoop.condition.RandoopSpecificationError;
+import randoop.reflection.TypeNames;
+import randoop.sequence.ExecutableSequence;
+import randoop.test.CheckLines;
+import randoop.test.InvalidChecks;
+import randoop.test.InvalidExceptionCheck;
+import randoop.test.InvalidValueCheck;
+
+/**
+ * The result of executing one sequence in an execution worker (see {@link ExecutionWorkerPool}).
+ * Because the values a sequence creates live in the worker's JVM, a result describes them rather
+ * than containing them: it has the values that are null, primitives, or strings, and the class of
+ * each other value. It also has the checks that the worker generated, if they can be transferred,
+ * so that {@link #applyTo} can record the whole outcome in Randoop's JVM without executing the
+ * sequence there. A sequence whose checks cannot be transferred is discarded; it is never executed
+ * in Randoop's JVM.
+ */
+public final class WorkerResult {
+
+  /** How the execution of a sequence in a worker ended. */
+  public enum Status {
+    /** The worker executed the sequence and reported the outcome of each statement. */
+    COMPLETED,
+    /** The worker could not parse the sequence, so it did not execute it. */
+    PARSE_ERROR,
+    /** The worker JVM exited, or its protocol stream broke, while executing the sequence. */
+    CRASHED,
+    /** The worker did not finish the sequence in time, and was killed. */
+    TIMED_OUT
+  }
+
+  /** The kind of outcome of one statement. */
+  public enum Kind {
+    /** The statement returned normally. */
+    NORMAL,
+    /** The statement threw an exception. */
+    EXCEPTION,
+    /** The statement was not executed. */
+    NOT_EXECUTED
+  }
+
+  /** What the checks that the worker generated for a sequence are, and whether they transfer. */
+  public enum ChecksKind {
+    /** The worker generated no checks, because the value of the last statement is too large. */
+    NONE,
+    /** Regression checks, transferred in the format of {@link CheckLines}. */
+    REGRESSION,
+    /**
+     * Checks for invalid behavior, transferred as the index of the statement that behaved invalidly
+     * and, if it threw an exception, a tab and the name of the exception class.
+     */
+    INVALID,
+    /**
+     * Checks that reveal a failure, transferred in the format of {@link CheckLines#writeFailure}.
+     */
+    FAILURE,
+    /**
+     * Checks that cannot be written by {@link CheckLines}, such as a failed postcondition of a
+     * specification; not transferred.
+     */
+    UNTRANSFERABLE,
+    /**
+     * No checks, because evaluating a specification failed; transferred as the message of the
+     * {@link RandoopSpecificationError}.
+     */
+    SPECIFICATION_ERROR
+  }
+
+  /** The outcome of one statement of a sequence executed in a worker. */
+  public static final class StatementResult {
+
+    /** The kind of outcome. */
+    public final Kind kind;
+
+    /**
+     * A summary of the outcome. For a normal execution, the value if it is null, a primitive, or a
+     * string, or else the name of its run-time class (and, for an array, its length). For an
+     * exception, the name of the exception class. Empty if the statement was not executed.
+     */
+    public final String summary;
+
+    /** The execution time of the statement, in nanoseconds. */
+    public final long executionTimeNanos;
+
+    /**
+     * The name of the run-time class of the value or of the exception. Empty if the value is null
+     * or the statement was not executed.
+     */
+    final String className;
+
+    /**
+     * For a normal execution whose value is null, a primitive, or a string, the value in the format
+     * of {@link CheckLines#encodeValue}; otherwise null.
+     */
+    final @Nullable String value;
+
+    /** For a normal execution whose value is an array, the length of the array; otherwise -1. */
+    final int arrayLength;
+
+    /** For an exception, the canonical name of its class, or null if it has none. */
+    final @Nullable String canonicalName;
+
+    /** For an exception, true if its class is anonymous. */
+    final boolean anonymous;
+
+    /** For an exception, its message. */
+    final @Nullable String message;
+
+    /** For an exception, true if {@code getMessage()} threw an exception. */
+    final boolean messageThrows;
+
+    /**
+     * For an exception, the top {@link WorkerProtocol#MAX_STACK_FRAMES} frames of its stack trace;
+     * otherwise empty.
+     */
+    final List<StackTraceElement> stackTrace;
+
+    /**
+     * Creates a StatementResult.
+     *
+     * @param kind the kind of outcome
+     * @param summary a summary of the outcome
+     * @param executionTimeNanos the execution time, in nanoseconds
+     * @param className the name of the run-time class of the value or exception, or empty
+     * @param value the value of a normal execution, if it can be transferred
+     * @param arrayLength the length of the value of a normal execution, if it is an array
+     * @param canonicalName the canonical name of the class of an exception
+     * @param anonymous true if the class of an exception is anonymous
+     * @param message the message of an exception
+     * @param messageThrows true if {@code getMessage()} of an exception threw an exception
+     * @param stackTrace the top frames of the stack trace of an exception
+     */
+    StatementResult(
+        Kind kind,
+        String summary,
+        long executionTimeNanos,
+        String className,
+        @Nullable String value,
+        int arrayLength,
+        @Nullable String canonicalName,
+        boolean anonymous,
+        @Nullable String message,
+        boolean messageThrows,
+        List<StackTraceElement> stackTrace) {
+      this.kind = kind;
+      this.summary = summary;
+      this.executionTimeNanos = executionTimeNanos;
+      this.className = className;
+      this.value = value;
+      this.arrayLength = arrayLength;
+      this.canonicalName = canonicalName;
+      this.anonymous = anonymous;
+      this.message = message;
+      this.messageThrows = messageThrows;
+      this.stackTrace = stackTrace;
+    }
+
+    /**
+     * Returns the result of a statement that returned normally.
+     *
+     * @param summary a summary of the value
+     * @param executionTimeNanos the execution time, in nanoseconds
+     * @param className the name of the run-time class of the value, or empty if it is null
+     * @param value the value, if it is null, a primitive, or a string; otherwise null
+     * @param arrayLength the length of the value if it is an array, otherwise -1
+     * @return the result of the statement
+     */
+    static StatementResult normal(
+        String summary,
+        long executionTimeNanos,
+        String className,
+        @Nullable String value,
+        int arrayLength) {
+      return new StatementResult(
+          Kind.NORMAL,
+          summary,
+          executionTimeNanos,
+          className,
+          value,
+          arrayLength,
+          null,
+          false,
+          null,
+          false,
+          Collections.emptyList());
+    }
+
+    /**
+     * Returns the result of a statement that threw an exception.
+     *
+     * @param executionTimeNanos the execution time, in nanoseconds
+     * @param className the name of the class of the exception
+     * @param canonicalName the canonical name of the class of the exception, or null if it has none
+     * @param anonymous true if the class of the exception is anonymous
+     * @param message the message of the exception
+     * @param messageThrows true if {@code getMessage()} of the exception threw an exception
+     * @param stackTrace the top frames of the stack trace of the exception
+     * @return the result of the statement
+     */
+    static StatementResult exception(
+        long executionTimeNanos,
+        String className,
+        @Nullable String canonicalName,
+        boolean anonymous,
+        @Nullable String message,
+        boolean messageThrows,
+        List<StackTraceElement> stackTrace) {
+      return new StatementResult(
+          Kind.EXCEPTION,
+          className,
+          executionTimeNanos,
+          className,
+          null,
+          -1,
+          canonicalName,
+          anonymous,
+          message,
+          messageThrows,
+          stackTrace);
+    }
+
+    /**
+     * Returns the result of a statement that was not executed.
+     *
+     * @return the result of the statement
+     */
+    static StatementResult notExecuted() {
+      return new StatementResult(
+          Kind.NOT_EXECUTED,
+          "",
+          0,
+          "",
+          null,
+          -1,
+          null,
+          false,
+          null,
+          false,
+          Collections.emptyList());
+    }
+
+    /**
+     * Returns the outcome of this statement, as recorded in Randoop's JVM.
+     *
+     * @return the outcome of this statement
+     * @throws IOException if a transferred value is malformed
+     */
+    ExecutionOutcome toOutcome() throws IOException {
+      switch (kind) {
+        case NORMAL:
+          @Nullable Object runtimeValue;
+          if (value != null) {
+            try {
+              runtimeValue = CheckLines.decodeValue(value);
+            } catch (ClassNotFoundException | RuntimeException e) {
+              throw new IOException("Malformed value from execution worker: " + value, e);
+            }
+          } else {
+            runtimeValue = new WorkerValue(className, arrayLength);
+          }
+          return new NormalExecution(runtimeValue, executionTimeNanos);
+        case EXCEPTION:
+          return new ExceptionalExecution(
+              new WorkerException(
+                  className, canonicalName, anonymous, message, messageThrows, stackTrace),
+              executionTimeNanos);
+        case NOT_EXECUTED:
+          return NotExecuted.create();
+        default:
+          throw new Error("Unhandled kind: " + kind);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return kind + ":" + summary;
+    }
+  }
+
+  /** How the execution ended. */
+  public final Status status;
+
+  /** The outcome of each statement; empty unless the status is {@link Status#COMPLETED}. */
+  public final List<StatementResult> statements;
+
+  /** What the checks are that the worker generated. */
+  public final ChecksKind checksKind;
+
+  /**
+   * The transferred checks, in the format described by {@link #checksKind}; null if they were not
+   * transferred.
+   */
+  final @Nullable String checks;
+
+  /** The names of the classes that the execution covered, for {@code --require-covered-classes}. */
+  final List<String> coveredClasses;
+
+  /** The execution time of the whole sequence, including check generation, in nanoseconds. */
+  final long executionTimeNanos;
+
+  /** True if the worker's contract checks found a failure. */
+  public final boolean hasFailure;
+
+  /** True if the worker's validity checks found invalid behavior. */
+  public final boolean hasInvalidBehavior;
+
+  /**
+   * Creates a WorkerResult.
+   *
+   * @param status how the execution ended
+   * @param statements the outcome of each statement
+   * @param checksKind what the checks are that the worker generated
+   * @param checks the transferred checks, or null
+   * @param coveredClasses the names of the classes that the execution covered
+   * @param executionTimeNanos the execution time of the whole sequence, in nanoseconds
+   */
+  WorkerResult(
+      Status status,
+      List<StatementResult> statements,
+      ChecksKind checksKind,
+      @Nullable String checks,
+      List<String> coveredClasses,
+      long executionTimeNanos) {
+    this.status = status;
+    this.statements = statements;
+    this.checksKind = checksKind;
+    this.checks = checks;
+    this.coveredClasses = coveredClasses;
+    this.executionTimeNanos = executionTimeNanos;
+    this.hasFailure = checksKind == ChecksKind.FAILURE;
+    this.hasInvalidBehavior = checksKind == ChecksKind.INVALID;
+  }
+
+  /**
+   * Returns a result for a sequence whose execution did not complete.
+   *
+   * @param status how the execution ended; not {@link Status#COMPLETED}
+   * @return a result with no statement outcomes
+   */
+  static WorkerResult incomplete(Status status) {
+    return new WorkerResult(
+        status, Collections.emptyList(), ChecksKind.NONE, null, Collections.emptyList(), 0);
+  }
+
+  /**
+   * Returns true if the worker executed the sequence and survived. A sequence for which this is
+   * false was not executed to completion, and should not be executed in the generator's JVM: it
+   * crashed or hung a worker, or it could not be parsed, which means that it would not be parsed
+   * the same way when the generated test is read back (a bug in Randoop).
+   *
+   * @return true if the sequence completed
+   */
+  public boolean isSafe() {
+    return status == Status.COMPLETED;
+  }
+
+  /**
+   * Records this result as the outcome of executing the given sequence, in place of executing it
+   * in this JVM. Does nothing, and returns false, if the checks of the sequence were not
+   * transferred, or if this JVM cannot load a class that the worker used; the caller discards such
+   * a sequence.
+   *
+   * @param eSeq the sequence that was executed to produce this result
+   * @return true if this result was recorded, false if {@code eSeq} must be discarded
+   * @throws RandoopSpecificationError if evaluating a specification failed in the worker
+   */
+  public boolean applyTo(ExecutableSequence eSeq) throws RandoopSpecificationError {
+    if (checksKind == ChecksKind.SPECIFICATION_ERROR) {
+      throw new RandoopSpecificationError(String.valueOf(checks));
+    }
+    if (status != Status.COMPLETED || checksKind == ChecksKind.UNTRANSFERABLE) {
+      return false;
+    }
+    if (statements.size() != eSeq.size()) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Result of %d statements for sequence of %d statements",
+              statements.size(), eSeq.size()));
+    }
+    try {
+      List<ExecutionOutcome> outcomes = new ArrayList<>(statements.size());
+      for (StatementResult statement : statements) {
+        outcomes.add(statement.toOutcome());
+      }
+      Set<Class<?>> covered = new LinkedHashSet<>(coveredClasses.size());
+      for (String className : coveredClasses) {
+        covered.add(classForName(className));
+      }
+      eSeq.setExecutionResults(outcomes, covered, executionTimeNanos);
+      String checks = this.checks;
+      switch (checksKind) {
+        case NONE:
+          break;
+        case REGRESSION:
+          if (checks == null) {
+            return false;
+          }
+          eSeq.setChecks(CheckLines.read(checks, eSeq));
+          break;
+        case INVALID:
+          if (checks == null) {
+            return false;
+          }
+          eSeq.setChecks(invalidChecks(checks, eSeq));
+          break;
+        case FAILURE:
+          if (checks == null) {
+            return false;
+          }
+          eSeq.setChecks(CheckLines.readFailure(checks, eSeq));
+          break;
+        default:
+          throw new Error("Unhandled checks kind: " + checksKind);
+      }
+    } catch (IOException | ClassNotFoundException | RuntimeException e) {
+      // The generator's JVM could not load a class that the worker used.
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the invalid checks described by transferred text.
+   *
+   * @param text the index of the statement that behaved invalidly, optionally followed by a tab and
+   *     the name of the exception class that it threw
+   * @param eSeq the sequence, whose outcomes have been recorded
+   * @return the invalid checks
+   */
+  private static InvalidChecks invalidChecks(String text, ExecutableSequence eSeq) {
+    String[] fields = text.split("\t", -1);
+    int index = Integer.parseInt(fields[0]);
+    if (fields.length == 1) {
+      return new InvalidChecks(new InvalidValueCheck(eSeq, index));
+    }
+    ExecutionOutcome outcome = eSeq.getResult(index);
+    if (!(outcome instanceof ExceptionalExecution)) {
+      throw new IllegalArgumentException("No exception at statement " + index);
+    }
+    return new InvalidChecks(
+        new InvalidExceptionCheck(
+            ((ExceptionalExecution) outcome).getException(), index, fields[1]));
+  }
+
+  /**
+   * Returns the class with the given name.
+   *
+   * @param name the name of a class, as returned by {@link Class#getName}
+   * @return the class
+   * @throws ClassNotFoundException if the class cannot be loaded
+   */
+  @SuppressWarnings("signature") // sent by the worker, which got it from Class.getName()
+  private static Class<?> classForName(String name) throws ClassNotFoundException {
+    return TypeNames.getTypeForName(name);
+  }
+
+  @Override
+  public String toString() {
+    return status + " " + statements;
+  }
+}
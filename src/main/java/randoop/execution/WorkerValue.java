@@ -0,0 +1,63 @@
+package randoop.execution;
+
+/**
+ * Stands in, in Randoop's JVM, for a value that a statement created in an execution worker (see
+ * {@link ExecutionWorkerPool}). Values that are null, primitives, or strings are transferred from
+ * the worker; any other value stays in the worker's JVM, and only its class and, for an array, its
+ * length are known.
+ */
+public final class WorkerValue {
+
+  /** The name of the run-time class of the value, as returned by {@link Class#getName()}. */
+  private final String className;
+
+  /** The length of the value, if it is an array; otherwise -1. */
+  private final int arrayLength;
+
+  /**
+   * Creates a WorkerValue.
+   *
+   * @param className the name of the run-time class of the value
+   * @param arrayLength the length of the value if it is an array, otherwise -1
+   */
+  WorkerValue(String className, int arrayLength) {
+    this.className = className;
+    this.arrayLength = arrayLength;
+  }
+
+  /**
+   * Returns the name of the run-time class of the value.
+   *
+   * @return the name of the run-time class of the value, as returned by {@link Class#getName()}
+   */
+  public String getClassName() {
+    return className;
+  }
+
+  /**
+   * Returns true if the value is an array.
+   *
+   * @return true if the value is an array
+   */
+  public boolean isArray() {
+    return arrayLength >= 0;
+  }
+
+  /**
+   * Returns the length of the value, which is an array.
+   *
+   * @return the length of the array
+   * @throws IllegalStateException if the value is not an array
+   */
+  public int getArrayLength() {
+    if (arrayLength < 0) {
+      throw new IllegalStateException(className + " is not an array class");
+    }
+    return arrayLength;
+  }
+
+  @Override
+  public String toString() {
+    return isArray() ? className + "[" + arrayLength + "]" : className;
+  }
+}
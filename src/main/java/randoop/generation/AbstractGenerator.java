@@ -2,10 +2,20 @@ package randoop.generation;
 
 import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.Predicate;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.options.Option;
@@ -18,13 +28,22 @@ import randoop.DummyVisitor;
 import randoop.ExecutionVisitor;
 import randoop.MultiVisitor;
 import randoop.condition.RandoopSpecificationError;
+import randoop.execution.ExecutionWorkerPool;
+import randoop.execution.WorkerResult;
 import randoop.main.GenInputsAbstract;
+import randoop.main.RandoopBug;
+import randoop.main.RandoopUsageError;
 import randoop.operation.TypedOperation;
 import randoop.sequence.ExecutableSequence;
 import randoop.sequence.Sequence;
+import randoop.sequence.SequenceParseException;
+import randoop.test.RegressionChecks;
 import randoop.test.TestCheckGenerator;
+import randoop.test.TestChecks;
+import randoop.util.GenerationMetrics;
 import randoop.util.Log;
 import randoop.util.ProgressDisplay;
+import randoop.util.Randomness;
 import randoop.util.ReflectionExecutor;
 import randoop.util.predicate.AlwaysFalse;
 
@@ -54,6 +73,12 @@ public abstract class AbstractGenerator {
    */
   private int num_steps = 0;
 
+  /** The name of the metrics counter of sequences executed twice to detect nondeterminism. */
+  public static final String NONDETERMINISM_CHECKED = "nondeterminism.checked-sequences";
+
+  /** The name of the metrics counter of sequences whose second execution differed. */
+  public static final String NONDETERMINISM_DIVERGED = "nondeterminism.divergent-sequences";
+
   /** Number of steps that returned null. */
   public int null_steps = 0;
 
@@ -69,6 +94,15 @@ public abstract class AbstractGenerator {
   /** Number of sequences that failed the output test. */
   public int num_failed_output_test = 0;
 
+  /** Number of sequences discarded because they crashed or hung an execution worker. */
+  public int num_unsafe_sequences = 0;
+
+  /**
+   * Number of regression sequences discarded because a second execution produced different checks.
+   * See {@link GenInputsAbstract#nondeterminism_check_fraction}.
+   */
+  public int num_nondeterministic_sequences = 0;
+
   /** When the generator started (millisecond-based system timestamp). */
   private long startTime = -1;
 
@@ -146,6 +180,27 @@ public abstract class AbstractGenerator {
 
   protected OperationHistoryLogInterface operationHistory;
 
+  /** Exchanges pool sequences with other shards of a multi-process run, or null if none. */
+  private @Nullable PoolExchange poolExchange = null;
+
+  /** Periodically saves the progress of generation, or null if none. */
+  private @Nullable Checkpoint checkpoint = null;
+
+  /**
+   * Operations whose results differed when a sequence was executed a second time. Subclasses
+   * select these operations less often.
+   */
+  protected final Set<TypedOperation> nondeterministicOperations = new LinkedHashSet<>();
+
+  /** Child JVMs in which to pre-execute each sequence, or null to execute only in this JVM. */
+  protected @Nullable ExecutionWorkerPool executionWorkers = null;
+
+  /**
+   * Groups error-revealing sequences by how they fail, or null to keep all of them. See {@link
+   * GenInputsAbstract#max_error_tests_per_failure}.
+   */
+  private final @Nullable FailureClusters failureClusters;
+
   /**
    * Constructs a generator with the given parameters.
    *
@@ -180,6 +235,11 @@ public abstract class AbstractGenerator {
     operationHistory = new DefaultOperationHistoryLogger();
     outRegressionSeqs = new ArrayList<>();
     outErrorSeqs = new ArrayList<>();
+    if (GenInputsAbstract.max_error_tests_per_failure > 0) {
+      failureClusters = new FailureClusters(GenInputsAbstract.max_error_tests_per_failure);
+    } else {
+      failureClusters = null;
+    }
   }
 
   /**
@@ -195,6 +255,93 @@ public abstract class AbstractGenerator {
     this.outputTest = outputTest;
   }
 
+  /**
+   * Registers an object that periodically exchanges pool sequences with other shards of a
+   * multi-process run.
+   *
+   * @param poolExchange the pool exchange
+   */
+  public void setPoolExchange(PoolExchange poolExchange) {
+    this.poolExchange = poolExchange;
+  }
+
+  /**
+   * Registers an object that periodically saves the progress of generation. If {@link
+   * GenInputsAbstract#resume} is true, generation continues from the latest checkpoint that it
+   * holds.
+   *
+   * @param checkpoint the checkpoint
+   */
+  public void setCheckpoint(Checkpoint checkpoint) {
+    this.checkpoint = checkpoint;
+  }
+
+  /**
+   * Registers a pool of child JVMs in which to execute the sequences instead of in this JVM. See
+   * {@link GenInputsAbstract#execution_workers}.
+   *
+   * @param executionWorkers the execution workers
+   */
+  public void setExecutionWorkers(ExecutionWorkerPool executionWorkers) {
+    this.executionWorkers = executionWorkers;
+  }
+
+  /**
+   * Records that a sequence was discarded because it crashed or hung an execution worker, or
+   * because the worker could not parse it.
+   *
+   * @param sequence the discarded sequence
+   * @param result the result of executing the sequence in a worker
+   */
+  protected void discardUnsafeSequence(Sequence sequence, WorkerResult result) {
+    operationHistory.add(sequence.getOperation(), OperationOutcome.SEQUENCE_DISCARDED);
+    num_unsafe_sequences++;
+    switch (result.status) {
+      case TIMED_OUT:
+        GenerationMetrics.increment("workers.timed-out-sequences", 1);
+        break;
+      case PARSE_ERROR:
+        // The worker's stderr, which Randoop inherits, shows the parse error.
+        GenerationMetrics.increment("workers.parse-errors", 1);
+        break;
+      default:
+        GenerationMetrics.increment("workers.crashed-sequences", 1);
+        break;
+    }
+    Log.logPrintf("Discarded sequence (%s in execution worker):%n%s%n", result.status, sequence);
+  }
+
+  /**
+   * Gives a sequence the outcomes and checks of its execution in a worker. If they cannot be
+   * transferred to this JVM, as for a sequence whose failing check is a postcondition of a
+   * specification, discards the sequence instead: executing it in this JVM would defeat the
+   * isolation that the workers provide.
+   *
+   * @param eSeq the sequence, which the worker executed
+   * @param result the result of executing the sequence in a worker, which {@link
+   *     WorkerResult#isSafe() is safe}
+   * @return true if the sequence has its outcomes and checks, false if it was discarded
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  protected boolean applyWorkerResult(ExecutableSequence eSeq, WorkerResult result)
+      throws RandoopSpecificationError {
+    if (!result.applyTo(eSeq)) {
+      operationHistory.add(eSeq.sequence.getOperation(), OperationOutcome.SEQUENCE_DISCARDED);
+      GenerationMetrics.increment("workers.untransferable-sequences", 1);
+      Log.logPrintf(
+          "Discarded sequence (its checks in an execution worker cannot be transferred):%n%s%n",
+          eSeq.sequence);
+      return false;
+    }
+    for (int i = 0; i < eSeq.size(); i++) {
+      GenerationMetrics.recordDuration(
+          GenerationMetrics.Phase.EXECUTION,
+          eSeq.sequence.getStatement(i).getOperation(),
+          result.statements.get(i).executionTimeNanos);
+    }
+    return true;
+  }
+
   /**
    * Registers a visitor with this object for use while executing each generated sequence.
    *
@@ -252,6 +399,33 @@ public abstract class AbstractGenerator {
    */
   public abstract @Nullable ExecutableSequence step() throws RandoopSpecificationError;
 
+  /**
+   * Constructs the sequence for the next step, without executing it. This is the first part of
+   * {@link #step()}, which pipelined generation runs on the generator's thread.
+   *
+   * @return a new sequence, or null if none was constructed
+   */
+  protected abstract @Nullable ExecutableSequence constructStep();
+
+  /**
+   * Executes the sequence of a step and generates its checks. This is the second part of {@link
+   * #step()}, which pipelined generation runs on a separate thread; it must not read or modify the
+   * component pool or the generator's selection state.
+   *
+   * @param eSeq a sequence returned by {@link #constructStep()}
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  protected abstract void executeStep(ExecutableSequence eSeq) throws RandoopSpecificationError;
+
+  /**
+   * Updates the component pool and the generator's selection state with the results of an executed
+   * sequence. This is the last part of {@link #step()}, which pipelined generation runs on the
+   * generator's thread, in the order in which the sequences were constructed.
+   *
+   * @param eSeq a sequence that has been executed by {@link #executeStep}
+   */
+  protected abstract void finishStep(ExecutableSequence eSeq);
+
   /**
    * Returns the count of attempts to generate a sequence so far.
    *
@@ -288,7 +462,8 @@ public abstract class AbstractGenerator {
   }
 
   /**
-   * Creates and executes new sequences until stopping criteria is met.
+   * Creates and executes new sequences until stopping criteria is met. If {@code --pipeline-depth}
+   * is positive, the work of consecutive steps overlaps.
    *
    * @see AbstractGenerator#shouldStop()
    * @see AbstractGenerator#step()
@@ -301,62 +476,53 @@ public abstract class AbstractGenerator {
 
     startTime = System.currentTimeMillis();
 
+    if (checkpoint != null) {
+      startCheckpoint(checkpoint);
+    }
+
     if (GenInputsAbstract.progressdisplay) {
       progressDisplay = new ProgressDisplay(this, ProgressDisplay.Mode.MULTILINE);
       progressDisplay.start();
     }
 
-    while (!shouldStop()) {
+    if (GenInputsAbstract.pipeline_depth > 0) {
+      createAndClassifySequencesPipelined(GenInputsAbstract.pipeline_depth);
+    } else {
+      while (!shouldStop()) {
 
-      num_steps++;
+        num_steps++;
 
-      ExecutableSequence eSeq = step();
+        ExecutableSequence eSeq = step();
 
-      if (dump_sequences) {
-        Log.logPrintf("%nseq before run:%n%s%n", eSeq);
-      }
+        if (dump_sequences) {
+          Log.logPrintf("%nseq before run:%n%s%n", eSeq);
+        }
 
-      if (GenInputsAbstract.progressdisplay
-          && GenInputsAbstract.progressintervalsteps != -1
-          && num_steps % GenInputsAbstract.progressintervalsteps == 0) {
-        progressDisplay.display(!GenInputsAbstract.deterministic);
-      }
+        if (GenInputsAbstract.progressdisplay
+            && GenInputsAbstract.progressintervalsteps != -1
+            && num_steps % GenInputsAbstract.progressintervalsteps == 0) {
+          progressDisplay.display(!GenInputsAbstract.deterministic);
+        }
 
-      if (eSeq == null) {
-        null_steps++;
-        continue;
-      }
+        if (eSeq == null) {
+          null_steps++;
+          continue;
+        }
 
-      num_sequences_generated++;
+        num_sequences_generated++;
 
-      boolean test;
-      try {
-        test = outputTest.test(eSeq);
-      } catch (Throwable t) {
-        System.out.printf(
-            "%nProblem with sequence:%n%s%n%s%n", eSeq, UtilPlume.stackTraceToString(t));
-        throw t;
-      }
-      if (test) {
-        // Classify the sequence
-        if (eSeq.hasInvalidBehavior()) {
-          invalidSequenceCount++;
-        } else if (eSeq.hasFailure()) {
-          operationHistory.add(eSeq.getOperation(), OperationOutcome.ERROR_SEQUENCE);
-          num_failing_sequences++;
-          outErrorSeqs.add(eSeq);
-        } else {
-          outRegressionSeqs.add(eSeq);
-          newRegressionTestHook(eSeq.sequence);
+        classify(eSeq, isOutputTest(eSeq));
+
+        if (dump_sequences) {
+          Log.logPrintf("Sequence after execution:%n%s%n", eSeq);
+          Log.logPrintf("allSequences.size()=%s%n", numGeneratedSequences());
+          // componentManager.log();
         }
-      } else {
-        num_failed_output_test++;
-      }
 
-      if (dump_sequences) {
-        Log.logPrintf("Sequence after execution:%n%s%n", eSeq);
-        Log.logPrintf("allSequences.size()=%s%n", numGeneratedSequences());
-        // componentManager.log();
+        if (poolExchange != null) {
+          poolExchange.exchangeIfDue(outRegressionSeqs, componentManager);
+        }
+        saveCheckpointIfDue();
       }
     }
 
@@ -385,6 +551,596 @@ public abstract class AbstractGenerator {
     }
   }
 
+  /**
+   * Creates and executes new sequences until stopping criteria is met, overlapping the work of
+   * consecutive steps. This thread constructs sequences and updates the component pool; one other
+   * thread executes sequences and generates their checks, and another one runs the output
+   * predicates (such as the compilability check). The results of each step are applied in the
+   * order in which the sequences were constructed, and the sequence for step n is constructed from
+   * the pool as it is after steps 1 through n - depth - 1 have been finished, whatever the timing
+   * of the other threads, so a run with a fixed random seed is reproducible. When a checkpoint is
+   * due, the steps in flight are finished before it is saved, because their construction has
+   * already changed the pool and the random state; such a run depends on when checkpoints are due.
+   *
+   * @param depth the maximum number of sequences waiting for execution, and also for the output
+   *     predicates
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  private void createAndClassifySequencesPipelined(int depth) throws RandoopSpecificationError {
+    ExecutorService executor = Executors.newSingleThreadExecutor(daemonThreads("execution"));
+    ExecutorService predicates = Executors.newSingleThreadExecutor(daemonThreads("predicates"));
+    Deque<Future<ExecutableSequence>> executing = new ArrayDeque<>(depth + 1);
+    Deque<Future<Boolean>> testing = new ArrayDeque<>(depth + 1);
+    Deque<ExecutableSequence> tested = new ArrayDeque<>(depth + 1);
+    try {
+      while (!shouldStop()) {
+        num_steps++;
+
+        if (GenInputsAbstract.progressdisplay
+            && GenInputsAbstract.progressintervalsteps != -1
+            && num_steps % GenInputsAbstract.progressintervalsteps == 0) {
+          progressDisplay.display(!GenInputsAbstract.deterministic);
+        }
+
+        ExecutableSequence eSeq = constructStep();
+        if (eSeq == null) {
+          null_steps++;
+        } else {
+          executing.add(submitExecution(executor, eSeq));
+        }
+
+        while (executing.size() > depth) {
+          ExecutableSequence executed = await(executing.remove());
+          finishPipelinedStep(executed);
+          tested.add(executed);
+          testing.add(predicates.submit(() -> isOutputTest(executed)));
+        }
+        while (testing.size() > depth) {
+          classify(tested.remove(), await(testing.remove()));
+          if (poolExchange != null) {
+            poolExchange.exchangeIfDue(outRegressionSeqs, componentManager);
+          }
+        }
+        Checkpoint checkpoint = this.checkpoint;
+        if (checkpoint != null && checkpoint.isDue()) {
+          drainPipeline(predicates, executing, testing, tested);
+          saveCheckpointIfDue();
+        }
+      }
+
+      drainPipeline(predicates, executing, testing, tested);
+    } finally {
+      executor.shutdownNow();
+      predicates.shutdownNow();
+    }
+  }
+
+  /**
+   * Prepares a checkpoint for a new run or, if {@link GenInputsAbstract#resume} is true, continues
+   * the run saved in it: adds the saved sequences to the component pool, executes the saved tests
+   * again to recreate their checks, and restores the generation counters, the elapsed time, the
+   * state of the subclass (see {@link #restoreCheckpointState}), and the state of the random number
+   * generator. The saved error-revealing tests were already clustered and reduced, and are not
+   * clustered or reduced again.
+   *
+   * @param checkpoint the checkpoint
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  private void startCheckpoint(Checkpoint checkpoint) throws RandoopSpecificationError {
+    Checkpoint.Contents contents;
+    try {
+      if (!GenInputsAbstract.resume) {
+        checkpoint.start();
+        return;
+      }
+      contents = checkpoint.resume();
+    } catch (IOException | SequenceParseException e) {
+      throw new RandoopUsageError(
+          "Unable to use --checkpoint-dir=" + GenInputsAbstract.checkpoint_dir + ": " + e, e);
+    }
+    if (contents == null) {
+      System.out.println("No checkpoint to resume; starting a new run.");
+      return;
+    }
+    Properties state = contents.state;
+    try {
+      // The time spent in the saved run counts toward the time limit.
+      startTime -= Long.parseLong(state.getProperty("elapsed-millis", "0"));
+      num_steps = Integer.parseInt(state.getProperty("steps", "0"));
+      null_steps = Integer.parseInt(state.getProperty("null-steps", "0"));
+      num_sequences_generated = Integer.parseInt(state.getProperty("sequences-generated", "0"));
+      num_failing_sequences = Integer.parseInt(state.getProperty("failing-sequences", "0"));
+      invalidSequenceCount = Integer.parseInt(state.getProperty("invalid-sequences", "0"));
+      num_failed_output_test = Integer.parseInt(state.getProperty("failed-output-test", "0"));
+      num_unsafe_sequences = Integer.parseInt(state.getProperty("unsafe-sequences", "0"));
+      num_nondeterministic_sequences =
+          Integer.parseInt(state.getProperty("nondeterministic-sequences", "0"));
+    } catch (NumberFormatException e) {
+      throw new RandoopUsageError("Malformed checkpoint in " + GenInputsAbstract.checkpoint_dir, e);
+    }
+
+    for (Sequence sequence : contents.poolSequences) {
+      restorePoolSequence(sequence);
+    }
+    int numDropped = 0;
+    for (Sequence sequence : contents.regressionSequences) {
+      ExecutableSequence eSeq = replay(sequence);
+      if (eSeq.hasFailure() || eSeq.hasInvalidBehavior()) {
+        numDropped++;
+      } else {
+        outRegressionSeqs.add(eSeq);
+      }
+    }
+    FailureClusters clusters = failureClusters;
+    for (Sequence sequence : contents.errorSequences) {
+      ExecutableSequence eSeq = replay(sequence);
+      if (eSeq.hasFailure()) {
+        if (clusters != null) {
+          clusters.restore(eSeq);
+        }
+        outErrorSeqs.add(eSeq);
+      } else {
+        numDropped++;
+      }
+    }
+    if (numDropped > 0) {
+      System.out.printf(
+          "Dropped %d resumed tests that behaved differently when executed again.%n", numDropped);
+    }
+
+    try {
+      restoreCheckpointState(state);
+    } catch (IllegalArgumentException e) {
+      throw new RandoopUsageError("Malformed checkpoint in " + GenInputsAbstract.checkpoint_dir, e);
+    }
+
+    // Replaying the tests must not change the random choices of the continued run.
+    String random = state.getProperty("random");
+    if (random != null) {
+      try {
+        Randomness.setState(Base64.getDecoder().decode(random));
+      } catch (IllegalArgumentException e) {
+        throw new RandoopUsageError(
+            "Malformed checkpoint in " + GenInputsAbstract.checkpoint_dir, e);
+      }
+    }
+    System.out.printf(
+        "Resumed from checkpoint: %d pool sequences, %d regression tests, %d error tests.%n",
+        contents.poolSequences.size(), outRegressionSeqs.size(), outErrorSeqs.size());
+  }
+
+  /**
+   * Executes a saved sequence again, to recreate its checks.
+   *
+   * @param sequence a sequence from a checkpoint
+   * @return the executed sequence
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  private ExecutableSequence replay(Sequence sequence) throws RandoopSpecificationError {
+    ExecutableSequence eSeq = new ExecutableSequence(sequence);
+    setCurrentSequence(sequence);
+    eSeq.execute(executionVisitor, checkGenerator);
+    return eSeq;
+  }
+
+  /**
+   * Saves a checkpoint, if one is due. A checkpoint that cannot be saved is skipped; the previous
+   * one remains valid.
+   */
+  private void saveCheckpointIfDue() {
+    Checkpoint checkpoint = this.checkpoint;
+    if (checkpoint == null || !checkpoint.isDue()) {
+      return;
+    }
+    Properties state = new Properties();
+    state.setProperty("elapsed-millis", Long.toString(elapsedTime()));
+    state.setProperty("steps", Integer.toString(num_steps));
+    state.setProperty("null-steps", Integer.toString(null_steps));
+    state.setProperty("sequences-generated", Integer.toString(num_sequences_generated));
+    state.setProperty("failing-sequences", Integer.toString(num_failing_sequences));
+    state.setProperty("invalid-sequences", Integer.toString(invalidSequenceCount));
+    state.setProperty("failed-output-test", Integer.toString(num_failed_output_test));
+    state.setProperty("unsafe-sequences", Integer.toString(num_unsafe_sequences));
+    state.setProperty(
+        "nondeterministic-sequences", Integer.toString(num_nondeterministic_sequences));
+    state.setProperty("random", Base64.getEncoder().encodeToString(Randomness.getState()));
+    saveCheckpointState(state);
+    try {
+      checkpoint.save(state, componentManager::getGeneratedPoolSequences, this::getErrorSequences);
+    } catch (IOException e) {
+      Log.logPrintf("Unable to save checkpoint to %s: %s%n", GenInputsAbstract.checkpoint_dir, e);
+    }
+  }
+
+  /**
+   * Returns the sequences of the error-revealing tests, to be saved in a checkpoint.
+   *
+   * @return the sequences of {@link #outErrorSeqs}
+   */
+  private List<Sequence> getErrorSequences() {
+    List<Sequence> result = new ArrayList<>(outErrorSeqs.size());
+    for (ExecutableSequence eSeq : outErrorSeqs) {
+      result.add(eSeq.sequence);
+    }
+    return result;
+  }
+
+  /**
+   * Adds the state of the subclass, such as that of its operation selector, to the state of a
+   * checkpoint. The keys must not collide with those of this class.
+   *
+   * @param state the state of the checkpoint
+   */
+  protected void saveCheckpointState(Properties state) {
+    // By default, a generator has no state beyond that of this class.
+  }
+
+  /**
+   * Restores the state that {@link #saveCheckpointState} added to the state of a checkpoint, when
+   * resuming a run. Called after the saved sequences are added to the pool and the saved tests.
+   *
+   * @param state the state of the checkpoint
+   * @throws IllegalArgumentException if the state is malformed
+   */
+  protected void restoreCheckpointState(Properties state) {
+    // By default, a generator has no state beyond that of this class.
+  }
+
+  /**
+   * Records a sequence that was added to the component pool, so that it is saved in the next
+   * checkpoint. Subclasses call this after each sequence they add to the pool.
+   *
+   * @param sequence the sequence that was added to the component pool
+   */
+  protected void newComponentHook(Sequence sequence) {
+    if (checkpoint != null) {
+      checkpoint.recordPoolSequence(sequence);
+    }
+  }
+
+  /**
+   * Records that sequences were removed from the component pool, so that the next checkpoint saves
+   * the pool as it is then. Subclasses call this after they remove sequences from the pool.
+   */
+  protected void poolRemovalHook() {
+    if (checkpoint != null) {
+      checkpoint.recordPoolRemoval();
+    }
+  }
+
+  /**
+   * Adds a sequence from a checkpoint to the component pool, when resuming a run.
+   *
+   * @param sequence a sequence that was in the component pool of the saved run
+   */
+  protected void restorePoolSequence(Sequence sequence) {
+    componentManager.addGeneratedSequence(sequence);
+  }
+
+  /**
+   * Finishes the steps in flight of pipelined generation, but does not output more tests than the
+   * limits allow.
+   *
+   * @param predicates the executor that runs the output predicates
+   * @param executing the executions in flight
+   * @param testing the output predicates in flight
+   * @param tested the sequences whose output predicates are in flight, in the same order
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  private void drainPipeline(
+      ExecutorService predicates,
+      Deque<Future<ExecutableSequence>> executing,
+      Deque<Future<Boolean>> testing,
+      Deque<ExecutableSequence> tested)
+      throws RandoopSpecificationError {
+    while (!executing.isEmpty()) {
+      ExecutableSequence executed = await(executing.remove());
+      finishPipelinedStep(executed);
+      tested.add(executed);
+      testing.add(predicates.submit(() -> isOutputTest(executed)));
+    }
+    while (!testing.isEmpty()) {
+      ExecutableSequence eSeq = tested.remove();
+      boolean test = await(testing.remove());
+      if (numOutputSequences() < limits.output_limit
+          && !(GenInputsAbstract.stop_on_error_test && numErrorSequences() > 0)) {
+        classify(eSeq, test);
+      }
+    }
+  }
+
+  /**
+   * Starts executing the sequence of a step of pipelined generation.
+   *
+   * @param executor the executor that runs the execution stage
+   * @param eSeq a sequence returned by {@link #constructStep()}
+   * @return the executed sequence, when the execution is done
+   */
+  private Future<ExecutableSequence> submitExecution(
+      ExecutorService executor, ExecutableSequence eSeq) {
+    return executor.submit(
+        () -> {
+          executeStep(eSeq);
+          return eSeq;
+        });
+  }
+
+  /**
+   * Applies the results of a step of pipelined generation to the component pool.
+   *
+   * @param eSeq a sequence that has been executed
+   */
+  private void finishPipelinedStep(ExecutableSequence eSeq) {
+    finishStep(eSeq);
+    num_sequences_generated++;
+    if (dump_sequences) {
+      Log.logPrintf("Sequence after execution:%n%s%n", eSeq);
+    }
+  }
+
+  /**
+   * Returns a factory of daemon threads for pipelined generation, so that a thread that executes
+   * code under test that never terminates does not keep Randoop from exiting.
+   *
+   * @param stage the name of the pipeline stage that the threads run
+   * @return a factory of daemon threads
+   */
+  private static ThreadFactory daemonThreads(String stage) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, "randoop-pipeline-" + stage);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Waits for the result of a stage of pipelined generation.
+   *
+   * @param <T> the type of the result
+   * @param future the result of the stage
+   * @return the result
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  private static <T> T await(Future<T> future) throws RandoopSpecificationError {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      throw new RandoopBug("Interrupted during pipelined generation", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RandoopSpecificationError) {
+        throw (RandoopSpecificationError) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RandoopBug("Error during pipelined generation", e);
+    }
+  }
+
+  /**
+   * Returns true if an executed sequence should be output, according to the output predicates.
+   *
+   * @param eSeq an executed sequence
+   * @return true if the sequence should be output
+   */
+  private boolean isOutputTest(ExecutableSequence eSeq) {
+    boolean test;
+    long outputTestStart = GenerationMetrics.start();
+    try {
+      test = outputTest.test(eSeq);
+    } catch (Throwable t) {
+      System.out.printf(
+          "%nProblem with sequence:%n%s%n%s%n", eSeq, UtilPlume.stackTraceToString(t));
+      throw t;
+    }
+    GenerationMetrics.record(
+        GenerationMetrics.Phase.OUTPUT_PREDICATES, eSeq.getOperation(), outputTestStart);
+    return test;
+  }
+
+  /**
+   * If the output predicates accepted an executed sequence, adds it to the error or the regression
+   * sequences.
+   *
+   * @param eSeq an executed sequence
+   * @param test true if the output predicates accepted the sequence
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  private void classify(ExecutableSequence eSeq, boolean test) throws RandoopSpecificationError {
+    if (test) {
+      // Classify the sequence
+      if (eSeq.hasInvalidBehavior()) {
+        invalidSequenceCount++;
+      } else if (eSeq.hasFailure()) {
+        operationHistory.add(eSeq.getOperation(), OperationOutcome.ERROR_SEQUENCE);
+        num_failing_sequences++;
+        ExecutableSequence errorSeq = addErrorSequence(eSeq);
+        if (errorSeq != null && checkpoint != null) {
+          checkpoint.recordErrorSequence(errorSeq.sequence);
+        }
+        componentManager.recordProductiveInputs(eSeq.componentSequences);
+      } else if (GenInputsAbstract.nondeterminism_check_fraction > 0
+          && Randomness.weightedCoinFlip(GenInputsAbstract.nondeterminism_check_fraction)
+          && isNondeterministic(eSeq)) {
+        operationHistory.add(eSeq.getOperation(), OperationOutcome.SEQUENCE_DISCARDED);
+        num_nondeterministic_sequences++;
+      } else {
+        outRegressionSeqs.add(eSeq);
+        newRegressionTestHook(eSeq.sequence);
+        if (checkpoint != null) {
+          checkpoint.recordRegressionSequence(eSeq.sequence);
+        }
+      }
+    } else {
+      num_failed_output_test++;
+    }
+  }
+
+  /**
+   * Adds an error-revealing sequence to the sequences to output. If {@code
+   * --max-error-tests-per-failure} is set, keeps only the shortest sequences that fail in the same
+   * way. The sequence is clustered before it is reduced, so that only the sequences that are kept
+   * are reduced.
+   *
+   * @param eSeq an executed error-revealing sequence
+   * @return the sequence added, which may be a reduced version of {@code eSeq}; or null if {@code
+   *     eSeq} is not kept
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  @SuppressWarnings("ReferenceEquality") // FailureClusters.add returns one of its arguments
+  private @Nullable ExecutableSequence addErrorSequence(ExecutableSequence eSeq)
+      throws RandoopSpecificationError {
+    FailureClusters clusters = failureClusters;
+    if (clusters != null) {
+      ExecutableSequence discarded = clusters.add(eSeq);
+      if (discarded == eSeq) {
+        return null;
+      }
+      if (discarded != null) {
+        // ExecutableSequence.equals compares the sequences; remove only the discarded object.
+        outErrorSeqs.removeIf(s -> s == discarded);
+        if (checkpoint != null) {
+          checkpoint.recordErrorRemoval();
+        }
+      }
+    }
+    ExecutableSequence errorSeq = reduceErrorSequence(eSeq);
+    if (clusters != null && errorSeq != eSeq) {
+      clusters.replace(eSeq, errorSeq);
+    }
+    outErrorSeqs.add(errorSeq);
+    return errorSeq;
+  }
+
+  /**
+   * Returns the clusters of error-revealing sequences that fail in the same way.
+   *
+   * @return the clusters, or null if {@code --max-error-tests-per-failure} is not set
+   */
+  public @Nullable FailureClusters getFailureClusters() {
+    return failureClusters;
+  }
+
+  /**
+   * If {@code --reduce-error-tests} is set, returns a smaller sequence that fails in the same way
+   * as the given error-revealing sequence. Otherwise, returns the given sequence.
+   *
+   * @param eSeq an executed error-revealing sequence
+   * @return an executed sequence that fails in the same way as {@code eSeq}
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  private ExecutableSequence reduceErrorSequence(ExecutableSequence eSeq)
+      throws RandoopSpecificationError {
+    if (!GenInputsAbstract.reduce_error_tests) {
+      return eSeq;
+    }
+    long start = GenerationMetrics.start();
+    ExecutableSequence result =
+        new SequenceReducer(
+                checkGenerator, componentManager, SequenceReducer.DEFAULT_MAX_EXECUTIONS)
+            .reduce(eSeq);
+    GenerationMetrics.record(GenerationMetrics.Phase.ERROR_REDUCTION, eSeq.getOperation(), start);
+    return result;
+  }
+
+  /**
+   * Executes a regression sequence a second time, and returns true if the checks differ from those
+   * of the first execution. If so, records the operation of the earliest statement whose checks
+   * differ as nondeterministic.
+   *
+   * @param eSeq a sequence that has been executed and classified as a regression test
+   * @return true if executing the sequence again produces different checks
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  private boolean isNondeterministic(ExecutableSequence eSeq) throws RandoopSpecificationError {
+    long start = GenerationMetrics.start();
+    ExecutableSequence replay = new ExecutableSequence(eSeq.sequence);
+    setCurrentSequence(eSeq.sequence);
+    // Do not visit the sequence again: visitors such as coverage trackers have already seen it.
+    replay.execute(new DummyVisitor(), checkGenerator);
+    GenerationMetrics.record(
+        GenerationMetrics.Phase.NONDETERMINISM_CHECK, eSeq.getOperation(), start);
+    GenerationMetrics.increment(NONDETERMINISM_CHECKED, 1);
+    if (replay.getChecks().equals(eSeq.getChecks())) {
+      return false;
+    }
+    GenerationMetrics.increment(NONDETERMINISM_DIVERGED, 1);
+    // Blame the operation of the earliest statement whose checks differ.
+    TypedOperation operation = eSeq.getOperation();
+    TestChecks<?> first = eSeq.getChecks();
+    TestChecks<?> second = replay.getChecks();
+    if (first instanceof RegressionChecks && second instanceof RegressionChecks) {
+      int index = ((RegressionChecks) first).firstDifferingStatement((RegressionChecks) second);
+      if (index >= 0) {
+        operation = eSeq.sequence.getStatement(index).getOperation();
+      }
+    }
+    if (nondeterministicOperations.add(operation)) {
+      Log.logPrintf("Operation appears to be nondeterministic: %s%n", operation);
+    }
+    Log.logPrintf(
+        "Discarding sequence whose checks differ between executions:%n%s%nfirst: %s%nsecond: %s%n",
+        eSeq.sequence, first, second);
+    return true;
+  }
+
+  /**
+   * Returns the operations that appear to be nondeterministic, because a statement that calls one
+   * of them produced different checks when its sequence was executed a second time.
+   *
+   * @return the operations that appear to be nondeterministic
+   */
+  public Set<TypedOperation> getNondeterministicOperations() {
+    return nondeterministicOperations;
+  }
+
+  /**
+   * Executes and classifies sequences that were created elsewhere, such as by the shards of a
+   * multi-process run, as if this generator had created them. Stops when the time limit is
+   * reached, leaving the remaining sequences unclassified.
+   *
+   * @param sequences the sequences to execute and classify
+   * @param timeLimitMillis the maximum time to spend, in milliseconds, or 0 for no limit
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  public void classifySequences(List<Sequence> sequences, long timeLimitMillis)
+      throws RandoopSpecificationError {
+    if (checkGenerator == null) {
+      throw new Error("Generator not properly initialized - must have a TestCheckGenerator");
+    }
+    startTime = System.currentTimeMillis();
+    // Execute the whole list as one batch, which the workers share.
+    @Nullable List<WorkerResult> workerResults =
+        (executionWorkers == null) ? null : executionWorkers.execute(sequences);
+    for (int i = 0; i < sequences.size(); i++) {
+      if (timeLimitMillis != 0 && elapsedTime() >= timeLimitMillis) {
+        System.out.printf(
+            "Time limit reached; %d of %d sequences were not executed.%n",
+            sequences.size() - i, sequences.size());
+        break;
+      }
+      Sequence sequence = sequences.get(i);
+      ExecutableSequence eSeq = new ExecutableSequence(sequence);
+      if (workerResults == null) {
+        setCurrentSequence(sequence);
+        eSeq.execute(executionVisitor, checkGenerator);
+      } else if (workerResults.get(i).isSafe()) {
+        if (!applyWorkerResult(eSeq, workerResults.get(i))) {
+          continue;
+        }
+      } else {
+        discardUnsafeSequence(sequence, workerResults.get(i));
+        continue;
+      }
+      num_sequences_generated++;
+      classify(eSeq, isOutputTest(eSeq));
+    }
+  }
+
   /**
    * Returns all sequences generated by this object.
    *
@@ -0,0 +1,257 @@
+package randoop.generation;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link StateMatcher} that compares objects by their abstract state: the values of their fields,
+ * and of the fields of the objects that those refer to, up to a given depth. Beyond that depth,
+ * only the class of an object is compared. Unlike {@link EqualsMethodMatcher}, this matcher runs no
+ * code of the classes under test; it reads fields reflectively.
+ *
+ * <p>The abstract state of an object is summarized as a 64-bit fingerprint. Primitive values are
+ * canonicalized (for example, all NaN values are the same), strings, boxed primitives, enums, and
+ * classes are compared by value, and cycles and sharing in the object graph are summarized by
+ * position, so two objects with isomorphic graphs have the same fingerprint.
+ *
+ * <p>An object is always considered new if its state cannot be summarized: if it has a field that
+ * cannot be read reflectively (for example, a field of a JDK class that is not opened to Randoop),
+ * if it refers to an array longer than {@link #MAX_ARRAY_LENGTH}, or if summarizing it visits more
+ * than {@link #MAX_OBJECTS} objects or takes longer than the time limit. Because of the time limit,
+ * whether an object is new may depend on the speed of the machine, unless the time limit is 0.
+ */
+public class AbstractStateMatcher implements StateMatcher {
+
+  /** The default time limit, in milliseconds, for computing the fingerprint of one object. */
+  public static final long DEFAULT_TIME_LIMIT_MILLIS = 10;
+
+  /** The maximum length of an array in the state of an object that can be summarized. */
+  static final int MAX_ARRAY_LENGTH = 100;
+
+  /** The maximum number of objects that the summary of one object may visit. */
+  static final int MAX_OBJECTS = 1000;
+
+  /**
+   * The instance fields of each class and its superclasses, made accessible; or empty if some
+   * field cannot be made accessible.
+   */
+  private static final ClassValue<Optional<Field[]>> FIELDS =
+      new ClassValue<Optional<Field[]>>() {
+        @Override
+        protected Optional<Field[]> computeValue(Class<?> c) {
+          List<Field> result = new ArrayList<>();
+          for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+            for (Field field : k.getDeclaredFields()) {
+              if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+              }
+              try {
+                field.setAccessible(true);
+              } catch (RuntimeException e) {
+                // A SecurityException, or, since Java 9, an InaccessibleObjectException.
+                return Optional.empty();
+              }
+              result.add(field);
+            }
+          }
+          return Optional.of(result.toArray(new Field[0]));
+        }
+      };
+
+  /** The depth to which the fields of objects are compared. */
+  private final int maxDepth;
+
+  /** The time limit, in nanoseconds, for computing the fingerprint of one object. */
+  private final long timeLimitNanos;
+
+  /** The fingerprints of the objects added to this matcher. */
+  private final Set<Long> fingerprints = new HashSet<>();
+
+  /**
+   * Creates an AbstractStateMatcher.
+   *
+   * @param maxDepth the depth to which the fields of objects are compared; 0 compares only the
+   *     classes of objects
+   * @param timeLimitMillis the time limit, in milliseconds, for computing the fingerprint of one
+   *     object, or 0 for no time limit
+   */
+  public AbstractStateMatcher(int maxDepth, long timeLimitMillis) {
+    this.maxDepth = maxDepth;
+    this.timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(timeLimitMillis);
+  }
+
+  @Override
+  public boolean add(Object object) {
+    Long fingerprint = fingerprint(object);
+    if (fingerprint == null) {
+      return true;
+    }
+    return fingerprints.add(fingerprint);
+  }
+
+  @Override
+  public int size() {
+    return fingerprints.size();
+  }
+
+  /**
+   * Returns the fingerprint of the abstract state of an object.
+   *
+   * @param object an object
+   * @return the fingerprint of the object, or null if its state cannot be summarized
+   */
+  @Nullable Long fingerprint(@Nullable Object object) {
+    Walk walk = new Walk(System.nanoTime() + timeLimitNanos);
+    walk.visit(object, 0);
+    return walk.abandoned ? null : walk.hash;
+  }
+
+  /** A traversal of an object graph that computes a fingerprint. */
+  private final class Walk {
+
+    /** The time, in the units of {@link System#nanoTime}, when the traversal gives up. */
+    private final long deadline;
+
+    /** The position in the traversal of each object visited so far. */
+    private final Map<Object, Integer> visited = new IdentityHashMap<>();
+
+    /** The fingerprint of the objects visited so far. */
+    long hash = 0;
+
+    /** True if the state cannot be summarized. */
+    boolean abandoned = false;
+
+    /**
+     * Creates a traversal.
+     *
+     * @param deadline the time, in the units of {@link System#nanoTime}, to give up
+     */
+    Walk(long deadline) {
+      this.deadline = deadline;
+    }
+
+    /**
+     * Adds a value to the fingerprint.
+     *
+     * @param value the value
+     */
+    private void mix(long value) {
+      hash = Long.rotateLeft(hash ^ (value * 0x9E3779B97F4A7C15L), 27) * 0xC2B2AE3D27D4EB4FL;
+    }
+
+    /**
+     * Adds a value, and the objects that it refers to, to the fingerprint.
+     *
+     * @param value the value: an object, a boxed primitive, or null
+     * @param depth the depth of the value in the object graph
+     */
+    void visit(@Nullable Object value, int depth) {
+      if (abandoned) {
+        return;
+      }
+      if (value == null) {
+        mix(0);
+        return;
+      }
+      Class<?> c = value.getClass();
+      mix(c.getName().hashCode());
+      if (visitValue(value)) {
+        return;
+      }
+
+      Integer position = visited.get(value);
+      if (position != null) {
+        // A cycle or sharing: summarize by the position of the earlier visit.
+        mix(-1);
+        mix(position);
+        return;
+      }
+      visited.put(value, visited.size());
+      boolean timedOut = timeLimitNanos > 0 && System.nanoTime() - deadline > 0;
+      if (visited.size() > MAX_OBJECTS || timedOut) {
+        abandoned = true;
+        return;
+      }
+      if (depth >= maxDepth) {
+        return;
+      }
+
+      if (c.isArray()) {
+        int length = Array.getLength(value);
+        if (length > MAX_ARRAY_LENGTH) {
+          abandoned = true;
+          return;
+        }
+        mix(length);
+        for (int i = 0; i < length; i++) {
+          visit(Array.get(value, i), depth + 1);
+        }
+        return;
+      }
+
+      Optional<Field[]> fields = FIELDS.get(c);
+      if (!fields.isPresent()) {
+        abandoned = true;
+        return;
+      }
+      for (Field field : fields.get()) {
+        try {
+          visit(field.get(value), depth + 1);
+        } catch (IllegalAccessException e) {
+          abandoned = true;
+          return;
+        }
+      }
+    }
+
+    /**
+     * If the value is compared by value, adds it to the fingerprint.
+     *
+     * @param value a non-null value
+     * @return true if the value is a boxed primitive, string, enum, or class, and has been added
+     */
+    private boolean visitValue(Object value) {
+      if (value instanceof Double) {
+        // doubleToLongBits canonicalizes NaN.
+        mix(Double.doubleToLongBits((Double) value));
+      } else if (value instanceof Float) {
+        mix(Float.floatToIntBits((Float) value));
+      } else if (value instanceof Number) {
+        // Byte, Short, Integer, Long, or another Number; other Numbers are not final, so their
+        // fields are compared instead.
+        if (!(value instanceof Byte
+            || value instanceof Short
+            || value instanceof Integer
+            || value instanceof Long)) {
+          return false;
+        }
+        mix(((Number) value).longValue());
+      } else if (value instanceof Character) {
+        mix((Character) value);
+      } else if (value instanceof Boolean) {
+        mix((Boolean) value ? 1 : 2);
+      } else if (value instanceof String) {
+        String s = (String) value;
+        mix(s.length());
+        mix(s.hashCode());
+      } else if (value instanceof Enum) {
+        mix(((Enum<?>) value).ordinal());
+      } else if (value instanceof Class) {
+        mix(((Class<?>) value).getName().hashCode());
+      } else {
+        return false;
+      }
+      return true;
+    }
+  }
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
 import org.plumelib.util.MapsP;
@@ -93,6 +94,9 @@ public class Bloodhound implements TypedOperationSelector {
   /** {@code System.currentTimeMillis()} when branch coverage was last updated. */
   private long lastUpdateTime = 0;
 
+  /** The prefix of the keys of the state of this selector in a checkpoint. */
+  private static final String STATE_PREFIX = "bloodhound.";
+
   /**
    * Branch coverage is recomputed after this many successful invocations (= this many new tests
    * were generated).
@@ -347,6 +351,56 @@ public class Bloodhound implements TypedOperationSelector {
     return wmk;
   }
 
+  /**
+   * Saves the numbers of successful invocations and of recent selections of the methods under test.
+   * Branch coverage is not saved; it is recomputed from the code that the resumed run executes.
+   *
+   * @param state the state of a checkpoint
+   */
+  @Override
+  public void saveState(Properties state) {
+    state.setProperty(
+        STATE_PREFIX + "successful-invocations", Integer.toString(totalSuccessfulInvocations));
+    state.setProperty(STATE_PREFIX + "max-succ-m", Integer.toString(maxSuccM));
+    for (TypedOperation operation : operationList) {
+      int invocations = methodInvocationCounts.getOrDefault(operation, 0);
+      int selections = methodSelectionCounts.getOrDefault(operation, 0);
+      if (invocations != 0 || selections != 0) {
+        state.setProperty(
+            STATE_PREFIX + "operation." + operation.toParsableString(),
+            invocations + " " + selections);
+      }
+    }
+  }
+
+  /**
+   * Restores the numbers of successful invocations and of recent selections of the methods under
+   * test, and recomputes the weights of all methods under test.
+   *
+   * @param state the state of a checkpoint
+   */
+  @Override
+  public void restoreState(Properties state) {
+    totalSuccessfulInvocations =
+        Integer.parseInt(state.getProperty(STATE_PREFIX + "successful-invocations", "0"));
+    maxSuccM = Integer.parseInt(state.getProperty(STATE_PREFIX + "max-succ-m", "1"));
+    methodInvocationCounts.clear();
+    methodSelectionCounts.clear();
+    for (TypedOperation operation : operationList) {
+      String value = state.getProperty(STATE_PREFIX + "operation." + operation.toParsableString());
+      if (value == null) {
+        continue;
+      }
+      String[] fields = value.split(" ");
+      if (fields.length != 2) {
+        throw new IllegalArgumentException("Bad counts of " + operation + ": " + value);
+      }
+      methodInvocationCounts.put(operation, Integer.parseInt(fields[0]));
+      methodSelectionCounts.put(operation, Integer.parseInt(fields[1]));
+    }
+    updateWeightsForAllOperations();
+  }
+
   /**
    * Increments the number of times a method under test was successfully invoked.
    *
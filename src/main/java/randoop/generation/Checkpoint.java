@@ -0,0 +1,445 @@
+package randoop.generation;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceParseException;
+import randoop.sequence.SequenceTextFile;
+
+/**
+ * Periodically saves the progress of test generation to a directory, so that a run that is killed
+ * can be continued (see {@link randoop.main.GenInputsAbstract#checkpoint_dir} and {@link
+ * randoop.main.GenInputsAbstract#resume}).
+ *
+ * <p>A checkpoint consists of three append-only journals, in the format of {@link
+ * SequenceTextFile}, and a state file. The journals hold the sequences added to the component pool,
+ * the regression tests, and the error-revealing tests. Each checkpoint appends the sequences
+ * recorded since the previous one to the journals, forces them to disk, and then atomically
+ * replaces the state file, which holds the length of each journal and the state given by the
+ * generator. A process that is killed while writing a checkpoint therefore leaves the previous
+ * checkpoint intact: the journals may have a partial record past the lengths in the state file,
+ * which is ignored and overwritten when the run is continued.
+ *
+ * <p>The journals of pool sequences and of error-revealing tests record only additions. After
+ * sequences are removed from the pool or from the error-revealing tests, the next checkpoint
+ * instead writes all of them, as they are then, to a new file of the next generation; the state
+ * file names the generation of each journal, and the file of the previous generation is deleted
+ * once the state file is replaced.
+ */
+public final class Checkpoint {
+
+  /** The names of the journals, in the order of the lists of a {@link Contents}. */
+  private static final List<String> JOURNALS =
+      Arrays.asList("pool.txt", "regression.txt", "error.txt");
+
+  /** The index in {@link #JOURNALS} of the journal of pool sequences. */
+  private static final int POOL = 0;
+
+  /** The index in {@link #JOURNALS} of the journal of regression tests. */
+  private static final int REGRESSION = 1;
+
+  /** The index in {@link #JOURNALS} of the journal of error-revealing tests. */
+  private static final int ERROR = 2;
+
+  /** The name of the state file. */
+  private static final String STATE_FILE = "state.properties";
+
+  /** The prefix of the keys in the state file that hold the lengths of the journals. */
+  private static final String LENGTH_KEY_PREFIX = "journal.";
+
+  /** The prefix of the keys in the state file that hold the generations of the journals. */
+  private static final String GENERATION_KEY_PREFIX = "generation.";
+
+  /** The directory that holds the checkpoint. */
+  private final Path directory;
+
+  /** How often to save a checkpoint, in milliseconds. */
+  private final long intervalMillis;
+
+  /** The time of the next checkpoint, as given by {@link System#currentTimeMillis()}. */
+  private long nextCheckpointMillis;
+
+  /** The sequences recorded since the last checkpoint, for each journal. */
+  private final List<List<Sequence>> pending = new ArrayList<>();
+
+  /** The length, in bytes, of each journal as of the last checkpoint. */
+  private final long[] lengths = new long[JOURNALS.size()];
+
+  /** The generation of the file of each journal as of the last checkpoint. */
+  private final int[] generations = new int[JOURNALS.size()];
+
+  /** True if sequences were removed from the pool since the last checkpoint. */
+  private boolean poolRemoved = false;
+
+  /** True if error-revealing tests were removed since the last checkpoint. */
+  private boolean errorRemoved = false;
+
+  /** The number of checkpoints saved by this process. */
+  private int numCheckpoints = 0;
+
+  /**
+   * Creates a Checkpoint. Call {@link #start} or {@link #resume} before recording sequences.
+   *
+   * @param directory the directory that holds the checkpoint
+   * @param intervalMillis how often to save a checkpoint, in milliseconds; must be positive
+   */
+  public Checkpoint(Path directory, long intervalMillis) {
+    this.directory = directory;
+    this.intervalMillis = intervalMillis;
+    this.nextCheckpointMillis = System.currentTimeMillis() + intervalMillis;
+    for (int i = 0; i < JOURNALS.size(); i++) {
+      pending.add(new ArrayList<>());
+    }
+  }
+
+  /** The sequences and the state saved in a checkpoint. */
+  public static final class Contents {
+
+    /** The sequences that were added to the component pool, in order. */
+    public final List<Sequence> poolSequences;
+
+    /** The sequences of the regression tests, in order. */
+    public final List<Sequence> regressionSequences;
+
+    /** The sequences of the error-revealing tests, in order. */
+    public final List<Sequence> errorSequences;
+
+    /** The state given by the generator. */
+    public final Properties state;
+
+    /**
+     * Creates a Contents.
+     *
+     * @param journals the sequences in each journal
+     * @param state the state given by the generator
+     */
+    Contents(List<List<Sequence>> journals, Properties state) {
+      this.poolSequences = journals.get(POOL);
+      this.regressionSequences = journals.get(REGRESSION);
+      this.errorSequences = journals.get(ERROR);
+      this.state = state;
+    }
+  }
+
+  /**
+   * Discards any checkpoint in the directory, to begin a new run.
+   *
+   * @throws IOException if a file of the checkpoint cannot be deleted
+   */
+  public void start() throws IOException {
+    // Delete the state file first, so that a checkpoint is never paired with emptied journals.
+    Files.deleteIfExists(directory.resolve(STATE_FILE));
+    for (String journal : JOURNALS) {
+      String glob = journal.replace(".txt", "*.txt");
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+        for (Path file : files) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+    Arrays.fill(lengths, 0);
+    Arrays.fill(generations, 0);
+    poolRemoved = false;
+    errorRemoved = false;
+  }
+
+  /**
+   * Returns the file of a journal.
+   *
+   * @param journal the index of the journal in {@link #JOURNALS}
+   * @param generation the generation of the file
+   * @return the file of the given generation of the journal
+   */
+  private Path journalFile(int journal, int generation) {
+    String name = JOURNALS.get(journal);
+    if (generation != 0) {
+      name = name.replace(".txt", "." + generation + ".txt");
+    }
+    return directory.resolve(name);
+  }
+
+  /**
+   * Reads the latest checkpoint in the directory, so that generation can continue from it. New
+   * checkpoints extend it. If the directory contains no checkpoint, this is the same as {@link
+   * #start}.
+   *
+   * @return the contents of the checkpoint, or null if there is none
+   * @throws IOException if a file of the checkpoint cannot be read
+   * @throws SequenceParseException if a sequence in the checkpoint cannot be parsed
+   */
+  public @Nullable Contents resume() throws IOException, SequenceParseException {
+    Path stateFile = directory.resolve(STATE_FILE);
+    if (!Files.exists(stateFile)) {
+      start();
+      return null;
+    }
+    Properties state = new Properties();
+    try (InputStream in = Files.newInputStream(stateFile)) {
+      state.load(in);
+    }
+    List<List<Sequence>> journals = new ArrayList<>();
+    for (int i = 0; i < JOURNALS.size(); i++) {
+      String name = JOURNALS.get(i);
+      @Nullable String length = (String) state.remove(LENGTH_KEY_PREFIX + name);
+      if (length == null) {
+        throw new IOException("No length of " + name + " in " + stateFile);
+      }
+      // A checkpoint whose pool was never rewritten has no generations.
+      String generation = (String) state.remove(GENERATION_KEY_PREFIX + name);
+      try {
+        lengths[i] = Long.parseLong(length);
+        generations[i] = generation == null ? 0 : Integer.parseInt(generation);
+      } catch (NumberFormatException e) {
+        throw new IOException("Bad length or generation of " + name + " in " + stateFile, e);
+      }
+      journals.add(readJournal(journalFile(i, generations[i]), lengths[i]));
+    }
+    return new Contents(journals, state);
+  }
+
+  /**
+   * Reads the first bytes of a journal, which hold the sequences saved in the latest checkpoint.
+   * Reads one line at a time, so the text of the journal is never all in memory.
+   *
+   * @param journal the journal
+   * @param length the length of the journal as of the latest checkpoint
+   * @return the sequences in the first {@code length} bytes of the journal
+   * @throws IOException if the journal cannot be read or is too short
+   * @throws SequenceParseException if a sequence in the journal cannot be parsed
+   */
+  private static List<Sequence> readJournal(Path journal, long length)
+      throws IOException, SequenceParseException {
+    if (length == 0) {
+      return new ArrayList<>();
+    }
+    try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+      if (channel.size() < length) {
+        throw new IOException(journal + " is shorter than its checkpointed length " + length);
+      }
+      InputStream in = new LimitedInputStream(Channels.newInputStream(channel), length);
+      BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+      return SequenceTextFile.parse(reader);
+    }
+  }
+
+  /** An input stream that ends after a given number of bytes of another stream. */
+  private static final class LimitedInputStream extends FilterInputStream {
+
+    /** The number of bytes that remain to be read. */
+    private long remaining;
+
+    /**
+     * Creates a LimitedInputStream.
+     *
+     * @param in the underlying stream
+     * @param limit the number of bytes to read from it
+     */
+    LimitedInputStream(InputStream in, long limit) {
+      super(in);
+      this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int b = super.read();
+      if (b >= 0) {
+        remaining--;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int n = super.read(b, off, (int) Math.min(len, remaining));
+      if (n > 0) {
+        remaining -= n;
+      }
+      return n;
+    }
+  }
+
+  /**
+   * Records a sequence that was added to the component pool, to be saved in the next checkpoint.
+   *
+   * @param sequence the sequence
+   */
+  void recordPoolSequence(Sequence sequence) {
+    pending.get(POOL).add(sequence);
+  }
+
+  /**
+   * Records that sequences were removed from the component pool. The next checkpoint writes the
+   * pool as it is then, instead of appending the sequences recorded since the previous one.
+   */
+  void recordPoolRemoval() {
+    poolRemoved = true;
+    pending.get(POOL).clear();
+  }
+
+  /**
+   * Records the sequence of a regression test, to be saved in the next checkpoint.
+   *
+   * @param sequence the sequence
+   */
+  void recordRegressionSequence(Sequence sequence) {
+    pending.get(REGRESSION).add(sequence);
+  }
+
+  /**
+   * Records the sequence of an error-revealing test, to be saved in the next checkpoint.
+   *
+   * @param sequence the sequence
+   */
+  void recordErrorSequence(Sequence sequence) {
+    pending.get(ERROR).add(sequence);
+  }
+
+  /**
+   * Records that error-revealing tests were removed, for example because shorter ones fail in the
+   * same way. The next checkpoint writes the error-revealing tests as they are then, instead of
+   * appending the tests recorded since the previous one.
+   */
+  void recordErrorRemoval() {
+    errorRemoved = true;
+    pending.get(ERROR).clear();
+  }
+
+  /**
+   * Returns true if the checkpoint interval has elapsed since the last checkpoint.
+   *
+   * @return true if it is time to save a checkpoint
+   */
+  boolean isDue() {
+    return System.currentTimeMillis() >= nextCheckpointMillis;
+  }
+
+  /**
+   * Saves a checkpoint: appends the recorded sequences to the journals and replaces the state
+   * file. If sequences were removed from the pool or from the error-revealing tests since the last
+   * checkpoint, writes the given pool sequences or error-revealing tests to a new journal file
+   * instead.
+   *
+   * @param state the state of the generator
+   * @param poolSequences supplies the generated sequences in the component pool; called only if
+   *     sequences were removed from the pool
+   * @param errorSequences supplies the sequences of the error-revealing tests; called only if
+   *     error-revealing tests were removed
+   * @throws IOException if the checkpoint cannot be written; the previous checkpoint is then still
+   *     valid
+   */
+  void save(
+      Properties state,
+      Supplier<? extends Collection<Sequence>> poolSequences,
+      Supplier<? extends Collection<Sequence>> errorSequences)
+      throws IOException {
+    long[] newLengths = new long[lengths.length];
+    int[] newGenerations = generations.clone();
+    for (int i = 0; i < JOURNALS.size(); i++) {
+      if (i == POOL && poolRemoved) {
+        newGenerations[i]++;
+        newLengths[i] = append(journalFile(i, newGenerations[i]), 0, poolSequences.get());
+      } else if (i == ERROR && errorRemoved) {
+        newGenerations[i]++;
+        newLengths[i] = append(journalFile(i, newGenerations[i]), 0, errorSequences.get());
+      } else {
+        newLengths[i] = append(journalFile(i, generations[i]), lengths[i], pending.get(i));
+      }
+    }
+    Properties saved = new Properties();
+    saved.putAll(state);
+    for (int i = 0; i < JOURNALS.size(); i++) {
+      saved.setProperty(LENGTH_KEY_PREFIX + JOURNALS.get(i), Long.toString(newLengths[i]));
+      saved.setProperty(
+          GENERATION_KEY_PREFIX + JOURNALS.get(i), Integer.toString(newGenerations[i]));
+    }
+    Path stateFile = directory.resolve(STATE_FILE);
+    Path tmpFile = directory.resolve(STATE_FILE + ".tmp");
+    try (OutputStream out = Files.newOutputStream(tmpFile)) {
+      saved.store(out, "Randoop checkpoint");
+    }
+    Files.move(
+        tmpFile, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    int[] oldGenerations = generations.clone();
+    System.arraycopy(newLengths, 0, lengths, 0, lengths.length);
+    System.arraycopy(newGenerations, 0, generations, 0, generations.length);
+    for (List<Sequence> sequences : pending) {
+      sequences.clear();
+    }
+    poolRemoved = false;
+    errorRemoved = false;
+    nextCheckpointMillis = System.currentTimeMillis() + intervalMillis;
+    numCheckpoints++;
+
+    for (int i = 0; i < JOURNALS.size(); i++) {
+      if (generations[i] != oldGenerations[i]) {
+        try {
+          Files.deleteIfExists(journalFile(i, oldGenerations[i]));
+        } catch (IOException e) {
+          // The checkpoint is saved; the stale file is deleted when a new run starts.
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes sequences to a journal at the end of its checkpointed part, overwriting any partial
+   * record left by a process that was killed, and forces them to disk.
+   *
+   * @param journal the journal
+   * @param length the length of the journal as of the last checkpoint
+   * @param sequences the sequences to append
+   * @return the new length of the journal
+   * @throws IOException if the journal cannot be written
+   */
+  private static long append(Path journal, long length, Collection<Sequence> sequences)
+      throws IOException {
+    ByteBuffer bytes =
+        ByteBuffer.wrap(SequenceTextFile.format(sequences).getBytes(StandardCharsets.UTF_8));
+    try (FileChannel channel =
+        FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      channel.truncate(length);
+      long position = length;
+      while (bytes.hasRemaining()) {
+        position += channel.write(bytes, position);
+      }
+      channel.force(false);
+      return position;
+    }
+  }
+
+  /**
+   * Returns the number of checkpoints saved by this process.
+   *
+   * @return the number of checkpoints saved
+   */
+  public int numCheckpoints() {
+    return numCheckpoints;
+  }
+}
@@ -0,0 +1,177 @@
+package randoop.generation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import randoop.sequence.Sequence;
+
+/**
+ * Tracks the utility of generated sequences in the component pool, and chooses which of them to
+ * evict when the pool is over budget. This is used when {@link
+ * randoop.main.GenInputsAbstract#pool_eviction} is set, in place of clearing the whole pool.
+ *
+ * <p>The utility of a sequence is its value divided by its cost:
+ *
+ * <ul>
+ *   <li>Its value grows with the number of times it has been selected as an input, and (more
+ *       steeply) with the number of sequences built from it that revealed an error or produced a
+ *       new primitive value.
+ *   <li>Its cost is its length plus a term for its execution time, since every sequence built from
+ *       it re-executes it.
+ * </ul>
+ *
+ * <p>The most recently added sequences are never evicted, because they have had no chance to be
+ * selected yet.
+ */
+final class ComponentEvictor {
+
+  /** How much more a productive descendant counts than a single selection. */
+  private static final int PRODUCTIVE_DESCENDANT_WEIGHT = 4;
+
+  /** Execution time, in nanoseconds, that costs as much as one statement of length. */
+  private static final long NANOS_PER_COST_UNIT = 100_000;
+
+  /** The fraction of the tracked sequences, the most recently added, that are not evictable. */
+  private static final double PROTECTED_FRACTION = 0.25;
+
+  /** Usage statistics for one sequence in the pool. */
+  private static class Utility {
+    /** The sequence's length plus a term for its execution time. */
+    private final double cost;
+
+    /** The number of times the sequence has been selected as an input. */
+    private int timesSelected = 0;
+
+    /** The number of sequences built from this one that were productive. */
+    private int productiveDescendants = 0;
+
+    /**
+     * Creates a Utility.
+     *
+     * @param size the length of the sequence
+     * @param executionTimeNanos the execution time of the sequence, in nanoseconds
+     */
+    Utility(int size, long executionTimeNanos) {
+      this.cost =
+          Math.max(1, size) + Math.max(0, executionTimeNanos) / (double) NANOS_PER_COST_UNIT;
+    }
+
+    /**
+     * Returns the utility of the sequence; higher is more useful.
+     *
+     * @return the utility of the sequence
+     */
+    double score() {
+      return (1 + timesSelected + PRODUCTIVE_DESCENDANT_WEIGHT * productiveDescendants) / cost;
+    }
+  }
+
+  /** The evictable sequences, in the order they were added. */
+  private final Map<Sequence, Utility> utilities = new LinkedHashMap<>();
+
+  /** The total number of sequences evicted so far. */
+  private int numEvicted = 0;
+
+  /** Creates an evictor that tracks no sequences. */
+  ComponentEvictor() {}
+
+  /**
+   * Starts tracking a newly-added sequence. Does nothing if the sequence is already tracked.
+   *
+   * @param sequence a sequence that was added to the pool
+   * @param executionTimeNanos the execution time of the sequence, in nanoseconds
+   */
+  void added(Sequence sequence, long executionTimeNanos) {
+    if (!utilities.containsKey(sequence)) {
+      utilities.put(sequence, new Utility(sequence.size(), executionTimeNanos));
+    }
+  }
+
+  /**
+   * Records that the given sequences were selected as inputs for a new sequence.
+   *
+   * @param sequences the selected input sequences
+   */
+  void selected(Collection<Sequence> sequences) {
+    for (Sequence sequence : sequences) {
+      Utility u = utilities.get(sequence);
+      if (u != null) {
+        u.timesSelected++;
+      }
+    }
+  }
+
+  /**
+   * Records that a sequence built from the given sequences was productive: it revealed an error or
+   * produced a new primitive value.
+   *
+   * @param sequences the input sequences of the productive sequence
+   */
+  void productive(Collection<Sequence> sequences) {
+    for (Sequence sequence : sequences) {
+      Utility u = utilities.get(sequence);
+      if (u != null) {
+        u.productiveDescendants++;
+      }
+    }
+  }
+
+  /**
+   * Chooses the sequences to evict and stops tracking them.
+   *
+   * @param fraction the fraction of the tracked sequences to evict, in (0, 1]
+   * @return the sequences to remove from the pool
+   */
+  Set<Sequence> evict(double fraction) {
+    int numCandidates = (int) (utilities.size() * (1 - PROTECTED_FRACTION));
+    int numToEvict = Math.min(numCandidates, (int) Math.ceil(utilities.size() * fraction));
+    if (numToEvict <= 0) {
+      return new HashSet<>(0);
+    }
+
+    List<Map.Entry<Sequence, Utility>> candidates = new ArrayList<>(numCandidates);
+    Iterator<Map.Entry<Sequence, Utility>> iter = utilities.entrySet().iterator();
+    for (int i = 0; i < numCandidates; i++) {
+      candidates.add(iter.next());
+    }
+    // The sort is stable, so among equally useful sequences the oldest are evicted first.
+    candidates.sort(Comparator.comparingDouble(e -> e.getValue().score()));
+
+    Set<Sequence> result = new HashSet<>();
+    for (int i = 0; i < numToEvict; i++) {
+      result.add(candidates.get(i).getKey());
+    }
+    utilities.keySet().removeAll(result);
+    numEvicted += result.size();
+    return result;
+  }
+
+  /**
+   * Returns the number of sequences whose utility is tracked, from which {@link #evict} chooses.
+   *
+   * @return the number of tracked sequences
+   */
+  int numTracked() {
+    return utilities.size();
+  }
+
+  /** Stops tracking all sequences, because the pool has been cleared. */
+  void clear() {
+    utilities.clear();
+  }
+
+  /**
+   * Returns the total number of sequences evicted so far.
+   *
+   * @return the number of sequences evicted
+   */
+  int numEvicted() {
+    return numEvicted;
+  }
+}
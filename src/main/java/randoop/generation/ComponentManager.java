@@ -1,26 +1,38 @@
 package randoop.generation;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.util.CollectionsPlume;
 import org.plumelib.util.MapsP;
 import org.plumelib.util.SIList;
+import randoop.generation.literaltfidf.LiteralStatistics;
 import randoop.generation.literaltfidf.ScopeToLiteralStatistics;
 import randoop.main.GenInputsAbstract;
 import randoop.main.RandoopBug;
+import randoop.main.RandoopUsageError;
 import randoop.operation.TypedClassOperation;
 import randoop.operation.TypedOperation;
 import randoop.reflection.AccessibilityPredicate;
 import randoop.reflection.TypeInstantiator;
 import randoop.sequence.Sequence;
 import randoop.sequence.SequenceCollection;
+import randoop.sequence.SequenceSpillFile;
 import randoop.types.ClassOrInterfaceType;
 import randoop.types.JavaTypes;
 import randoop.types.PrimitiveType;
 import randoop.types.Type;
+import randoop.util.GenerationMetrics;
 import randoop.util.Log;
 
 /**
@@ -42,10 +54,26 @@ import randoop.util.Log;
  * on the class and package in which the method is defined.)
  *
  * <p>Calling {@link #clearGeneratedSequences()} removes all non-seed, non-literal sequences,
- * restoring the pool to the original seeds.
+ * restoring the pool to the original seeds. Alternately, if {@link
+ * GenInputsAbstract#pool_eviction} is set, {@link #evictLowUtilitySequences(double)} removes only
+ * the least useful generated sequences. If {@link GenInputsAbstract#pool_spill_dir} is set, the
+ * removed sequences are moved to a {@link SequenceSpillFile} instead of being discarded, and are
+ * read back when they are needed as inputs.
  */
 public class ComponentManager {
 
+  /** The name of the metrics counter of candidate lists reused from {@link #candidateCache}. */
+  public static final String CANDIDATE_CACHE_HITS = "candidate-cache.hits";
+
+  /** The name of the metrics counter of candidate lists not found in {@link #candidateCache}. */
+  public static final String CANDIDATE_CACHE_MISSES = "candidate-cache.misses";
+
+  /** The name of the metrics counter of sequences written to the spill file. */
+  public static final String SPILLED_COUNTER = "pool.spilled-sequences";
+
+  /** The name of the metrics counter of sequences read back from the spill file. */
+  public static final String PAGED_IN_COUNTER = "pool.paged-in-sequences";
+
   /**
    * The principal set of sequences used to create other, larger sequences by the generator.
    * Contains both general components and seed sequences. Can be reset by calling {@link
@@ -87,6 +115,21 @@ public class ComponentManager {
    */
   private final Set<Type> sutParameterNeverReturnedTypes = new LinkedHashSet<>();
 
+  /**
+   * Tracks the utility of generated sequences, if {@link GenInputsAbstract#pool_eviction} is set.
+   * Otherwise null.
+   */
+  private final @Nullable ComponentEvictor evictor;
+
+  /**
+   * The candidate lists computed by {@link #getSequencesForParam}, so that repeated selections for
+   * the same parameter type do not recompute them while the pool is unchanged.
+   */
+  private final Map<CandidateKey, CandidateList> candidateCache = new HashMap<>();
+
+  /** The sequences moved to the spill file since the last call to {@link #takeSpilledSequences}. */
+  private final List<Sequence> spilledSequences = new ArrayList<>();
+
   /**
    * Create an empty component manager, with an immutable empty seed sequence set.
    *
@@ -114,9 +157,30 @@ public class ComponentManager {
     this.gralSeeds = Collections.unmodifiableSet(seedSequences);
     gralComponents = new SequenceCollection(seedSequences);
     this.accessibility = accessibility;
+    this.evictor = GenInputsAbstract.pool_eviction ? new ComponentEvictor() : null;
+    if (GenInputsAbstract.pool_spill_dir != null) {
+      gralComponents.setSpillFile(createSpillFile(GenInputsAbstract.pool_spill_dir));
+    }
     initDemandDrivenIfEnabled();
   }
 
+  /**
+   * Creates a spill file for the pool in the given directory. The file is deleted by {@link
+   * #closeSpillFile}, or when Randoop exits.
+   *
+   * @param dir the directory in which to create the file
+   * @return the spill file
+   */
+  private static SequenceSpillFile createSpillFile(Path dir) {
+    try {
+      Path file = Files.createTempFile(dir, "randoop-pool-", ".bin");
+      file.toFile().deleteOnExit();
+      return new SequenceSpillFile(file);
+    } catch (IOException e) {
+      throw new RandoopUsageError("Cannot create a pool spill file in " + dir, e);
+    }
+  }
+
   /**
    * If demand-driven input generation is enabled, set up the demand-driven input creator for the
    * component manager.
@@ -140,6 +204,17 @@ public class ComponentManager {
     return gralComponents.size();
   }
 
+  /**
+   * Returns the number of generated sequences that {@link #evictLowUtilitySequences(double)}
+   * chooses from: those added since the last eviction or clearing, not counting seeds. Zero unless
+   * {@link GenInputsAbstract#pool_eviction} is set.
+   *
+   * @return the number of sequences that may be evicted
+   */
+  public int numEvictableSequences() {
+    return evictor == null ? 0 : evictor.numTracked();
+  }
+
   /**
    * Register types that are SUT-parameters but not SUT-returned.
    *
@@ -180,7 +255,128 @@ public class ComponentManager {
    * @param sequence the sequence
    */
   public void addGeneratedSequence(Sequence sequence) {
+    addGeneratedSequence(sequence, 0);
+  }
+
+  /**
+   * Add a component sequence that has been executed.
+   *
+   * @param sequence the sequence
+   * @param executionTimeNanos the time it took to execute the sequence, in nanoseconds
+   */
+  public void addGeneratedSequence(Sequence sequence, long executionTimeNanos) {
     gralComponents.add(sequence);
+    if (evictor != null && !gralSeeds.contains(sequence)) {
+      evictor.added(sequence, executionTimeNanos);
+    }
+  }
+
+  /**
+   * Records that the given sequences were selected as inputs for a new sequence. Used to decide
+   * which sequences to evict.
+   *
+   * @param inputSequences the selected input sequences
+   */
+  void recordSelectedInputs(List<Sequence> inputSequences) {
+    if (evictor != null) {
+      evictor.selected(inputSequences);
+    }
+  }
+
+  /**
+   * Records that a sequence built from the given sequences revealed an error or produced a new
+   * primitive value. Used to decide which sequences to evict.
+   *
+   * @param inputSequences the input sequences of the productive sequence
+   */
+  void recordProductiveInputs(List<Sequence> inputSequences) {
+    if (evictor != null) {
+      evictor.productive(inputSequences);
+    }
+  }
+
+  /**
+   * Removes the least useful generated sequences. Seed sequences are never removed. Does nothing
+   * unless {@link GenInputsAbstract#pool_eviction} is set.
+   *
+   * @param fraction the fraction of the generated sequences to remove, in (0, 1]
+   * @return the number of sequences removed
+   */
+  int evictLowUtilitySequences(double fraction) {
+    if (evictor == null) {
+      return 0;
+    }
+    Set<Sequence> evicted = evictor.evict(fraction);
+    if (gralComponents.hasSpillFile()) {
+      spill(evicted);
+    } else {
+      gralComponents.removeAll(evicted);
+    }
+    Log.logPrintf("Evicted %d low-utility sequences from the pool.%n", evicted.size());
+    GenerationMetrics.increment("pool.evicted-sequences", evicted.size());
+    return evicted.size();
+  }
+
+  /**
+   * Moves the given sequences from the pool to the spill file. If the file cannot be extended, the
+   * sequences are discarded instead.
+   *
+   * @param sequences the sequences to move
+   */
+  private void spill(Set<Sequence> sequences) {
+    try {
+      int written = gralComponents.spill(sequences);
+      Log.logPrintf("Spilled %d sequences from the pool.%n", written);
+      GenerationMetrics.increment(SPILLED_COUNTER, written);
+      spilledSequences.addAll(sequences);
+    } catch (IOException e) {
+      // Spilling is an optimization; without it, the sequences are lost as if cleared.
+      Log.logPrintf("Unable to spill sequences from the pool: %s%n", e);
+      gralComponents.removeAll(sequences);
+    }
+  }
+
+  /**
+   * Returns the sequences moved to the spill file since the last call, and forgets them. A client
+   * that keeps its own references to generated sequences can drop these, and use {@link
+   * #isSpilled} instead, so that the spilled sequences take no heap space.
+   *
+   * @return the sequences moved to the spill file since the last call
+   */
+  List<Sequence> takeSpilledSequences() {
+    List<Sequence> result = new ArrayList<>(spilledSequences);
+    spilledSequences.clear();
+    return result;
+  }
+
+  /**
+   * Returns true if a sequence equal to the given one was moved to the spill file.
+   *
+   * @param sequence a sequence
+   * @return true if the sequence is in the spill file
+   */
+  boolean isSpilled(Sequence sequence) {
+    return gralComponents.isSpilled(sequence);
+  }
+
+  /** Closes and deletes the spill file, if there is one. Call when generation is done. */
+  public void closeSpillFile() {
+    spilledSequences.clear();
+    try {
+      gralComponents.closeSpillFile();
+    } catch (IOException e) {
+      // The file is also deleted when Randoop exits.
+      Log.logPrintf("Unable to delete the pool spill file: %s%n", e);
+    }
+  }
+
+  /**
+   * Returns the number of sequences removed by {@link #evictLowUtilitySequences(double)} so far.
+   *
+   * @return the number of evicted sequences
+   */
+  public int numEvictedSequences() {
+    return evictor == null ? 0 : evictor.numEvicted();
   }
 
   /**
@@ -200,13 +396,29 @@ public class ComponentManager {
   // This is called in OperationModel.addClassLiterals().
   public void setScopeToLiteralStatistics(ScopeToLiteralStatistics scopeToLiteralStatistics) {
     this.scopeToLiteralStatistics = scopeToLiteralStatistics;
+    candidateCache.clear();
   }
 
   /**
    * Removes any component sequences added so far, except for seed sequences, which are preserved.
+   * If there is a spill file, the removed sequences are moved to it.
    */
   void clearGeneratedSequences() {
+    if (gralComponents.hasSpillFile()) {
+      Set<Sequence> generated = new LinkedHashSet<>(gralComponents.getAllSequences());
+      generated.removeAll(gralSeeds);
+      spill(generated);
+      if (evictor != null) {
+        evictor.clear();
+      }
+      return;
+    }
     gralComponents = new SequenceCollection(this.gralSeeds);
+    // The modification counts of the new collection are unrelated to those of the old one.
+    candidateCache.clear();
+    if (evictor != null) {
+      evictor.clear();
+    }
     initDemandDrivenIfEnabled();
     if (!sutParameterNeverReturnedTypes.isEmpty()) {
       gralComponents.addSutParameterOnlyTypes(sutParameterNeverReturnedTypes);
@@ -222,6 +434,21 @@ public class ComponentManager {
     return gralComponents.getAllSequences();
   }
 
+  /**
+   * Returns the sequences in the pool that are not seed sequences.
+   *
+   * @return the non-seed sequences in the pool
+   */
+  List<Sequence> getGeneratedPoolSequences() {
+    List<Sequence> result = new ArrayList<>();
+    for (Sequence sequence : gralComponents.getAllSequences()) {
+      if (!gralSeeds.contains(sequence)) {
+        result.add(sequence);
+      }
+    }
+    return result;
+  }
+
   /**
    * Returns all general component sequences whose output type is assignable to {@code cls}
    * (including subtypes).
@@ -233,6 +460,30 @@ public class ComponentManager {
     return gralComponents.getSequencesForType(cls, false, false);
   }
 
+  /**
+   * Returns the operations of up to {@code max} distinct general component sequences that are a
+   * single literal of exactly the given type, such as {@code int var0 = 1}, in the order that they
+   * were added. Does not read back spilled sequences.
+   *
+   * @param type the type of the literals
+   * @param max the maximum number of operations to return
+   * @return the operations of single-literal sequences of the given type
+   */
+  List<TypedOperation> getPooledLiterals(Type type, int max) {
+    List<TypedOperation> result = new ArrayList<>();
+    SIList<Sequence> sequences = gralComponents.getSequencesForType(type, true, false, false);
+    for (int i = 0; i < sequences.size() && result.size() < max; i++) {
+      Sequence sequence = sequences.get(i);
+      if (sequence.isNonreceiver()) {
+        TypedOperation operation = sequence.getStatement(0).getOperation();
+        if (!result.contains(operation)) {
+          result.add(operation);
+        }
+      }
+    }
+    return result;
+  }
+
   /**
    * Returns candidate sequences for the {@code i}-th input of {@code operation}: pool sequences
    * whose output type is assignable to the required type (including subtypes), followed by literal
@@ -241,6 +492,13 @@ public class ComponentManager {
    * <p>Literals are used only if {@link GenInputsAbstract#literals_level} != {@code NONE} and are
    * skipped for receiver positions.
    *
+   * <p>The result is cached per needed type, {@code onlyReceivers}, and literal scope, and reused
+   * until {@link SequenceCollection#getModificationCount} reports that the pool sequences for the
+   * needed type may have changed.
+   *
+   * <p>If there is a spill file, this may first read back a spilled sequence of the needed type
+   * into the pool, so that spilled sequences are candidates too.
+   *
    * @param operation the operation whose {@code i}th parameter to find values for
    * @param i an input value index for {@code operation}
    * @param onlyReceivers if true, the client of this method only returns sequences that are
@@ -263,26 +521,112 @@ public class ComponentManager {
     //  * sequences from the pool (gralComponents)
     //  * literals, which depend on `declaringCls` (defined below)
 
-    SIList<Sequence> result = gralComponents.getSequencesForType(neededType, false, onlyReceivers);
-
-    // If literals are disabled, don't attempt to add any.
-    if (GenInputsAbstract.literals_level == GenInputsAbstract.ClassLiteralsMode.NONE) {
-      return result;
-    }
-
-    // Compute relevant literals.
-    SIList<Sequence> literals = SIList.empty();
-    if (operation instanceof TypedClassOperation
+    // The literals in scope, or null if no literals are added.
+    LiteralStatistics literalScope = null;
+    if (GenInputsAbstract.literals_level != GenInputsAbstract.ClassLiteralsMode.NONE
+        && scopeToLiteralStatistics != null
+        && operation instanceof TypedClassOperation
         // Don't add literals for the receiver
         && !onlyReceivers) {
       // The operation is a method call, where the method is defined in class C.
       ClassOrInterfaceType declaringCls = ((TypedClassOperation) operation).getDeclaringType();
       assert declaringCls != null;
       // The scope is determined from the class `declaringCls`.
-      literals = getLiteralSequences(neededType, declaringCls);
+      literalScope = scopeToLiteralStatistics.getLiteralStatistics(declaringCls);
+    }
+
+    Sequence pagedIn = gralComponents.pageIn(neededType, onlyReceivers);
+    if (pagedIn != null) {
+      GenerationMetrics.increment(PAGED_IN_COUNTER, 1);
+      if (evictor != null) {
+        evictor.added(pagedIn, 0);
+      }
+    }
+
+    CandidateKey key = new CandidateKey(neededType, onlyReceivers, literalScope);
+    int modificationCount = gralComponents.getModificationCount(neededType);
+    CandidateList cached = candidateCache.get(key);
+    if (cached != null && cached.modificationCount == modificationCount) {
+      GenerationMetrics.increment(CANDIDATE_CACHE_HITS, 1);
+      return cached.sequences;
     }
+    GenerationMetrics.increment(CANDIDATE_CACHE_MISSES, 1);
 
-    return SIList.concat(result, literals);
+    SIList<Sequence> result = gralComponents.getSequencesForType(neededType, false, onlyReceivers);
+    if (literalScope != null) {
+      result = SIList.concat(result, literalScope.getSequencesForType(neededType));
+    }
+    // If the pool has no sequences, demand-driven input creation may find different ones later.
+    if (!result.isEmpty() || !GenInputsAbstract.call_non_sut_methods) {
+      candidateCache.put(key, new CandidateList(modificationCount, result));
+    }
+    return result;
+  }
+
+  /** Identifies a candidate list computed by {@link #getSequencesForParam}. */
+  private static final class CandidateKey {
+
+    /** The needed type. */
+    private final Type neededType;
+
+    /** True if only receivers are candidates. */
+    private final boolean onlyReceivers;
+
+    /** The literals in scope, or null if no literals are candidates. */
+    private final @Nullable LiteralStatistics literalScope;
+
+    /**
+     * Creates a CandidateKey.
+     *
+     * @param neededType the needed type
+     * @param onlyReceivers true if only receivers are candidates
+     * @param literalScope the literals in scope, or null if no literals are candidates
+     */
+    CandidateKey(Type neededType, boolean onlyReceivers, @Nullable LiteralStatistics literalScope) {
+      this.neededType = neededType;
+      this.onlyReceivers = onlyReceivers;
+      this.literalScope = literalScope;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof CandidateKey)) {
+        return false;
+      }
+      CandidateKey other = (CandidateKey) obj;
+      return neededType.equals(other.neededType)
+          && onlyReceivers == other.onlyReceivers
+          && Objects.equals(literalScope, other.literalScope);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(neededType, onlyReceivers, literalScope);
+    }
+  }
+
+  /** A candidate list computed by {@link #getSequencesForParam}. */
+  private static final class CandidateList {
+
+    /** The modification count of the pool for the needed type when the list was computed. */
+    final int modificationCount;
+
+    /** The candidate sequences. */
+    final SIList<Sequence> sequences;
+
+    /**
+     * Creates a CandidateList.
+     *
+     * @param modificationCount the modification count of the pool for the needed type
+     * @param sequences the candidate sequences
+     */
+    CandidateList(int modificationCount, SIList<Sequence> sequences) {
+      this.modificationCount = modificationCount;
+      this.sequences = sequences;
+    }
   }
 
   /**
@@ -0,0 +1,254 @@
+package randoop.generation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.sequence.ExecutableSequence;
+import randoop.util.GenerationMetrics;
+import randoop.util.Log;
+
+/**
+ * Groups error-revealing sequences by how they fail, and keeps only the shortest few sequences of
+ * each group. Two sequences fail in the same way if their last statements call the same operation,
+ * their failing checks are of the same kinds, violate the same contracts, and report the same
+ * exceptions, and the top {@link #STACK_FRAMES} frames of code under test in the stack trace of
+ * the exception thrown by the last statement, if any, are the same.
+ *
+ * <p>When one bug is easy to trigger, Randoop finds many sequences that reveal it. Keeping a few
+ * of them makes the cost of writing, minimizing, and compiling error-revealing tests depend on the
+ * number of distinct failures rather than on the number of sequences that reveal them.
+ */
+public class FailureClusters {
+
+  /** The name of the metrics counter of error-revealing sequences that are not kept. */
+  public static final String DISCARDED_COUNTER = "errors.clustered-duplicates";
+
+  /** The number of stack frames of code under test that identify a failure. */
+  static final int STACK_FRAMES = 5;
+
+  /** Prefixes of the names of classes that are not under test, whose frames are ignored. */
+  private static final String[] NON_SUT_PREFIXES = {
+    "java.", "javax.", "jdk.", "sun.", "com.sun.", "randoop.", "org.junit."
+  };
+
+  /** The maximum number of sequences kept per failure. */
+  private final int maxPerFailure;
+
+  /** The sequences kept for each failure signature, shortest first. */
+  private final Map<List<Object>, List<ExecutableSequence>> clusters = new HashMap<>();
+
+  /** The number of sequences that were not kept, or that were replaced by shorter ones. */
+  private int discarded = 0;
+
+  /**
+   * Creates an empty set of clusters.
+   *
+   * @param maxPerFailure the maximum number of sequences kept per failure; must be positive
+   */
+  public FailureClusters(int maxPerFailure) {
+    if (maxPerFailure <= 0) {
+      throw new IllegalArgumentException("maxPerFailure must be positive: " + maxPerFailure);
+    }
+    this.maxPerFailure = maxPerFailure;
+  }
+
+  /**
+   * Adds an error-revealing sequence to its cluster. If the cluster is full, the longest of its
+   * sequences and the new one is not kept, and is returned.
+   *
+   * @param eseq an executed error-revealing sequence
+   * @return the sequence that is not kept: {@code eseq}, a sequence that was kept before, or null
+   *     if all are kept
+   */
+  public @Nullable ExecutableSequence add(ExecutableSequence eseq) {
+    List<Object> signature = signature(eseq);
+    List<ExecutableSequence> cluster = clusters.computeIfAbsent(signature, s -> new ArrayList<>());
+    int size = eseq.sequence.size();
+    int index = cluster.size();
+    while (index > 0 && cluster.get(index - 1).sequence.size() > size) {
+      index--;
+    }
+    if (index == maxPerFailure) {
+      return discard(eseq);
+    }
+    cluster.add(index, eseq);
+    if (cluster.size() > maxPerFailure) {
+      return discard(cluster.remove(cluster.size() - 1));
+    }
+    return null;
+  }
+
+  /**
+   * Adds a sequence that an earlier run kept, such as an error-revealing test resumed from a
+   * checkpoint, to its cluster. Unlike {@link #add}, never discards a sequence: the earlier run
+   * already chose which sequences to keep.
+   *
+   * @param eseq an executed error-revealing sequence that was kept
+   */
+  public void restore(ExecutableSequence eseq) {
+    List<ExecutableSequence> cluster =
+        clusters.computeIfAbsent(signature(eseq), s -> new ArrayList<>());
+    int size = eseq.sequence.size();
+    int index = cluster.size();
+    while (index > 0 && cluster.get(index - 1).sequence.size() > size) {
+      index--;
+    }
+    cluster.add(index, eseq);
+  }
+
+  /**
+   * Replaces a kept sequence by another that fails in the same way, such as a reduced version of
+   * it. The replacement stays in the cluster of the sequence that it replaces, even if its own
+   * stack frames differ, so that sequences can be clustered before they are reduced and only the
+   * kept ones need be reduced.
+   *
+   * @param kept a sequence that {@link #add} kept
+   * @param replacement the sequence that replaces it
+   */
+  public void replace(ExecutableSequence kept, ExecutableSequence replacement) {
+    List<ExecutableSequence> cluster = clusters.get(signature(kept));
+    if (cluster == null) {
+      throw new IllegalArgumentException("Not a kept sequence: " + kept);
+    }
+    int index = indexOf(cluster, kept);
+    if (index == -1) {
+      throw new IllegalArgumentException("Not a kept sequence: " + kept);
+    }
+    cluster.remove(index);
+    int size = replacement.sequence.size();
+    index = cluster.size();
+    while (index > 0 && cluster.get(index - 1).sequence.size() > size) {
+      index--;
+    }
+    cluster.add(index, replacement);
+  }
+
+  /**
+   * Returns the index of a sequence in a list, comparing by identity.
+   *
+   * @param list a list of sequences
+   * @param eseq a sequence
+   * @return the index of {@code eseq} in {@code list}, or -1 if it is not there
+   */
+  @SuppressWarnings("ReferenceEquality") // ExecutableSequence.equals compares the sequences
+  private static int indexOf(List<ExecutableSequence> list, ExecutableSequence eseq) {
+    for (int i = 0; i < list.size(); i++) {
+      if (list.get(i) == eseq) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Records that a sequence is not kept.
+   *
+   * @param eseq the sequence that is not kept
+   * @return {@code eseq}
+   */
+  private ExecutableSequence discard(ExecutableSequence eseq) {
+    discarded++;
+    GenerationMetrics.increment(DISCARDED_COUNTER, 1);
+    Log.logPrintf("Discarding error-revealing sequence that fails like a shorter one:%n%s%n", eseq);
+    return eseq;
+  }
+
+  /**
+   * Returns the number of distinct failures.
+   *
+   * @return the number of clusters
+   */
+  public int numFailures() {
+    return clusters.size();
+  }
+
+  /**
+   * Returns the number of sequences that were not kept, or that were replaced by shorter ones.
+   *
+   * @return the number of discarded sequences
+   */
+  public int numDiscarded() {
+    return discarded;
+  }
+
+  /**
+   * Returns what identifies the failure of a sequence: its {@link
+   * SequenceReducer#failureSignature failure signature}, followed by the top frames of code under
+   * test in the stack trace of the exception thrown by its last statement.
+   *
+   * @param eseq an executed error-revealing sequence
+   * @return the failure signature of the sequence, including stack frames
+   */
+  static List<Object> signature(ExecutableSequence eseq) {
+    List<Object> reducerSignature = SequenceReducer.failureSignature(eseq);
+    List<Object> result = new ArrayList<>();
+    if (reducerSignature != null) {
+      result.addAll(reducerSignature);
+    }
+    ExecutionOutcome outcome = eseq.getResult(eseq.sequence.size() - 1);
+    if (outcome instanceof ExceptionalExecution) {
+      result.addAll(topFrames(((ExceptionalExecution) outcome).getException(), STACK_FRAMES));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the top frames of code under test in the stack trace of an exception, normalized so
+   * that they do not depend on line numbers or on the names that the compiler gives to lambdas.
+   *
+   * @param exception an exception
+   * @param n the maximum number of frames to return
+   * @return the class and method names of the top {@code n} frames of code under test
+   */
+  static List<String> topFrames(Throwable exception, int n) {
+    List<String> result = new ArrayList<>();
+    for (StackTraceElement frame : exception.getStackTrace()) {
+      if (result.size() == n) {
+        break;
+      }
+      String className = frame.getClassName();
+      if (!isUnderTest(className)) {
+        continue;
+      }
+      result.add(normalize(className) + "." + normalize(frame.getMethodName()));
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if the class may be under test.
+   *
+   * @param className the binary name of a class
+   * @return false if the class belongs to the JDK, Randoop, or JUnit
+   */
+  private static boolean isUnderTest(String className) {
+    for (String prefix : NON_SUT_PREFIXES) {
+      if (className.startsWith(prefix)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Removes the numeric suffixes that the compiler and the JVM give to lambdas and their classes,
+   * such as the "0" in "lambda$run$0" and the "/0x0000000800c03000" in "Foo$$Lambda$14/0x0000...".
+   *
+   * @param name a class or method name from a stack frame
+   * @return the name without numeric suffixes of lambdas
+   */
+  static String normalize(String name) {
+    int lambda = name.indexOf("$$Lambda");
+    if (lambda != -1) {
+      return name.substring(0, lambda + "$$Lambda".length());
+    }
+    if (name.startsWith("lambda$")) {
+      return name.replaceFirst("\\$\\d+$", "");
+    }
+    return name;
+  }
+}
@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 import java.util.StringJoiner;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
@@ -19,6 +20,9 @@ import randoop.Globals;
 import randoop.NormalExecution;
 import randoop.SubTypeSet;
 import randoop.condition.RandoopSpecificationError;
+import randoop.execution.ExecutionWorkerPool;
+import randoop.execution.WorkerResult;
+import randoop.execution.WorkerValue;
 import randoop.generation.literaltfidf.LiteralStatistics;
 import randoop.generation.literaltfidf.ScopeToLiteralStatistics;
 import randoop.generation.literaltfidf.TfIdfSelector;
@@ -44,6 +48,8 @@ import randoop.types.JDKTypes;
 import randoop.types.JavaTypes;
 import randoop.types.Type;
 import randoop.types.TypeTuple;
+import randoop.util.GenerationMetrics;
+import randoop.util.GenerationMetrics.Phase;
 import randoop.util.Log;
 import randoop.util.MultiMap;
 import randoop.util.Randomness;
@@ -57,9 +63,23 @@ public class ForwardGenerator extends AbstractGenerator {
    *
    * <p>This must be ordered by insertion to allow for flaky test history collection in {@link
    * randoop.main.GenTests#printSequenceExceptionError(AbstractGenerator, SequenceExceptionError)}.
+   *
+   * <p>Sequences moved to the pool's spill file are removed from this set, to free heap space.
+   * {@link ComponentManager#isSpilled} detects duplicates of them.
    */
   private final LinkedHashSet<Sequence> allSequences = new LinkedHashSet<>();
 
+  /** The number of sequences removed from {@link #allSequences} because they were spilled. */
+  private int numSpilledSequences = 0;
+
+  /**
+   * False after an eviction for memory that did not bring memory use below the low-water mark
+   * (see {@link #evictIfOverBudget}); true again once memory use falls below it. While false,
+   * memory use does not trigger eviction, so a pool that cannot shrink further is not evicted, and
+   * memory is not measured after a garbage collection, on every step.
+   */
+  private boolean memoryEvictionArmed = true;
+
   /** The side-effect-free methods. */
   private final Set<TypedOperation> sideEffectFreeMethods;
 
@@ -84,6 +104,12 @@ public class ForwardGenerator extends AbstractGenerator {
   /** How to select the method to use for creating a new sequence. */
   private final TypedOperationSelector operationSelector;
 
+  /**
+   * How many times to select again when the selected operation appears to be nondeterministic.
+   * See {@link GenInputsAbstract#nondeterminism_check_fraction}.
+   */
+  private static final int NONDETERMINISTIC_RESELECTIONS = 3;
+
   /**
    * If {@link GenInputsAbstract#literal_tfidf} is true, this map stores TfIdfSelectors for each
    * scope, used to select literals from the component manager's literal statistics. A scope is a
@@ -99,6 +125,34 @@ public class ForwardGenerator extends AbstractGenerator {
    */
   private Set<Object> runtimePrimitivesSeen = new LinkedHashSet<>();
 
+  /**
+   * The number of sequences per execution worker in a batch that {@link #step()} sends to the
+   * workers. See {@link GenInputsAbstract#execution_workers}.
+   */
+  private static final int SEQUENCES_PER_WORKER_BATCH = 8;
+
+  /**
+   * The sequences of the current batch, which the execution workers have executed, in the order
+   * in which they were constructed. Each call to {@link #step()} finishes one of them. An element
+   * is null if its step constructed no sequence, or if its sequence was discarded.
+   */
+  private final List<@Nullable ExecutableSequence> executedBatch = new ArrayList<>();
+
+  /** The index in {@link #executedBatch} of the sequence that the next step finishes. */
+  private int nextInBatch = 0;
+
+  /**
+   * Decides which non-primitive values created by a sequence are new; or null if all of them are.
+   * Set by {@code --state-matching}.
+   */
+  private final @Nullable ObjectCache objectCache;
+
+  /**
+   * Estimates the sizes of the values created by sequences, or null if sizes are not limited. Set
+   * by {@code --value-size-limit}.
+   */
+  private final @Nullable ValueSizeEstimator valueSizeEstimator;
+
   /**
    * Create a forward generator.
    *
@@ -147,6 +201,32 @@ public class ForwardGenerator extends AbstractGenerator {
 
     initializeRuntimePrimitivesSeen();
 
+    switch (GenInputsAbstract.state_matching) {
+      case NONE:
+        this.objectCache = null;
+        break;
+      case EQUALS:
+        this.objectCache = new ObjectCache(EqualsMethodMatcher::new);
+        break;
+      case ABSTRACT:
+        // With --deterministic, the result must not depend on how fast fingerprints are computed.
+        long timeLimitMillis =
+            GenInputsAbstract.deterministic ? 0 : AbstractStateMatcher.DEFAULT_TIME_LIMIT_MILLIS;
+        this.objectCache =
+            new ObjectCache(
+                () ->
+                    new AbstractStateMatcher(
+                        GenInputsAbstract.state_matching_depth, timeLimitMillis));
+        break;
+      default:
+        throw new Error("Unhandled --state-matching: " + GenInputsAbstract.state_matching);
+    }
+
+    this.valueSizeEstimator =
+        GenInputsAbstract.value_size_limit > 0
+            ? new ValueSizeEstimator(GenInputsAbstract.value_size_limit)
+            : null;
+
     switch (GenInputsAbstract.method_selection) {
       case UNIFORM:
         this.operationSelector = new UniformRandomMethodSelection(operations);
@@ -154,6 +234,9 @@ public class ForwardGenerator extends AbstractGenerator {
       case BLOODHOUND:
         this.operationSelector = new Bloodhound(operations, classesUnderTest);
         break;
+      case THROUGHPUT:
+        this.operationSelector = new ThroughputMethodSelection(operations);
+        break;
       default:
         throw new Error("Unhandled method_selection: " + GenInputsAbstract.method_selection);
     }
@@ -199,6 +282,26 @@ public class ForwardGenerator extends AbstractGenerator {
     operationSelector.newRegressionTestHook(sequence);
   }
 
+  /**
+   * Adds the state of the operation selector to the state of a checkpoint.
+   *
+   * @param state the state of the checkpoint
+   */
+  @Override
+  protected void saveCheckpointState(Properties state) {
+    operationSelector.saveState(state);
+  }
+
+  /**
+   * Restores the state of the operation selector from the state of a checkpoint.
+   *
+   * @param state the state of the checkpoint
+   */
+  @Override
+  protected void restoreCheckpointState(Properties state) {
+    operationSelector.restoreState(state);
+  }
+
   /**
    * The runtimePrimitivesSeen set contains primitive values seen during generation/execution and is
    * used to determine new values that should be added to the component set. The component set
@@ -228,17 +331,14 @@ public class ForwardGenerator extends AbstractGenerator {
     // 1 second, in nanoseconds
     final long timeWarningLimitNanos = 1 * nanoPerOne;
 
-    long startTimeNanos = System.nanoTime();
-
-    if (componentManager.numGeneratedSequences() % GenInputsAbstract.clear == 0) {
-      componentManager.clearGeneratedSequences();
-    }
-    if (SystemPlume.usedMemory(false) > GenInputsAbstract.clear_memory
-        && SystemPlume.usedMemory(true) > GenInputsAbstract.clear_memory) {
-      componentManager.clearGeneratedSequences();
+    ExecutionWorkerPool workers = executionWorkers;
+    if (workers != null && !GenInputsAbstract.dontexecute) {
+      return stepWithWorkers(workers);
     }
 
-    ExecutableSequence eSeq = createNewUniqueSequence();
+    long startTimeNanos = System.nanoTime();
+
+    ExecutableSequence eSeq = constructStep();
 
     if (eSeq == null) {
       long gentimeNanos = System.nanoTime() - startTimeNanos;
@@ -251,6 +351,7 @@ public class ForwardGenerator extends AbstractGenerator {
 
     if (GenInputsAbstract.dontexecute) {
       this.componentManager.addGeneratedSequence(eSeq.sequence);
+      newComponentHook(eSeq.sequence);
       long gentimeNanos = System.nanoTime() - startTimeNanos;
       if (gentimeNanos > timeWarningLimitNanos) {
         System.out.printf("%nLong generation time %d msec for%n", gentimeNanos / nanoPerMilli);
@@ -259,10 +360,127 @@ public class ForwardGenerator extends AbstractGenerator {
       return null;
     }
 
-    setCurrentSequence(eSeq.sequence);
-
     long gentimeNanos1 = System.nanoTime() - startTimeNanos;
 
+    executeStep(eSeq);
+
+    startTimeNanos = System.nanoTime(); // reset start time.
+
+    finishStep(eSeq);
+
+    long gentimeNanos2 = System.nanoTime() - startTimeNanos;
+
+    eSeq.gentimeNanos = gentimeNanos1 + gentimeNanos2;
+
+    if (eSeq.gentimeNanos > timeWarningLimitNanos) {
+      System.out.printf(
+          "Long generation time %d msec (= %d + %d) for%n",
+          eSeq.gentimeNanos / nanoPerMilli,
+          gentimeNanos1 / nanoPerMilli,
+          gentimeNanos2 / nanoPerMilli);
+      System.out.println(eSeq.sequence);
+    }
+    if (eSeq.exectime > 10 * timeWarningLimitNanos) {
+      System.out.printf("Long execution time %d sec for%n", eSeq.exectime / nanoPerOne);
+      System.out.println(eSeq.sequence);
+    }
+
+    return eSeq;
+  }
+
+  /**
+   * Performs a step using the execution workers. The first step of each batch constructs the
+   * sequences of the whole batch and has the workers execute them, all in one round trip; each
+   * step then finishes one sequence of the batch. So a sequence is constructed from a pool that
+   * does not yet contain the results of the earlier sequences of its batch.
+   *
+   * @param workers the execution workers
+   * @return the sequence of this step, or null if it constructed no sequence or the sequence was
+   *     discarded
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  private @Nullable ExecutableSequence stepWithWorkers(ExecutionWorkerPool workers)
+      throws RandoopSpecificationError {
+    if (nextInBatch == executedBatch.size()) {
+      executeBatch(workers);
+    }
+    ExecutableSequence eSeq = executedBatch.get(nextInBatch);
+    executedBatch.set(nextInBatch, null);
+    nextInBatch++;
+    if (eSeq == null) {
+      return null;
+    }
+    long startTimeNanos = System.nanoTime();
+    finishStep(eSeq);
+    eSeq.gentimeNanos += System.nanoTime() - startTimeNanos;
+    return eSeq;
+  }
+
+  /**
+   * Constructs a new batch of sequences in {@link #executedBatch}, and executes them in the
+   * execution workers. Discards the sequences that crash or hang a worker.
+   *
+   * @param workers the execution workers
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+   */
+  private void executeBatch(ExecutionWorkerPool workers) throws RandoopSpecificationError {
+    executedBatch.clear();
+    nextInBatch = 0;
+    int batchSize = workers.numWorkers() * SEQUENCES_PER_WORKER_BATCH;
+    List<Sequence> sequences = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      long startTimeNanos = System.nanoTime();
+      ExecutableSequence eSeq = constructStep();
+      executedBatch.add(eSeq);
+      if (eSeq != null) {
+        eSeq.gentimeNanos = System.nanoTime() - startTimeNanos;
+        sequences.add(eSeq.sequence);
+      }
+    }
+
+    List<WorkerResult> results = workers.execute(sequences);
+    int resultIndex = 0;
+    for (int i = 0; i < executedBatch.size(); i++) {
+      ExecutableSequence eSeq = executedBatch.get(i);
+      if (eSeq == null) {
+        continue;
+      }
+      WorkerResult result = results.get(resultIndex++);
+      if (result.isSafe()) {
+        if (!applyWorkerResult(eSeq, result)) {
+          executedBatch.set(i, null);
+        }
+      } else {
+        discardUnsafeSequence(eSeq.sequence, result);
+        if (result.status == WorkerResult.Status.TIMED_OUT) {
+          operationSelector.timedOutSequenceHook(eSeq.sequence);
+        }
+        executedBatch.set(i, null);
+      }
+    }
+  }
+
+  @Override
+  protected @Nullable ExecutableSequence constructStep() {
+    if (GenInputsAbstract.pool_eviction) {
+      evictIfOverBudget();
+    } else {
+      if (componentManager.numGeneratedSequences() % GenInputsAbstract.clear == 0) {
+        clearGeneratedSequences();
+      }
+      if (SystemPlume.usedMemory(false) > GenInputsAbstract.clear_memory
+          && SystemPlume.usedMemory(true) > GenInputsAbstract.clear_memory) {
+        clearGeneratedSequences();
+      }
+    }
+
+    return createNewUniqueSequence();
+  }
+
+  @Override
+  protected void executeStep(ExecutableSequence eSeq) throws RandoopSpecificationError {
+    setCurrentSequence(eSeq.sequence);
+
     // Useful for debugging non-terminating sequences.
     // System.out.printf("step() is considering: %n%s%n%n", eSeq.sequence);
 
@@ -278,37 +496,114 @@ public class ForwardGenerator extends AbstractGenerator {
         eSeq.execute(executionVisitor, checkGenerator);
       }
     }
+  }
 
-    startTimeNanos = System.nanoTime(); // reset start time.
-
+  @Override
+  protected void finishStep(ExecutableSequence eSeq) {
+    long poolStart = GenerationMetrics.start();
+    determineActiveIndices(eSeq);
+    // The selector may weigh the sizes of values, which determineActiveIndices estimates.
     inputSequenceSelector.createdExecutableSequence(eSeq);
 
-    determineActiveIndices(eSeq);
+    boolean isNewComponent = eSeq.sequence.hasActiveFlags();
+    if (isNewComponent) {
+      componentManager.addGeneratedSequence(eSeq.sequence, eSeq.exectime);
+      newComponentHook(eSeq.sequence);
+    }
+    GenerationMetrics.record(Phase.POOL_INSERTION, eSeq.sequence.getOperation(), poolStart);
+    operationSelector.executedSequenceHook(eSeq, isNewComponent);
+  }
 
-    if (eSeq.sequence.hasActiveFlags()) {
-      componentManager.addGeneratedSequence(eSeq.sequence);
+  /**
+   * Evicts low-utility sequences from the pool if it is over the budget given by {@link
+   * GenInputsAbstract#clear} or {@link GenInputsAbstract#clear_memory}. Evicts down to a low-water
+   * mark, the budget less {@link GenInputsAbstract#pool_eviction_fraction} of it, so that the pool
+   * can grow for many steps before the next eviction. The budget of {@link GenInputsAbstract#clear}
+   * applies to the {@link ComponentManager#numEvictableSequences evictable sequences}, which are
+   * also the ones that the fraction to evict refers to.
+   */
+  private void evictIfOverBudget() {
+    double fraction = GenInputsAbstract.pool_eviction_fraction;
+    int numEvictable = componentManager.numEvictableSequences();
+    if (numEvictable >= GenInputsAbstract.clear) {
+      int lowWater = (int) (GenInputsAbstract.clear * (1 - fraction));
+      evict((numEvictable - lowWater) / (double) numEvictable);
+      return;
     }
 
-    long gentimeNanos2 = System.nanoTime() - startTimeNanos;
+    long lowWaterMemory = (long) (GenInputsAbstract.clear_memory * (1 - fraction));
+    if (!memoryEvictionArmed) {
+      if (SystemPlume.usedMemory(false) < lowWaterMemory) {
+        memoryEvictionArmed = true;
+      }
+      return;
+    }
+    if (SystemPlume.usedMemory(false) > GenInputsAbstract.clear_memory
+        && SystemPlume.usedMemory(true) > GenInputsAbstract.clear_memory) {
+      int evicted;
+      do {
+        evicted = evict(fraction);
+      } while (evicted > 0 && SystemPlume.usedMemory(true) > lowWaterMemory);
+      // Nothing more can be evicted; wait until memory use falls by other means.
+      memoryEvictionArmed = evicted > 0;
+    }
+  }
 
-    eSeq.gentimeNanos = gentimeNanos1 + gentimeNanos2;
+  /**
+   * Evicts a fraction of the evictable sequences from the pool.
+   *
+   * @param fraction the fraction of the evictable sequences to remove, in (0, 1]
+   * @return the number of sequences removed
+   */
+  private int evict(double fraction) {
+    int evicted = componentManager.evictLowUtilitySequences(fraction);
+    if (evicted > 0) {
+      forgetPoolRemovals();
+    }
+    return evicted;
+  }
 
-    if (eSeq.gentimeNanos > timeWarningLimitNanos) {
-      System.out.printf(
-          "Long generation time %d msec (= %d + %d) for%n",
-          eSeq.gentimeNanos / nanoPerMilli,
-          gentimeNanos1 / nanoPerMilli,
-          gentimeNanos2 / nanoPerMilli);
-      System.out.println(eSeq.sequence);
+  /** Removes the generated sequences from the component manager, and forgets their values. */
+  private void clearGeneratedSequences() {
+    componentManager.clearGeneratedSequences();
+    forgetPoolRemovals();
+  }
+
+  /**
+   * Updates the state of this generator after sequences were removed from the pool, or moved to the
+   * spill file. The object cache does not record which sequence created each value, so it is
+   * cleared: otherwise it would grow without bound, and would keep out values equal to ones that
+   * are no longer in the pool.
+   */
+  private void forgetPoolRemovals() {
+    forgetSpilledSequences();
+    poolRemovalHook();
+    if (objectCache != null) {
+      objectCache.clear();
     }
-    if (eSeq.exectime > 10 * timeWarningLimitNanos) {
-      System.out.printf("Long execution time %d sec for%n", eSeq.exectime / nanoPerOne);
-      System.out.println(eSeq.sequence);
+  }
+
+  /** Removes from {@link #allSequences} the sequences that were moved to the spill file. */
+  private void forgetSpilledSequences() {
+    for (Sequence sequence : componentManager.takeSpilledSequences()) {
+      if (allSequences.remove(sequence)) {
+        numSpilledSequences++;
+      }
     }
+  }
 
-    return eSeq;
+  @Override
+  protected void restorePoolSequence(Sequence sequence) {
+    super.restorePoolSequence(sequence);
+    // Do not generate the sequence again.
+    allSequences.add(sequence);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Does not include the sequences moved to the pool's spill file.
+   */
   @Override
   public Set<Sequence> getAllSequences() {
     return this.allSequences;
@@ -327,6 +622,9 @@ public class ForwardGenerator extends AbstractGenerator {
    * created during execution of the sequence are new values not encountered before. Such values are
    * added to the component manager so they can be used during subsequent generation attempts.
    *
+   * <p>If {@code --state-matching} is given, a non-primitive value is active only if no value of
+   * the same type that matches it has been created before.
+   *
    * @param seq the sequence, all of whose indices are initially marked as active
    */
   private void determineActiveIndices(ExecutableSequence seq) {
@@ -405,7 +703,9 @@ public class ForwardGenerator extends AbstractGenerator {
       Class<?> objectClass = runtimeValue.getClass();
 
       // If it is an array that is too long, clear its active flag.
-      if (objectClass.isArray() && !Value.arrayLengthOk(runtimeValue)) {
+      // A value that an execution worker did not transfer stands for an array by its length.
+      if ((objectClass.isArray() || runtimeValue instanceof WorkerValue)
+          && !Value.valueSizeOk(runtimeValue)) {
         seq.sequence.clearActiveFlag(i);
         continue;
       }
@@ -431,8 +731,31 @@ public class ForwardGenerator extends AbstractGenerator {
         }
         if (!looksLikeObjToString && !tooLongString && runtimePrimitivesSeen.add(runtimeValue)) {
           // Have not seen this value before; add it to the component set.
-          componentManager.addGeneratedSequence(Sequence.createSequenceForPrimitive(runtimeValue));
+          Sequence primitiveSequence = Sequence.createSequenceForPrimitive(runtimeValue);
+          componentManager.addGeneratedSequence(primitiveSequence);
+          newComponentHook(primitiveSequence);
+          componentManager.recordProductiveInputs(seq.componentSequences);
+        }
+        continue;
+      }
+
+      // If the value retains too much memory, clear its active flag.
+      if (valueSizeEstimator != null) {
+        long valueBytes = valueSizeEstimator.estimate(runtimeValue);
+        seq.valueBytes = Math.max(seq.valueBytes, valueBytes);
+        if (valueBytes > GenInputsAbstract.value_size_limit) {
+          Log.logPrintf(
+              "Making index %d inactive (value retains more than %d bytes)%n",
+              i, GenInputsAbstract.value_size_limit);
+          GenerationMetrics.increment(ValueSizeEstimator.OVERSIZED_COUNTER, 1);
+          seq.sequence.clearActiveFlag(i);
+          continue;
         }
+      }
+
+      // If an equal value has already been created, clear its active flag.
+      if (objectCache != null) {
+        objectCache.setActiveFlags(seq, i);
         continue;
       }
 
@@ -475,10 +798,14 @@ public class ForwardGenerator extends AbstractGenerator {
     }
 
     // Select the next operation to use in constructing a new sequence.
-    TypedOperation operation = operationSelector.selectOperation();
+    long phaseStart = GenerationMetrics.start();
+    TypedOperation operation = selectOperation();
+    GenerationMetrics.record(Phase.OPERATION_SELECTION, operation, phaseStart);
     Log.logPrintf("Selected operation: %s%n", operation);
 
     if (operation.isGeneric() || operation.hasWildcardTypes()) {
+      phaseStart = GenerationMetrics.start();
+      TypedOperation genericOperation = operation;
       try {
         operation = instantiator.instantiate((TypedClassOperation) operation);
       } catch (Throwable e) {
@@ -495,6 +822,7 @@ public class ForwardGenerator extends AbstractGenerator {
           return null;
         }
       }
+      GenerationMetrics.record(Phase.GENERIC_INSTANTIATION, genericOperation, phaseStart);
       if (operation == null) { // failed to instantiate generic
         Log.logPrintf("Failed to instantiate generic operation%n", operation);
         return null;
@@ -503,6 +831,7 @@ public class ForwardGenerator extends AbstractGenerator {
 
     // add flags here
     InputsAndSuccessFlag inputs;
+    phaseStart = GenerationMetrics.start();
     try {
       inputs = selectInputs(operation);
     } catch (Throwable e) {
@@ -518,18 +847,22 @@ public class ForwardGenerator extends AbstractGenerator {
       }
     }
 
+    GenerationMetrics.record(Phase.INPUT_SELECTION, operation, phaseStart);
+
     if (!inputs.success) {
       operationHistory.add(operation, OperationOutcome.NO_INPUTS_FOUND);
       Log.logPrintf("Failed to find inputs for operation: %s%n", operation);
       return null;
     }
 
+    phaseStart = GenerationMetrics.start();
     Sequence concatSeq = Sequence.concatenate(inputs.sequences);
 
     // Figure out input variables.
     List<Variable> inputVars = CollectionsPlume.mapList(concatSeq::getVariable, inputs.indices);
 
     Sequence newSequence = concatSeq.extend(operation, inputVars);
+    GenerationMetrics.record(Phase.CONCATENATION, operation, phaseStart);
 
     // With .1 probability, do a "repeat" heuristic.
     if (GenInputsAbstract.repeat_heuristic && Randomness.nextRandomInt(10) == 0) {
@@ -559,13 +892,16 @@ public class ForwardGenerator extends AbstractGenerator {
     randoopConsistencyTests(newSequence);
 
     // Discard if sequence is a duplicate.
-    if (this.allSequences.contains(newSequence)) {
+    phaseStart = GenerationMetrics.start();
+    if (this.allSequences.contains(newSequence) || componentManager.isSpilled(newSequence)) {
+      GenerationMetrics.record(Phase.DUPLICATE_CHECK, operation, phaseStart);
       operationHistory.add(operation, OperationOutcome.SEQUENCE_DISCARDED);
       Log.logPrintf("Sequence discarded: the same sequence was previously created.%n");
       return null;
     }
 
     this.allSequences.add(newSequence);
+    GenerationMetrics.record(Phase.DUPLICATE_CHECK, operation, phaseStart);
 
     randoopConsistencyTest2(newSequence);
 
@@ -575,10 +911,29 @@ public class ForwardGenerator extends AbstractGenerator {
 
     // Keep track of any input sequences that are used in this sequence.
     result.componentSequences = inputs.sequences;
+    componentManager.recordSelectedInputs(inputs.sequences);
 
     return result;
   }
 
+  /**
+   * Selects the next operation to use in constructing a new sequence. An operation that appears to
+   * be nondeterministic is selected again, up to {@link #NONDETERMINISTIC_RESELECTIONS} times, so
+   * it is rarely used but not excluded.
+   *
+   * @return the selected operation
+   */
+  private TypedOperation selectOperation() {
+    TypedOperation operation = operationSelector.selectOperation();
+    for (int i = 0;
+        i < NONDETERMINISTIC_RESELECTIONS && nondeterministicOperations.contains(operation);
+        i++) {
+      operationSelector.rejectedSelectionHook(operation);
+      operation = operationSelector.selectOperation();
+    }
+    return operation;
+  }
+
   /**
    * Adds the given operation to a new {@code Sequence} with the statements of this object as a
    * prefix, repeating the operation the given number of times. Used during generation.
@@ -1005,7 +1360,7 @@ public class ForwardGenerator extends AbstractGenerator {
 
   @Override
   public int numGeneratedSequences() {
-    return allSequences.size();
+    return allSequences.size() + numSpilledSequences;
   }
 
   @Override
@@ -1030,7 +1385,9 @@ public class ForwardGenerator extends AbstractGenerator {
                     + getErrorTestSequences().size(),
                 "invalid seqs: " + invalidSequenceCount,
                 "subsumed_sequences: " + subsumed_sequences.size(),
-                "num_failed_output_test: " + num_failed_output_test),
+                "num_failed_output_test: " + num_failed_output_test,
+                "evicted sequences: " + componentManager.numEvictedSequences(),
+                "unsafe sequences: " + num_unsafe_sequences),
             String.join(
                 ", ",
                 "sideEffectFreeMethods: " + sideEffectFreeMethods.size(),
@@ -1,15 +1,38 @@
 package randoop.generation;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 import randoop.NormalExecution;
 import randoop.sequence.ExecutableSequence;
+import randoop.types.Type;
+import randoop.util.GenerationMetrics;
 import randoop.util.Log;
 
+/**
+ * Decides which values created by a sequence are new, as judged by a {@link StateMatcher}. Values
+ * that match a value already created are made inactive, so that they are not added to the pool of
+ * inputs. Values are compared only with values of the same declared type, because the pool offers
+ * a value only for its declared type and the supertypes of it.
+ */
 public class ObjectCache {
 
-  private StateMatcher sm;
+  /** The name of the metrics counter of values made inactive because they match earlier ones. */
+  public static final String MATCHED_COUNTER = "pool.matched-values";
 
-  public ObjectCache(StateMatcher sm) {
-    this.sm = sm;
+  /** Creates the state matcher for each declared type. */
+  private final Supplier<StateMatcher> matcherFactory;
+
+  /** The state matcher for the values of each declared type. */
+  private final Map<Type, StateMatcher> matchers = new HashMap<>();
+
+  /**
+   * Creates an object cache.
+   *
+   * @param matcherFactory creates a state matcher, which is used for values of one declared type
+   */
+  public ObjectCache(Supplier<StateMatcher> matcherFactory) {
+    this.matcherFactory = matcherFactory;
   }
 
   /**
@@ -23,13 +46,39 @@ public class ObjectCache {
     assert eseq.getResult(i) instanceof NormalExecution;
     NormalExecution e = (NormalExecution) eseq.getResult(i);
 
+    Type type = eseq.sequence.getVariable(i).getType();
+    StateMatcher sm = matchers.computeIfAbsent(type, t -> matcherFactory.get());
+
     // If runtime value is in object cache, clear active flag.
-    if (!this.sm.add(e.getRuntimeValue())) {
+    if (!sm.add(e.getRuntimeValue())) {
       Log.logPrintf(
           "Making index %d inactive (already created an object equal to %dth output).%n", i, i);
       eseq.sequence.clearActiveFlag(i);
+      GenerationMetrics.increment(MATCHED_COUNTER, 1);
     } else {
       Log.logPrintf("Making index %d active (new value)%n", i);
     }
   }
+
+  /**
+   * Forgets all values. Called when sequences are removed from the pool of inputs, by clearing,
+   * eviction, or spilling, so that values are not made inactive because they match values that are
+   * no longer in the pool, and so that this cache does not grow without bound.
+   */
+  public void clear() {
+    matchers.clear();
+  }
+
+  /**
+   * Returns the number of distinct values in this cache.
+   *
+   * @return the sum of the sizes of the state matchers
+   */
+  public int size() {
+    int size = 0;
+    for (StateMatcher sm : matchers.values()) {
+      size += sm.size();
+    }
+    return size;
+  }
 }
@@ -31,6 +31,10 @@ import randoop.util.Randomness;
  * <p>The GRT paper also does not describe how to handle input sequences that have not yet been
  * selected. We start each input sequence with a selection count of 1 to prevent division by zero
  * when computing weights.
+ *
+ * <p>If {@link randoop.main.GenInputsAbstract#value_size_limit} is set, the cost of a sequence also
+ * grows with the estimated size of the largest value it creates, because every sequence built from
+ * it creates that value again.
  */
 public class OrienteeringSelection extends InputSequenceSelector {
   /** Map from a sequence to its details used for computing its weight. */
@@ -51,6 +55,12 @@ public class OrienteeringSelection extends InputSequenceSelector {
     /** The execution time of the sequence, in nanoseconds. */
     private final long executionTimeNanos;
 
+    /**
+     * The estimated size of the largest value that the sequence creates, in kilobytes, or 1 if that
+     * is smaller.
+     */
+    private final double valueKilobytes;
+
     /** Number of times this sequence has been selected by {@link OrienteeringSelection}. */
     private int selectionCount;
 
@@ -65,9 +75,11 @@ public class OrienteeringSelection extends InputSequenceSelector {
      *
      * @param sequence a sequence
      * @param executionTimeNanos execution time in nanoseconds
+     * @param valueBytes the estimated size of the largest value that the sequence creates, in
+     *     bytes, or 0 if unknown
      */
-    SequenceDetails(Sequence sequence, long executionTimeNanos) {
-      this(methodSizeSquareRoot(sequence), executionTimeNanos);
+    SequenceDetails(Sequence sequence, long executionTimeNanos, long valueBytes) {
+      this(methodSizeSquareRoot(sequence), executionTimeNanos, valueBytes);
     }
 
     /**
@@ -75,10 +87,13 @@ public class OrienteeringSelection extends InputSequenceSelector {
      *
      * @param methodSizeSqrt the square root of the number of method calls
      * @param executionTimeNanos the execution time, in nanoseconds
+     * @param valueBytes the estimated size of the largest value that the sequence creates, in
+     *     bytes, or 0 if unknown
      */
-    public SequenceDetails(double methodSizeSqrt, long executionTimeNanos) {
+    public SequenceDetails(double methodSizeSqrt, long executionTimeNanos, long valueBytes) {
       this.methodSizeSqrt = methodSizeSqrt;
       this.executionTimeNanos = executionTimeNanos;
+      this.valueKilobytes = Math.max(1.0, valueBytes / 1024.0);
       // Prevent division by zero: start the count at 1.
       this.selectionCount = 1;
       updateWeight();
@@ -102,16 +117,17 @@ public class OrienteeringSelection extends InputSequenceSelector {
     /**
      * Compute the weight of a sequence. The formula for a sequence's weight is:
      *
-     * <p>1.0 / (k * seq.exec_time * sqrt(seq.meth_size))
+     * <p>1.0 / (k * seq.exec_time * sqrt(seq.meth_size) * seq.value_kb)
      *
      * <p>where k is the number of selections of seq and exec_time is the execution time of seq and
-     * meth_size is the number of method call statements in seq. This formula is a slight
+     * meth_size is the number of method call statements in seq and value_kb is {@link
+     * #valueKilobytes}, which is 1 unless value sizes are estimated. This formula is a slight
      * simplification of the one described in the GRT paper which maintains a separate exec_time for
      * each execution of seq. However, we assume that every execution time for a sequence is the
      * same as the first execution.
      */
     private void updateWeight(@UnknownInitialization SequenceDetails this) {
-      weight = 1.0 / (selectionCount * executionTimeNanos * methodSizeSqrt);
+      weight = 1.0 / (selectionCount * executionTimeNanos * methodSizeSqrt * valueKilobytes);
     }
   }
 
@@ -126,7 +142,7 @@ public class OrienteeringSelection extends InputSequenceSelector {
   public OrienteeringSelection(Set<Sequence> seedSequences) {
     for (Sequence seedSequence : seedSequences) {
       // Treat every seed sequence as having an execution time of 1 nanosecond.
-      createSequenceDetailsWithExecutionTime(seedSequence, 1L);
+      createSequenceDetailsWithExecutionTime(seedSequence, 1L, 0L);
     }
   }
 
@@ -191,7 +207,7 @@ public class OrienteeringSelection extends InputSequenceSelector {
     if (eSeq.exectime <= 0) {
       eSeq.exectime = 1;
     }
-    createSequenceDetailsWithExecutionTime(eSeq.sequence, eSeq.exectime);
+    createSequenceDetailsWithExecutionTime(eSeq.sequence, eSeq.exectime, eSeq.valueBytes);
   }
 
   /**
@@ -200,9 +216,12 @@ public class OrienteeringSelection extends InputSequenceSelector {
    *
    * @param sequence the sequence to add
    * @param executionTimeNanos the execution time of the sequence, in nanoseconds
+   * @param valueBytes the estimated size of the largest value that the sequence creates, in bytes,
+   *     or 0 if unknown
    */
-  private void createSequenceDetailsWithExecutionTime(Sequence sequence, long executionTimeNanos) {
-    SequenceDetails sequenceDetails = new SequenceDetails(sequence, executionTimeNanos);
+  private void createSequenceDetailsWithExecutionTime(
+      Sequence sequence, long executionTimeNanos, long valueBytes) {
+    SequenceDetails sequenceDetails = new SequenceDetails(sequence, executionTimeNanos, valueBytes);
 
     sequenceDetailsMap.put(sequence, sequenceDetails);
     weightMap.put(sequence, sequenceDetails.getWeight());
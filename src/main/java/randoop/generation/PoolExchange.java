@@ -0,0 +1,179 @@
+package randoop.generation;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceParseException;
+import randoop.sequence.SequenceTextFile;
+import randoop.util.Log;
+
+/**
+ * Periodically exchanges pool sequences with the other shards of a multi-process run (see {@link
+ * randoop.main.GenInputsAbstract#shards}).
+ *
+ * <p>Every exchange interval, a shard publishes the sequences of its recent regression tests to a
+ * new file in a directory shared by all shards, and adds to its own pool the sequences in every file
+ * that another shard has published since the last exchange. Files are never rewritten, so a shard
+ * reads each one only once.
+ */
+public final class PoolExchange {
+
+  /** The maximum number of sequences published in one exchange. */
+  private static final int MAX_PUBLISHED_PER_EXCHANGE = 100;
+
+  /** The directory shared by all the shards. */
+  private final Path directory;
+
+  /** The index of this shard. */
+  private final int shardIndex;
+
+  /** How often to exchange sequences, in milliseconds. */
+  private final long intervalMillis;
+
+  /** The time of the next exchange, as given by {@link System#currentTimeMillis()}. */
+  private long nextExchangeMillis;
+
+  /** The number of exchanges this shard has done. */
+  private int numExchanges = 0;
+
+  /** The number of regression sequences that have been considered for publication. */
+  private int numRegressionSeqsSeen = 0;
+
+  /** The names of the files, published by other shards, that have already been read. */
+  private final Set<String> filesRead = new HashSet<>();
+
+  /** The number of sequences imported from other shards. */
+  private int numImported = 0;
+
+  /**
+   * Creates a PoolExchange.
+   *
+   * @param directory the directory shared by all the shards
+   * @param shardIndex the index of this shard
+   * @param intervalMillis how often to exchange sequences, in milliseconds; must be positive
+   */
+  public PoolExchange(Path directory, int shardIndex, long intervalMillis) {
+    this.directory = directory;
+    this.shardIndex = shardIndex;
+    this.intervalMillis = intervalMillis;
+    this.nextExchangeMillis = System.currentTimeMillis() + intervalMillis;
+  }
+
+  /**
+   * Exchanges sequences with the other shards, if the exchange interval has elapsed.
+   *
+   * @param regressionSeqs all the regression sequences generated by this shard so far
+   * @param componentManager the pool to which to add imported sequences
+   */
+  void exchangeIfDue(List<ExecutableSequence> regressionSeqs, ComponentManager componentManager) {
+    long now = System.currentTimeMillis();
+    if (now < nextExchangeMillis) {
+      return;
+    }
+    nextExchangeMillis = now + intervalMillis;
+    publish(regressionSeqs);
+    importFromOtherShards(componentManager);
+    numExchanges++;
+  }
+
+  /**
+   * Writes the sequences of the regression tests generated since the last exchange, if any, to a
+   * new file. Only sequences that create values for the pool are published.
+   *
+   * @param regressionSeqs all the regression sequences generated by this shard so far
+   */
+  private void publish(List<ExecutableSequence> regressionSeqs) {
+    List<Sequence> toPublish = new ArrayList<>();
+    for (int i = regressionSeqs.size() - 1;
+        i >= numRegressionSeqsSeen && toPublish.size() < MAX_PUBLISHED_PER_EXCHANGE;
+        i--) {
+      Sequence sequence = regressionSeqs.get(i).sequence;
+      if (sequence.hasActiveFlags()) {
+        toPublish.add(sequence);
+      }
+    }
+    numRegressionSeqsSeen = regressionSeqs.size();
+    if (toPublish.isEmpty()) {
+      return;
+    }
+    Path file = directory.resolve(fileName(shardIndex, numExchanges));
+    try {
+      SequenceTextFile.write(file, toPublish);
+    } catch (IOException e) {
+      // Exchange is an optimization; a shard that cannot publish still generates tests.
+      Log.logPrintf("Unable to publish pool sequences to %s: %s%n", file, e);
+    }
+  }
+
+  /**
+   * Adds to the pool the sequences in every file that another shard has published and that this
+   * shard has not yet read.
+   *
+   * @param componentManager the pool to which to add the sequences
+   */
+  private void importFromOtherShards(ComponentManager componentManager) {
+    String ownPrefix = filePrefix(shardIndex);
+    // Sorting makes the import order independent of the file system.
+    Set<String> newFiles = new TreeSet<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "shard-*.txt")) {
+      for (Path file : stream) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(ownPrefix) && !filesRead.contains(name)) {
+          newFiles.add(name);
+        }
+      }
+    } catch (IOException e) {
+      Log.logPrintf("Unable to list pool exchange directory %s: %s%n", directory, e);
+      return;
+    }
+    for (String name : newFiles) {
+      filesRead.add(name);
+      try {
+        for (Sequence sequence : SequenceTextFile.read(directory.resolve(name))) {
+          componentManager.addGeneratedSequence(sequence);
+          numImported++;
+        }
+      } catch (IOException | SequenceParseException e) {
+        Log.logPrintf("Unable to import pool sequences from %s: %s%n", name, e);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of sequences imported from other shards so far.
+   *
+   * @return the number of imported sequences
+   */
+  public int numImported() {
+    return numImported;
+  }
+
+  /**
+   * Returns the prefix of the names of the files published by the given shard.
+   *
+   * @param shardIndex the index of a shard
+   * @return the prefix of the shard's file names
+   */
+  private static String filePrefix(int shardIndex) {
+    return "shard-" + shardIndex + "-";
+  }
+
+  /**
+   * Returns the name of the file published by the given shard in the given exchange.
+   *
+   * @param shardIndex the index of a shard
+   * @param exchange the number of the exchange
+   * @return the file name
+   */
+  private static String fileName(int shardIndex, int exchange) {
+    return filePrefix(shardIndex) + exchange + ".txt";
+  }
+}
@@ -0,0 +1,351 @@
+package randoop.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.DummyVisitor;
+import randoop.condition.RandoopSpecificationError;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceExceptionError;
+import randoop.sequence.Statement;
+import randoop.sequence.Variable;
+import randoop.test.Check;
+import randoop.test.NoExceptionCheck;
+import randoop.test.ObjectCheck;
+import randoop.test.PostConditionCheck;
+import randoop.test.TestCheckGenerator;
+import randoop.types.NonParameterizedType;
+import randoop.types.Type;
+import randoop.util.GenerationMetrics;
+import randoop.util.Log;
+
+/**
+ * Reduces error-revealing sequences in the Randoop process. The reducer removes statements and
+ * replaces inputs by simpler values: null, zero, false, or the empty string, or a literal of the
+ * same type from the component pool, which may let the statements that computed the input be
+ * removed. It executes each changed sequence with the same {@link TestCheckGenerator} that
+ * classified the original sequence, and keeps the change only if the sequence still fails in the
+ * same way: its last statement calls the same operation, and the failing checks are of the same
+ * kinds, violate the same contracts, and report the same exceptions.
+ *
+ * <p>The last statement of a sequence is never removed, because the failure is detected there.
+ */
+public class SequenceReducer {
+
+  /** The name of the metrics counter of statements removed by reduction. */
+  public static final String REMOVED_COUNTER = "reduction.removed-statements";
+
+  /** The name of the metrics counter of executions of changed sequences. */
+  public static final String EXECUTIONS_COUNTER = "reduction.executions";
+
+  /** The default maximum number of executions of changed sequences per reduced sequence. */
+  public static final int DEFAULT_MAX_EXECUTIONS = 500;
+
+  /** The maximum number of literals from the pool tried as the replacement of one input. */
+  static final int MAX_POOLED_LITERALS = 3;
+
+  /** The check generator that classified the sequences. */
+  private final TestCheckGenerator checkGenerator;
+
+  /** The pool whose literals replace inputs, or null to use only null, zero, and empty values. */
+  private final @Nullable ComponentManager componentManager;
+
+  /** The maximum number of executions of changed sequences per reduced sequence. */
+  private final int maxExecutions;
+
+  /**
+   * Creates a reducer.
+   *
+   * @param checkGenerator the check generator that classified the sequences to reduce
+   * @param maxExecutions the maximum number of executions of changed sequences per reduced sequence
+   */
+  public SequenceReducer(TestCheckGenerator checkGenerator, int maxExecutions) {
+    this(checkGenerator, null, maxExecutions);
+  }
+
+  /**
+   * Creates a reducer that also replaces inputs by literals from the given pool.
+   *
+   * @param checkGenerator the check generator that classified the sequences to reduce
+   * @param componentManager the pool whose literals replace inputs, or null
+   * @param maxExecutions the maximum number of executions of changed sequences per reduced sequence
+   */
+  public SequenceReducer(
+      TestCheckGenerator checkGenerator,
+      @Nullable ComponentManager componentManager,
+      int maxExecutions) {
+    this.checkGenerator = checkGenerator;
+    this.componentManager = componentManager;
+    this.maxExecutions = maxExecutions;
+  }
+
+  /**
+   * Returns a sequence that fails in the same way as the given one, and is no more complex.
+   *
+   * @param eseq an executed error-revealing sequence
+   * @return an executed sequence that fails in the same way, or {@code eseq} if none was found
+   * @throws RandoopSpecificationError if a specification expression cannot be evaluated while
+   *     executing a changed sequence
+   */
+  public ExecutableSequence reduce(ExecutableSequence eseq) throws RandoopSpecificationError {
+    List<Object> signature = failureSignature(eseq);
+    if (signature == null) {
+      return eseq;
+    }
+    Reduction reduction = new Reduction(eseq, signature);
+    reduction.run();
+    int removed = eseq.sequence.size() - reduction.best.sequence.size();
+    if (removed > 0) {
+      GenerationMetrics.increment(REMOVED_COUNTER, removed);
+    }
+    GenerationMetrics.increment(EXECUTIONS_COUNTER, reduction.executions);
+    if (reduction.reduced) {
+      Log.logPrintf(
+          "Reduced error-revealing sequence from%n%s%nto%n%s%n",
+          eseq.sequence, reduction.best.sequence);
+    }
+    return reduction.best;
+  }
+
+  /** The reduction of one sequence. */
+  private final class Reduction {
+
+    /** The failure signature of the sequence being reduced. */
+    private final List<Object> signature;
+
+    /** The smallest sequence found so far that fails in the same way. */
+    ExecutableSequence best;
+
+    /** The number of changed sequences executed so far. */
+    int executions = 0;
+
+    /** True if {@link #best} is no longer the original sequence. */
+    boolean reduced = false;
+
+    /**
+     * Creates a reduction.
+     *
+     * @param eseq the sequence to reduce
+     * @param signature the failure signature of the sequence
+     */
+    Reduction(ExecutableSequence eseq, List<Object> signature) {
+      this.best = eseq;
+      this.signature = signature;
+    }
+
+    /**
+     * Applies changes to {@link #best} until none applies or the budget is exhausted.
+     *
+     * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+     */
+    void run() throws RandoopSpecificationError {
+      boolean progress = true;
+      while (progress && executions < maxExecutions) {
+        progress = false;
+        // Remove statements from the last to the first, so that removing a statement can make the
+        // statements that compute its inputs removable in the same pass.
+        for (int i = best.sequence.size() - 2; i >= 0 && executions < maxExecutions; i--) {
+          if (tryCandidate(removeStatement(best.sequence, i))) {
+            progress = true;
+          }
+        }
+        // Replace inputs, from the last statement to the first, so that inserting a statement does
+        // not change the indices of the statements not yet visited.
+        for (int i = best.sequence.size() - 1; i >= 0 && executions < maxExecutions; i--) {
+          Statement statement = best.sequence.getStatement(i);
+          TypedOperation operation = statement.getOperation();
+          List<Variable> inputs = best.sequence.getInputs(i);
+          inputLoop:
+          for (int k = 0; k < inputs.size() && executions < maxExecutions; k++) {
+            Statement producer = best.sequence.getCreatingStatement(inputs.get(k));
+            for (TypedOperation replacement : simplerInputs(operation, k, producer)) {
+              if (executions >= maxExecutions) {
+                break inputLoop;
+              }
+              if (tryCandidate(replaceInput(best.sequence, i, k, replacement))) {
+                progress = true;
+                // The statement is now at index i + 1; its other inputs are tried in the next pass.
+                break inputLoop;
+              }
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Returns the values to try, in order, as a replacement for an input of a statement: the
+     * simplest value of its type, and if the input is not already a literal, literals of its type
+     * from the pool. Omits the value that the input already has.
+     *
+     * @param operation the operation of the statement
+     * @param k the index of the input
+     * @param producer the statement that creates the current value of the input
+     * @return operations that create simpler values for the input
+     */
+    private List<TypedOperation> simplerInputs(
+        TypedOperation operation, int k, Statement producer) {
+      List<TypedOperation> result = new ArrayList<>();
+      TypedOperation simplest = simplerInput(operation, k);
+      if (simplest == null) {
+        return result;
+      }
+      if (!producer.getOperation().equals(simplest)) {
+        result.add(simplest);
+      }
+      Type type = operation.getInputTypes().get(k);
+      if (componentManager != null
+          && !producer.isNonreceivingInitialization()
+          && (type.isPrimitive() || type.isBoxedPrimitive() || type.isString())) {
+        // The pool stores literals of boxed types under the primitive types.
+        Type literalType =
+            type.isBoxedPrimitive() ? ((NonParameterizedType) type).toPrimitive() : type;
+        for (TypedOperation literal :
+            componentManager.getPooledLiterals(literalType, MAX_POOLED_LITERALS)) {
+          if (!literal.equals(simplest)) {
+            result.add(literal);
+          }
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Executes a candidate, and makes it the best sequence if it fails in the same way.
+     *
+     * @param candidate a changed sequence, or null
+     * @return true if the candidate became the best sequence
+     * @throws RandoopSpecificationError if a specification expression cannot be evaluated
+     */
+    private boolean tryCandidate(@Nullable Sequence candidate) throws RandoopSpecificationError {
+      if (candidate == null) {
+        return false;
+      }
+      executions++;
+      Sequence previous = AbstractGenerator.currSeq;
+      AbstractGenerator.currSeq = candidate;
+      ExecutableSequence eseq = new ExecutableSequence(candidate);
+      try {
+        eseq.execute(new DummyVisitor(), checkGenerator);
+      } catch (SequenceExceptionError e) {
+        // With --flaky-test-behavior=HALT, a statement before the last one threw an exception.
+        return false;
+      } finally {
+        AbstractGenerator.currSeq = previous;
+      }
+      if (eseq.hasInvalidBehavior() || !signature.equals(failureSignature(eseq))) {
+        return false;
+      }
+      best = eseq;
+      reduced = true;
+      return true;
+    }
+  }
+
+  /**
+   * Returns a simpler value for an input of an operation: zero, false, or the empty string for a
+   * primitive, boxed, or String input, and null for another input that is not a receiver.
+   *
+   * @param operation an operation
+   * @param k the index of an input of the operation
+   * @return an operation that creates a simpler value for the input, or null if there is none
+   */
+  static @Nullable TypedOperation simplerInput(TypedOperation operation, int k) {
+    Type type = operation.getInputTypes().get(k);
+    if (type.isGeneric() || type.hasWildcard()) {
+      return null;
+    }
+    if (!type.isPrimitive() && !type.isBoxedPrimitive() && !type.isString()) {
+      boolean isReceiver = k == 0 && !operation.isStatic() && !operation.isConstructorCall();
+      if (isReceiver || type.isVoid()) {
+        return null;
+      }
+    }
+    return TypedOperation.createNullOrZeroInitializationForType(type);
+  }
+
+  /**
+   * Returns the sequence without the given statement, if no other statement uses its value.
+   *
+   * @param sequence a sequence
+   * @param index the index of the statement to remove
+   * @return the sequence without the statement, or null if another statement uses its value
+   */
+  static @Nullable Sequence removeStatement(Sequence sequence, int index) {
+    int[] newIndex = new int[sequence.size()];
+    Sequence result = new Sequence();
+    for (int i = 0; i < sequence.size(); i++) {
+      if (i == index) {
+        newIndex[i] = -1;
+        continue;
+      }
+      List<Variable> inputs = new ArrayList<>();
+      for (Variable input : sequence.getInputs(i)) {
+        int j = newIndex[input.getDeclIndex()];
+        if (j == -1) {
+          return null;
+        }
+        inputs.add(result.getVariable(j));
+      }
+      result = result.extend(sequence.getStatement(i), inputs);
+      newIndex[i] = result.size() - 1;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the sequence with an input of a statement replaced by the value of a new statement,
+   * which is inserted just before the statement.
+   *
+   * @param sequence a sequence
+   * @param index the index of the statement
+   * @param k the index of the input to replace
+   * @param replacement the operation that creates the replacement value; it takes no inputs
+   * @return the changed sequence
+   */
+  static Sequence replaceInput(Sequence sequence, int index, int k, TypedOperation replacement) {
+    int[] newIndex = new int[sequence.size()];
+    Sequence result = new Sequence();
+    for (int i = 0; i < sequence.size(); i++) {
+      List<Variable> inputs = new ArrayList<>();
+      for (Variable input : sequence.getInputs(i)) {
+        inputs.add(result.getVariable(newIndex[input.getDeclIndex()]));
+      }
+      if (i == index) {
+        result = result.extend(replacement);
+        inputs.set(k, result.getLastVariable());
+      }
+      result = result.extend(sequence.getStatement(i), inputs);
+      newIndex[i] = result.size() - 1;
+    }
+    return result;
+  }
+
+  /**
+   * Returns what identifies the failure of a sequence: the operation of its last statement and a
+   * description of each failing check, which does not depend on the indices of statements.
+   *
+   * @param eseq an executed sequence
+   * @return the failure signature of the sequence, or null if it does not fail
+   */
+  static @Nullable List<Object> failureSignature(ExecutableSequence eseq) {
+    if (!eseq.hasFailure()) {
+      return null;
+    }
+    List<Object> result = new ArrayList<>();
+    result.add(eseq.sequence.getLastStatement().getOperation());
+    for (Check check : eseq.getChecks().checks()) {
+      result.add(check.getClass());
+      if (check instanceof ObjectCheck) {
+        result.add(((ObjectCheck) check).getContract().getClass());
+      } else if (check instanceof NoExceptionCheck) {
+        result.add(((NoExceptionCheck) check).getExceptionName());
+      } else if (check instanceof PostConditionCheck) {
+        result.add(((PostConditionCheck) check).getPostConditions().toString());
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,119 @@
+package randoop.generation;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import randoop.ExecutionVisitor;
+import randoop.instrument.StaticStateTracker;
+import randoop.reflection.StaticCache;
+import randoop.sequence.ExecutableSequence;
+import randoop.util.GenerationMetrics;
+import randoop.util.Log;
+
+/**
+ * A {@link ExecutionVisitor} that restores the non-final static fields of classes under test to
+ * their initial values before each sequence is executed, so that a sequence does not observe static
+ * state left by the sequences executed before it.
+ *
+ * <p>If the covered-class agent tracks static writes (see {@link StaticStateTracker}), the initial
+ * values of a class are saved at the end of its static initializer, and only the classes whose
+ * static fields were written are restored, so the cost is proportional to what the previous
+ * sequence changed. Otherwise, the initial values of the given classes are saved when this visitor
+ * is created, and every field whose value differs is restored.
+ *
+ * <p>Only the values of the fields are restored, not the state of the objects they refer to.
+ */
+public class StaticStateVisitor implements ExecutionVisitor {
+
+  /** The name of the metrics counter of the static fields restored in classes without tracking. */
+  public static final String RESTORED_FIELDS_COUNTER = "static-state.restored-fields";
+
+  /** The name of the metrics counter of the classes restored because their statics were written. */
+  public static final String RESTORED_CLASSES_COUNTER = "static-state.restored-classes";
+
+  /** The saved initial state of each class. */
+  private final Map<Class<?>, StaticCache> caches = new ConcurrentHashMap<>();
+
+  /** True if static writes are tracked by instrumentation. */
+  private final boolean tracked;
+
+  /**
+   * Creates a visitor that restores the static state of the given classes, and, if static writes
+   * are tracked, of every instrumented class.
+   *
+   * @param classes the classes under test
+   */
+  public StaticStateVisitor(Collection<Class<?>> classes) {
+    for (Class<?> c : classes) {
+      save(c);
+    }
+    this.tracked = StaticStateTracker.isEnabled();
+    if (tracked) {
+      StaticStateTracker.setInitializationListener(this::save);
+      // Writes made before generation, such as by static initializers, are not restored.
+      StaticStateTracker.drainDirtyClasses();
+    }
+  }
+
+  /**
+   * Saves the current state of a class, if it has not yet been saved.
+   *
+   * @param c the class
+   */
+  private void save(Class<?> c) {
+    if (caches.containsKey(c)) {
+      return;
+    }
+    StaticCache cache = new StaticCache(c);
+    try {
+      cache.saveState();
+    } catch (RuntimeException e) {
+      // For example, the fields of a JDK class are not accessible. Record an empty state.
+      Log.logPrintf("Not restoring the static state of %s: %s%n", c.getName(), e);
+      cache = new StaticCache(c);
+    }
+    caches.put(c, cache);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Restores the static state changed by the previously executed sequence.
+   */
+  @Override
+  public void initialize(ExecutableSequence eseq) {
+    if (tracked) {
+      int restored = 0;
+      for (Class<?> c : StaticStateTracker.drainDirtyClasses()) {
+        StaticCache cache = caches.get(c);
+        if (cache != null) {
+          cache.restoreState();
+          restored++;
+        }
+      }
+      GenerationMetrics.increment(RESTORED_CLASSES_COUNTER, restored);
+    } else {
+      int restored = 0;
+      for (StaticCache cache : caches.values()) {
+        restored += cache.restoreChangedState();
+      }
+      GenerationMetrics.increment(RESTORED_FIELDS_COUNTER, restored);
+    }
+  }
+
+  // unimplemented visitor methods
+  @Override
+  public void visitBeforeStatement(ExecutableSequence eseq, int i) {
+    // Not doing anything before
+  }
+
+  @Override
+  public void visitAfterStatement(ExecutableSequence eseq, int i) {
+    // Not doing anything after
+  }
+
+  @Override
+  public void visitAfterSequence(ExecutableSequence eseq) {
+    // The state is restored before the next sequence, after the checks of this one are generated.
+  }
+}
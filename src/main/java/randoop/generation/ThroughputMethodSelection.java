@@ -0,0 +1,398 @@
+package randoop.generation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeoutException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.util.GenerationMetrics;
+import randoop.util.Log;
+import randoop.util.Randomness;
+
+/**
+ * Selects methods under test in proportion to their expected yield per unit of time, so that slow
+ * operations (such as I/O wrappers and heavy constructors) do not consume most of the time limit
+ * for little gain.
+ *
+ * <p>Each selection of an operation is a step of the generator. The cost of a step is the time from
+ * the selection to the next selection, which includes creating, executing, and classifying the new
+ * sequence. A step succeeds if its sequence adds a value to the component pool or becomes a
+ * regression test. The weight of an operation is its estimated success rate divided by its
+ * estimated cost per step. Both estimates start from a prior (one success in two steps, at the mean
+ * cost of all steps so far), so operations that have not been tried are tried soon. To keep
+ * estimates from going stale, with probability {@link #EXPLORATION_PROBABILITY} the operation is
+ * instead chosen uniformly at random.
+ *
+ * <p>An operation that is the last statement of {@link #QUARANTINE_TIMEOUTS} sequences that exceed
+ * {@code --call-timeout-millis} is quarantined: it is never selected again.
+ */
+public class ThroughputMethodSelection implements TypedOperationSelector {
+
+  /** The probability of selecting an operation uniformly at random, rather than by weight. */
+  static final double EXPLORATION_PROBABILITY = 0.1;
+
+  /** The number of timed-out steps after which an operation is quarantined. */
+  static final int QUARANTINE_TIMEOUTS = 2;
+
+  /** The number of selections between recomputations of all the weights. */
+  private static final int RECOMPUTE_INTERVAL = 1000;
+
+  /** The prefix of the keys of the state of this selector in a checkpoint. */
+  private static final String STATE_PREFIX = "throughput.";
+
+  /** The name of the metrics counter of quarantined operations. */
+  public static final String QUARANTINED_COUNTER = "throughput.quarantined-operations";
+
+  /** The operations that may be selected. Quarantined operations are removed. */
+  private final List<TypedOperation> operationList;
+
+  /** The statistics of each operation under test. */
+  private final Map<TypedOperation, OperationStats> stats = new HashMap<>();
+
+  /** The weight of each operation in {@link #operationList}. */
+  private final Map<TypedOperation, Double> weights = new HashMap<>();
+
+  /** The sum of the weights in {@link #weights}. */
+  private double totalWeight = 0;
+
+  /** The total cost of all completed steps, in nanoseconds. */
+  private long totalCostNanos = 0;
+
+  /** The number of completed steps. */
+  private long totalSteps = 0;
+
+  /** The number of selections since the weights were last recomputed. */
+  private int selectionsSinceRecompute = 0;
+
+  /** The operation selected in the current step, or null before the first selection. */
+  private @Nullable OperationStats current = null;
+
+  /** {@code System.nanoTime()} when the current step started. */
+  private long currentStartNanos = 0;
+
+  /** True if the current step has succeeded. */
+  private boolean currentSucceeded = false;
+
+  /** True if the current step has timed out. */
+  private boolean currentTimedOut = false;
+
+  /**
+   * Creates a selector for the given operations.
+   *
+   * @param operations the methods under test
+   */
+  public ThroughputMethodSelection(List<TypedOperation> operations) {
+    this.operationList = new ArrayList<>(operations);
+    for (TypedOperation operation : operationList) {
+      stats.put(operation, new OperationStats(operation));
+    }
+    recomputeWeights();
+  }
+
+  /**
+   * Selects an operation, with probability proportional to its weight. First, charges the previous
+   * step to the operation that was selected for it.
+   *
+   * @return the selected operation
+   */
+  @Override
+  public TypedOperation selectOperation() {
+    long now = System.nanoTime();
+    finishStep(now);
+
+    if (++selectionsSinceRecompute >= RECOMPUTE_INTERVAL) {
+      recomputeWeights();
+    }
+    TypedOperation selected;
+    if (totalWeight <= 0 || Randomness.weightedCoinFlip(EXPLORATION_PROBABILITY)) {
+      selected = Randomness.randomMember(operationList);
+    } else {
+      selected = Randomness.randomMemberWeighted(operationList, weights, totalWeight);
+    }
+
+    current = stats.get(selected);
+    currentStartNanos = now;
+    currentSucceeded = false;
+    currentTimedOut = false;
+    return selected;
+  }
+
+  /**
+   * Records that the current step succeeded.
+   *
+   * @param sequence newly-created sequence that was classified as a regression test
+   */
+  @Override
+  public void newRegressionTestHook(Sequence sequence) {
+    currentSucceeded = true;
+  }
+
+  /**
+   * Records whether the current step succeeded or timed out.
+   *
+   * @param eSeq the executed sequence
+   * @param isNewComponent true if the sequence was added to the component pool
+   */
+  @Override
+  public void executedSequenceHook(ExecutableSequence eSeq, boolean isNewComponent) {
+    if (isNewComponent) {
+      currentSucceeded = true;
+    }
+    ExecutionOutcome lastResult = eSeq.getResult(eSeq.size() - 1);
+    if (lastResult instanceof ExceptionalExecution
+        && ((ExceptionalExecution) lastResult).getException() instanceof TimeoutException) {
+      currentTimedOut = true;
+    }
+  }
+
+  /**
+   * Forgets the current selection without charging it, because the generator did not use it.
+   *
+   * @param operation the operation that was selected but not used
+   */
+  @Override
+  public void rejectedSelectionHook(TypedOperation operation) {
+    current = null;
+  }
+
+  /**
+   * Records that the current step timed out.
+   *
+   * @param sequence the sequence that did not finish in time
+   */
+  @Override
+  public void timedOutSequenceHook(Sequence sequence) {
+    currentTimedOut = true;
+  }
+
+  /**
+   * Saves the statistics of the completed steps. The step in progress is not saved.
+   *
+   * @param state the state of a checkpoint
+   */
+  @Override
+  public void saveState(Properties state) {
+    state.setProperty(STATE_PREFIX + "steps", Long.toString(totalSteps));
+    state.setProperty(STATE_PREFIX + "cost-nanos", Long.toString(totalCostNanos));
+    for (OperationStats s : stats.values()) {
+      if (s.steps > 0) {
+        state.setProperty(
+            STATE_PREFIX + "operation." + s.operation.toParsableString(),
+            s.steps + " " + s.successes + " " + s.costNanos + " " + s.timeouts);
+      }
+    }
+  }
+
+  /**
+   * Restores the statistics of the completed steps, quarantines the operations that timed out too
+   * often, and recomputes the weights.
+   *
+   * @param state the state of a checkpoint
+   */
+  @Override
+  public void restoreState(Properties state) {
+    totalSteps = Long.parseLong(state.getProperty(STATE_PREFIX + "steps", "0"));
+    totalCostNanos = Long.parseLong(state.getProperty(STATE_PREFIX + "cost-nanos", "0"));
+    for (TypedOperation operation : new ArrayList<>(operationList)) {
+      OperationStats s = stats.get(operation);
+      String value = state.getProperty(STATE_PREFIX + "operation." + operation.toParsableString());
+      if (s == null || value == null) {
+        continue;
+      }
+      String[] fields = value.split(" ");
+      if (fields.length != 4) {
+        throw new IllegalArgumentException("Bad statistics of " + operation + ": " + value);
+      }
+      s.steps = Long.parseLong(fields[0]);
+      s.successes = Long.parseLong(fields[1]);
+      s.costNanos = Long.parseLong(fields[2]);
+      s.timeouts = Integer.parseInt(fields[3]);
+      if (s.timeouts >= QUARANTINE_TIMEOUTS) {
+        quarantine(operation);
+      }
+    }
+    recomputeWeights();
+  }
+
+  /**
+   * Charges the current step to the operation that was selected for it, and quarantines that
+   * operation if it has timed out too often.
+   *
+   * @param now {@code System.nanoTime()} at the end of the step
+   */
+  private void finishStep(long now) {
+    OperationStats step = current;
+    if (step == null) {
+      return;
+    }
+    current = null;
+    recordStep(step, Math.max(0, now - currentStartNanos), currentSucceeded, currentTimedOut);
+  }
+
+  /**
+   * Charges a step to an operation, and quarantines the operation if it has timed out too often.
+   *
+   * @param step the statistics of the operation that was selected for the step
+   * @param costNanos the cost of the step, in nanoseconds
+   * @param succeeded true if the step succeeded
+   * @param timedOut true if the step timed out
+   */
+  private void recordStep(
+      OperationStats step, long costNanos, boolean succeeded, boolean timedOut) {
+    step.steps++;
+    step.costNanos += costNanos;
+    if (succeeded) {
+      step.successes++;
+    }
+    totalSteps++;
+    totalCostNanos += costNanos;
+
+    if (timedOut && ++step.timeouts >= QUARANTINE_TIMEOUTS) {
+      quarantine(step.operation);
+    } else {
+      updateWeight(step.operation);
+    }
+  }
+
+  /**
+   * Charges a step to an operation, as if it had been selected. Used for testing.
+   *
+   * @param operation an operation under test
+   * @param costNanos the cost of the step, in nanoseconds
+   * @param succeeded true if the step succeeded
+   */
+  void recordStep(TypedOperation operation, long costNanos, boolean succeeded) {
+    OperationStats step = stats.get(operation);
+    if (step == null) {
+      throw new IllegalArgumentException("Not an operation under test: " + operation);
+    }
+    recordStep(step, costNanos, succeeded, false);
+  }
+
+  /**
+   * Removes an operation from selection, unless it is the only one left.
+   *
+   * @param operation the operation to quarantine
+   */
+  private void quarantine(TypedOperation operation) {
+    if (operationList.size() <= 1 || !operationList.remove(operation)) {
+      return;
+    }
+    Double weight = weights.remove(operation);
+    if (weight != null) {
+      totalWeight -= weight;
+    }
+    GenerationMetrics.increment(QUARANTINED_COUNTER, 1);
+    Log.logPrintf("Quarantined operation after %d timeouts: %s%n", QUARANTINE_TIMEOUTS, operation);
+  }
+
+  /**
+   * Returns the mean cost of a step, in nanoseconds, or 1 if no step has completed.
+   *
+   * @return the mean cost of a step
+   */
+  private double meanCostNanos() {
+    return totalSteps == 0 ? 1 : Math.max(1.0, (double) totalCostNanos / totalSteps);
+  }
+
+  /**
+   * Returns the weight of an operation: its estimated number of successes per second.
+   *
+   * @param operation an operation
+   * @param meanCost the mean cost of a step, in nanoseconds
+   * @return the weight of the operation
+   */
+  private double computeWeight(TypedOperation operation, double meanCost) {
+    OperationStats s = stats.get(operation);
+    if (s == null) {
+      return 0;
+    }
+    // The prior is one success in two steps, each of the mean cost.
+    double successRate = (s.successes + 1.0) / (s.steps + 2.0);
+    double costPerStep = (s.costNanos + 2.0 * meanCost) / (s.steps + 2.0);
+    return successRate * 1e9 / Math.max(1.0, costPerStep);
+  }
+
+  /**
+   * Updates the weight of one operation.
+   *
+   * @param operation the operation whose statistics changed
+   */
+  private void updateWeight(TypedOperation operation) {
+    if (!weights.containsKey(operation)) {
+      return;
+    }
+    double weight = computeWeight(operation, meanCostNanos());
+    Double old = weights.put(operation, weight);
+    totalWeight += weight - (old == null ? 0 : old);
+  }
+
+  /** Recomputes the weights of all operations, with the current mean cost. */
+  private void recomputeWeights() {
+    selectionsSinceRecompute = 0;
+    double meanCost = meanCostNanos();
+    weights.clear();
+    totalWeight = 0;
+    for (TypedOperation operation : operationList) {
+      double weight = computeWeight(operation, meanCost);
+      weights.put(operation, weight);
+      totalWeight += weight;
+    }
+  }
+
+  /**
+   * Returns the weight of an operation. Used for testing.
+   *
+   * @param operation an operation
+   * @return the weight of the operation, or 0 if it is quarantined
+   */
+  double getWeight(TypedOperation operation) {
+    Double weight = weights.get(operation);
+    return weight == null ? 0 : weight;
+  }
+
+  /**
+   * Returns true if the operation has been quarantined. Used for testing.
+   *
+   * @param operation an operation
+   * @return true if the operation will not be selected again
+   */
+  boolean isQuarantined(TypedOperation operation) {
+    return !operationList.contains(operation);
+  }
+
+  /** The statistics of one operation. */
+  private static final class OperationStats {
+
+    /** The operation. */
+    final TypedOperation operation;
+
+    /** The number of steps for which the operation was selected. */
+    long steps = 0;
+
+    /** The number of those steps that succeeded. */
+    long successes = 0;
+
+    /** The total cost of those steps, in nanoseconds. */
+    long costNanos = 0;
+
+    /** The number of those steps that timed out. */
+    int timeouts = 0;
+
+    /**
+     * Creates statistics for an operation that has not been selected.
+     *
+     * @param operation the operation
+     */
+    OperationStats(TypedOperation operation) {
+      this.operation = operation;
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package randoop.generation;
 
+import java.util.Properties;
 import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
 import randoop.sequence.Sequence;
 
 /**
@@ -16,10 +18,63 @@ public interface TypedOperationSelector {
    */
   public abstract TypedOperation selectOperation();
 
+  /**
+   * Take action based on an operation, just returned by {@link #selectOperation()}, that the
+   * generator does not use; it calls {@link #selectOperation()} again instead.
+   *
+   * @param operation the operation that was selected but not used
+   */
+  public default void rejectedSelectionHook(TypedOperation operation) {
+    // By default, a selection strategy doesn't track its selections.
+  }
+
   /**
    * Take action based on the given {@link Sequence} that was classified as a regression test.
    *
    * @param sequence newly created sequence that was classified as a regression test
    */
   public abstract void newRegressionTestHook(Sequence sequence);
+
+  /**
+   * Take action based on the execution of a sequence whose last statement is the operation most
+   * recently returned by {@link #selectOperation()}, or an instantiation of it.
+   *
+   * @param eSeq the newly-executed sequence
+   * @param isNewComponent true if the sequence was added to the component pool
+   */
+  public default void executedSequenceHook(ExecutableSequence eSeq, boolean isNewComponent) {
+    // By default, a selection strategy doesn't use the execution.
+  }
+
+  /**
+   * Take action based on a sequence, created with the operation most recently returned by {@link
+   * #selectOperation()}, that did not finish within the time limit and was therefore not executed
+   * in this JVM.
+   *
+   * @param sequence the sequence that timed out
+   */
+  public default void timedOutSequenceHook(Sequence sequence) {
+    // By default, a selection strategy doesn't use timeouts.
+  }
+
+  /**
+   * Adds the state of this selector to the state of a checkpoint, so that a run resumed from the
+   * checkpoint continues to select operations as this run would.
+   *
+   * @param state the state of a checkpoint
+   */
+  public default void saveState(Properties state) {
+    // By default, a selection strategy has no state to save.
+  }
+
+  /**
+   * Restores the state that {@link #saveState} added to the state of a checkpoint, when resuming a
+   * run. Operations in the state that are not under test are ignored.
+   *
+   * @param state the state of a checkpoint
+   * @throws IllegalArgumentException if the state is malformed
+   */
+  public default void restoreState(Properties state) {
+    // By default, a selection strategy has no state to restore.
+  }
 }
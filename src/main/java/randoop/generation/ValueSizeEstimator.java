@@ -0,0 +1,274 @@
+package randoop.generation;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Estimates the number of bytes retained by a value: the sizes of the objects reachable from it.
+ * The estimate assumes a 64-bit JVM with compressed object pointers. It reads fields reflectively
+ * rather than calling methods of the classes under test.
+ *
+ * <p>The shallow size of each class is computed once and cached. The traversal of an object graph
+ * stops as soon as the total exceeds the limit, so estimating a value costs time proportional to at
+ * most {@code limit / }{@link #MIN_OBJECT_SIZE} objects.
+ *
+ * <p>Objects of a JDK class whose fields cannot be read reflectively (because the JDK does not open
+ * them to Randoop) count only their shallow size, except that the elements of JDK collections and
+ * maps are reached by iteration, with an overhead of {@link #ENTRY_SIZE} bytes each. Classes, class
+ * loaders, threads, and enum constants are shared by all values and count nothing.
+ */
+public class ValueSizeEstimator {
+
+  /** The name of the metrics counter of values not used as inputs because they are too large. */
+  public static final String OVERSIZED_COUNTER = "pool.oversized-values";
+
+  /** The size of an object header, in bytes. */
+  static final int HEADER_SIZE = 12;
+
+  /** The size of an array header, including its length, in bytes. */
+  static final int ARRAY_HEADER_SIZE = 16;
+
+  /** The size of a reference, in bytes. */
+  static final int REFERENCE_SIZE = 4;
+
+  /** The size of the smallest object, in bytes. */
+  static final int MIN_OBJECT_SIZE = 16;
+
+  /** The bytes used by each element of a JDK collection, besides the element itself. */
+  static final int ENTRY_SIZE = 32;
+
+  /** The shallow size and the readable reference fields of each class. */
+  private static final ClassValue<Layout> LAYOUTS =
+      new ClassValue<Layout>() {
+        @Override
+        protected Layout computeValue(Class<?> c) {
+          return new Layout(c);
+        }
+      };
+
+  /** The shallow size of the instances of a class, and how to reach the objects they refer to. */
+  private static final class Layout {
+
+    /** The size of an instance, in bytes, not counting the objects it refers to. */
+    final long shallowSize;
+
+    /**
+     * The instance reference fields of the class and its superclasses, made accessible; or null if
+     * some field cannot be made accessible.
+     */
+    final Field @Nullable [] referenceFields;
+
+    /**
+     * Computes the layout of a class that is not an array class.
+     *
+     * @param c the class
+     */
+    Layout(Class<?> c) {
+      long size = HEADER_SIZE;
+      List<Field> fields = new ArrayList<>();
+      boolean readable = true;
+      for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+        for (Field field : k.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          Class<?> type = field.getType();
+          size += type.isPrimitive() ? primitiveSize(type) : REFERENCE_SIZE;
+          if (type.isPrimitive() || !readable) {
+            continue;
+          }
+          try {
+            field.setAccessible(true);
+            fields.add(field);
+          } catch (RuntimeException e) {
+            // A SecurityException, or, since Java 9, an InaccessibleObjectException.
+            readable = false;
+          }
+        }
+      }
+      this.shallowSize = align(size);
+      this.referenceFields = readable ? fields.toArray(new Field[0]) : null;
+    }
+  }
+
+  /** The limit, in bytes, above which the traversal of a value stops. */
+  private final long limit;
+
+  /**
+   * Creates a ValueSizeEstimator.
+   *
+   * @param limit the size, in bytes, above which estimates need not be precise; must be positive
+   */
+  public ValueSizeEstimator(long limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive: " + limit);
+    }
+    this.limit = limit;
+  }
+
+  /**
+   * Returns true if the estimated size of a value exceeds the limit.
+   *
+   * @param value a value
+   * @return true if the value retains more than the limit
+   */
+  public boolean exceedsLimit(@Nullable Object value) {
+    return estimate(value) > limit;
+  }
+
+  /**
+   * Returns the estimated number of bytes retained by a value. If the result is greater than the
+   * limit, it is a lower bound.
+   *
+   * @param value a value
+   * @return the estimated size of the objects reachable from the value, in bytes
+   */
+  public long estimate(@Nullable Object value) {
+    Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Object> worklist = new ArrayDeque<>();
+    if (value != null) {
+      worklist.push(value);
+    }
+    long total = 0;
+    while (!worklist.isEmpty() && total <= limit) {
+      Object object = worklist.pop();
+      if (isShared(object) || !visited.add(object)) {
+        continue;
+      }
+      Class<?> c = object.getClass();
+      if (c.isArray()) {
+        int length = Array.getLength(object);
+        Class<?> componentType = c.getComponentType();
+        if (componentType.isPrimitive()) {
+          total += align(ARRAY_HEADER_SIZE + (long) length * primitiveSize(componentType));
+          continue;
+        }
+        total += align(ARRAY_HEADER_SIZE + (long) length * REFERENCE_SIZE);
+        for (int i = 0; i < length; i++) {
+          push(worklist, Array.get(object, i));
+        }
+        continue;
+      }
+      Layout layout = LAYOUTS.get(c);
+      total += layout.shallowSize;
+      if (layout.referenceFields != null) {
+        for (Field field : layout.referenceFields) {
+          try {
+            push(worklist, field.get(object));
+          } catch (IllegalAccessException e) {
+            // The field was made accessible; ignore the objects it refers to.
+          }
+        }
+      } else if (object instanceof String) {
+        total += align(ARRAY_HEADER_SIZE + ((String) object).length());
+      } else if (isJdkClass(c)) {
+        total += elementsSize(object, worklist);
+      }
+    }
+    return total;
+  }
+
+  /**
+   * If an object is a collection or a map, adds its elements to the worklist.
+   *
+   * @param object an object of a JDK class
+   * @param worklist the worklist
+   * @return the bytes used by the elements, besides the elements themselves
+   */
+  private static long elementsSize(Object object, Deque<Object> worklist) {
+    long result = 0;
+    try {
+      if (object instanceof Collection) {
+        for (Object element : (Collection<?>) object) {
+          result += ENTRY_SIZE;
+          push(worklist, element);
+        }
+      } else if (object instanceof Map) {
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+          result += ENTRY_SIZE;
+          push(worklist, entry.getKey());
+          push(worklist, entry.getValue());
+        }
+      }
+    } catch (RuntimeException e) {
+      // A JDK wrapper, such as an unmodifiable view, iterated over a collection under test that
+      // threw an exception. Count the elements reached so far.
+    }
+    return result;
+  }
+
+  /**
+   * Adds a value to the worklist, unless it is null.
+   *
+   * @param worklist the worklist
+   * @param value a value
+   */
+  private static void push(Deque<Object> worklist, @Nullable Object value) {
+    if (value != null) {
+      worklist.push(value);
+    }
+  }
+
+  /**
+   * Returns true if an object is shared by all values, and so is not counted.
+   *
+   * @param object an object
+   * @return true if the object is a class, class loader, thread, or enum constant
+   */
+  private static boolean isShared(Object object) {
+    return object instanceof Class
+        || object instanceof ClassLoader
+        || object instanceof Thread
+        || object instanceof Enum;
+  }
+
+  /**
+   * Returns true if a class is part of the JDK, so that iterating over its instances runs no code
+   * under test.
+   *
+   * @param c a class
+   * @return true if the class was loaded by the bootstrap class loader
+   */
+  private static boolean isJdkClass(Class<?> c) {
+    return c.getClassLoader() == null;
+  }
+
+  /**
+   * Returns the size of a value of a primitive type.
+   *
+   * @param type a primitive type
+   * @return the size of a value of the type, in bytes
+   */
+  static int primitiveSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    } else {
+      return 1;
+    }
+  }
+
+  /**
+   * Rounds a size up to a multiple of 8, the alignment of objects.
+   *
+   * @param size a size, in bytes
+   * @return the aligned size
+   */
+  static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
@@ -0,0 +1,19 @@
+package randoop.instrument;
+
+/**
+ * Thrown by instrumented code under test when the deadline that Randoop set for the current call
+ * has passed. It is an {@code Error} so that code under test that catches {@code Exception} does
+ * not stop it.
+ *
+ * @see DeadlineTracker
+ */
+public class DeadlineExceededError extends Error {
+
+  /** Unique identifier for serialization. If you add or remove fields, change this number. */
+  private static final long serialVersionUID = 20261019;
+
+  /** Creates a DeadlineExceededError. It has no stack trace, so throwing it repeatedly is cheap. */
+  public DeadlineExceededError() {
+    super("Randoop call deadline exceeded", null, false, false);
+  }
+}
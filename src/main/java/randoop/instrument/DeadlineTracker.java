@@ -0,0 +1,131 @@
+package randoop.instrument;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stops calls into code under test that run past a deadline, without a separate thread. The
+ * covered-class agent, when given the argument {@code --deadline-checks}, instruments each loaded
+ * class to call {@link #check} at the start of each method and constructor and before each
+ * backward branch (the end of each loop iteration). Randoop arms a deadline for the current thread
+ * before each call and disarms it afterward. Once the deadline has passed, every check in the
+ * thread throws a {@link DeadlineExceededError} until the deadline is disarmed, so the error
+ * escapes even from code under test that catches it.
+ *
+ * <p>Code that is blocked, such as in {@code Thread.sleep} or while waiting for input, or that
+ * loops only within uninstrumented (JDK) code, is not stopped.
+ *
+ * @see DeadlineTransformer
+ */
+public final class DeadlineTracker {
+
+  /** Do not instantiate. */
+  private DeadlineTracker() {
+    throw new Error("Do not instantiate");
+  }
+
+  /** How many checks pass between reads of the clock. */
+  private static final int CHECKS_PER_CLOCK_READ = 1024;
+
+  /** True if the agent instruments loaded classes. */
+  private static volatile boolean enabled = false;
+
+  /** The number of threads with an armed deadline. Checks return at once when it is zero. */
+  private static final AtomicInteger armedThreads = new AtomicInteger();
+
+  /** The deadline of the current thread. */
+  private static final ThreadLocal<Deadline> deadline = ThreadLocal.withInitial(Deadline::new);
+
+  /** The deadline of one thread. */
+  private static final class Deadline {
+
+    /** True if the deadline is armed. */
+    boolean armed = false;
+
+    /** The value of {@code System.nanoTime()} at which the deadline passes. */
+    long deadlineNanos = 0;
+
+    /** True if a check has found that the deadline passed since it was armed. */
+    boolean expired = false;
+
+    /** The number of checks until the next read of the clock. */
+    int countdown = 0;
+  }
+
+  /** Records that the agent instruments loaded classes. Called by the agent. */
+  public static void enable() {
+    enabled = true;
+  }
+
+  /** Records that the agent does not instrument loaded classes. Used by tests. */
+  static void disable() {
+    enabled = false;
+  }
+
+  /**
+   * Returns true if loaded classes are instrumented to call this class.
+   *
+   * @return true if deadline checks are instrumented
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Arms a deadline for the current thread, replacing any deadline already armed.
+   *
+   * @param millis the number of milliseconds from now at which the deadline passes
+   */
+  public static void arm(long millis) {
+    Deadline d = deadline.get();
+    if (!d.armed) {
+      d.armed = true;
+      armedThreads.incrementAndGet();
+    }
+    d.deadlineNanos = System.nanoTime() + millis * 1_000_000L;
+    d.expired = false;
+    d.countdown = CHECKS_PER_CLOCK_READ;
+  }
+
+  /**
+   * Disarms the deadline of the current thread.
+   *
+   * @return true if the deadline passed while it was armed, even if the code under test caught the
+   *     {@link DeadlineExceededError}
+   */
+  public static boolean disarm() {
+    Deadline d = deadline.get();
+    if (!d.armed) {
+      return false;
+    }
+    d.armed = false;
+    armedThreads.decrementAndGet();
+    return d.expired;
+  }
+
+  /**
+   * Throws {@link DeadlineExceededError} if the deadline of the current thread has passed. Called
+   * by instrumented code. Reads the clock only once every 1024 calls.
+   *
+   * @throws DeadlineExceededError if the deadline of the current thread has passed
+   */
+  public static void check() {
+    if (armedThreads.get() == 0) {
+      return;
+    }
+    Deadline d = deadline.get();
+    if (!d.armed) {
+      return;
+    }
+    if (d.expired) {
+      throw new DeadlineExceededError();
+    }
+    if (--d.countdown > 0) {
+      return;
+    }
+    d.countdown = CHECKS_PER_CLOCK_READ;
+    if (System.nanoTime() - d.deadlineNanos >= 0) {
+      d.expired = true;
+      throw new DeadlineExceededError();
+    }
+  }
+}
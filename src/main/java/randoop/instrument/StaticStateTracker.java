@@ -0,0 +1,165 @@
+package randoop.instrument;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Records which classes have had a static field written, and which classes have been initialized.
+ * The covered-class agent, when given the argument {@code --track-static-writes}, instruments each
+ * loaded class to call {@link #staticWrite} after every write to a static field outside a static
+ * initializer, and to call {@link #classInitialized} at the end of its static initializer.
+ *
+ * <p>A write to a static field declared by the class that performs it calls {@link #staticWrite}
+ * only if the {@link #WRITTEN_FIELD} flag of the class is false, and sets the flag. {@link
+ * #drainDirtyClasses} clears the flag of each class it returns, so after the first write, later
+ * writes cost only a test of the flag.
+ *
+ * @see randoop.generation.StaticStateVisitor
+ */
+public final class StaticStateTracker {
+
+  /** Do not instantiate. */
+  private StaticStateTracker() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * The name of the private static boolean field that the instrumentation adds to each class, which
+   * is true if the class has been recorded as written since it was last drained.
+   */
+  public static final String WRITTEN_FIELD = "randoop_staticWritten";
+
+  /** The {@link #WRITTEN_FIELD} field of each class, or null if the class has none. */
+  private static final ClassValue<@Nullable Field> writtenFields =
+      new ClassValue<@Nullable Field>() {
+        @Override
+        protected @Nullable Field computeValue(Class<?> c) {
+          try {
+            Field f = c.getDeclaredField(WRITTEN_FIELD);
+            f.setAccessible(true);
+            return f;
+          } catch (NoSuchFieldException | RuntimeException e) {
+            return null;
+          }
+        }
+      };
+
+  /** True if the agent instruments loaded classes. */
+  private static volatile boolean enabled = false;
+
+  /** The classes whose static fields have been written since they were last drained. */
+  private static final Set<Class<?>> dirtyClasses = ConcurrentHashMap.newKeySet();
+
+  /** The classes initialized before a listener was set. */
+  private static final List<Class<?>> initializedClasses = new ArrayList<>();
+
+  /** Called on each class at the end of its static initializer, or null if none. */
+  private static @Nullable Consumer<Class<?>> initializationListener = null;
+
+  /** Records that the agent instruments loaded classes. Called by the agent. */
+  public static void enable() {
+    enabled = true;
+  }
+
+  /**
+   * Returns true if loaded classes are instrumented to call this class.
+   *
+   * @return true if static writes are tracked
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records that a static field of a class has been written. Called by instrumented code.
+   *
+   * @param c the class that declares the field
+   */
+  public static void staticWrite(Class<?> c) {
+    dirtyClasses.add(c);
+  }
+
+  /**
+   * Records that a static field inherited by a class has been written. Called by instrumented code
+   * in place of {@link #staticWrite} when the class that declares the field cannot be named in the
+   * code that writes it, for example because it is a package-private superclass in another
+   * package.
+   *
+   * @param c the class through which the field is written
+   * @param declaringClassName the binary name of the superclass of {@code c} that declares the
+   *     field
+   */
+  public static void staticWriteInherited(Class<?> c, String declaringClassName) {
+    for (Class<?> s = c; s != null; s = s.getSuperclass()) {
+      if (s.getName().equals(declaringClassName)) {
+        dirtyClasses.add(s);
+        return;
+      }
+    }
+    // Not a superclass, so the field cannot have been resolved as it was at instrumentation time.
+    dirtyClasses.add(c);
+  }
+
+  /**
+   * Records that a class has been initialized, and passes it to the listener. Called by
+   * instrumented code at the end of the static initializer of the class, so the listener sees the
+   * initial values of its static fields.
+   *
+   * @param c the class that has been initialized
+   */
+  public static synchronized void classInitialized(Class<?> c) {
+    Consumer<Class<?>> listener = initializationListener;
+    if (listener == null) {
+      initializedClasses.add(c);
+    } else {
+      listener.accept(c);
+    }
+  }
+
+  /**
+   * Sets the listener that is called on each class at the end of its static initializer, and calls
+   * it on the classes that have already been initialized.
+   *
+   * @param listener the listener
+   */
+  public static synchronized void setInitializationListener(Consumer<Class<?>> listener) {
+    initializationListener = listener;
+    for (Class<?> c : initializedClasses) {
+      listener.accept(c);
+    }
+    initializedClasses.clear();
+  }
+
+  /**
+   * Returns the classes whose static fields have been written since the last call, and forgets
+   * them. Clears the {@link #WRITTEN_FIELD} flag of each class returned, so that its next write is
+   * recorded. A write made by another thread during this call may not be recorded.
+   *
+   * @return the classes whose static fields have been written
+   */
+  public static List<Class<?>> drainDirtyClasses() {
+    List<Class<?>> result = new ArrayList<>();
+    for (Iterator<Class<?>> iterator = dirtyClasses.iterator(); iterator.hasNext(); ) {
+      Class<?> c = iterator.next();
+      result.add(c);
+      // Remove the class before clearing its flag: the other order could leave the flag set with
+      // the class absent, and then no later write would be recorded.
+      iterator.remove();
+      Field written = writtenFields.get(c);
+      if (written != null) {
+        try {
+          written.setBoolean(null, false);
+        } catch (IllegalAccessException e) {
+          throw new Error("Cannot clear " + WRITTEN_FIELD + " of " + c.getName(), e);
+        }
+      }
+    }
+    return result;
+  }
+}
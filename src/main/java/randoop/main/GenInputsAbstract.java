@@ -32,6 +32,7 @@ import org.plumelib.util.EntryReader.CommentFormat;
 import org.plumelib.util.EntryReader.EntryFormat;
 import org.plumelib.util.FileWriterWithName;
 import randoop.Globals;
+import randoop.instrument.DeadlineTracker;
 import randoop.reflection.AccessibilityPredicate;
 import randoop.util.Randomness;
 import randoop.util.ReflectionExecutor;
@@ -304,6 +305,29 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Number of suspected nondeterministic methods to print")
   public static int nondeterministic_methods_to_output = 10;
 
+  /**
+   * The fraction of regression tests that Randoop executes a second time, during generation, to
+   * detect nondeterminism. A test whose assertions differ between the two executions is discarded,
+   * and the method under test that it was created for is selected less often afterward. This finds
+   * most flaky tests earlier and more cheaply than compiling and running the generated tests, which
+   * Randoop does after generation. 0 disables the check.
+   */
+  @Option("Fraction of regression tests to re-execute to detect nondeterminism")
+  public static double nondeterminism_check_fraction = 0;
+
+  /**
+   * If true, before executing each sequence, Randoop restores the non-final static fields of the
+   * classes under test to the values they had when the classes were initialized, so that a test
+   * does not depend on static state left by the sequences executed before it. Only the fields are
+   * restored, not the state of the objects they refer to. When Randoop is run using the
+   * covered-class javaagent with the argument {@code --track-static-writes} ({@code
+   * -javaagent:covered-class.jar=--track-static-writes}), only the classes whose static fields were
+   * written are restored, including classes that are not under test; otherwise, Randoop compares
+   * every static field of the classes under test to its initial value.
+   */
+  @Option("Restore static fields of classes under test before executing each sequence")
+  public static boolean static_state_isolation = false;
+
   /**
    * If true, do not output error-revealing tests. Disables all output when used with {@code
    * --no-regression-tests}. Restricting output can result in long runs if the default values of
@@ -341,6 +365,18 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Whether to check if test sequences are compilable")
   public static boolean check_compilable = true;
 
+  /**
+   * If true, when {@code --check-compilable} is set, Randoop decides without compiling whether the
+   * code for a simple sequence compiles, and compiles only the sequences for which it cannot tell.
+   * A sequence is simple if it calls only public, non-overloaded, non-varargs constructors and
+   * methods of non-generic public classes, and its assertions do not call methods under test.
+   *
+   * <p>Off by default: a mistake in the checker would let a test that does not compile into the
+   * output, where the whole test class then fails to compile.
+   */
+  @Option("Whether to skip compiling test sequences that surely compile")
+  public static boolean static_compilability_check = false;
+
   /**
    * Classes that must occur in a test. Randoop will only output tests whose source code has at
    * least one use of a member of a class whose name matches the regular expression.
@@ -376,6 +412,28 @@ public abstract class GenInputsAbstract extends CommandHandler {
   // Defaulting to true sometimes causes unacceptable slowdowns.
   public static boolean minimize_error_test = false;
 
+  /**
+   * If true, Randoop reduces each error-revealing test when it finds it. Randoop removes statements
+   * and replaces inputs by simpler values (null, zero, false, the empty string, or a literal from
+   * the component set), executes the changed test in the Randoop process, and keeps the change
+   * only if the test still fails in the same way. Unlike {@code --minimize-error-test}, this
+   * compiles no Java files and starts no processes, so it is much faster; the two can be used
+   * together.
+   */
+  @Option("Reduce error-revealing tests in the Randoop process when they are found")
+  public static boolean reduce_error_tests = false;
+
+  /**
+   * The maximum number of error-revealing tests that Randoop outputs for each distinct failure, or
+   * 0 for no limit. Two tests fail in the same way if their last statements call the same method,
+   * they violate the same contracts or throw exceptions of the same class, and the top few stack
+   * frames of code under test are the same. Randoop keeps the shortest tests for each failure. This
+   * makes output, minimization, and compilation time depend on the number of distinct failures
+   * rather than on how often each one is found.
+   */
+  @Option("Maximum number of error-revealing tests per distinct failure, or 0 for no limit")
+  public static int max_error_tests_per_failure = 0;
+
   /** The possible values for exception behavior types. */
   public enum BehaviorType {
     /** Occurrence of exception reveals an error. */
@@ -720,7 +778,17 @@ public abstract class GenInputsAbstract extends CommandHandler {
      * data from the Java runtime libraries, e.g., {@code java.lang}; thus they are not useful
      * candidates for the Bloodhound technique.
      */
-    BLOODHOUND
+    BLOODHOUND,
+    /**
+     * Prefer methods that yield new component values or regression tests quickly. Each method is
+     * weighted by its observed rate of success divided by the time spent on it, so methods that
+     * are slow to execute are chosen less often. A method that exceeds {@code
+     * --call-timeout-millis} repeatedly is no longer chosen. Because the weights depend on
+     * measured time, this mode cannot be used with {@code --deterministic}. Because each outcome is
+     * charged to the most recently selected method, it cannot be used with {@code
+     * --execution-workers}, which selects the methods of a whole batch before executing it.
+     */
+    THROUGHPUT
   }
 
   /** Print to standard out, method weights and method uncovered ratios. */
@@ -756,6 +824,17 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Maximum length of Strings in generated tests")
   public static int string_maxlen = 1000;
 
+  /**
+   * If positive, Randoop estimates the number of bytes that each non-primitive value created by a
+   * sequence retains (the sizes of the objects reachable from it), and does not use values larger
+   * than this as inputs to new sequences. Every test that reuses such a value would create and
+   * check the whole object graph again. With {@code --input-selection=ORIENTEERING}, sequences
+   * that create larger values are also selected less often. The estimate reads fields reflectively
+   * and stops once it exceeds this limit.
+   */
+  @Option("Do not use values that retain more than this many bytes as inputs; 0 for no limit")
+  public static long value_size_limit = 0;
+
   // This enables Randoop's "demand-driven" strategy.
   /**
    * Constructs missing method inputs on demand.
@@ -856,12 +935,141 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Clear the component set when Randoop uses this much memory")
   public static long clear_memory = 4_000_000_000L; // default: 4G
 
+  /**
+   * When the component set holds {@code --clear} generated sequences, not counting seeds, or
+   * Randoop uses the memory given by {@code --clear-memory}, evict the least useful generated
+   * sequences rather than clearing the set.
+   *
+   * <p>A sequence is useful if it is often selected as an input, and if sequences built from it
+   * reveal errors or produce new primitive values. It is costly if it is long or slow to execute,
+   * because every sequence built from it repeats that work. Seed sequences are never evicted.
+   */
+  @Option("Evict low-utility sequences instead of clearing the component set")
+  public static boolean pool_eviction = false;
+
+  /**
+   * How far below its budget to shrink the component set each time it is over budget, as a
+   * fraction of the budget. When the set holds {@code --clear} generated sequences or Randoop uses
+   * {@code --clear-memory} bytes, Randoop evicts sequences until it is this fraction below that
+   * limit.
+   * Used only if {@code --pool-eviction} is set.
+   */
+  @Option("Fraction below its budget to shrink the component set when it is over budget")
+  public static double pool_eviction_fraction = 0.1;
+
+  /**
+   * If set, the sequences that Randoop removes from the component set when it reaches {@code
+   * --clear} or {@code --clear-memory} are not discarded. Instead, they are moved to a file in this
+   * directory that is mapped into memory outside the Java heap, and only a small record of each
+   * stays on the heap. When Randoop selects an input of some type, it may read back a sequence of
+   * that type from the file, so the moved sequences can still be used. The file is deleted when
+   * Randoop exits.
+   */
+  @Option("Directory for a file that holds sequences removed from the component set")
+  public static @MonotonicNonNull Path pool_spill_dir = null;
+
+  /** How to decide whether a value created by a sequence is the same as one already created. */
+  public enum StateMatching {
+    /** Every value is new. */
+    NONE,
+    /** Values are compared by their {@code equals} methods. */
+    EQUALS,
+    /**
+     * Values are compared by their abstract state: the values of their fields, and of the fields of
+     * the objects that those refer to, up to the depth given by {@code --state-matching-depth}.
+     */
+    ABSTRACT,
+  }
+
+  /**
+   * Whether to keep out of the component set the values that are the same as values already
+   * created. A value created by a new sequence that matches an earlier value of the same declared
+   * type is not used as an input, so the component set stays smaller and more diverse. If no value
+   * created by a sequence is new, the sequence is not added to the component set.
+   *
+   * <p>{@code ABSTRACT} runs no code of the classes under test, but it reads their fields
+   * reflectively, which requires {@code --add-opens} for classes in JDK modules; values that it
+   * cannot read are always new. {@code EQUALS} calls the {@code equals} and {@code hashCode}
+   * methods of the values.
+   *
+   * <p>The record of the values already created is forgotten whenever sequences are removed from
+   * the component set (see {@code --clear}, {@code --pool-eviction}, and {@code
+   * --pool-spill-dir}).
+   */
+  @Option("How to detect values that are the same as values already created")
+  public static StateMatching state_matching = StateMatching.NONE;
+
+  /**
+   * The depth to which {@code --state-matching=ABSTRACT} compares the fields of values. At depth 0,
+   * only the classes of values are compared; at depth 1, also their fields; and so on.
+   */
+  @Option("Depth of the object graph compared by --state-matching=ABSTRACT")
+  public static int state_matching_depth = 3;
+
   /** Maximum number of tests to write to each JUnit file. */
   // ///////////////////////////////////////////////////////////////////
   @OptionGroup("Outputting the JUnit tests")
   @Option("Maximum number of tests to write to each JUnit file")
   public static int testsperfile = 500;
 
+  /**
+   * The number of threads that create and write the JUnit test classes, each of which contains at
+   * most {@code --testsperfile} tests. The output does not depend on the number of threads. Each
+   * thread also compiles and runs the regression test classes it writes, in a separate JVM, to find
+   * failing assertions, so more threads need more memory.
+   */
+  @Option("Number of threads that write JUnit test classes")
+  public static int output_threads = 1;
+
+  /**
+   * If true, the regression tests in a JUnit file that begin with the same statements share them.
+   * Each shared prefix becomes a private nested class whose constructor executes the statements; a
+   * test that begins with the prefix creates an instance and continues from there. Each test still
+   * creates its own objects, so the tests remain independent. This makes test files smaller and
+   * faster to compile. Error-revealing tests are not affected, so that each can be read and
+   * minimized on its own.
+   */
+  @Option("Share common statement prefixes among the regression tests in a JUnit file")
+  public static boolean share_test_prefixes = false;
+
+  /**
+   * Formats in which Randoop can write regression tests.
+   *
+   * @see #test_output_format
+   */
+  public enum TestOutputFormat {
+    /** JUnit test classes, as Java source code. */
+    JAVA,
+    /**
+     * A replay file, {@code <regression-test-basename>.replay}, that holds each test as data, and a
+     * JUnit class, {@code <regression-test-basename>Replay.java}, that runs the tests in the file.
+     * Running the class requires Randoop on the classpath. Tests that cannot be written as data
+     * are written as Java source code.
+     */
+    REPLAY
+  }
+
+  /**
+   * The format in which to write regression tests. Compiling large regression test classes can take
+   * longer than running them; a replay file needs no compilation, and is read one test at a time
+   * when the tests run. Unlike Java source, a replay file is not compiled and run after generation
+   * to find flaky assertions, so consider {@code --nondeterminism-check-fraction} to discard flaky
+   * tests during generation. Error-revealing tests are always written as Java source code.
+   */
+  @Option("Format in which to write regression tests")
+  public static TestOutputFormat test_output_format = TestOutputFormat.JAVA;
+
+  /**
+   * A file to which to write an index of the generated tests. For each test method, the index lists
+   * the classes whose methods, constructors, and fields the test uses directly, including in its
+   * assertions, and the methods and constructors it calls. If {@code --require-covered-classes} is
+   * given, the index also lists the classes in that file whose code ran when Randoop executed the
+   * test. Given the index and a list of changed classes, {@code randoop select-tests} prints the
+   * tests that might be affected by the change.
+   */
+  @Option("<filename> Write an index of the code used by each generated test to this file")
+  public static @MonotonicNonNull Path test_index_file = null;
+
   /** Base name (no ".java" suffix) of the JUnit file containing error-revealing tests */
   @Option("Base name of the JUnit file(s) containing error-revealing tests")
   public static String error_test_basename = "ErrorTest";
@@ -970,6 +1178,82 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Store all output to stdout and stderr in the ExecutionOutcome.")
   public static boolean capture_output = false;
 
+  /**
+   * If positive, Randoop starts this many child JVMs, called execution workers, and executes each
+   * new sequence in a worker instead of in Randoop's own JVM. A sequence that makes a worker exit,
+   * crash, or run longer than {@code --call-timeout-millis} is discarded, and the worker is
+   * restarted. This keeps code under test that calls {@code System.exit} or never terminates from
+   * stopping test generation.
+   *
+   * <p>Randoop constructs sequences in batches, and the workers execute each batch in parallel. A
+   * new sequence is built from a component pool that does not yet contain the results of the other
+   * sequences of its batch. A worker sends back the outcome of each statement and the checks of the
+   * sequence, including the failing check of an error-revealing sequence. A sequence whose checks
+   * cannot be transferred, such as one that violates a postcondition of a {@code --specifications}
+   * file, is discarded. Cannot be used with options that need the run-time values of
+   * a sequence in Randoop's JVM: {@code --state-matching}, {@code --value-size-limit}, {@code
+   * --cast-to-run-time-type}, {@code --nondeterminism-check-fraction}, and {@code
+   * --method-selection=BLOODHOUND}, or with {@code --method-selection=THROUGHPUT}.
+   */
+  @Option("Number of child JVMs in which to execute the sequences")
+  public static int execution_workers = 0;
+
+  /**
+   * If true, this process is an execution worker: it sets up test generation, and then executes
+   * the sequences sent to it on standard input instead of generating tests. Set by Randoop when it
+   * starts the workers of {@code --execution-workers}.
+   */
+  @Unpublicized
+  @Option("Serve execution requests on standard input and output")
+  public static boolean serve_execution_requests = false;
+
+  /**
+   * If positive, Randoop overlaps the work of consecutive generation steps: it constructs the next
+   * sequences while a second thread executes earlier ones and generates their checks, and a third
+   * thread runs the output filters (such as {@code --check-compilable}) on them. This is the
+   * number of sequences that may wait for each of the second and third threads. A new sequence is
+   * built from a component pool that does not yet contain the results of the sequences in flight,
+   * so the generated tests differ from those of a run without this option, but a run with a fixed
+   * {@code --randomseed} is still reproducible. Cannot be used with options that execute code under
+   * test outside the execution thread: {@code --state-matching=EQUALS}, {@code
+   * --call-non-sut-methods}, {@code --nondeterminism-check-fraction}, {@code --reduce-error-tests},
+   * and {@code --execution-workers}; nor with {@code --dontexecute}; nor with {@code
+   * --method-selection=BLOODHOUND} or {@code --method-selection=THROUGHPUT}, which would make the
+   * run depend on the timing of the threads.
+   */
+  @Option("Number of sequences in flight per stage of pipelined generation; 0 disables pipelining")
+  public static int pipeline_depth = 0;
+
+  /**
+   * If non-null, Randoop periodically saves a checkpoint of test generation to this directory, so
+   * that a run that is killed can be continued with {@code --resume}. Each checkpoint appends the
+   * sequences added to the component pool and the tests accepted since the previous checkpoint to
+   * files in the directory, and then replaces a small file that records the state of the random
+   * number generator, the generation counters, the statistics of the {@code --method-selection}
+   * strategy, and how much of each of the other files belongs to the checkpoint. After sequences
+   * are removed from the component pool, or error-revealing tests are discarded in favor of
+   * shorter ones, the next checkpoint writes the whole pool, or all the error-revealing tests, to a
+   * new file instead. See {@code --checkpoint-interval-millis}.
+   */
+  @Option("Directory in which to save checkpoints of test generation")
+  public static @MonotonicNonNull Path checkpoint_dir = null;
+
+  /** How often, in milliseconds, Randoop saves a checkpoint to {@code --checkpoint-dir}. */
+  @Option("How often to save a checkpoint, in milliseconds")
+  public static long checkpoint_interval_millis = 60_000;
+
+  /**
+   * If true, Randoop continues the run whose latest checkpoint is in {@code --checkpoint-dir}. It
+   * adds the saved sequences to the component pool, executes the saved tests again to recreate
+   * their assertions (error-revealing tests are not reduced or clustered again), restores the state
+   * of the random number generator and of the {@code --method-selection} strategy, and generates
+   * tests for the rest of {@code --time-limit} and the other limits. If the directory contains no
+   * checkpoint, Randoop starts a new run. Requires {@code --checkpoint-dir}, and the same other
+   * command-line arguments as the run that saved the checkpoint.
+   */
+  @Option("Continue the run saved in --checkpoint-dir")
+  public static boolean resume = false;
+
   /**
    * The random seed to use in the generation process. You do not need to provide this option to
    * make Randoop deterministic, because Randoop is deterministic by default. It is recommended to
@@ -998,6 +1282,59 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("If true, Randoop is deterministic")
   public static boolean deterministic = false;
 
+  /**
+   * The number of Randoop processes to generate tests in parallel. If greater than 1, this Randoop
+   * process is a coordinator: it starts that many child Randoop processes ("shards"), each of which
+   * generates tests for part of the problem (see {@code --shard-partition}). When they finish, the
+   * coordinator merges their tests, removes duplicates, and writes a single test suite.
+   *
+   * <p>Each shard runs in its own JVM, so this is safe even for code under test that is not
+   * thread-safe or that modifies static state. Each shard gets most of {@code --time-limit} (they
+   * run concurrently), and the coordinator uses the rest to execute the merged tests; each shard
+   * also gets an equal share of {@code --attempted-limit}, {@code --generated-limit}, and {@code
+   * --output-limit}.
+   */
+  // ///////////////////////////////////////////////////////////////////
+  @OptionGroup("Generating tests in several processes")
+  @Option("Number of Randoop processes that generate tests in parallel")
+  public static int shards = 1;
+
+  /** How the work is divided among the shards of a multi-process run. */
+  public enum ShardPartition {
+    /** Each shard tests a different subset of the methods and constructors. */
+    OPERATIONS,
+    /** Each shard tests the methods and constructors of a different subset of the classes. */
+    CLASSES,
+    /** Every shard tests all methods and constructors, using a different random seed. */
+    SEEDS
+  }
+
+  /** How to divide the work among the shards, when {@code --shards} is greater than 1. */
+  @Option("How to divide the work among the shards")
+  public static ShardPartition shard_partition = ShardPartition.OPERATIONS;
+
+  /**
+   * How often, in milliseconds, the shards of a multi-process run exchange sequences from their
+   * component pools, so that each shard can build on values created by the others. 0 means never.
+   */
+  @Option("How often shards exchange pool sequences, in milliseconds; 0 means never")
+  public static long shard_exchange_interval_millis = 10_000;
+
+  /** The index of this shard in a multi-process run, or -1 if this process is not a shard. */
+  @Unpublicized
+  @Option("The index of this shard in a multi-process run")
+  public static int shard_index = -1;
+
+  /** The directory to which a shard writes the sequences it generated. */
+  @Unpublicized
+  @Option("The directory to which a shard writes its sequences")
+  public static @MonotonicNonNull Path shard_output = null;
+
+  /** The directory through which shards exchange pool sequences. */
+  @Unpublicized
+  @Option("The directory through which shards exchange pool sequences")
+  public static @MonotonicNonNull Path shard_exchange_dir = null;
+
   /** Run noisily: display information such as progress updates. */
   // /////////////////////////////////////////////////////////////////
   @OptionGroup("Logging, notifications, and troubleshooting Randoop")
@@ -1043,6 +1380,22 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("<filename> Write operation usage counts to this file")
   public static @MonotonicNonNull FileWriterWithName operation_history_log = null;
 
+  /**
+   * A file to which to write, when Randoop exits, how much time each phase of test generation took.
+   * For each phase (operation selection, input selection, execution, and so on), the report gives
+   * the count, total, mean, and percentiles of the phase's duration, and the operations that spent
+   * the most time in it. If not specified, no timing is done.
+   */
+  @Option("<filename> Write per-phase generation timing metrics to this file")
+  public static @MonotonicNonNull Path metrics_file = null;
+
+  /**
+   * If true, emit a Java Flight Recorder event for each timed phase of test generation, so that a
+   * JFR recording shows where generation time goes. Has no effect on JVMs without JFR.
+   */
+  @Option("Emit a JFR event for each phase of test generation")
+  public static boolean jfr_events = false;
+
   /**
    * True if Randoop should print generated tests that do not compile, which indicate Randoop bugs.
    */
@@ -1082,6 +1435,11 @@ public abstract class GenInputsAbstract extends CommandHandler {
     if (null_ratio < 0 || null_ratio > 1) {
       throw new RandoopUsageError("--null-ratio must be between 0 and 1, inclusive.");
     }
+
+    if (nondeterminism_check_fraction < 0 || nondeterminism_check_fraction > 1) {
+      throw new RandoopUsageError(
+          "--nondeterminism-check-fraction must be between 0 and 1, inclusive.");
+    }
     if (forbid_null) {
       if (null_ratio != 0 && null_ratio != null_ratio_default) {
         throw new RandoopUsageError("Both --forbid-null and --null-ratio were provided");
@@ -1128,6 +1486,64 @@ public abstract class GenInputsAbstract extends CommandHandler {
               + " must be in [0, 1]");
     }
 
+    if (shards < 1) {
+      throw new RandoopUsageError("--shards=" + shards + " must be positive");
+    }
+
+    if (shard_index >= shards) {
+      throw new RandoopUsageError(
+          "--shard-index=" + shard_index + " must be less than --shards=" + shards);
+    }
+
+    if (deterministic && shards > 1 && shard_exchange_interval_millis > 0) {
+      throw new RandoopUsageError(
+          "Invalid parameter combination: --deterministic with --shards and"
+              + " --shard-exchange-interval-millis > 0");
+    }
+
+    if (pool_eviction_fraction <= 0 || pool_eviction_fraction > 1) {
+      throw new RandoopUsageError(
+          "--pool-eviction-fraction=" + pool_eviction_fraction + " must be in (0, 1]");
+    }
+
+    if (checkpoint_dir != null) {
+      if (!Files.isDirectory(checkpoint_dir)) {
+        throw new RandoopUsageError("--checkpoint-dir=" + checkpoint_dir + " is not a directory");
+      }
+      if (checkpoint_interval_millis <= 0) {
+        throw new RandoopUsageError(
+            "--checkpoint-interval-millis=" + checkpoint_interval_millis + " must be positive");
+      }
+      if (shards > 1) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --checkpoint-dir with --shards");
+      }
+    } else if (resume) {
+      throw new RandoopUsageError(
+          "Invalid parameter combination: --resume without --checkpoint-dir");
+    }
+
+    if (value_size_limit < 0) {
+      throw new RandoopUsageError(
+          "--value-size-limit=" + value_size_limit + " must be non-negative");
+    }
+
+    if (pool_spill_dir != null && !Files.isDirectory(pool_spill_dir)) {
+      throw new RandoopUsageError("--pool-spill-dir=" + pool_spill_dir + " is not a directory");
+    }
+
+    if (state_matching_depth < 0) {
+      throw new RandoopUsageError(
+          "--state-matching-depth=" + state_matching_depth + " must be non-negative");
+    }
+
+    if (max_error_tests_per_failure < 0) {
+      throw new RandoopUsageError(
+          "--max-error-tests-per-failure="
+              + max_error_tests_per_failure
+              + " must be non-negative");
+    }
+
     if (deterministic && ReflectionExecutor.usethreads) {
       throw new RandoopUsageError(
           "Invalid parameter combination: --deterministic with --usethreads");
@@ -1160,15 +1576,108 @@ public abstract class GenInputsAbstract extends CommandHandler {
           "Invalid parameter combination: --deterministic with --bloodhound-update-mode=time");
     }
 
+    if (deterministic && method_selection == MethodSelectionMode.THROUGHPUT) {
+      throw new RandoopUsageError(
+          "Invalid parameter combination: --deterministic with --method-selection=THROUGHPUT");
+    }
+
     if (ReflectionExecutor.call_timeout_millis != ReflectionExecutor.CALL_TIMEOUT_MILLIS_DEFAULT
-        && !ReflectionExecutor.usethreads) {
+        && !ReflectionExecutor.usethreads
+        && !DeadlineTracker.isEnabled()
+        && execution_workers == 0
+        && !serve_execution_requests) {
+      throw new RandoopUsageError(
+          "Invalid parameter combination: --call-timeout-millis without --usethreads,"
+              + " --execution-workers, or the deadline checks of the covered-class agent");
+    }
+
+    if (output_threads < 1) {
+      throw new RandoopUsageError("--output-threads=" + output_threads + " must be positive");
+    }
+
+    if (execution_workers < 0) {
       throw new RandoopUsageError(
-          "Invalid parameter combination: --call-timeout-millis without --usethreads");
+          "--execution-workers=" + execution_workers + " must be non-negative");
+    }
+
+    if (execution_workers > 0) {
+      if (state_matching != StateMatching.NONE) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --execution-workers with --state-matching");
+      }
+      if (value_size_limit > 0) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --execution-workers with --value-size-limit");
+      }
+      if (cast_to_run_time_type) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --execution-workers with --cast-to-run-time-type");
+      }
+      if (nondeterminism_check_fraction > 0) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination:"
+                + " --execution-workers with --nondeterminism-check-fraction");
+      }
+      if (method_selection == MethodSelectionMode.BLOODHOUND) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination:"
+                + " --execution-workers with --method-selection=BLOODHOUND");
+      }
+      // THROUGHPUT charges each outcome to the most recent selection, but a batch is selected
+      // before any of it is executed.
+      if (method_selection == MethodSelectionMode.THROUGHPUT) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination:"
+                + " --execution-workers with --method-selection=THROUGHPUT");
+      }
+    }
+
+    if (pipeline_depth < 0) {
+      throw new RandoopUsageError("--pipeline-depth=" + pipeline_depth + " must be non-negative");
+    }
+
+    if (pipeline_depth > 0) {
+      if (state_matching == StateMatching.EQUALS) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --pipeline-depth with --state-matching=EQUALS");
+      }
+      // Demand-driven input creation executes sequences while it constructs a new one.
+      if (call_non_sut_methods) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --pipeline-depth with --call-non-sut-methods");
+      }
+      if (nondeterminism_check_fraction > 0) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --pipeline-depth with --nondeterminism-check-fraction");
+      }
+      if (reduce_error_tests) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --pipeline-depth with --reduce-error-tests");
+      }
+      if (execution_workers > 0) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --pipeline-depth with --execution-workers");
+      }
+      if (dontexecute) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --pipeline-depth with --dontexecute");
+      }
+      // These selectors weigh operations by coverage or by time measured on the execution thread,
+      // so the sequences that are constructed would depend on the timing of the threads.
+      if (method_selection == MethodSelectionMode.BLOODHOUND
+          || method_selection == MethodSelectionMode.THROUGHPUT) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --pipeline-depth with --method-selection="
+                + method_selection);
+      }
     }
 
-    if (ReflectionExecutor.timed_out_tests != null && !ReflectionExecutor.usethreads) {
+    if (ReflectionExecutor.timed_out_tests != null
+        && !ReflectionExecutor.usethreads
+        && !DeadlineTracker.isEnabled()) {
       throw new RandoopUsageError(
-          "Invalid parameter combination: --timed-out-tests without --usethreads");
+          "Invalid parameter combination: --timed-out-tests without --usethreads"
+              + " or the deadline checks of the covered-class agent");
     }
 
     if (time_limit == 0
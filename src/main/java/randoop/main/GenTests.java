@@ -3,7 +3,6 @@ package randoop.main;
 import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
 
 import com.github.javaparser.ParseException;
-import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.stmt.BlockStmt;
 import java.io.File;
 import java.io.IOException;
@@ -33,9 +32,15 @@ import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.nullness.qual.PolyNull;
 import org.checkerframework.checker.regex.qual.Regex;
 import org.checkerframework.checker.signature.qual.ClassGetName;
@@ -54,17 +59,25 @@ import org.plumelib.util.UtilPlume;
 import randoop.ExecutionVisitor;
 import randoop.Globals;
 import randoop.MethodReplacements;
+import randoop.MultiVisitor;
 import randoop.condition.RandoopSpecificationError;
 import randoop.condition.SpecificationCollection;
+import randoop.execution.ExecutionWorker;
+import randoop.execution.ExecutionWorkerPool;
+import randoop.execution.RunCommand;
 import randoop.execution.TestEnvironment;
 import randoop.generation.AbstractGenerator;
+import randoop.generation.Checkpoint;
 import randoop.generation.ComponentManager;
 import randoop.generation.DemandDrivenInputCreator;
+import randoop.generation.FailureClusters;
 import randoop.generation.ForwardGenerator;
 import randoop.generation.NonSutClassSet;
 import randoop.generation.OperationHistoryLogger;
+import randoop.generation.PoolExchange;
 import randoop.generation.RandoopGenerationError;
 import randoop.generation.SeedSequences;
+import randoop.generation.StaticStateVisitor;
 import randoop.instrument.CoveredClassVisitor;
 import randoop.operation.CallableOperation;
 import randoop.operation.MethodCall;
@@ -80,6 +93,8 @@ import randoop.output.JavaFileWriter;
 import randoop.output.MinimizerWriter;
 import randoop.output.NameGenerator;
 import randoop.output.RandoopOutputException;
+import randoop.output.ReplayFile;
+import randoop.output.TestIndex;
 import randoop.reflection.AccessibilityPredicate;
 import randoop.reflection.DefaultReflectionPredicate;
 import randoop.reflection.OmitMethodsPredicate;
@@ -110,6 +125,7 @@ import randoop.test.ValueSizePredicate;
 import randoop.types.ClassOrInterfaceType;
 import randoop.types.Type;
 import randoop.util.DemandDrivenLog;
+import randoop.util.GenerationMetrics;
 import randoop.util.Log;
 import randoop.util.MultiMap;
 import randoop.util.Randomness;
@@ -259,6 +275,10 @@ public class GenTests extends GenInputsAbstract {
       }
     }
 
+    if (GenInputsAbstract.serve_execution_requests) {
+      ExecutionWorker.takeStandardStreams();
+    }
+
     if (GenInputsAbstract.progressdisplay) {
       System.out.println("Randoop for Java version " + Globals.getRandoopVersion() + ".");
       System.out.println("Java version " + getJavaVersion() + ".");
@@ -268,6 +288,8 @@ public class GenTests extends GenInputsAbstract {
 
     Randomness.setSeed(randomseed);
 
+    GenerationMetrics.enable(GenInputsAbstract.metrics_file != null, GenInputsAbstract.jfr_events);
+
     // java.security.Policy policy = java.security.Policy.getPolicy();
 
     // This is distracting to the user as the first thing shown, and is not very informative.
@@ -453,6 +475,15 @@ public class GenTests extends GenInputsAbstract {
       System.out.println("PUBLIC MEMBERS=" + operations.size());
     }
 
+    if (GenInputsAbstract.shard_index >= 0) {
+      operations =
+          ShardCoordinator.partition(
+              operations,
+              GenInputsAbstract.shard_index,
+              GenInputsAbstract.shards,
+              GenInputsAbstract.shard_partition);
+    }
+
     /*
      * Initialize components:
      * <ul>
@@ -602,6 +633,13 @@ public class GenTests extends GenInputsAbstract {
     if (GenInputsAbstract.require_covered_classes != null) {
       visitors.add(new CoveredClassVisitor(operationModel.getCoveredClassesGoal()));
     }
+    if (GenInputsAbstract.static_state_isolation) {
+      Set<Class<?>> classes = new LinkedHashSet<>();
+      for (ClassOrInterfaceType type : classesUnderTest) {
+        classes.add(type.getRuntimeClass());
+      }
+      visitors.add(new StaticStateVisitor(classes));
+    }
     // Install any user-specified visitors.
     if (!GenInputsAbstract.visitor.isEmpty()) {
       for (String visitorClsName : GenInputsAbstract.visitor) {
@@ -617,6 +655,36 @@ public class GenTests extends GenInputsAbstract {
     }
     explorer.setExecutionVisitor(visitors);
 
+    if (GenInputsAbstract.serve_execution_requests) {
+      ExecutionWorker.serveAndExit(MultiVisitor.createMultiVisitor(visitors), testGen);
+    }
+
+    if (GenInputsAbstract.shard_index >= 0
+        && GenInputsAbstract.shard_exchange_dir != null
+        && GenInputsAbstract.shard_exchange_interval_millis > 0) {
+      explorer.setPoolExchange(
+          new PoolExchange(
+              GenInputsAbstract.shard_exchange_dir,
+              GenInputsAbstract.shard_index,
+              GenInputsAbstract.shard_exchange_interval_millis));
+    }
+
+    if (GenInputsAbstract.checkpoint_dir != null) {
+      explorer.setCheckpoint(
+          new Checkpoint(
+              GenInputsAbstract.checkpoint_dir, GenInputsAbstract.checkpoint_interval_millis));
+    }
+
+    ExecutionWorkerPool executionWorkers = null;
+    if (GenInputsAbstract.execution_workers > 0) {
+      executionWorkers =
+          new ExecutionWorkerPool(
+              GenInputsAbstract.execution_workers,
+              ReflectionExecutor.call_timeout_millis,
+              workerCommand(args));
+      explorer.setExecutionWorkers(executionWorkers);
+    }
+
     // Diagnostic output
     if (GenInputsAbstract.progressdisplay) {
       System.out.printf("Explorer = %s%n", explorer);
@@ -631,7 +699,12 @@ public class GenTests extends GenInputsAbstract {
 
     // Generate tests
     try {
-      explorer.createAndClassifySequences();
+      if (GenInputsAbstract.shards > 1 && GenInputsAbstract.shard_index < 0) {
+        List<Sequence> merged = ShardCoordinator.runShards(args);
+        explorer.classifySequences(merged, ShardCoordinator.mergeTimeLimitMillis());
+      } else {
+        explorer.createAndClassifySequences();
+      }
     } catch (SequenceExceptionError e) {
       printSequenceExceptionError(explorer, e);
       System.exit(1);
@@ -647,10 +720,30 @@ public class GenTests extends GenInputsAbstract {
       System.out.printf(
           "createAndClassifySequences threw an exception%n%s%n", UtilPlume.stackTraceToString(e));
       throw e;
+    } finally {
+      if (executionWorkers != null) {
+        executionWorkers.close();
+      }
+      componentMgr.closeSpillFile();
     }
 
     // post generation
+    if (GenInputsAbstract.shard_output != null) {
+      List<Sequence> regressionSequences = new ArrayList<>();
+      for (ExecutableSequence eSeq : explorer.getRegressionSequences()) {
+        regressionSequences.add(eSeq.sequence);
+      }
+      List<Sequence> errorSequences = new ArrayList<>();
+      for (ExecutableSequence eSeq : explorer.getErrorTestSequences()) {
+        errorSequences.add(eSeq.sequence);
+      }
+      ShardCoordinator.writeShardOutput(regressionSequences, errorSequences);
+      writeMetricsFile();
+      return true;
+    }
+
     if (GenInputsAbstract.dont_output_tests) {
+      writeMetricsFile();
       return true;
     }
 
@@ -664,6 +757,9 @@ public class GenTests extends GenInputsAbstract {
 
     JavaFileWriter javaFileWriter = new JavaFileWriter(junit_output_dir);
 
+    Path testIndexFile = GenInputsAbstract.test_index_file;
+    TestIndex testIndex = testIndexFile == null ? null : new TestIndex(testIndexFile);
+
     if (!GenInputsAbstract.no_error_revealing_tests) {
       CodeWriter codeWriter = javaFileWriter;
       if (GenInputsAbstract.minimize_error_test || GenInputsAbstract.stop_on_error_test) {
@@ -674,7 +770,9 @@ public class GenTests extends GenInputsAbstract {
           explorer.getErrorTestSequences(),
           codeWriter,
           GenInputsAbstract.error_test_basename,
-          "Error-revealing");
+          "Error-revealing",
+          false,
+          testIndex);
     }
 
     if (!GenInputsAbstract.no_regression_tests) {
@@ -688,6 +786,12 @@ public class GenTests extends GenInputsAbstract {
       }
 
       List<ExecutableSequence> regressionSequences = explorer.getRegressionSequences();
+      boolean replay = GenInputsAbstract.test_output_format == TestOutputFormat.REPLAY;
+      if (replay) {
+        // The tests that cannot be replayed are written as Java source code.
+        regressionSequences =
+            writeReplayFile(junitCreator, javaFileWriter, regressionSequences, testIndex);
+      }
 
       if (GenInputsAbstract.progressdisplay) {
         System.out.printf(
@@ -696,12 +800,16 @@ public class GenTests extends GenInputsAbstract {
       }
       FailingAssertionCommentWriter codeWriter =
           new FailingAssertionCommentWriter(testEnvironment, javaFileWriter);
-      writeTestFiles(
-          junitCreator,
-          regressionSequences,
-          codeWriter,
-          GenInputsAbstract.regression_test_basename,
-          "Regression");
+      if (!replay || !regressionSequences.isEmpty()) {
+        writeTestFiles(
+            junitCreator,
+            regressionSequences,
+            codeWriter,
+            GenInputsAbstract.regression_test_basename,
+            "Regression",
+            GenInputsAbstract.share_test_prefixes,
+            testIndex);
+      }
 
       // TODO: We don't rerun Error Test Sequences, so we do not know whether they are flaky.
       if (GenInputsAbstract.progressdisplay) {
@@ -720,6 +828,13 @@ public class GenTests extends GenInputsAbstract {
       }
     } // if (!GenInputsAbstract.no_regression_tests)
 
+    if (testIndexFile != null && testIndex != null) {
+      testIndex.close();
+      if (GenInputsAbstract.progressdisplay) {
+        System.out.printf("%nCreated file %s%n", testIndexFile.toAbsolutePath());
+      }
+    }
+
     // Diagnostic output for demand-driven test generation.
     if (GenInputsAbstract.call_non_sut_methods) {
       DemandDrivenInputCreator demandDrivenInputCreator =
@@ -759,6 +874,35 @@ public class GenTests extends GenInputsAbstract {
       System.out.flush();
     }
 
+    FailureClusters failureClusters = explorer.getFailureClusters();
+    if (failureClusters != null && failureClusters.numDiscarded() > 0) {
+      System.out.printf(
+          "%nError-revealing tests discarded because they fail like shorter ones: %d"
+              + " (distinct failures: %d)%n",
+          failureClusters.numDiscarded(), failureClusters.numFailures());
+      System.out.flush();
+    }
+
+    if (explorer.num_nondeterministic_sequences > 0) {
+      System.out.printf(
+          "%nNondeterministic tests discarded during generation: %d%n",
+          explorer.num_nondeterministic_sequences);
+      System.out.println("These methods under test appear to be nondeterministic:");
+      for (TypedOperation operation : explorer.getNondeterministicOperations()) {
+        System.out.println("  " + operation);
+      }
+      System.out.flush();
+    }
+
+    long staticallyDecided = GenerationMetrics.getCounter(CompilableTestPredicate.STATIC_HITS);
+    if (GenInputsAbstract.progressdisplay && staticallyDecided > 0) {
+      long compilabilityChecks =
+          staticallyDecided + GenerationMetrics.getCounter(CompilableTestPredicate.STATIC_MISSES);
+      System.out.printf(
+          "%nCompilability decided without javac for %d of %d sequences (%.1f%%)%n",
+          staticallyDecided, compilabilityChecks, 100.0 * staticallyDecided / compilabilityChecks);
+    }
+
     if (this.sequenceCompileFailureCount > 0) {
       System.out.printf(
           "%nUncompilable sequences generated (count: %d).%n", this.sequenceCompileFailureCount);
@@ -773,6 +917,8 @@ public class GenTests extends GenInputsAbstract {
     // so dump after all done.
     explorer.getOperationHistory().outputTable();
 
+    writeMetricsFile();
+
     if (GenInputsAbstract.log != null) {
       try {
         GenInputsAbstract.log.close();
@@ -807,6 +953,71 @@ public class GenTests extends GenInputsAbstract {
     return true;
   }
 
+  /** Writes the generation metrics to the file given by {@code --metrics-file}, if any. */
+  private static void writeMetricsFile() {
+    if (GenInputsAbstract.metrics_file == null) {
+      return;
+    }
+    try {
+      GenerationMetrics.writeReport(GenInputsAbstract.metrics_file);
+    } catch (IOException e) {
+      throw new RandoopUsageError(
+          "Unable to write metrics file " + GenInputsAbstract.metrics_file, e);
+    }
+  }
+
+  /**
+   * The command-line options, written with hyphens, that name a log file or a spill directory that
+   * Randoop opens or creates, and so are not passed on to the execution workers: otherwise each
+   * worker would truncate the generator's log files and create its own spill file.
+   */
+  private static final Set<String> WORKER_OMITTED_OPTIONS =
+      new HashSet<>(
+          Arrays.asList(
+              "log",
+              "selection-log",
+              "operation-history-log",
+              "call-non-sut-methods-log",
+              "timed-out-tests",
+              "all-logs",
+              "pool-spill-dir"));
+
+  /**
+   * Returns the command that starts an execution worker: a {@code gentests} process, with the same
+   * JVM arguments and command-line arguments as this one, that serves execution requests instead
+   * of generating tests. See {@link ExecutionWorker}.
+   *
+   * @param args the command-line arguments of this process
+   * @return the command that starts an execution worker
+   */
+  private static List<String> workerCommand(String[] args) {
+    // Pass on the JVM arguments, such as heap size and Java agents, of the generator.
+    List<String> command = RunCommand.javaCommand();
+    command.add(Main.class.getName());
+    command.add("gentests");
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (arg.startsWith("--")) {
+        int equals = arg.indexOf('=');
+        String name = (equals == -1) ? arg.substring(2) : arg.substring(2, equals);
+        name = name.replace('_', '-');
+        if (WORKER_OMITTED_OPTIONS.contains(name)) {
+          // "--all-logs" takes no value; the others may take theirs from the next argument.
+          if (equals == -1 && !name.equals("all-logs")) {
+            i++;
+          }
+          continue;
+        }
+      }
+      command.add(arg);
+    }
+    // Later occurrences of an option override earlier ones.
+    command.add("--serve-execution-requests");
+    command.add("--execution-workers=0");
+    command.add("--progressdisplay=false");
+    return command;
+  }
+
   /**
    * Read side-effect-free methods from the default JDK side-effect-free method list, and from a
    * user-provided method list if provided.
@@ -1068,13 +1279,17 @@ public class GenTests extends GenInputsAbstract {
    * @param codeWriter the {@link CodeWriter} to output the test classes
    * @param classNamePrefix the prefix for the class name
    * @param testKind a {@code String} indicating the kind of tests for logging and error messages
+   * @param sharePrefixes if true, tests in a class that begin with the same statements share them
+   * @param testIndex the index to which to add the tests, or null
    */
   private void writeTestFiles(
       JUnitCreator junitCreator,
       List<ExecutableSequence> testSequences,
       CodeWriter codeWriter,
       String classNamePrefix,
-      String testKind) {
+      String testKind,
+      boolean sharePrefixes,
+      @Nullable TestIndex testIndex) {
     if (testSequences.isEmpty()) {
       if (GenInputsAbstract.progressdisplay) {
         System.out.printf("%nNo %s tests to output.%n", testKind.toLowerCase(Locale.getDefault()));
@@ -1095,20 +1310,62 @@ public class GenTests extends GenInputsAbstract {
 
       NameGenerator methodNameGenerator = new NameGenerator(TEST_METHOD_NAME_PREFIX, 1, numTests);
 
+      // Each test class is created and written by a separate task. Method names are assigned here,
+      // in order, so that the output does not depend on the order in which the tasks run.
+      List<Callable<Path>> classWriters = new ArrayList<>(numFiles);
       for (int i = 0; i < numFiles; i++) {
         List<ExecutableSequence> partition =
             testSequences.subList(i * testsperfile, Math.min((i + 1) * testsperfile, numTests));
         String testClassName = classNamePrefix + i;
         testClasses.add(testClassName);
-        CompilationUnit classAST =
-            junitCreator.createTestClass(testClassName, methodNameGenerator, partition);
-        String classSource = classAST.toString();
-        Path testFile =
-            codeWriter.writeClassCode(
-                GenInputsAbstract.junit_package_name, testClassName, classSource);
-        if (GenInputsAbstract.progressdisplay) {
-          System.out.printf("Created file %s%n", testFile.toAbsolutePath());
+        List<String> methodNames = new ArrayList<>(partition.size());
+        for (int j = 0; j < partition.size(); j++) {
+          methodNames.add(methodNameGenerator.next());
+          if (testIndex != null) {
+            testIndex.add(
+                GenInputsAbstract.junit_package_name,
+                testClassName,
+                methodNames.get(j),
+                partition.get(j));
+          }
+        }
+        classWriters.add(
+            () -> {
+              String classSource;
+              if (sharePrefixes) {
+                classSource =
+                    junitCreator.createTestClassSourceWithSharedPrefixes(
+                        testClassName, methodNames, partition);
+              } else {
+                classSource =
+                    junitCreator.createTestClassSource(testClassName, methodNames, partition);
+              }
+              return codeWriter.writeClassCode(
+                  GenInputsAbstract.junit_package_name, testClassName, classSource);
+            });
+      }
+      ExecutorService executor =
+          Executors.newFixedThreadPool(Math.min(GenInputsAbstract.output_threads, numFiles));
+      try {
+        List<Future<Path>> testFiles = new ArrayList<>(numFiles);
+        for (Callable<Path> classWriter : classWriters) {
+          testFiles.add(executor.submit(classWriter));
+        }
+        for (Future<Path> testFile : testFiles) {
+          Path file = getTestFile(testFile);
+          if (GenInputsAbstract.progressdisplay) {
+            System.out.printf("Created file %s%n", file.toAbsolutePath());
+          }
         }
+      } finally {
+        executor.shutdownNow();
+      }
+      if (sharePrefixes && GenInputsAbstract.progressdisplay) {
+        System.out.printf(
+            "Sharing test prefixes reduced the %s tests from about %d to %d lines.%n",
+            testKind.toLowerCase(Locale.getDefault()),
+            GenerationMetrics.getCounter(JUnitCreator.UNSHARED_LINES),
+            GenerationMetrics.getCounter(JUnitCreator.SHARED_PREFIX_LINES));
       }
 
       // Create and write suite or driver class.
@@ -1142,6 +1399,105 @@ public class GenTests extends GenInputsAbstract {
     }
   }
 
+  /**
+   * Writes the regression tests that can be represented as data to a {@link ReplayFile}, and writes
+   * a JUnit class that runs them. Both files are named after {@link
+   * GenInputsAbstract#regression_test_basename}, and the replay file is written to the directory of
+   * the JUnit class, which refers to it by its file name alone. The output is therefore the same
+   * wherever Randoop runs.
+   *
+   * @param junitCreator the {@link JUnitCreator} to create the JUnit class
+   * @param javaFileWriter the {@link JavaFileWriter} to output the JUnit class
+   * @param testSequences the regression tests
+   * @param testIndex the index to which to add the tests in the replay file, or null
+   * @return the tests that were not written to the replay file, in order
+   */
+  private static List<ExecutableSequence> writeReplayFile(
+      JUnitCreator junitCreator,
+      JavaFileWriter javaFileWriter,
+      List<ExecutableSequence> testSequences,
+      @Nullable TestIndex testIndex) {
+    if (testSequences.isEmpty()) {
+      return testSequences;
+    }
+    String basename = GenInputsAbstract.regression_test_basename;
+    String replayFileName = basename + ".replay";
+    try {
+      Path replayFile =
+          javaFileWriter.getOutputFile(GenInputsAbstract.junit_package_name, replayFileName);
+      Path classFile =
+          javaFileWriter.writeUnmodifiedClassCode(
+              GenInputsAbstract.junit_package_name,
+              basename + "Replay",
+              junitCreator.createReplayTestClass(basename + "Replay", replayFileName));
+      List<String> names = new ArrayList<>(testSequences.size());
+      NameGenerator nameGenerator =
+          new NameGenerator(TEST_METHOD_NAME_PREFIX, 1, testSequences.size());
+      for (int i = 0; i < testSequences.size(); i++) {
+        names.add(nameGenerator.next());
+      }
+      List<Integer> unwrittenIndices = ReplayFile.write(replayFile, names, testSequences);
+      List<ExecutableSequence> unwritten = new ArrayList<>(unwrittenIndices.size());
+      for (int i : unwrittenIndices) {
+        unwritten.add(testSequences.get(i));
+      }
+      if (testIndex != null) {
+        Set<Integer> unwrittenSet = new HashSet<>(unwrittenIndices);
+        for (int i = 0; i < testSequences.size(); i++) {
+          if (!unwrittenSet.contains(i)) {
+            testIndex.add(
+                GenInputsAbstract.junit_package_name,
+                basename + "Replay",
+                names.get(i),
+                testSequences.get(i));
+          }
+        }
+      }
+      if (GenInputsAbstract.progressdisplay) {
+        System.out.printf(
+            "%nWrote %d regression tests to %s%nCreated file %s%n",
+            testSequences.size() - unwritten.size(),
+            replayFile.toAbsolutePath(),
+            classFile.toAbsolutePath());
+        if (!unwritten.isEmpty()) {
+          System.out.printf(
+              "%d regression tests cannot be replayed and are written as Java source code.%n",
+              unwritten.size());
+        }
+      }
+      return unwritten;
+    } catch (IOException | RandoopOutputException e) {
+      System.out.printf("%nError writing replay file %s%n", replayFileName);
+      e.printStackTrace(System.out);
+      System.exit(1);
+      throw new Error("unreachable");
+    }
+  }
+
+  /**
+   * Waits for a task that writes a test class, and returns the file it wrote.
+   *
+   * @param testFile the result of the task
+   * @return the file written by the task
+   * @throws RandoopOutputException if the task could not write the file
+   */
+  private static Path getTestFile(Future<Path> testFile) {
+    try {
+      return testFile.get();
+    } catch (InterruptedException e) {
+      throw new RandoopBug("Interrupted while writing test classes", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RandoopBug("Error writing test classes", cause);
+    }
+  }
+
   /**
    * Create fixture code from {@link GenInputsAbstract#junit_after_all}, {@link
    * GenInputsAbstract#junit_after_each}, {@link GenInputsAbstract#junit_before_all}, and {@link
@@ -19,10 +19,11 @@ public final class Main {
   public static List<CommandHandler> handlers;
 
   static {
-    handlers = new ArrayList<>(3);
+    handlers = new ArrayList<>(4);
     handlers.add(new GenTests());
     handlers.add(new Help());
     handlers.add(new Minimize());
+    handlers.add(new SelectTests());
   }
 
   /** Creates a new Main. */
@@ -0,0 +1,104 @@
+package randoop.main;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.plumelib.options.Option;
+import org.plumelib.options.OptionGroup;
+import org.plumelib.options.Options;
+import randoop.output.TestIndex;
+
+/**
+ * Selects, from the tests that Randoop generated, those that might be affected by changes to some
+ * classes. It reads the index written by {@code gentests --test-index-file} and prints one test
+ * per line, as {@code TestClass#testMethod}, or prints only the test classes.
+ */
+public class SelectTests extends CommandHandler {
+
+  /** The index of the generated tests. */
+  @SuppressWarnings("WeakerAccess")
+  @OptionGroup("Test selection")
+  @Option("File containing the index written by --test-index-file")
+  public static @MonotonicNonNull Path test_index = null;
+
+  /** File containing the binary names of the changed classes, one per line. */
+  @SuppressWarnings("WeakerAccess")
+  @Option("File containing the names of the changed classes")
+  public static @MonotonicNonNull Path changed_classes = null;
+
+  /** If true, print the names of the selected test classes rather than of test methods. */
+  @SuppressWarnings("WeakerAccess")
+  @Option("Print test class names only")
+  public static boolean select_classes = false;
+
+  /** Create the handler for Randoop's {@code select-tests} command. */
+  SelectTests() {
+    super(
+        "select-tests",
+        "Select the generated tests that might be affected by changed classes.",
+        "select-tests",
+        "",
+        "Select the generated tests that might be affected by changed classes.",
+        null,
+        "An index of generated tests, written by gentests --test-index-file, and a file listing the"
+            + " binary names of the changed classes, one per line.",
+        "The selected tests, one per line, as TestClass#testMethod, or the selected test classes.",
+        "java randoop.main.Main select-tests --test-index=tests.idx"
+            + " --changed-classes=changed.txt",
+        new Options(SelectTests.class));
+  }
+
+  /**
+   * Check that the required parameters have been specified by the command-line options and then
+   * print the selected tests.
+   *
+   * @param args parameters, specified in command-line style
+   * @return true if the command was handled successfully
+   */
+  @Override
+  public boolean handle(String[] args) {
+    try {
+      String[] nonargs = foptions.parse(args);
+      if (nonargs.length > 0) {
+        throw new RandoopCommandError("Unrecognized arguments: " + Arrays.toString(nonargs));
+      }
+    } catch (Options.ArgException ae) {
+      throw new RandoopCommandError(ae.getMessage());
+    }
+
+    Path indexFile = test_index;
+    Path changedClassesFile = changed_classes;
+    if (indexFile == null) {
+      throw new RandoopCommandError("Use --test-index to specify the index of the tests.");
+    }
+    if (changedClassesFile == null) {
+      throw new RandoopCommandError(
+          "Use --changed-classes to specify a file listing the changed classes.");
+    }
+
+    Set<String> changed =
+        GenInputsAbstract.getStringSetFromFile(changedClassesFile, "class names");
+    SortedMap<String, SortedSet<String>> selected;
+    try {
+      selected = TestIndex.select(indexFile, changed);
+    } catch (IOException e) {
+      throw new RandoopCommandError("Cannot read test index: " + e.getMessage());
+    }
+
+    for (Map.Entry<String, SortedSet<String>> entry : selected.entrySet()) {
+      if (select_classes) {
+        System.out.println(entry.getKey());
+      } else {
+        for (String testMethod : entry.getValue()) {
+          System.out.println(entry.getKey() + "#" + testMethod);
+        }
+      }
+    }
+    return true;
+  }
+}
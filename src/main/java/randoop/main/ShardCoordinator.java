@@ -0,0 +1,310 @@
+package randoop.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import randoop.execution.RunCommand;
+import randoop.operation.TypedClassOperation;
+import randoop.operation.TypedOperation;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceParseException;
+import randoop.sequence.SequenceTextFile;
+import randoop.util.Log;
+
+/**
+ * Runs a multi-process Randoop session: starts {@link GenInputsAbstract#shards} child Randoop
+ * processes, waits for them, and merges the sequences they generated. See {@link
+ * GenInputsAbstract#shards}.
+ *
+ * <p>Each child process is a {@code gentests} invocation with the same command-line arguments as
+ * the coordinator, plus arguments that tell it which shard it is. Instead of writing JUnit tests, a
+ * shard writes its regression and error sequences, in parsable form, to a directory. The
+ * coordinator merges them in shard order, discarding duplicates, so that the merged list does not
+ * depend on which shard finishes first.
+ */
+final class ShardCoordinator {
+
+  /** The name of the file, in a shard's output directory, of its regression sequences. */
+  static final String REGRESSION_FILE = "regression.txt";
+
+  /** The name of the file, in a shard's output directory, of its error-revealing sequences. */
+  static final String ERROR_FILE = "error.txt";
+
+  /**
+   * The fraction of {@link GenInputsAbstract#time_limit} that the coordinator reserves for
+   * executing the merged sequences. The shards get the rest.
+   */
+  private static final double MERGE_TIME_FRACTION = 0.2;
+
+  /** Extra time, beyond the time limit, to allow a shard to start up and write its output. */
+  private static final long SHARD_GRACE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  /** Do not instantiate. */
+  private ShardCoordinator() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Returns the operations that the given shard should test.
+   *
+   * @param operations all the operations under test
+   * @param shardIndex the index of the shard
+   * @param numShards the number of shards
+   * @param partition how to divide the operations among the shards
+   * @return the operations for the shard
+   */
+  static List<TypedOperation> partition(
+      List<TypedOperation> operations,
+      int shardIndex,
+      int numShards,
+      GenInputsAbstract.ShardPartition partition) {
+    // Operations and classes are assigned round-robin, in sorted order, so that every shard
+    // computes the same assignment regardless of the order in which reflection returns members.
+    switch (partition) {
+      case SEEDS:
+        return operations;
+      case OPERATIONS:
+        {
+          List<TypedOperation> sorted = new ArrayList<>(operations);
+          sorted.sort(Comparator.comparing(TypedOperation::toString));
+          List<TypedOperation> result = new ArrayList<>();
+          for (int i = shardIndex; i < sorted.size(); i += numShards) {
+            result.add(sorted.get(i));
+          }
+          return result;
+        }
+      case CLASSES:
+        {
+          TreeSet<String> classNames = new TreeSet<>();
+          for (TypedOperation op : operations) {
+            if (op instanceof TypedClassOperation) {
+              classNames.add(((TypedClassOperation) op).getDeclaringType().getBinaryName());
+            }
+          }
+          List<String> sortedNames = new ArrayList<>(classNames);
+          List<TypedOperation> result = new ArrayList<>();
+          for (TypedOperation op : operations) {
+            if (op instanceof TypedClassOperation) {
+              String name = ((TypedClassOperation) op).getDeclaringType().getBinaryName();
+              if (Collections.binarySearch(sortedNames, name) % numShards != shardIndex) {
+                continue;
+              }
+            }
+            // Operations that belong to no class, such as array creation, go to every shard.
+            result.add(op);
+          }
+          return result;
+        }
+      default:
+        throw new Error("Unhandled shard_partition: " + partition);
+    }
+  }
+
+  /**
+   * Runs the shards, waits for them to finish, and returns the sequences they generated, without
+   * duplicates.
+   *
+   * @param args the command-line arguments of the coordinator
+   * @return the sequences generated by all the shards, in shard order
+   */
+  static List<Sequence> runShards(String[] args) {
+    int numShards = GenInputsAbstract.shards;
+    Path workDir;
+    Path exchangeDir;
+    try {
+      workDir = Files.createTempDirectory("randoop-shards");
+      exchangeDir = Files.createDirectory(workDir.resolve("exchange"));
+    } catch (IOException e) {
+      throw new RandoopBug("Unable to create directory for shard output", e);
+    }
+
+    long timeoutMillis =
+        (GenInputsAbstract.time_limit == 0)
+            ? TimeUnit.DAYS.toMillis(1)
+            : TimeUnit.SECONDS.toMillis(shardTimeLimit()) + SHARD_GRACE_MILLIS;
+    Path workingDirectory = Paths.get("").toAbsolutePath();
+
+    if (GenInputsAbstract.progressdisplay) {
+      System.out.printf("Starting %d Randoop shards; output in %s%n", numShards, workDir);
+    }
+
+    List<Path> outputDirs = new ArrayList<>(numShards);
+    ExecutorService executor = Executors.newFixedThreadPool(numShards);
+    List<Future<RunCommand.Status>> results = new ArrayList<>(numShards);
+    try {
+      for (int i = 0; i < numShards; i++) {
+        Path outputDir;
+        try {
+          outputDir = Files.createDirectory(workDir.resolve("shard-" + i));
+        } catch (IOException e) {
+          throw new RandoopBug("Unable to create directory for shard output", e);
+        }
+        outputDirs.add(outputDir);
+        List<String> command = shardCommand(args, i, outputDir, exchangeDir);
+        results.add(
+            executor.submit(() -> RunCommand.run(command, workingDirectory, timeoutMillis)));
+      }
+
+      for (int i = 0; i < numShards; i++) {
+        RunCommand.Status status;
+        try {
+          status = results.get(i).get();
+        } catch (InterruptedException | ExecutionException e) {
+          throw new RandoopBug("Error running shard " + i, e);
+        }
+        if (status.exitStatus != 0) {
+          // The other shards' tests are still useful, so report the failure and continue.
+          System.out.printf("Shard %d failed: %s%n", i, status);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Map<String, Sequence> merged = new LinkedHashMap<>();
+    for (int i = 0; i < numShards; i++) {
+      for (String fileName : Arrays.asList(ERROR_FILE, REGRESSION_FILE)) {
+        Path file = outputDirs.get(i).resolve(fileName);
+        if (!Files.exists(file)) {
+          continue;
+        }
+        try {
+          for (Sequence sequence : SequenceTextFile.read(file)) {
+            merged.putIfAbsent(sequence.toParsableString(), sequence);
+          }
+        } catch (IOException | SequenceParseException e) {
+          throw new RandoopBug("Unable to read sequences of shard " + i + " from " + file, e);
+        }
+      }
+    }
+
+    if (GenInputsAbstract.progressdisplay) {
+      System.out.printf("Merged %d distinct sequences from %d shards.%n", merged.size(), numShards);
+    }
+    if (!Log.isLoggingOn()) {
+      deleteDirectory(workDir);
+    }
+    return new ArrayList<>(merged.values());
+  }
+
+  /**
+   * Returns the command that runs the given shard.
+   *
+   * @param args the command-line arguments of the coordinator
+   * @param shardIndex the index of the shard
+   * @param outputDir the directory to which the shard writes its sequences
+   * @param exchangeDir the directory through which shards exchange pool sequences
+   * @return the command that runs the shard
+   */
+  private static List<String> shardCommand(
+      String[] args, int shardIndex, Path outputDir, Path exchangeDir) {
+    int numShards = GenInputsAbstract.shards;
+    // Pass on the JVM arguments, such as heap size and Java agents, of the coordinator.
+    List<String> command = RunCommand.javaCommand();
+    command.add(Main.class.getName());
+    command.add("gentests");
+    command.addAll(Arrays.asList(args));
+    // Later occurrences of an option override earlier ones.
+    command.add("--shard-index=" + shardIndex);
+    command.add("--shard-output=" + outputDir);
+    command.add("--shard-exchange-dir=" + exchangeDir);
+    command.add("--progressdisplay=false");
+    command.add("--time-limit=" + shardTimeLimit());
+    if (GenInputsAbstract.shard_partition == GenInputsAbstract.ShardPartition.SEEDS) {
+      command.add("--randomseed=" + (GenInputsAbstract.randomseed + shardIndex));
+    }
+    command.add("--attempted-limit=" + share(GenInputsAbstract.attempted_limit, numShards));
+    command.add("--generated-limit=" + share(GenInputsAbstract.generated_limit, numShards));
+    command.add("--output-limit=" + share(GenInputsAbstract.output_limit, numShards));
+    if (GenInputsAbstract.metrics_file != null) {
+      command.add("--metrics-file=" + outputDir.resolve("metrics.txt"));
+    }
+    return command;
+  }
+
+  /**
+   * Returns the time limit of each shard, in seconds: {@link GenInputsAbstract#time_limit} less the
+   * time reserved for executing the merged sequences.
+   *
+   * @return the time limit of each shard, or 0 if there is no time limit
+   */
+  private static int shardTimeLimit() {
+    int timeLimit = GenInputsAbstract.time_limit;
+    if (timeLimit == 0) {
+      return 0;
+    }
+    return Math.max(1, timeLimit - (int) (timeLimit * MERGE_TIME_FRACTION));
+  }
+
+  /**
+   * Returns how long the coordinator may spend executing the merged sequences, in milliseconds.
+   *
+   * @return the time limit for executing the merged sequences, or 0 if there is no time limit
+   */
+  static long mergeTimeLimitMillis() {
+    int timeLimit = GenInputsAbstract.time_limit;
+    if (timeLimit == 0) {
+      return 0;
+    }
+    return Math.max(1, TimeUnit.SECONDS.toMillis(timeLimit - shardTimeLimit()));
+  }
+
+  /**
+   * Returns one shard's share of a limit, rounded up.
+   *
+   * @param limit a limit for the whole run
+   * @param numShards the number of shards
+   * @return the limit for one shard
+   */
+  private static int share(int limit, int numShards) {
+    return (limit + numShards - 1) / numShards;
+  }
+
+  /**
+   * Writes the sequences generated by this shard to {@link GenInputsAbstract#shard_output}.
+   *
+   * @param regressionSequences the regression sequences
+   * @param errorSequences the error-revealing sequences
+   */
+  static void writeShardOutput(List<Sequence> regressionSequences, List<Sequence> errorSequences) {
+    Path outputDir = GenInputsAbstract.shard_output;
+    if (outputDir == null) {
+      throw new RandoopBug("writeShardOutput called without --shard-output");
+    }
+    try {
+      SequenceTextFile.write(outputDir.resolve(REGRESSION_FILE), regressionSequences);
+      SequenceTextFile.write(outputDir.resolve(ERROR_FILE), errorSequences);
+    } catch (IOException e) {
+      throw new RandoopBug("Unable to write shard output to " + outputDir, e);
+    }
+  }
+
+  /**
+   * Deletes a directory and its contents. Failures are logged but otherwise ignored.
+   *
+   * @param dir the directory to delete
+   */
+  private static void deleteDirectory(Path dir) {
+    try (Stream<Path> paths = Files.walk(dir)) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    } catch (IOException e) {
+      Log.logPrintf("Unable to delete %s: %s%n", dir, e);
+    }
+  }
+}
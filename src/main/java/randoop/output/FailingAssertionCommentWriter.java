@@ -9,6 +9,7 @@ import static randoop.reflection.SignatureParser.ID_STRING;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -30,6 +31,7 @@ import randoop.main.GenInputsAbstract;
 import randoop.main.GenTests;
 import randoop.main.RandoopBug;
 import randoop.main.RandoopUsageError;
+import randoop.util.GenerationMetrics;
 
 /**
  * A {@link CodeWriter} that comments out failing assertions when outputting JUnit tests. This
@@ -83,8 +85,11 @@ public class FailingAssertionCommentWriter implements CodeWriter {
   /** The underlying {@link randoop.output.JavaFileWriter} for writing a test class. */
   private final JavaFileWriter javaFileWriter;
 
-  /** Method names for flaky tests (e.g., "test005"). */
-  private final HashSet<String> flakyTestNames = new HashSet<>();
+  /**
+   * Method names for flaky tests (e.g., "test005"). Synchronized, because test classes may be
+   * written concurrently.
+   */
+  private final Set<String> flakyTestNames = Collections.synchronizedSet(new HashSet<>());
 
   /**
    * Create a {@link FailingAssertionCommentWriter}.
@@ -595,7 +600,12 @@ public class FailingAssertionCommentWriter implements CodeWriter {
       throw new RandoopBug("Output error during flaky-test filtering", e);
     }
     FileCompiler fileCompiler = new FileCompiler();
-    fileCompiler.compile(sourceFile, destinationDir);
+    long compileStart = GenerationMetrics.start();
+    try {
+      fileCompiler.compile(sourceFile, destinationDir);
+    } finally {
+      GenerationMetrics.record(GenerationMetrics.Phase.TEST_COMPILATION, null, compileStart);
+    }
     return sourceFile;
   }
 
@@ -2,6 +2,7 @@ package randoop.output;
 
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseException;
+import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.Modifier;
@@ -36,22 +37,58 @@ import com.github.javaparser.ast.stmt.TryStmt;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.type.ReferenceType;
 import com.github.javaparser.ast.type.VoidType;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 import org.plumelib.util.StringsPlume;
 import randoop.Globals;
 import randoop.main.GenTests;
 import randoop.sequence.ExecutableSequence;
+import randoop.util.GenerationMetrics;
 
 /** Creates Java source as {@code String} for a suite of JUnit4 tests. */
 @SuppressWarnings("deprecation") // TODO: fix. "new ClassOrInterfaceType()" does not handle generics
 public final class JUnitCreator {
 
-  /** An instance of a Java parser. */
-  static JavaParser javaParser = new JavaParser();
+  /** A Java parser for each thread, because test classes may be created concurrently. */
+  private static final ThreadLocal<JavaParser> javaParser =
+      ThreadLocal.withInitial(JavaParser::new);
+
+  /** The line separator used by the JavaParser pretty-printer. */
+  private static final String PRINTER_EOL = printerLineSeparator();
+
+  /** The indentation of the closing brace of a test method, as printed by JavaParser. */
+  private static final String METHOD_CLOSE = "    }";
+
+  /**
+   * The name of the metrics counter of lines of test classes written by {@link
+   * #createTestClassSourceWithSharedPrefixes}.
+   */
+  public static final String SHARED_PREFIX_LINES = "output.lines-with-shared-prefixes";
+
+  /**
+   * The name of the metrics counter of lines that the test classes written by {@link
+   * #createTestClassSourceWithSharedPrefixes} would have without sharing, estimated from the
+   * lengths of the shared prefixes.
+   */
+  public static final String UNSHARED_LINES = "output.lines-without-shared-prefixes";
+
+  /** The maximum number of entries in {@link #printedStatements}. */
+  private static final int MAX_PRINTED_STATEMENTS = 100_000;
+
+  /**
+   * Pretty-printed statements at the indentation of a test method body, keyed by their source
+   * text. The value is the empty string for source text that does not consist of exactly one
+   * statement without comments, which must be printed in the context of its test method.
+   *
+   * <p>Most statements of a test also appear in many other tests, because tests are built from
+   * shared sub-sequences, so this avoids most parsing and printing when writing test classes.
+   */
+  private final Map<String, String> printedStatements = new ConcurrentHashMap<>();
 
   /** The "public" modifier. */
   private final NodeList<Modifier> PUBLIC = new NodeList<>(Modifier.publicModifier());
@@ -159,10 +196,19 @@ public final class JUnitCreator {
     return junitCreator;
   }
 
+  /**
+   * Returns the package of the generated test classes.
+   *
+   * @return the package name, or null for the unnamed package
+   */
+  public String getPackageName() {
+    return packageName;
+  }
+
   private JUnitCreator(String packageName) {
     assert !Objects.equals(packageName, "");
     this.packageName = packageName;
-    this.classMethodCounts = new LinkedHashMap<>();
+    this.classMethodCounts = Collections.synchronizedMap(new LinkedHashMap<>());
   }
 
   /**
@@ -213,12 +259,214 @@ public final class JUnitCreator {
       String testClassName, NameGenerator methodNameGen, List<ExecutableSequence> sequences) {
     this.classMethodCounts.put(testClassName, sequences.size());
 
-    CompilationUnit compilationUnit = new CompilationUnit();
-    if (packageName != null) {
-      compilationUnit.setPackageDeclaration(new PackageDeclaration(new Name(packageName)));
+    CompilationUnit compilationUnit = createTestClassWithoutTests(testClassName);
+    ClassOrInterfaceDeclaration classDeclaration =
+        compilationUnit.getType(0).asClassOrInterfaceDeclaration();
+    for (ExecutableSequence eseq : sequences) {
+      MethodDeclaration testMethod = createTestMethod(testClassName, methodNameGen.next(), eseq);
+      if (testMethod != null) {
+        classDeclaration.addMember(testMethod);
+      }
     }
+    return compilationUnit;
+  }
 
-    NodeList<ImportDeclaration> imports = new NodeList<>();
+  /**
+   * Returns the source text of a test class. The text is identical to that of {@code
+   * createTestClass(testClassName, methodNameGen, sequences).toString()}, but this method is much
+   * faster: it prints each test method separately and splices it into the text of the class, and
+   * it reuses the printed form of statements that have been printed before. This method may be
+   * called concurrently for different test classes.
+   *
+   * @param testClassName the class name
+   * @param methodNames the names of the test methods, one per sequence
+   * @param sequences the contents of the test methods
+   * @return the source text of the test class
+   */
+  public String createTestClassSource(
+      String testClassName, List<String> methodNames, List<ExecutableSequence> sequences) {
+    this.classMethodCounts.put(testClassName, sequences.size());
+
+    // The class ends with its closing brace and a line separator.  Each member is preceded by an
+    // empty line and followed by a line separator.
+    String classText = createTestClassWithoutTests(testClassName).toString();
+    int classEnd = classText.lastIndexOf('}');
+    StringBuilder sb = new StringBuilder(classText.length() + 1024 * sequences.size());
+    sb.append(classText, 0, classEnd);
+    for (int i = 0; i < sequences.size(); i++) {
+      sb.append(PRINTER_EOL);
+      appendTestMethod(sb, testClassName, methodNames.get(i), sequences.get(i));
+      sb.append(PRINTER_EOL);
+    }
+    sb.append(classText, classEnd, classText.length());
+    return sb.toString();
+  }
+
+  /**
+   * Returns the source text of a test class in which the tests that begin with the same statements
+   * share them, as described in {@link TestPrefixTrie}. Each test still creates its own objects.
+   * The text is identical to that of {@link #createTestClassSource} if no tests share a prefix.
+   * Adds the number of lines of the text, and an estimate of the number of lines without sharing,
+   * to the metrics counters {@link #SHARED_PREFIX_LINES} and {@link #UNSHARED_LINES}.
+   *
+   * @param testClassName the class name
+   * @param methodNames the names of the test methods, one per sequence
+   * @param sequences the contents of the test methods
+   * @return the source text of the test class
+   */
+  public String createTestClassSourceWithSharedPrefixes(
+      String testClassName, List<String> methodNames, List<ExecutableSequence> sequences) {
+    TestPrefixTrie trie = new TestPrefixTrie(sequences);
+    if (!trie.hasSharedPrefixes()) {
+      String source = createTestClassSource(testClassName, methodNames, sequences);
+      int lines = countLines(source);
+      GenerationMetrics.increment(SHARED_PREFIX_LINES, lines);
+      GenerationMetrics.increment(UNSHARED_LINES, lines);
+      return source;
+    }
+    this.classMethodCounts.put(testClassName, sequences.size());
+
+    CompilationUnit compilationUnit = createTestClassWithoutTests(testClassName);
+    ClassOrInterfaceDeclaration classDeclaration =
+        compilationUnit.getType(0).asClassOrInterfaceDeclaration();
+    for (int i = 0; i < sequences.size(); i++) {
+      MethodDeclaration testMethod =
+          createTestMethodWithoutBody(testClassName, methodNames.get(i));
+      BlockStmt testBlock =
+          javaParser.get().parseBlock("{ " + trie.getTestBody(i) + " }").getResult().get();
+      testMethod.getBody().get().getStatements().addAll(testBlock.getStatements());
+      classDeclaration.addMember(testMethod);
+    }
+    for (String prefixClass : trie.getPrefixClasses()) {
+      classDeclaration.addMember(
+          javaParser.get().parseBodyDeclaration(prefixClass).getResult().get());
+    }
+    String source = compilationUnit.toString();
+    int lines = countLines(source);
+    GenerationMetrics.increment(SHARED_PREFIX_LINES, lines);
+    GenerationMetrics.increment(UNSHARED_LINES, lines + trie.numLinesSaved());
+    return source;
+  }
+
+  /**
+   * Returns the number of lines in some text.
+   *
+   * @param text some text
+   * @return the number of line separators in the text
+   */
+  private static int countLines(String text) {
+    int count = 0;
+    for (int i = text.indexOf('\n'); i != -1; i = text.indexOf('\n', i + 1)) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Appends the printed form of a test method to {@code sb}.
+   *
+   * @param sb where to append the test method
+   * @param className the name of the test class
+   * @param methodName the name of the test method
+   * @param testSequence the test sequence
+   */
+  private void appendTestMethod(
+      StringBuilder sb, String className, String methodName, ExecutableSequence testSequence) {
+    List<String> codeLines = testSequence.toCodeLines();
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < codeLines.size() - 1; i++) {
+      String printed = printStatement(codeLines.get(i));
+      if (printed.isEmpty()) {
+        // A comment might belong to the next statement, so print the whole method at once.
+        sb.append(printMember(createTestMethod(className, methodName, testSequence)));
+        return;
+      }
+      body.append(printed);
+    }
+    // The last line contains the checks, which are almost never shared with another test.
+    String lastLine = codeLines.get(codeLines.size() - 1);
+    BlockStmt lastBlock =
+        javaParser.get().parseBlock("{ " + lastLine + Globals.lineSep + " }").getResult().get();
+    body.append(printStatements(lastBlock.getStatements()));
+
+    String method = printMember(createTestMethodWithoutBody(className, methodName));
+    int methodClose = method.lastIndexOf(METHOD_CLOSE);
+    sb.append(method, 0, methodClose).append(body).append(method, methodClose, method.length());
+  }
+
+  /**
+   * Returns the printed form of a statement, or the empty string if {@code code} is not exactly one
+   * statement without comments.
+   *
+   * @param code the source text of a statement
+   * @return the statement as printed in a test method body, or the empty string
+   */
+  private String printStatement(String code) {
+    String printed = printedStatements.get(code);
+    if (printed != null) {
+      return printed;
+    }
+    ParseResult<BlockStmt> parseResult = javaParser.get().parseBlock("{ " + code + " }");
+    printed = "";
+    if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
+      BlockStmt block = parseResult.getResult().get();
+      if (block.getStatements().size() == 1 && block.getAllContainedComments().isEmpty()) {
+        printed = printStatements(block.getStatements());
+      }
+    }
+    if (printedStatements.size() < MAX_PRINTED_STATEMENTS) {
+      printedStatements.put(code, printed);
+    }
+    return printed;
+  }
+
+  /**
+   * Returns the statements as printed in the body of a test method: each statement is indented
+   * two levels and followed by a line separator.
+   *
+   * @param statements the statements to print
+   * @return the printed statements
+   */
+  private static String printStatements(NodeList<Statement> statements) {
+    MethodDeclaration method = new MethodDeclaration(new NodeList<>(), new VoidType(), "m");
+    method.setBody(new BlockStmt(statements));
+    String text = printMember(method);
+    return text.substring(
+        text.indexOf(PRINTER_EOL) + PRINTER_EOL.length(), text.lastIndexOf(METHOD_CLOSE));
+  }
+
+  /**
+   * Returns a class member as printed in a class body: indented one level, and without the empty
+   * line before it or the line separator after it.
+   *
+   * @param member the member to print
+   * @return the printed member
+   */
+  private static String printMember(BodyDeclaration<?> member) {
+    ClassOrInterfaceDeclaration wrapper =
+        new ClassOrInterfaceDeclaration(new NodeList<>(), false, "Wrapper");
+    wrapper.addMember(member);
+    String text = wrapper.toString();
+    int start = text.indexOf('{') + 1 + 2 * PRINTER_EOL.length();
+    return text.substring(start, text.lastIndexOf(PRINTER_EOL + "}"));
+  }
+
+  /**
+   * Returns the line separator used by the JavaParser pretty-printer.
+   *
+   * @return the line separator of printed code
+   */
+  private static String printerLineSeparator() {
+    String emptyBlock = new BlockStmt().toString();
+    return emptyBlock.substring(1, emptyBlock.length() - 1);
+  }
+
+  /**
+   * Adds the imports of the fixture annotations of this object.
+   *
+   * @param imports the imports of a test class
+   */
+  private void addFixtureImports(NodeList<ImportDeclaration> imports) {
     if (afterEachBody != null) {
       imports.add(new ImportDeclaration(new Name("org.junit.After"), false, false));
     }
@@ -231,35 +479,14 @@ public final class JUnitCreator {
     if (beforeAllBody != null) {
       imports.add(new ImportDeclaration(new Name("org.junit.BeforeClass"), false, false));
     }
-    imports.add(new ImportDeclaration(new Name("org.junit.FixMethodOrder"), false, false));
-    imports.add(new ImportDeclaration(new Name("org.junit.Test"), false, false));
-    imports.add(new ImportDeclaration(new Name("org.junit.runners.MethodSorters"), false, false));
-    compilationUnit.setImports(imports);
-
-    // class declaration
-    ClassOrInterfaceDeclaration classDeclaration =
-        new ClassOrInterfaceDeclaration(PUBLIC, false, testClassName);
-    NodeList<AnnotationExpr> annotations =
-        new NodeList<>(
-            new SingleMemberAnnotationExpr(
-                new Name("FixMethodOrder"), new NameExpr("MethodSorters.NAME_ASCENDING")));
-    classDeclaration.setAnnotations(annotations);
-
-    NodeList<BodyDeclaration<?>> bodyDeclarations = new NodeList<>();
-    // // add debug field
-    // VariableDeclarator debugVariable = javaParser.parseVariableDeclarationExpr("boolean
-    // debug=false;");
-    // debugVariable.setInitializer(new BooleanLiteralExpr(false));
-    // FieldDeclaration debugField =
-    //     new FieldDeclaration(
-    //         PUBLIC_STATIC),
-    //         new NodeList<AnnotationExpr>(PrimitiveType.forClass(PrimitiveType.booleanType())),
-    //         new NodeList<VariableDeclarator>(debugVariable));
-    BodyDeclaration<?> debugField =
-        javaParser.parseBodyDeclaration("public static boolean debug=false;").getResult().get();
-
-    bodyDeclarations.add(debugField);
+  }
 
+  /**
+   * Adds the fixture methods of this object.
+   *
+   * @param bodyDeclarations the members of a test class
+   */
+  private void addFixtures(NodeList<BodyDeclaration<?>> bodyDeclarations) {
     if (beforeAllBody != null) {
       MethodDeclaration fixture =
           createFixture(BEFORE_ALL, PUBLIC_STATIC, BEFORE_ALL_METHOD, beforeAllBody);
@@ -288,21 +515,66 @@ public final class JUnitCreator {
         bodyDeclarations.add(fixture);
       }
     }
+  }
+
+  /**
+   * Creates a test class that contains the debug field, fixtures, and helper methods, but no test
+   * methods.
+   *
+   * @param testClassName the class name
+   * @return the CompilationUnit for a test class without tests
+   */
+  private CompilationUnit createTestClassWithoutTests(String testClassName) {
+    CompilationUnit compilationUnit = new CompilationUnit();
+    if (packageName != null) {
+      compilationUnit.setPackageDeclaration(new PackageDeclaration(new Name(packageName)));
+    }
+
+    NodeList<ImportDeclaration> imports = new NodeList<>();
+    addFixtureImports(imports);
+    imports.add(new ImportDeclaration(new Name("org.junit.FixMethodOrder"), false, false));
+    imports.add(new ImportDeclaration(new Name("org.junit.Test"), false, false));
+    imports.add(new ImportDeclaration(new Name("org.junit.runners.MethodSorters"), false, false));
+    compilationUnit.setImports(imports);
+
+    // class declaration
+    ClassOrInterfaceDeclaration classDeclaration =
+        new ClassOrInterfaceDeclaration(PUBLIC, false, testClassName);
+    NodeList<AnnotationExpr> annotations =
+        new NodeList<>(
+            new SingleMemberAnnotationExpr(
+                new Name("FixMethodOrder"), new NameExpr("MethodSorters.NAME_ASCENDING")));
+    classDeclaration.setAnnotations(annotations);
+
+    NodeList<BodyDeclaration<?>> bodyDeclarations = new NodeList<>();
+    // // add debug field
+    // VariableDeclarator debugVariable = javaParser.parseVariableDeclarationExpr("boolean
+    // debug=false;");
+    // debugVariable.setInitializer(new BooleanLiteralExpr(false));
+    // FieldDeclaration debugField =
+    //     new FieldDeclaration(
+    //         PUBLIC_STATIC),
+    //         new NodeList<AnnotationExpr>(PrimitiveType.forClass(PrimitiveType.booleanType())),
+    //         new NodeList<VariableDeclarator>(debugVariable));
+    BodyDeclaration<?> debugField =
+        javaParser
+            .get()
+            .parseBodyDeclaration("public static boolean debug=false;")
+            .getResult()
+            .get();
+
+    bodyDeclarations.add(debugField);
+
+    addFixtures(bodyDeclarations);
 
     // If boolean array assert is enabled, add assertBooleanArrayEquals(boolean[], boolean[]) method
     // to the test class.
     // This is a backward compatibility feature in case the user is using JUnit 4.11 or below
     // when running the generated tests.
     MethodDeclaration assertBooleanArrayEqualsMethod =
-        javaParser.parseMethodDeclaration(BOOLEAN_ARRAY_EQUALS_METHOD).getResult().get();
+        javaParser.get().parseMethodDeclaration(BOOLEAN_ARRAY_EQUALS_METHOD).getResult().get();
     bodyDeclarations.add(assertBooleanArrayEqualsMethod);
 
-    for (ExecutableSequence eseq : sequences) {
-      MethodDeclaration testMethod = createTestMethod(testClassName, methodNameGen.next(), eseq);
-      if (testMethod != null) {
-        bodyDeclarations.add(testMethod);
-      }
-    }
     classDeclaration.setMembers(bodyDeclarations);
     NodeList<TypeDeclaration<?>> types = new NodeList<>(classDeclaration);
     compilationUnit.setTypes(types);
@@ -320,31 +592,14 @@ public final class JUnitCreator {
    */
   private MethodDeclaration createTestMethod(
       String className, String methodName, ExecutableSequence testSequence) {
-    MethodDeclaration method = new MethodDeclaration(PUBLIC, new VoidType(), methodName);
-    NodeList<AnnotationExpr> annotations =
-        new NodeList<>(new MarkerAnnotationExpr(new Name("Test")));
-    method.setAnnotations(annotations);
-
-    @SuppressWarnings("deprecation") // new ClassOrInterfaceDeclaration dose not handle generics
-    NodeList<ReferenceType> throwsList = new NodeList<>(new ClassOrInterfaceType("Throwable"));
-    method.setThrownExceptions(throwsList);
-
-    BlockStmt body = new BlockStmt();
-    NodeList<Statement> statements = new NodeList<>();
-    FieldAccessExpr field = new FieldAccessExpr(new NameExpr("System"), "out");
-    MethodCallExpr call = new MethodCallExpr(field, "format");
-
-    NodeList<Expression> arguments = new NodeList<>();
-    arguments.add(new StringLiteralExpr("%n%s%n"));
-    arguments.add(new StringLiteralExpr(className + "." + methodName));
-    call.setArguments(arguments);
-    statements.add(new IfStmt(new NameExpr("debug"), new ExpressionStmt(call), null));
+    MethodDeclaration method = createTestMethodWithoutBody(className, methodName);
+    BlockStmt body = method.getBody().get();
 
     // TODO make sequence generate list of JavaParser statements
     String sequenceBlockString = "{ " + testSequence.toCodeString() + " }";
     // try {
-    BlockStmt sequenceBlock = javaParser.parseBlock(sequenceBlockString).getResult().get();
-    statements.addAll(sequenceBlock.getStatements());
+    BlockStmt sequenceBlock = javaParser.get().parseBlock(sequenceBlockString).getResult().get();
+    body.getStatements().addAll(sequenceBlock.getStatements());
     // }
     // catch (ParseException e) {
     //   System.out.println(
@@ -361,6 +616,38 @@ public final class JUnitCreator {
     //   return null;
     // }
 
+    return method;
+  }
+
+  /**
+   * Creates a test method whose body contains only the statement that prints the test name when
+   * debugging.
+   *
+   * @param className the name of the test class
+   * @param methodName the name of the test method
+   * @return the test method, without the statements of its test
+   */
+  private MethodDeclaration createTestMethodWithoutBody(String className, String methodName) {
+    MethodDeclaration method = new MethodDeclaration(PUBLIC, new VoidType(), methodName);
+    NodeList<AnnotationExpr> annotations =
+        new NodeList<>(new MarkerAnnotationExpr(new Name("Test")));
+    method.setAnnotations(annotations);
+
+    @SuppressWarnings("deprecation") // new ClassOrInterfaceDeclaration dose not handle generics
+    NodeList<ReferenceType> throwsList = new NodeList<>(new ClassOrInterfaceType("Throwable"));
+    method.setThrownExceptions(throwsList);
+
+    BlockStmt body = new BlockStmt();
+    NodeList<Statement> statements = new NodeList<>();
+    FieldAccessExpr field = new FieldAccessExpr(new NameExpr("System"), "out");
+    MethodCallExpr call = new MethodCallExpr(field, "format");
+
+    NodeList<Expression> arguments = new NodeList<>();
+    arguments.add(new StringLiteralExpr("%n%s%n"));
+    arguments.add(new StringLiteralExpr(className + "." + methodName));
+    call.setArguments(arguments);
+    statements.add(new IfStmt(new NameExpr("debug"), new ExpressionStmt(call), null));
+
     body.setStatements(statements);
     method.setBody(body);
     return method;
@@ -381,7 +668,9 @@ public final class JUnitCreator {
     NodeList<AnnotationExpr> annotations =
         new NodeList<>(new MarkerAnnotationExpr(new Name(annotation)));
     method.setAnnotations(annotations);
-    method.setBody(body);
+    // Copy the body, which is shared by all the test classes, some of which may be created
+    // concurrently.
+    method.setBody(body.clone());
     return method;
   }
 
@@ -420,6 +709,43 @@ public final class JUnitCreator {
     return compilationUnit.toString();
   }
 
+  /**
+   * Creates a JUnit class that runs the tests in a replay file with {@link ReplayRunner}. The class
+   * has the fixtures of this object.
+   *
+   * @param className the name of the class
+   * @param replayFilePath the path of the replay file, as in {@link ReplayRunner.DataFile#value}
+   * @return the {@code String} with the declaration of the class
+   * @see ReplayFile
+   */
+  public String createReplayTestClass(String className, String replayFilePath) {
+    CompilationUnit compilationUnit = new CompilationUnit();
+    if (packageName != null) {
+      compilationUnit.setPackageDeclaration(new PackageDeclaration(new Name(packageName)));
+    }
+    NodeList<ImportDeclaration> imports = new NodeList<>();
+    addFixtureImports(imports);
+    imports.add(new ImportDeclaration(new Name("org.junit.runner.RunWith"), false, false));
+    imports.add(new ImportDeclaration(new Name("randoop.output.ReplayRunner"), false, false));
+    compilationUnit.setImports(imports);
+
+    ClassOrInterfaceDeclaration replayClass =
+        new ClassOrInterfaceDeclaration(PUBLIC, false, className);
+    NodeList<AnnotationExpr> annotations = new NodeList<>();
+    annotations.add(
+        new SingleMemberAnnotationExpr(new Name("RunWith"), new NameExpr("ReplayRunner.class")));
+    annotations.add(
+        new SingleMemberAnnotationExpr(
+            new Name("ReplayRunner.DataFile"), new StringLiteralExpr(replayFilePath)));
+    replayClass.setAnnotations(annotations);
+    NodeList<BodyDeclaration<?>> bodyDeclarations = new NodeList<>();
+    addFixtures(bodyDeclarations);
+    replayClass.setMembers(bodyDeclarations);
+    NodeList<TypeDeclaration<?>> types = new NodeList<>(replayClass);
+    compilationUnit.setTypes(types);
+    return compilationUnit.toString();
+  }
+
   /**
    * Create non-reflective test driver as a main class.
    *
@@ -449,7 +775,11 @@ public final class JUnitCreator {
 
     String failureVariableName = "hadFailure";
     Statement hadFailureDecl =
-        javaParser.parseStatement("boolean " + failureVariableName + " = false;").getResult().get();
+        javaParser
+            .get()
+            .parseStatement("boolean " + failureVariableName + " = false;")
+            .getResult()
+            .get();
     bodyStatements.add(hadFailureDecl);
 
     NameGenerator instanceNameGen = new NameGenerator("t");
@@ -572,6 +902,6 @@ public final class JUnitCreator {
       blockText.append(line).append(Globals.lineSep);
     }
     blockText.append(Globals.lineSep).append('}');
-    return javaParser.parseBlock(blockText.toString()).getResult().get();
+    return javaParser.get().parseBlock(blockText.toString()).getResult().get();
   }
 }
@@ -56,6 +56,18 @@ public class JavaFileWriter implements CodeWriter {
     return writeClassCode(packageName, classname, classCode);
   }
 
+  /**
+   * Returns the file with the given name in the directory that this writer uses for the package.
+   * Does not create the file or the directory.
+   *
+   * @param packageName the package name
+   * @param fileName the name of the file
+   * @return the {@code Path} of the file in the directory for the package
+   */
+  public Path getOutputFile(String packageName, String fileName) {
+    return getDir(packageName).resolve(fileName);
+  }
+
   /**
    * Create the output directory for the package if it does not already exist.
    *
@@ -67,7 +79,8 @@ public class JavaFileWriter implements CodeWriter {
     Path dir = getDir(packageName);
     if (!Files.exists(dir)) {
       boolean success = dir.toFile().mkdirs();
-      if (!success) {
+      // Another thread may have created the directory concurrently.
+      if (!success && !Files.isDirectory(dir)) {
         throw new RandoopOutputException("Unable to create directory: " + dir.toAbsolutePath());
       }
     }
@@ -0,0 +1,329 @@
+package randoop.output;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.operation.OperationParseException;
+import randoop.operation.OperationParser;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceParseException;
+import randoop.test.CheckLines;
+import randoop.test.ObjectCheck;
+import randoop.test.RegressionChecks;
+import randoop.test.TestChecks;
+
+/**
+ * Reads and writes replay files: regression tests stored as data rather than as Java source. A
+ * replay file needs no compilation; {@link ReplayRunner} runs each test in it as a JUnit test.
+ *
+ * <p>A replay file is a UTF-8 text file. It starts with the line {@link #HEADER}, followed by one
+ * record per test and then an index of the records. A record starts with a line {@code
+ * #test<TAB>name}, followed by the statements of the test in the format of {@link
+ * Sequence#toParsableString()}, followed by one line per check in the format of {@link
+ * CheckLines}.
+ *
+ * <p>The index follows the last record. It starts with the line {@code #index}, has a line {@code
+ * name<TAB>offset<TAB>length} giving the location in bytes of each record, and ends with the line
+ * {@code #end<TAB>offset}, where offset is the location of the {@code #index} line. A reader reads
+ * the index from the end of the file and then reads each record only when it runs the test, so
+ * even a very large file can be run with little memory.
+ */
+public final class ReplayFile {
+
+  /** The first line of a replay file. */
+  static final String HEADER = "# randoop-replay 1";
+
+  /** The tag of the first line of a record. */
+  private static final String TEST = "#test";
+
+  /** The line that starts the index. */
+  private static final String INDEX = "#index";
+
+  /** The tag of the last line of the file. */
+  private static final String END = "#end";
+
+  /** The number of bytes at the end of a file that are read to find the index. */
+  private static final int TAIL_LENGTH = 64;
+
+  /** Do not instantiate. */
+  private ReplayFile() {
+    throw new Error("Do not instantiate");
+  }
+
+  /** The location of a record in a replay file. */
+  public static final class Entry {
+
+    /** The name of the test. */
+    private final String name;
+
+    /** The offset of the record in the file, in bytes. */
+    private final long offset;
+
+    /** The length of the record, in bytes. */
+    private final int length;
+
+    /**
+     * Creates an entry.
+     *
+     * @param name the name of the test
+     * @param offset the offset of the record in the file, in bytes
+     * @param length the length of the record, in bytes
+     */
+    Entry(String name, long offset, int length) {
+      this.name = name;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    /**
+     * Returns the name of the test.
+     *
+     * @return the name of the test
+     */
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s@%d+%d", name, offset, length);
+    }
+  }
+
+  /**
+   * Writes the given regression tests to a replay file, except for those that cannot be
+   * represented in it.
+   *
+   * @param file the file to write
+   * @param names the names of the tests, parallel to {@code tests}
+   * @param tests the regression tests, which have been executed
+   * @return the indices in {@code tests} of the tests that were not written, in increasing order
+   * @throws IOException if the file cannot be written
+   */
+  public static List<Integer> write(Path file, List<String> names, List<ExecutableSequence> tests)
+      throws IOException {
+    List<Integer> unwritten = new ArrayList<>();
+    StringBuilder index = new StringBuilder();
+    index.append(INDEX).append('\n');
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+      long offset = write(out, HEADER + "\n");
+      for (int i = 0; i < tests.size(); i++) {
+        String name = names.get(i);
+        ExecutableSequence test = tests.get(i);
+        String record = toRecord(name, test);
+        if (record == null) {
+          unwritten.add(i);
+          continue;
+        }
+        int length = write(out, record);
+        index.append(name).append('\t').append(offset).append('\t').append(length).append('\n');
+        offset += length;
+      }
+      index.append(END).append('\t').append(offset).append('\n');
+      write(out, index.toString());
+    }
+    return unwritten;
+  }
+
+  /**
+   * Writes text to a stream.
+   *
+   * @param out the stream
+   * @param text the text to write
+   * @return the number of bytes written
+   * @throws IOException if the text cannot be written
+   */
+  private static int write(OutputStream out, String text) throws IOException {
+    byte[] bytes = text.getBytes(UTF_8);
+    out.write(bytes);
+    return bytes.length;
+  }
+
+  /**
+   * Returns the record for a regression test, or null if the test cannot be represented in a
+   * replay file. That is the case if one of its checks is not of a kind listed in the {@link
+   * CheckLines} documentation, or if the record does not read back as the same test, for example
+   * because the sequence contains an operation that {@link OperationParser} cannot parse.
+   *
+   * @param name the name of the test
+   * @param test a regression test, which has been executed
+   * @return the record for the test, or null if it cannot be represented
+   */
+  static @Nullable String toRecord(String name, ExecutableSequence test) {
+    TestChecks<?> testChecks = test.getChecks();
+    if (!(testChecks instanceof RegressionChecks)) {
+      return null;
+    }
+    RegressionChecks checks = (RegressionChecks) testChecks;
+
+    String checkLines = CheckLines.write(checks);
+    if (checkLines == null) {
+      return null;
+    }
+
+    StringBuilder b = new StringBuilder();
+    b.append(TEST).append('\t').append(name).append('\n');
+    for (String statement : test.sequence.toParsableString().split("\\R")) {
+      b.append(statement).append('\n');
+    }
+    b.append(checkLines);
+
+    String record = b.toString();
+    try {
+      if (!parseRecord(record).represents(test.sequence, checks)) {
+        return null;
+      }
+    } catch (IOException | RuntimeException | Error e) {
+      // Sequence.parse throws Error if it cannot apply a parsed operation to its inputs.
+      return null;
+    }
+    return record;
+  }
+
+  /**
+   * Reads the index of a replay file.
+   *
+   * @param file a replay file
+   * @return the locations of the records in the file, in order
+   * @throws IOException if the file cannot be read or is not a complete replay file
+   */
+  public static List<Entry> readIndex(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size <= HEADER.length() || !read(channel, 0, HEADER.length()).equals(HEADER)) {
+        throw new IOException(file + " is not a replay file");
+      }
+      int tailLength = (int) Math.min(size, TAIL_LENGTH);
+      String tail = read(channel, size - tailLength, tailLength);
+      int end = tail.lastIndexOf("\n" + END + "\t");
+      if (end == -1) {
+        throw new IOException(file + " has no index; it might be incomplete");
+      }
+      long indexOffset;
+      try {
+        indexOffset = Long.parseLong(tail.substring(end + END.length() + 2).trim());
+      } catch (NumberFormatException e) {
+        throw new IOException("Malformed last line in replay file " + file, e);
+      }
+
+      List<Entry> result = new ArrayList<>();
+      BufferedReader reader =
+          new BufferedReader(
+              new InputStreamReader(Channels.newInputStream(channel.position(indexOffset)), UTF_8));
+      String line = reader.readLine();
+      if (line == null || !line.equals(INDEX)) {
+        throw new IOException("Malformed index in replay file " + file);
+      }
+      while ((line = reader.readLine()) != null && !line.startsWith(END + "\t")) {
+        String[] fields = line.split("\t", -1);
+        try {
+          if (fields.length != 3) {
+            throw new NumberFormatException("wrong number of fields");
+          }
+          result.add(new Entry(fields[0], Long.parseLong(fields[1]), Integer.parseInt(fields[2])));
+        } catch (NumberFormatException e) {
+          throw new IOException("Malformed index line in replay file " + file + ": " + line, e);
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Reads one test from a replay file.
+   *
+   * @param file a replay file
+   * @param entry the location of the test, from {@link #readIndex}
+   * @return the test
+   * @throws IOException if the file cannot be read or the record is malformed
+   */
+  public static ReplayTest readTest(Path file, Entry entry) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return parseRecord(read(channel, entry.offset, entry.length));
+    }
+  }
+
+  /**
+   * Reads bytes from a channel and decodes them.
+   *
+   * @param channel the channel
+   * @param position the position of the first byte to read
+   * @param length the number of bytes to read
+   * @return the bytes, decoded as UTF-8
+   * @throws IOException if the bytes cannot be read
+   */
+  private static String read(FileChannel channel, long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException();
+      }
+    }
+    return new String(buffer.array(), UTF_8);
+  }
+
+  /**
+   * Parses a record.
+   *
+   * @param record the text of a record
+   * @return the test in the record
+   * @throws IOException if the record is malformed, or refers to an operation or class that cannot
+   *     be loaded
+   */
+  static ReplayTest parseRecord(String record) throws IOException {
+    String[] lines = record.split("\\R");
+    if (lines.length == 0 || !lines[0].startsWith(TEST + "\t")) {
+      throw new IOException("Malformed record in replay file: " + record);
+    }
+    String name = lines[0].substring(TEST.length() + 1);
+    try {
+      int line = 1;
+      List<String> statements = new ArrayList<>();
+      while (line < lines.length && !lines[line].startsWith("#")) {
+        statements.add(lines[line++]);
+      }
+      Sequence sequence = Sequence.parse(statements);
+
+      Set<ObjectCheck> checks = new LinkedHashSet<>();
+      int exceptionIndex = -1;
+      String catchClassName = null;
+      boolean exceptionRequired = false;
+      for (; line < lines.length; line++) {
+        String[] fields = lines[line].split("\t", -1);
+        String tag = fields[0];
+        int index = Integer.parseInt(fields[1]);
+        if (tag.equals(CheckLines.THROWS) || tag.equals(CheckLines.MAY_THROW)) {
+          exceptionIndex = index;
+          catchClassName = fields[2];
+          exceptionRequired = tag.equals(CheckLines.THROWS);
+          continue;
+        }
+        checks.add(CheckLines.parseCheck(fields, sequence.getVariable(index)));
+      }
+      return new ReplayTest(
+          name, sequence, checks, exceptionIndex, catchClassName, exceptionRequired);
+    } catch (SequenceParseException
+        | OperationParseException
+        | ClassNotFoundException
+        | RuntimeException e) {
+      throw new IOException("Cannot read test " + name + " in replay file: " + e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package randoop.output;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.internal.runners.statements.RunAfters;
+import org.junit.internal.runners.statements.RunBefores;
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+
+/**
+ * A JUnit 4 runner that runs the tests in a {@link ReplayFile}. Each test is reported as a test
+ * method of the annotated class. For example:
+ *
+ * <pre>
+ * &#64;RunWith(ReplayRunner.class)
+ * &#64;ReplayRunner.DataFile("RegressionTest.replay")
+ * public class RegressionTestReplay {}
+ * </pre>
+ *
+ * The runner reads only the index of the file when it starts, and reads each test when it runs it.
+ * As for other JUnit 4 test classes, the class may have {@code @BeforeClass}, {@code @AfterClass},
+ * {@code @Before}, and {@code @After} methods; the latter two run on a new instance of the class
+ * for each test.
+ */
+public class ReplayRunner extends ParentRunner<ReplayFile.Entry> {
+
+  /** The replay file that a class annotated with {@code @RunWith(ReplayRunner.class)} runs. */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target(ElementType.TYPE)
+  public @interface DataFile {
+    /**
+     * The replay file, as a path relative to the package of the annotated class with {@code /} as
+     * the separator. The file is read as a resource of the annotated class, for example because
+     * the build copied it next to the compiled class. If there is no such resource, it is read
+     * from the directory of the package under the current directory, which is where Randoop
+     * writes it by default.
+     *
+     * @return the path of the replay file
+     */
+    String value();
+  }
+
+  /** The replay file. */
+  private final Path dataFile;
+
+  /** The tests in the replay file. */
+  private final List<ReplayFile.Entry> entries;
+
+  /**
+   * Creates a runner for a class annotated with {@link DataFile}.
+   *
+   * @param testClass the annotated class
+   * @throws InitializationError if the class is not annotated or the replay file cannot be read
+   */
+  public ReplayRunner(Class<?> testClass) throws InitializationError {
+    super(testClass);
+    DataFile annotation = testClass.getAnnotation(DataFile.class);
+    if (annotation == null) {
+      throw new InitializationError(
+          "Class " + testClass.getName() + " has no @ReplayRunner.DataFile annotation");
+    }
+    try {
+      dataFile = findDataFile(testClass, annotation.value());
+      entries = ReplayFile.readIndex(dataFile);
+    } catch (IOException e) {
+      throw new InitializationError(e);
+    }
+  }
+
+  /**
+   * Returns the replay file with the given path.
+   *
+   * @param testClass the annotated class
+   * @param name the path of the replay file, as in {@link DataFile#value}
+   * @return the replay file
+   * @throws IOException if there is no such file
+   */
+  private static Path findDataFile(Class<?> testClass, String name) throws IOException {
+    URL url = testClass.getResource(name);
+    if (url == null) {
+      String className = testClass.getName();
+      int dot = className.lastIndexOf('.');
+      Path packageDir =
+          dot == -1 ? Paths.get("") : Paths.get(className.substring(0, dot).replace('.', '/'));
+      Path path = packageDir.resolve(name);
+      if (Files.isRegularFile(path)) {
+        return path;
+      }
+      throw new IOException(
+          "Cannot find replay file "
+              + name
+              + " for "
+              + testClass.getName()
+              + " on the classpath or at "
+              + path.toAbsolutePath());
+    }
+    if (url.getProtocol().equals("file")) {
+      try {
+        return Paths.get(url.toURI());
+      } catch (URISyntaxException e) {
+        throw new IOException("Cannot find replay file " + url, e);
+      }
+    }
+    // The resource is not a file, for example because it is in a jar file.  Copy it, so that its
+    // records can be read in any order.
+    Path copy = Files.createTempFile(testClass.getSimpleName(), ".replay");
+    copy.toFile().deleteOnExit();
+    try (InputStream in = url.openStream()) {
+      Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return copy;
+  }
+
+  @Override
+  protected List<ReplayFile.Entry> getChildren() {
+    return entries;
+  }
+
+  @Override
+  protected Description describeChild(ReplayFile.Entry child) {
+    return Description.createTestDescription(getTestClass().getJavaClass(), child.getName());
+  }
+
+  @Override
+  protected void runChild(ReplayFile.Entry child, RunNotifier notifier) {
+    Statement statement =
+        new Statement() {
+          @Override
+          public void evaluate() throws Throwable {
+            Object target = getTestClass().getOnlyConstructor().newInstance();
+            Statement test =
+                new Statement() {
+                  @Override
+                  public void evaluate() throws Throwable {
+                    ReplayFile.readTest(dataFile, child).run();
+                  }
+                };
+            test = new RunBefores(test, getTestClass().getAnnotatedMethods(Before.class), target);
+            test = new RunAfters(test, getTestClass().getAnnotatedMethods(After.class), target);
+            test.evaluate();
+          }
+        };
+    runLeaf(statement, describeChild(child), notifier);
+  }
+}
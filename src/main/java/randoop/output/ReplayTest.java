@@ -0,0 +1,223 @@
+package randoop.output;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.DummyVisitor;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.Globals;
+import randoop.NormalExecution;
+import randoop.contract.ObjectContract;
+import randoop.contract.ObserverEqValue;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.DummyCheckGenerator;
+import randoop.test.ExceptionCheck;
+import randoop.test.ExpectedExceptionCheck;
+import randoop.test.ObjectCheck;
+import randoop.test.RegressionChecks;
+
+/**
+ * A regression test read from a {@link ReplayFile}: a sequence, the checks on the values that its
+ * statements create, and the exception, if any, that its last statement throws. Running it has the
+ * same effect as running the JUnit test method that Randoop would otherwise write for it.
+ */
+public final class ReplayTest {
+
+  /**
+   * The maximum difference for which a double that an observer returns is considered equal to the
+   * value in the replay file. It is the tolerance that {@code ObserverEqArray} uses for arrays.
+   */
+  private static final double DOUBLE_DELTA = 1e-15;
+
+  /**
+   * The maximum difference for which a float that an observer returns is considered equal to the
+   * value in the replay file.
+   */
+  private static final float FLOAT_DELTA = (float) 1e-15;
+
+  /** The name of the test. */
+  private final String name;
+
+  /** The statements of the test. */
+  private final Sequence sequence;
+
+  /** The checks on the values created by the statements. Each check has one variable. */
+  private final Set<ObjectCheck> checks;
+
+  /** The index of the statement that may throw an exception, or -1 if none may. */
+  private final int exceptionIndex;
+
+  /** The name of the exception class that statement {@link #exceptionIndex} may throw. */
+  private final @Nullable String catchClassName;
+
+  /** If true, statement {@link #exceptionIndex} must throw an exception. */
+  private final boolean exceptionRequired;
+
+  /**
+   * Creates a test.
+   *
+   * @param name the name of the test
+   * @param sequence the statements of the test
+   * @param checks the checks on the values created by the statements
+   * @param exceptionIndex the index of the statement that may throw an exception, or -1 if none may
+   * @param catchClassName the name of the exception class that the statement may throw, or null
+   * @param exceptionRequired if true, the statement must throw an exception
+   */
+  ReplayTest(
+      String name,
+      Sequence sequence,
+      Set<ObjectCheck> checks,
+      int exceptionIndex,
+      @Nullable String catchClassName,
+      boolean exceptionRequired) {
+    this.name = name;
+    this.sequence = sequence;
+    this.checks = Collections.unmodifiableSet(new LinkedHashSet<>(checks));
+    this.exceptionIndex = exceptionIndex;
+    this.catchClassName = catchClassName;
+    this.exceptionRequired = exceptionRequired;
+  }
+
+  /**
+   * Returns the name of the test.
+   *
+   * @return the name of the test
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the statements of the test.
+   *
+   * @return the sequence of the test
+   */
+  public Sequence getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Returns true if this test represents the given sequence and checks exactly. Used to verify that
+   * a test reads back from a replay file as it was written.
+   *
+   * @param sequence a sequence
+   * @param regressionChecks the checks of the sequence
+   * @return true if running this test is equivalent to running a JUnit test for the sequence
+   */
+  boolean represents(Sequence sequence, RegressionChecks regressionChecks) {
+    if (!this.sequence.equals(sequence) || !checks.equals(regressionChecks.checks())) {
+      return false;
+    }
+    ExceptionCheck exceptionCheck = regressionChecks.getExceptionCheck();
+    if (exceptionCheck == null) {
+      return exceptionIndex == -1;
+    }
+    return exceptionIndex == exceptionCheck.getStatementIndex()
+        && Objects.equals(catchClassName, exceptionCheck.getCatchClassName())
+        && exceptionRequired == (exceptionCheck instanceof ExpectedExceptionCheck);
+  }
+
+  /**
+   * Executes the statements of this test and checks their outcomes.
+   *
+   * @throws Throwable if a statement throws an exception that is not expected, or a check fails
+   */
+  public void run() throws Throwable {
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    eseq.execute(new DummyVisitor(), new DummyCheckGenerator());
+
+    for (int i = 0; i < sequence.size(); i++) {
+      ExecutionOutcome outcome = eseq.getResult(i);
+      if (outcome instanceof ExceptionalExecution) {
+        Throwable exception = ((ExceptionalExecution) outcome).getException();
+        if (i == exceptionIndex && isCaught(exception)) {
+          break;
+        }
+        throw exception;
+      }
+      if (i == exceptionIndex && exceptionRequired) {
+        throw new AssertionError(
+            String.format(
+                "%s: expected statement %d to throw %s: %s",
+                name, i, catchClassName, sequence.getStatement(i)));
+      }
+    }
+
+    for (ObjectCheck check : checks) {
+      int index = check.getVars()[0].getDeclIndex();
+      ExecutionOutcome outcome = eseq.getResult(index);
+      if (!(outcome instanceof NormalExecution)) {
+        throw new AssertionError(
+            String.format("%s: statement %d did not execute normally: %s", name, index, outcome));
+      }
+      Object value = ((NormalExecution) outcome).getRuntimeValue();
+      if (!evaluate(check.getContract(), value)) {
+        throw new AssertionError(
+            String.format(
+                "%s: check failed: %s (value = %s)",
+                name, check.toCodeStringPostStatement().trim(), value));
+      }
+    }
+  }
+
+  /**
+   * Evaluates a contract on a value. An observer that returns a double or float is compared to the
+   * value in the replay file with a tolerance, because the value was written as text; every other
+   * contract is evaluated as is.
+   *
+   * @param contract the contract of a check
+   * @param value the value that the check is on
+   * @return true if the contract holds
+   * @throws Throwable if evaluating the contract throws an exception
+   */
+  private static boolean evaluate(ObjectContract contract, Object value) throws Throwable {
+    if (!(contract instanceof ObserverEqValue)) {
+      return contract.evaluate(value);
+    }
+    ObserverEqValue observerEqValue = (ObserverEqValue) contract;
+    Object expected = observerEqValue.value;
+    if (!(expected instanceof Double || expected instanceof Float)) {
+      return contract.evaluate(value);
+    }
+    ExecutionOutcome outcome = observerEqValue.observer.execute(new Object[] {value});
+    if (outcome instanceof ExceptionalExecution) {
+      throw ((ExceptionalExecution) outcome).getException();
+    }
+    Object actual = ((NormalExecution) outcome).getRuntimeValue();
+    if (expected instanceof Double && actual instanceof Double) {
+      double e = (Double) expected;
+      double a = (Double) actual;
+      return Double.compare(e, a) == 0 || Math.abs(e - a) <= DOUBLE_DELTA;
+    } else if (expected instanceof Float && actual instanceof Float) {
+      float e = (Float) expected;
+      float a = (Float) actual;
+      return Float.compare(e, a) == 0 || Math.abs(e - a) <= FLOAT_DELTA;
+    }
+    return Objects.equals(expected, actual);
+  }
+
+  /**
+   * Returns true if an exception is an instance of {@link #catchClassName}.
+   *
+   * @param exception an exception thrown by a statement of this test
+   * @return true if the catch clause of the JUnit test would catch the exception
+   */
+  private boolean isCaught(Throwable exception) {
+    for (Class<?> c = exception.getClass(); c != null; c = c.getSuperclass()) {
+      if (c.getName().equals(catchClassName)
+          || Objects.equals(c.getCanonicalName(), catchClassName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return name + Globals.lineSep + sequence;
+  }
+}
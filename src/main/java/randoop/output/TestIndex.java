@@ -0,0 +1,222 @@
+package randoop.output;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.contract.ObserverEqValue;
+import randoop.operation.TypedClassOperation;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Statement;
+import randoop.test.Check;
+import randoop.test.ObjectCheck;
+import randoop.types.Type;
+
+/**
+ * An index from generated test methods to the code that they use. After some classes change, the
+ * index tells which tests might be affected, so that only those need to be run.
+ *
+ * <p>The index is a text file. Its first line is {@value #HEADER}. Each other line has four
+ * tab-separated fields: the fully-qualified name of a test class, the name of a test method, a
+ * kind, and a name. The kinds are:
+ *
+ * <ul>
+ *   <li>{@value #CLASS}: the binary name of a class whose method, constructor, or field the test
+ *       uses directly, including in its assertions
+ *   <li>{@value #METHOD}: the fully-qualified signature of a method or constructor that the test
+ *       calls directly
+ *   <li>{@value #COVERED}: the binary name of a class, among those given by {@code
+ *       --require-covered-classes}, whose code ran when Randoop executed the test
+ * </ul>
+ */
+public final class TestIndex {
+
+  /** The first line of an index file. */
+  static final String HEADER = "# randoop-test-index 1";
+
+  /** The kind of a line that names a class that a test uses directly. */
+  public static final String CLASS = "class";
+
+  /** The kind of a line that names a method or constructor that a test calls directly. */
+  public static final String METHOD = "method";
+
+  /** The kind of a line that names a class whose code ran when a test was executed. */
+  public static final String COVERED = "covered";
+
+  /** The index file. */
+  private final Path file;
+
+  /** The writer for the index file. */
+  private final BufferedWriter writer;
+
+  /**
+   * Creates an index file, replacing any existing file.
+   *
+   * @param file the index file
+   * @throws RandoopOutputException if the file cannot be created
+   */
+  public TestIndex(Path file) {
+    this.file = file;
+    try {
+      this.writer = Files.newBufferedWriter(file, UTF_8);
+      writer.write(HEADER);
+      writer.newLine();
+    } catch (IOException e) {
+      throw new RandoopOutputException("Cannot write test index " + file, e);
+    }
+  }
+
+  /**
+   * Adds the lines for a test to the index.
+   *
+   * @param packageName the package of the test class, or null for the default package
+   * @param testClass the simple name of the test class
+   * @param testMethod the name of the test method
+   * @param test the test, which has been executed
+   * @throws RandoopOutputException if the index cannot be written
+   */
+  public void add(
+      @Nullable String packageName, String testClass, String testMethod, ExecutableSequence test) {
+    SortedSet<String> classes = new TreeSet<>();
+    SortedSet<String> methods = new TreeSet<>();
+    for (int i = 0; i < test.sequence.size(); i++) {
+      Statement statement = test.sequence.getStatement(i);
+      addOperation(statement.getOperation(), classes, methods);
+    }
+    for (Check check : test.getChecks().checks()) {
+      if (check instanceof ObjectCheck
+          && ((ObjectCheck) check).getContract() instanceof ObserverEqValue) {
+        ObserverEqValue contract = (ObserverEqValue) ((ObjectCheck) check).getContract();
+        addOperation(contract.observer, classes, methods);
+      }
+    }
+    SortedSet<String> covered = new TreeSet<>();
+    for (Class<?> c : test.getCoveredClasses()) {
+      covered.add(c.getName());
+    }
+
+    String prefix =
+        (packageName == null || packageName.isEmpty() ? "" : packageName + ".")
+            + testClass
+            + '\t'
+            + testMethod
+            + '\t';
+    try {
+      writeLines(prefix + CLASS + '\t', classes);
+      writeLines(prefix + METHOD + '\t', methods);
+      writeLines(prefix + COVERED + '\t', covered);
+    } catch (IOException e) {
+      throw new RandoopOutputException("Cannot write test index " + file, e);
+    }
+  }
+
+  /**
+   * Adds the declaring class and the signature of an operation to the given sets, if it is a
+   * method, constructor, or field access.
+   *
+   * @param operation an operation
+   * @param classes the binary names of declaring classes
+   * @param methods the fully-qualified signatures of methods and constructors
+   */
+  private static void addOperation(
+      TypedOperation operation, Set<String> classes, Set<String> methods) {
+    if (!(operation instanceof TypedClassOperation)) {
+      return;
+    }
+    TypedClassOperation classOperation = (TypedClassOperation) operation;
+    Type declaringType = classOperation.getDeclaringType();
+    classes.add(declaringType.getRuntimeClass().getName());
+    String signature = classOperation.getFullyQualifiedSignature();
+    if (signature != null) {
+      methods.add(signature);
+    }
+  }
+
+  /**
+   * Writes one line for each name.
+   *
+   * @param prefix the text that precedes each name
+   * @param names the names
+   * @throws IOException if the lines cannot be written
+   */
+  private void writeLines(String prefix, Set<String> names) throws IOException {
+    for (String name : names) {
+      writer.write(prefix);
+      writer.write(name);
+      writer.newLine();
+    }
+  }
+
+  /**
+   * Closes the index file.
+   *
+   * @throws RandoopOutputException if the file cannot be written
+   */
+  public void close() {
+    try {
+      writer.close();
+    } catch (IOException e) {
+      throw new RandoopOutputException("Cannot write test index " + file, e);
+    }
+  }
+
+  /**
+   * Returns the tests in an index that use, or ran code of, any of the given classes or of classes
+   * nested in them.
+   *
+   * @param indexFile the index file
+   * @param changedClasses the binary names of classes
+   * @return a map from the fully-qualified name of each test class to its selected test methods
+   * @throws IOException if the index file cannot be read or is not an index file
+   */
+  public static SortedMap<String, SortedSet<String>> select(
+      Path indexFile, Collection<String> changedClasses) throws IOException {
+    SortedMap<String, SortedSet<String>> result = new TreeMap<>();
+    try (BufferedReader reader = Files.newBufferedReader(indexFile, UTF_8)) {
+      String line = reader.readLine();
+      if (!HEADER.equals(line)) {
+        throw new IOException(indexFile + " is not a Randoop test index");
+      }
+      int lineNumber = 1;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 4) {
+          throw new IOException(
+              String.format("%s:%d: malformed line: %s", indexFile, lineNumber, line));
+        }
+        if (!fields[2].equals(METHOD) && isAffected(fields[3], changedClasses)) {
+          result.computeIfAbsent(fields[0], k -> new TreeSet<>()).add(fields[1]);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if a class is one of the given classes or is nested in one of them.
+   *
+   * @param className the binary name of a class
+   * @param changedClasses the binary names of classes
+   * @return true if a change to any of {@code changedClasses} may change {@code className}
+   */
+  static boolean isAffected(String className, Collection<String> changedClasses) {
+    for (String changed : changedClasses) {
+      if (className.equals(changed) || className.startsWith(changed + "$")) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,555 @@
+package randoop.output;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.Globals;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.Statement;
+
+/**
+ * A trie of the statements of the tests in one test class, used to print the statements that
+ * several tests begin with only once.
+ *
+ * <p>Each prefix that is shared by at least two tests, and that adds at least {@link
+ * #MIN_SHARED_STATEMENTS} printed statements to the shared prefix it extends, becomes a private
+ * nested class. The constructor of the class executes the statements of the prefix and stores, in
+ * final fields, the values that the rest of the tests use. A test that begins with the prefix
+ * creates an instance of the class, copies those values to local variables with their original
+ * names, and continues with the rest of its statements. Since each test creates its own instance,
+ * tests do not share objects.
+ *
+ * <p>Two statements match if they are {@link Statement#equals equal}, which includes their inputs,
+ * and either both or neither are printed. Only the last statement of a test has checks, and it is
+ * never part of a shared prefix.
+ */
+final class TestPrefixTrie {
+
+  /**
+   * The minimum number of printed statements that a shared prefix must add to the shared prefix it
+   * extends. Sharing fewer statements does not pay for the class that holds them.
+   */
+  static final int MIN_SHARED_STATEMENTS = 3;
+
+  /** The prefix of the names of the classes that hold shared prefixes. */
+  static final String PREFIX_CLASS_NAME = "SharedPrefix";
+
+  /**
+   * The name of the local variable that holds an instance of a shared prefix. Randoop's variable
+   * names end with a digit, so this name does not clash with them.
+   */
+  private static final String PREFIX_VARIABLE = "prefix";
+
+  /** Matches a Java identifier. */
+  private static final Pattern IDENTIFIER =
+      Pattern.compile("\\p{javaJavaIdentifierStart}\\p{javaJavaIdentifierPart}*");
+
+  /** The tests. */
+  private final List<ExecutableSequence> tests;
+
+  /** For each test, the shared prefix it begins with, or null if none. */
+  private final List<@Nullable SharedPrefix> testPrefixes;
+
+  /**
+   * For each test, the indices of the variables that it copies from its shared prefix. Empty if the
+   * test does not begin with a shared prefix.
+   */
+  private final List<SortedSet<Integer>> testImports;
+
+  /** The shared prefixes. A prefix comes after the prefix it extends. */
+  private final List<SharedPrefix> sharedPrefixes = new ArrayList<>();
+
+  /**
+   * Builds the trie for the given tests and chooses the shared prefixes.
+   *
+   * @param tests the tests of one test class
+   */
+  TestPrefixTrie(List<ExecutableSequence> tests) {
+    this.tests = tests;
+
+    Node root = new Node(0, null);
+    List<Node> lastNodes = new ArrayList<>(tests.size());
+    for (ExecutableSequence test : tests) {
+      Sequence sequence = test.sequence;
+      Node node = root;
+      node.count++;
+      for (int i = 0; i < sequence.size() - 1; i++) {
+        node = node.child(new Key(sequence.getStatement(i), isPrinted(sequence, i)), sequence);
+        node.count++;
+      }
+      lastNodes.add(node);
+    }
+    choosePrefixes(root, null, sharedPrefixes);
+
+    // Find the variables that each test and each prefix needs from the prefix it extends. A prefix
+    // comes after the prefix it extends, so visiting them in reverse order visits all the
+    // extensions of a prefix before the prefix itself.
+    testPrefixes = new ArrayList<>(tests.size());
+    testImports = new ArrayList<>(tests.size());
+    for (int i = 0; i < tests.size(); i++) {
+      SharedPrefix prefix = lastNodes.get(i).prefix;
+      testPrefixes.add(prefix);
+      if (prefix == null) {
+        testImports.add(new TreeSet<>());
+      } else {
+        Sequence sequence = tests.get(i).sequence;
+        String code = String.join(Globals.lineSep, codeLines(tests.get(i), prefix.length));
+        testImports.add(importsFrom(prefix, sequence, code, new TreeSet<>()));
+      }
+    }
+    for (int i = sharedPrefixes.size() - 1; i >= 0; i--) {
+      SharedPrefix prefix = sharedPrefixes.get(i);
+      if (prefix.parent != null) {
+        List<String> lines = statementLines(prefix.sequence, prefix.parent.length, prefix.length);
+        String code = String.join(Globals.lineSep, lines);
+        prefix.imports = importsFrom(prefix.parent, prefix.sequence, code, prefix.exports);
+      }
+    }
+  }
+
+  /**
+   * Returns true if some tests share a prefix.
+   *
+   * @return true if some tests share a prefix
+   */
+  boolean hasSharedPrefixes() {
+    return !sharedPrefixes.isEmpty();
+  }
+
+  /**
+   * Returns the source code of the classes that hold the shared prefixes.
+   *
+   * @return the declarations of the classes that hold the shared prefixes
+   */
+  List<String> getPrefixClasses() {
+    List<String> result = new ArrayList<>(sharedPrefixes.size());
+    for (SharedPrefix prefix : sharedPrefixes) {
+      StringBuilder b = new StringBuilder();
+      b.append("private static final class ").append(prefix.className()).append(" {");
+      b.append(Globals.lineSep);
+      for (int index : prefix.exports) {
+        b.append("final ")
+            .append(typeName(prefix.sequence, index))
+            .append(' ')
+            .append(variableName(prefix.sequence, index))
+            .append(';')
+            .append(Globals.lineSep);
+      }
+      b.append(prefix.className()).append("() throws Throwable {").append(Globals.lineSep);
+      if (prefix.parent != null) {
+        appendPrefixCreation(b, prefix.parent, prefix.sequence, prefix.imports);
+      }
+      int start = prefix.parent == null ? 0 : prefix.parent.length;
+      for (String line : statementLines(prefix.sequence, start, prefix.length)) {
+        b.append(line).append(Globals.lineSep);
+      }
+      for (int index : prefix.exports) {
+        String name = variableName(prefix.sequence, index);
+        b.append("this.").append(name).append(" = ").append(name).append(';');
+        b.append(Globals.lineSep);
+      }
+      b.append('}').append(Globals.lineSep).append('}');
+      result.add(b.toString());
+    }
+    return result;
+  }
+
+  /**
+   * Returns an estimate of how many lines the test class is shorter because of the shared prefixes,
+   * computed from the lengths of the prefixes rather than by printing the class without sharing:
+   * the lines of the statements in the shared prefixes of the tests, less the lines that create the
+   * shared prefixes and the lines of the classes that hold them. Each printed statement is counted
+   * as one line, and each member of a class is followed by a blank line, as the pretty-printer
+   * prints them.
+   *
+   * @return the number of lines that sharing saves; negative if it costs lines
+   */
+  int numLinesSaved() {
+    int saved = 0;
+    for (int i = 0; i < tests.size(); i++) {
+      SharedPrefix prefix = testPrefixes.get(i);
+      if (prefix != null) {
+        saved += numPrinted(tests.get(i).sequence, 0, prefix.length);
+        // The statement that creates the prefix, and one per variable copied from it.
+        saved -= 1 + testImports.get(i).size();
+      }
+    }
+    for (SharedPrefix prefix : sharedPrefixes) {
+      int exports = prefix.exports.size();
+      // The blank line before the class, its header, and its closing brace.
+      int classLines = 3;
+      // Each field and the blank line after it, and its assignment in the constructor.
+      classLines += 3 * exports;
+      // The header and the closing brace of the constructor.
+      classLines += 2;
+      int start = 0;
+      if (prefix.parent != null) {
+        classLines += 1 + prefix.imports.size();
+        start = prefix.parent.length;
+      }
+      classLines += numPrinted(prefix.sequence, start, prefix.length);
+      saved -= classLines;
+    }
+    return saved;
+  }
+
+  /**
+   * Returns the number of printed statements of a sequence, from index {@code start} to index
+   * {@code end}.
+   *
+   * @param sequence a sequence
+   * @param start the index of the first statement to count
+   * @param end the index after the last statement to count; less than the size of the sequence
+   * @return the number of printed statements from index {@code start} to index {@code end}
+   */
+  private static int numPrinted(Sequence sequence, int start, int end) {
+    int result = 0;
+    for (int i = start; i < end; i++) {
+      if (isPrinted(sequence, i)) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the code of the body of a test: the creation of its shared prefix, if any, followed by
+   * the rest of its statements and its checks.
+   *
+   * @param i the index of the test
+   * @return the code of the body of the test
+   */
+  String getTestBody(int i) {
+    ExecutableSequence test = tests.get(i);
+    SharedPrefix prefix = testPrefixes.get(i);
+    StringBuilder b = new StringBuilder();
+    if (prefix != null) {
+      appendPrefixCreation(b, prefix, test.sequence, testImports.get(i));
+    }
+    for (String line : codeLines(test, prefix == null ? 0 : prefix.length)) {
+      b.append(line).append(Globals.lineSep);
+    }
+    return b.toString();
+  }
+
+  /**
+   * Appends the statements that create an instance of a shared prefix and copy some of its fields
+   * to local variables.
+   *
+   * @param b where to append the statements
+   * @param prefix the shared prefix
+   * @param sequence a sequence that begins with the prefix
+   * @param imports the indices of the variables to copy
+   */
+  private static void appendPrefixCreation(
+      StringBuilder b, SharedPrefix prefix, Sequence sequence, Set<Integer> imports) {
+    b.append(prefix.className())
+        .append(' ')
+        .append(PREFIX_VARIABLE)
+        .append(" = new ")
+        .append(prefix.className())
+        .append("();")
+        .append(Globals.lineSep);
+    for (int index : imports) {
+      String name = variableName(sequence, index);
+      b.append(typeName(sequence, index))
+          .append(' ')
+          .append(name)
+          .append(" = ")
+          .append(PREFIX_VARIABLE)
+          .append('.')
+          .append(name)
+          .append(';')
+          .append(Globals.lineSep);
+    }
+  }
+
+  /**
+   * Chooses the shared prefixes in the subtrie rooted at {@code node}, and sets the {@link
+   * Node#prefix} field of each of its nodes.
+   *
+   * @param node the root of a subtrie
+   * @param parent the longest shared prefix that is a proper prefix of {@code node}, or null
+   * @param sharedPrefixes the shared prefixes chosen so far, to which this method adds
+   */
+  private static void choosePrefixes(
+      Node node, @Nullable SharedPrefix parent, List<SharedPrefix> sharedPrefixes) {
+    SharedPrefix prefix = parent;
+    Sequence sequence = node.sequence;
+    // The node is the end of a maximal shared prefix if some of the tests that reach it go no
+    // further, or if they continue in different ways.
+    if (sequence != null && node.count >= 2 && !node.hasChildWithCount(node.count)) {
+      int start = parent == null ? 0 : parent.length;
+      if (numPrinted(sequence, start, node.depth) >= MIN_SHARED_STATEMENTS) {
+        prefix = new SharedPrefix(sharedPrefixes.size(), parent, sequence, node.depth);
+        sharedPrefixes.add(prefix);
+      }
+    }
+    node.prefix = prefix;
+    for (Node child : node.children.values()) {
+      choosePrefixes(child, prefix, sharedPrefixes);
+    }
+  }
+
+  /**
+   * Returns the variables of a shared prefix that some code uses, and records them as exported by
+   * the prefix. These are the variables of printed, non-void statements of the prefix whose names
+   * occur in the code, plus the ones in {@code alsoNeeded} that the prefix declares.
+   *
+   * @param prefix the shared prefix
+   * @param sequence a sequence that begins with the prefix
+   * @param code the code that follows the prefix
+   * @param alsoNeeded indices of variables that are needed regardless of the code
+   * @return the indices of the variables of the prefix that the code uses
+   */
+  private static SortedSet<Integer> importsFrom(
+      SharedPrefix prefix, Sequence sequence, String code, Set<Integer> alsoNeeded) {
+    Set<String> identifiers = new HashSet<>();
+    Matcher matcher = IDENTIFIER.matcher(code);
+    while (matcher.find()) {
+      identifiers.add(matcher.group());
+    }
+    SortedSet<Integer> result = new TreeSet<>();
+    for (int i = 0; i < prefix.length; i++) {
+      if (isPrinted(sequence, i)
+          && !sequence.getStatement(i).getOutputType().isVoid()
+          && (alsoNeeded.contains(i) || identifiers.contains(variableName(sequence, i)))) {
+        result.add(i);
+      }
+    }
+    prefix.exports.addAll(result);
+    return result;
+  }
+
+  /**
+   * Returns the code lines of a test, starting with its statement at index {@code start}.
+   *
+   * @param test a test
+   * @param start the index of the first statement whose code to return
+   * @return the code of the statements of the test at index {@code start} and later
+   */
+  private static List<String> codeLines(ExecutableSequence test, int start) {
+    // toCodeLines has one line for each printed statement, and the last statement is printed.
+    List<String> lines = test.toCodeLines();
+    int skipped = 0;
+    for (int i = 0; i < start; i++) {
+      if (isPrinted(test.sequence, i)) {
+        skipped++;
+      }
+    }
+    return lines.subList(skipped, lines.size());
+  }
+
+  /**
+   * Returns the code of the printed statements of a sequence, from index {@code start} to index
+   * {@code end}.
+   *
+   * @param sequence a sequence
+   * @param start the index of the first statement whose code to return
+   * @param end the index after the last statement whose code to return; less than the size of the
+   *     sequence
+   * @return the code of the printed statements from index {@code start} to index {@code end}
+   */
+  private static List<String> statementLines(Sequence sequence, int start, int end) {
+    List<String> lines = new ArrayList<>();
+    for (int i = start; i < end; i++) {
+      if (isPrinted(sequence, i)) {
+        StringBuilder b = new StringBuilder();
+        sequence.appendCode(b, i);
+        lines.add(b.toString());
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Returns true if a statement that is not the last one of its test is printed. A statement that
+   * initializes a primitive value is not printed if the value is inlined where it is used; see
+   * {@link ExecutableSequence#toCodeLines()}.
+   *
+   * @param sequence a sequence
+   * @param i the index of a statement of the sequence, other than the last of the test
+   * @return true if the statement is printed
+   */
+  private static boolean isPrinted(Sequence sequence, int i) {
+    return !(sequence.getVariable(i).shouldInlineLiterals()
+        && sequence.getStatement(i).getInlinedForm() != null);
+  }
+
+  /**
+   * Returns the name of the variable declared by a statement.
+   *
+   * @param sequence a sequence
+   * @param i the index of a statement of the sequence
+   * @return the name of the variable declared by the statement
+   */
+  private static String variableName(Sequence sequence, int i) {
+    return sequence.getVariable(i).getName();
+  }
+
+  /**
+   * Returns the declared type of the variable declared by a statement.
+   *
+   * @param sequence a sequence
+   * @param i the index of a statement of the sequence
+   * @return the type of the variable, as printed in its declaration
+   */
+  private static String typeName(Sequence sequence, int i) {
+    return sequence.getStatement(i).getOutputType().getFqName();
+  }
+
+  /** A statement in the trie, together with whether it is printed. */
+  private static final class Key {
+
+    /** The statement. */
+    final Statement statement;
+
+    /** True if the statement is printed. */
+    final boolean printed;
+
+    /**
+     * Creates a key.
+     *
+     * @param statement the statement
+     * @param printed true if the statement is printed
+     */
+    Key(Statement statement, boolean printed) {
+      this.statement = statement;
+      this.printed = printed;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return printed == other.printed && statement.equals(other.statement);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(statement, printed);
+    }
+  }
+
+  /** A node of the trie: the prefix of length {@link #depth} of one or more tests. */
+  private static final class Node {
+
+    /** The number of statements in the prefix. */
+    final int depth;
+
+    /** The first test sequence that reached this node, or null for the root. */
+    final @Nullable Sequence sequence;
+
+    /** The number of tests that begin with this prefix. */
+    int count = 0;
+
+    /** The nodes for the prefixes that are one statement longer. */
+    final Map<Key, Node> children = new LinkedHashMap<>();
+
+    /** The longest shared prefix that this prefix begins with, or null if none. */
+    @Nullable SharedPrefix prefix = null;
+
+    /**
+     * Creates a node.
+     *
+     * @param depth the number of statements in the prefix
+     * @param sequence a test sequence that begins with the prefix, or null for the root
+     */
+    Node(int depth, @Nullable Sequence sequence) {
+      this.depth = depth;
+      this.sequence = sequence;
+    }
+
+    /**
+     * Returns the child for the given statement, creating it if necessary.
+     *
+     * @param key the statement that follows this prefix
+     * @param sequence the test sequence that is being inserted
+     * @return the child for the statement
+     */
+    Node child(Key key, Sequence sequence) {
+      Node child = children.get(key);
+      if (child == null) {
+        child = new Node(depth + 1, sequence);
+        children.put(key, child);
+      }
+      return child;
+    }
+
+    /**
+     * Returns true if a child is reached by the given number of tests.
+     *
+     * @param count a number of tests
+     * @return true if some child is reached by exactly {@code count} tests
+     */
+    boolean hasChildWithCount(int count) {
+      for (Node child : children.values()) {
+        if (child.count == count) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /** A prefix that several tests share, printed as a nested class. */
+  private static final class SharedPrefix {
+
+    /** The number of this prefix in its test class, used in the name of its class. */
+    final int number;
+
+    /** The longest shared prefix that this one extends, or null if none. */
+    final @Nullable SharedPrefix parent;
+
+    /** A test sequence that begins with this prefix. */
+    final Sequence sequence;
+
+    /** The number of statements in this prefix. */
+    final int length;
+
+    /** The indices of the variables of this prefix that its users need, stored as fields. */
+    final SortedSet<Integer> exports = new TreeSet<>();
+
+    /** The indices of the variables that this prefix copies from {@link #parent}. */
+    SortedSet<Integer> imports = new TreeSet<>();
+
+    /**
+     * Creates a shared prefix.
+     *
+     * @param number the number of the prefix in its test class
+     * @param parent the longest shared prefix that this one extends, or null
+     * @param sequence a test sequence that begins with this prefix
+     * @param length the number of statements in this prefix
+     */
+    SharedPrefix(int number, @Nullable SharedPrefix parent, Sequence sequence, int length) {
+      this.number = number;
+      this.parent = parent;
+      this.sequence = sequence;
+      this.length = length;
+    }
+
+    /**
+     * Returns the name of the class that holds this prefix.
+     *
+     * @return the name of the class that holds this prefix
+     */
+    String className() {
+      return PREFIX_CLASS_NAME + number;
+    }
+  }
+}
@@ -2,6 +2,8 @@ package randoop.reflection;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import randoop.operation.TypedClassOperation;
 import randoop.types.ClassOrInterfaceType;
@@ -55,9 +57,21 @@ public class OmitMethodsPredicate {
   public static final OmitMethodsPredicate NO_OMISSION =
       new OmitMethodsPredicate(new ArrayList<>(0));
 
+  /** The maximum number of operations whose omit decision is memoized. */
+  private static final int MAX_MEMOIZED_OPERATIONS = 100_000;
+
   /** {@code Pattern}s to match operations that should be omitted. Never side-effected. */
   private final List<Pattern> omitPatterns;
 
+  /** Tests a signature against all of {@link #omitPatterns} at once. */
+  private final OmitPatternMatcher matcher;
+
+  /**
+   * The result of {@link #shouldOmit} for operations that have been tested before. The result
+   * depends only on the operation, whose signature and declaring type determine what is matched.
+   */
+  private final Map<TypedClassOperation, Boolean> omitDecisions = new ConcurrentHashMap<>();
+
   /**
    * Create a new OmitMethodsPredicate.
    *
@@ -65,6 +79,7 @@ public class OmitMethodsPredicate {
    */
   public OmitMethodsPredicate(List<Pattern> omitPatterns) {
     this.omitPatterns = new ArrayList<>(omitPatterns);
+    this.matcher = new OmitPatternMatcher(this.omitPatterns);
   }
 
   /**
@@ -84,15 +99,22 @@ public class OmitMethodsPredicate {
       return false;
     }
 
+    Boolean decision = omitDecisions.get(operation);
+    if (decision != null) {
+      return decision;
+    }
+    boolean result;
     if (operation.isConstructorCall()) {
-      return shouldOmitConstructor(operation);
+      result = shouldOmitConstructor(operation);
+    } else if (operation.isMethodCall()) {
+      result = shouldOmitMethod(operation);
+    } else {
+      result = false;
     }
-
-    if (operation.isMethodCall()) {
-      return shouldOmitMethod(operation);
+    if (omitDecisions.size() < MAX_MEMOIZED_OPERATIONS) {
+      omitDecisions.put(operation, result);
     }
-
-    return false;
+    return result;
   }
 
   /**
@@ -210,18 +232,12 @@ public class OmitMethodsPredicate {
 
     String signature = operation.getRawSignature().toString();
 
-    for (Pattern pattern : omitPatterns) {
-      boolean result = pattern.matcher(signature).find();
-      if (logOmit) {
-        Log.logPrintf(
-            "shouldOmitExact(%s): \"%s\".matches(%s) => %s%n",
-            operation, pattern, signature, result);
-      }
-      if (result) {
-        return true;
-      }
+    boolean result = matcher.find(signature);
+    if (logOmit) {
+      Log.logPrintf(
+          "shouldOmitExact(%s): %s matched by %s => %s%n", operation, signature, this, result);
     }
-    return false;
+    return result;
   }
 
   @Override
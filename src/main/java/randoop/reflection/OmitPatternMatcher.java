@@ -0,0 +1,212 @@
+package randoop.reflection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Tests whether any of a list of omit patterns is found in a signature. The result is always the
+ * same as that of {@code pattern.matcher(signature).find()} for each pattern in turn, but the
+ * patterns are organized so that a signature is tested against few of them:
+ *
+ * <ul>
+ *   <li>A pattern such as {@code ^java\.util\.Random\.next} that starts with {@code ^} and a
+ *       literal prefix is indexed by that prefix in a trie. It is tried only on signatures that
+ *       start with the prefix.
+ *   <li>Other patterns are combined into one alternation, so that a signature is scanned once for
+ *       all of them.
+ *   <li>Patterns that cannot be safely combined, because they have flags, back references, named
+ *       groups, quoting, or embedded flags, are tried one by one.
+ * </ul>
+ */
+final class OmitPatternMatcher {
+
+  /** The root of the trie of literal prefixes of anchored patterns. */
+  private final TrieNode prefixes = new TrieNode();
+
+  /** The alternation of all combinable patterns that are not in the trie, or null if none. */
+  private final @Nullable Pattern combined;
+
+  /** The patterns that are tried one by one. */
+  private final List<Pattern> residual = new ArrayList<>();
+
+  /**
+   * Creates a matcher for the given patterns.
+   *
+   * @param patterns the patterns; may be empty
+   */
+  OmitPatternMatcher(List<Pattern> patterns) {
+    List<Pattern> combinable = new ArrayList<>();
+    for (Pattern pattern : patterns) {
+      if (!isCombinable(pattern)) {
+        residual.add(pattern);
+        continue;
+      }
+      String prefix = anchoredPrefix(pattern.pattern());
+      if (prefix.isEmpty()) {
+        combinable.add(pattern);
+      } else {
+        prefixes.add(prefix).patterns.add(pattern);
+      }
+    }
+    this.combined = combine(combinable);
+  }
+
+  /**
+   * Returns true if some pattern is found in the signature.
+   *
+   * @param signature a signature, as produced by {@link RawSignature#toString()}
+   * @return true if {@code pattern.matcher(signature).find()} is true for some pattern
+   */
+  boolean find(String signature) {
+    TrieNode node = prefixes;
+    for (int i = 0; i < signature.length(); i++) {
+      node = node.children.get(signature.charAt(i));
+      if (node == null) {
+        break;
+      }
+      for (Pattern pattern : node.patterns) {
+        if (pattern.matcher(signature).find()) {
+          return true;
+        }
+      }
+    }
+    if (combined != null && combined.matcher(signature).find()) {
+      return true;
+    }
+    for (Pattern pattern : residual) {
+      if (pattern.matcher(signature).find()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the alternation of the given patterns. If the alternation cannot be compiled, which
+   * should not happen, the patterns are added to {@link #residual} instead.
+   *
+   * @param patterns patterns that are combinable
+   * @return a pattern that is found in a string if any of the given patterns is, or null if there
+   *     are no patterns
+   */
+  private @Nullable Pattern combine(List<Pattern> patterns) {
+    if (patterns.isEmpty()) {
+      return null;
+    }
+    if (patterns.size() == 1) {
+      return patterns.get(0);
+    }
+    StringJoiner alternation = new StringJoiner("|");
+    for (Pattern pattern : patterns) {
+      alternation.add("(?:" + pattern.pattern() + ")");
+    }
+    try {
+      return Pattern.compile(alternation.toString());
+    } catch (PatternSyntaxException e) {
+      residual.addAll(patterns);
+      return null;
+    }
+  }
+
+  /**
+   * Returns true if the pattern means the same thing when it is wrapped in a non-capturing group
+   * and combined with other patterns. This is conservative: it may return false for a pattern that
+   * could be combined.
+   *
+   * @param pattern a pattern
+   * @return true if the pattern can be part of an alternation
+   */
+  static boolean isCombinable(Pattern pattern) {
+    if (pattern.flags() != 0) {
+      return false;
+    }
+    String regex = pattern.pattern();
+    for (int i = 0; i < regex.length() - 1; i++) {
+      char c = regex.charAt(i);
+      char next = regex.charAt(i + 1);
+      if (c == '\\') {
+        // A back reference's group number would change, and \Q might quote the closing paren.
+        if (Character.isDigit(next) || next == 'k' || next == 'Q') {
+          return false;
+        }
+        i++;
+      } else if (c == '(' && next == '?') {
+        // Allow only groups that do not set flags or define names.
+        String rest = regex.substring(i + 2);
+        if (!(rest.startsWith(":")
+            || rest.startsWith("=")
+            || rest.startsWith("!")
+            || rest.startsWith("<=")
+            || rest.startsWith("<!")
+            || rest.startsWith(">"))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the literal text that every match of the regular expression starts with, if the
+   * expression is anchored at the start of the input. Returns the empty string if the expression is
+   * not anchored, contains an alternation (which might not be anchored), or starts with a
+   * metacharacter.
+   *
+   * @param regex a combinable regular expression; see {@link #isCombinable}
+   * @return the literal prefix of every match, or the empty string
+   */
+  static String anchoredPrefix(String regex) {
+    if (!regex.startsWith("^") || regex.indexOf('|') != -1) {
+      return "";
+    }
+    StringBuilder prefix = new StringBuilder();
+    int i = 1;
+    while (i < regex.length()) {
+      char c = regex.charAt(i);
+      if (c == '\\' && i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+        prefix.append(regex.charAt(i + 1));
+        i += 2;
+      } else if (Character.isLetterOrDigit(c) || "_<>,;:/-'\"@# =&%!~`".indexOf(c) != -1) {
+        prefix.append(c);
+        i++;
+      } else {
+        break;
+      }
+    }
+    // A quantifier applies to the last literal character, which might not appear.
+    if (i < regex.length() && "?*{+".indexOf(regex.charAt(i)) != -1 && prefix.length() > 0) {
+      prefix.setLength(prefix.length() - 1);
+    }
+    return prefix.toString();
+  }
+
+  /** A node of the trie of literal prefixes. */
+  private static final class TrieNode {
+
+    /** The children of this node, by their character. */
+    final Map<Character, TrieNode> children = new HashMap<>();
+
+    /** The patterns whose literal prefix ends at this node. */
+    final List<Pattern> patterns = new ArrayList<>(0);
+
+    /**
+     * Returns the node for the given text below this node, creating nodes as needed.
+     *
+     * @param text the text
+     * @return the node at the end of the path for the text
+     */
+    TrieNode add(String text) {
+      TrieNode node = this;
+      for (int i = 0; i < text.length(); i++) {
+        node = node.children.computeIfAbsent(text.charAt(i), c -> new TrieNode());
+      }
+      return node;
+    }
+  }
+}
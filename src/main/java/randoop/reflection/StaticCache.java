@@ -1,19 +1,29 @@
 package randoop.reflection;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.main.RandoopBug;
 
-/** Stores the mutable state of a class, allowing it to be saved, printed and restored. */
+/**
+ * Stores the mutable state of a class, allowing it to be saved, printed and restored.
+ *
+ * <p>The fields are read and written through method handles that are created when the state is
+ * saved, so restoring the state does no reflective lookups or access checks.
+ */
 public class StaticCache {
 
   /** The class for which static state is to be saved. */
   private final Class<?> declaringClass;
 
-  /** The map from static fields to a value. */
-  private final Map<Field, Object> valueMap;
+  /** The map from static fields to their saved values. */
+  private final Map<Field, SavedField> valueMap;
 
   /**
    * Creates the cache object for a particular class. State is not saved until {@link #saveState()}
@@ -26,39 +36,118 @@ public class StaticCache {
     this.valueMap = new LinkedHashMap<>();
   }
 
+  /** The saved value of a static field, and handles that read and write the field. */
+  private static final class SavedField {
+
+    /** Reads the field; its type is {@code ()Object}. */
+    final MethodHandle getter;
+
+    /** Writes the field; its type is {@code (Object)void}. */
+    final MethodHandle setter;
+
+    /** True if the field has a primitive type, so that its values are compared with equals. */
+    final boolean isPrimitive;
+
+    /** The saved value. */
+    @Nullable Object value;
+
+    /**
+     * Creates a SavedField.
+     *
+     * @param field the field, which has been made accessible
+     * @throws IllegalAccessException if the field is not accessible
+     */
+    SavedField(Field field) throws IllegalAccessException {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      this.getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class));
+      this.setter =
+          lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class));
+      this.isPrimitive = field.getType().isPrimitive();
+    }
+
+    /**
+     * Returns the current value of the field.
+     *
+     * @return the current value of the field
+     */
+    @Nullable Object get() {
+      try {
+        return (Object) getter.invokeExact();
+      } catch (Throwable e) {
+        throw new RandoopBug("unable to read static field", e);
+      }
+    }
+
+    /**
+     * Sets the field to the given value.
+     *
+     * @param newValue the value
+     */
+    void set(@Nullable Object newValue) {
+      try {
+        setter.invokeExact(newValue);
+      } catch (Throwable e) {
+        throw new RandoopBug("unable to restore static field", e);
+      }
+    }
+  }
+
   /** Prints the fields and their values to standard output. */
   public void printCache() {
-    for (Map.Entry<Field, Object> entry : valueMap.entrySet()) {
+    for (Map.Entry<Field, SavedField> entry : valueMap.entrySet()) {
       System.out.println(
-          declaringClass.getName() + "." + entry.getKey().getName() + " = " + entry.getValue());
+          declaringClass.getName()
+              + "."
+              + entry.getKey().getName()
+              + " = "
+              + entry.getValue().value);
     }
   }
 
   /** Saves the state for the class in this object. Only saves non-final static fields. */
   public void saveState() {
     for (Field field : declaringClass.getDeclaredFields()) {
-      field.setAccessible(true);
       int mods = Modifier.fieldModifiers() & field.getModifiers();
       if (Modifier.isStatic(mods) && !Modifier.isFinal(mods)) {
-        Object value;
-        try {
-          value = field.get(null);
-        } catch (IllegalAccessException e) {
-          throw new RandoopBug("unable to save value of field " + field.getName());
+        SavedField saved = valueMap.get(field);
+        if (saved == null) {
+          field.setAccessible(true);
+          try {
+            saved = new SavedField(field);
+          } catch (IllegalAccessException e) {
+            throw new RandoopBug("unable to save value of field " + field.getName());
+          }
+          valueMap.put(field, saved);
         }
-        valueMap.put(field, value);
+        saved.value = saved.get();
       }
     }
   }
 
   /** Restores the saved state of the class in this object to previously saved values. */
   public void restoreState() {
-    for (Map.Entry<Field, Object> entry : valueMap.entrySet()) {
-      try {
-        entry.getKey().set(null, entry.getValue());
-      } catch (IllegalAccessException e) {
-        throw new RandoopBug("unable to save value of field " + entry.getKey());
+    for (SavedField saved : valueMap.values()) {
+      saved.set(saved.value);
+    }
+  }
+
+  /**
+   * Restores each field whose value differs from its saved value. A reference is compared by
+   * identity, so an object that was modified but not replaced is not restored.
+   *
+   * @return the number of fields that were restored
+   */
+  public int restoreChangedState() {
+    int restored = 0;
+    for (SavedField saved : valueMap.values()) {
+      @Nullable Object current = saved.get();
+      boolean changed =
+          saved.isPrimitive ? !Objects.equals(current, saved.value) : current != saved.value;
+      if (changed) {
+        saved.set(saved.value);
+        restored++;
       }
     }
+    return restored;
   }
 }
@@ -36,6 +36,8 @@ import randoop.types.JavaTypes;
 import randoop.types.ParameterizedType;
 import randoop.types.ReferenceType;
 import randoop.types.Type;
+import randoop.util.GenerationMetrics;
+import randoop.util.GenerationMetrics.Phase;
 import randoop.util.IdentityMultiMap;
 import randoop.util.Log;
 import randoop.util.ProgressDisplay;
@@ -105,6 +107,13 @@ public class ExecutableSequence {
    */
   public long exectime = -1;
 
+  /**
+   * The estimated number of bytes retained by the largest non-primitive value that this sequence
+   * creates, or 0 if sizes are not estimated. Set by the generator that creates this object, if
+   * {@link randoop.main.GenInputsAbstract#value_size_limit} is positive.
+   */
+  public long valueBytes = 0;
+
   /**
    * Flag to record whether execution of sequence has a null input.
    *
@@ -167,16 +176,16 @@ public class ExecutableSequence {
   }
 
   /**
-   * Returns this sequence as code. Similar to {@link Sequence#toCodeString()} except includes the
-   * checks.
+   * Returns this sequence as code, one element per statement. Similar to {@link
+   * Sequence#toCodeString()} except includes the checks, all of which are in the last element.
    *
    * <p>If for a given statement there is a check of type {@link randoop.test.ExceptionCheck}, that
    * check's pre-statement code is printed immediately before the statement, and its post-statement
    * code is printed immediately after the statement.
    *
-   * @return the sequence as a string
+   * @return the code for each statement of the sequence
    */
-  private List<String> toCodeLines() {
+  public List<String> toCodeLines() {
     List<String> lines = new ArrayList<>();
     // Note that sequence is side-effected by the loop.
     for (int i = 0; i < sequence.size(); i++) {
@@ -332,7 +341,10 @@ public class ExecutableSequence {
         }
 
         visitor.visitBeforeStatement(this, i);
+        long statementStart = GenerationMetrics.start();
         executeStatement(sequence, executionResults.outcomes, i, inputValues);
+        GenerationMetrics.record(
+            Phase.EXECUTION, sequence.getStatement(i).getOperation(), statementStart);
 
         // make sure statement executed
         ExecutionOutcome statementResult = getResult(i);
@@ -367,7 +379,9 @@ public class ExecutableSequence {
       // Phase 2 of specification checking: check for expected behavior after the call.
       // This is the only client call to generateTestChecks().
       if (Value.lastValueSizeOk(this)) {
+        long checkStart = GenerationMetrics.start();
         checks = gen.generateTestChecks(this);
+        GenerationMetrics.record(Phase.CHECK_GENERATION, sequence.getOperation(), checkStart);
       } else {
         Log.logPrintf(
             "Excluding from generateTestChecks due to value too large in last statement%n");
@@ -378,6 +392,52 @@ public class ExecutableSequence {
     }
   }
 
+  /**
+   * Records the outcome of executing this sequence somewhere else, such as in an execution worker,
+   * in place of calling {@link #execute}. The caller then records the checks, if any, with {@link
+   * #setChecks}.
+   *
+   * @param outcomes the outcome of each statement
+   * @param coveredClasses the classes covered by the execution
+   * @param exectime how long the execution took, in nanoseconds
+   */
+  public void setExecutionResults(
+      List<ExecutionOutcome> outcomes, Set<Class<?>> coveredClasses, long exectime) {
+    if (outcomes.size() != sequence.size()) {
+      throw new IllegalArgumentException(
+          String.format(
+              "%d outcomes for a sequence of %d statements", outcomes.size(), sequence.size()));
+    }
+    reset();
+    for (int i = 0; i < outcomes.size(); i++) {
+      executionResults.outcomes.set(i, outcomes.get(i));
+    }
+    for (Class<?> c : coveredClasses) {
+      executionResults.addCoveredClass(c);
+    }
+    this.exectime = exectime;
+  }
+
+  /**
+   * Records the checks of this sequence, whose outcome was recorded by {@link
+   * #setExecutionResults}.
+   *
+   * @param checks the checks of this sequence
+   */
+  public void setChecks(TestChecks<?> checks) {
+    this.checks = checks;
+  }
+
+  /**
+   * Returns true if checks were generated for the most recent execution of this sequence. They are
+   * not generated if the value created by the last statement is too large.
+   *
+   * @return true if this sequence has checks
+   */
+  public boolean checksGenerated() {
+    return checks != null;
+  }
+
   public Object[] getRuntimeInputs(List<Variable> inputs) {
     return getRuntimeInputs(executionResults.outcomes, inputs);
   }
@@ -860,6 +920,16 @@ public class ExecutableSequence {
     return executionResults.getCoveredClasses().contains(c);
   }
 
+  /**
+   * Returns the classes covered by the most recent execution of this sequence. Covered classes are
+   * recorded only for the classes given by {@code --require-covered-classes}.
+   *
+   * @return the classes covered by the sequence
+   */
+  public Set<Class<?>> getCoveredClasses() {
+    return Collections.unmodifiableSet(executionResults.getCoveredClasses());
+  }
+
   /**
    * Returns the operation from which this sequence was generated -- the operation of the last
    * statement of this sequence.
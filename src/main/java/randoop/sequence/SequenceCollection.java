@@ -1,7 +1,9 @@
 package randoop.sequence;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -12,6 +14,7 @@ import java.util.TreeSet;
 import org.checkerframework.checker.initialization.qual.UnknownInitialization;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.nullness.qual.RequiresNonNull;
 import org.plumelib.util.SIList;
 import org.plumelib.util.StringsPlume;
@@ -24,6 +27,7 @@ import randoop.reflection.TypeInstantiator;
 import randoop.types.ClassOrInterfaceType;
 import randoop.types.Type;
 import randoop.util.Log;
+import randoop.util.Randomness;
 
 /**
  * A collection of sequences that makes it efficient to ask for all the sequences that create a
@@ -33,6 +37,10 @@ import randoop.util.Log;
  * <p>To find all the sequences that create values of a given type, Randoop first uses the {@code
  * SubTypeSet} to find the set {@code T} of feasible subtypes, and returns the range of {@code T}
  * (that is, all the sequences mapped to by any t&isin;T) in the sequence map.
+ *
+ * <p>If a {@link SequenceSpillFile} is set, the collection has a second tier: {@link #spill} moves
+ * sequences into the file, keeping only a small record of each in memory, and {@link #pageIn} reads
+ * them back when they are needed as inputs.
  */
 public final class SequenceCollection {
 
@@ -59,6 +67,68 @@ public final class SequenceCollection {
   /** Number of sequences in the collection: sum of sizes of all values in sequenceMap. */
   private int sequenceCount = 0;
 
+  /** Incremented whenever sequences are added to or removed from this collection. */
+  private int modificationCount = 0;
+
+  /**
+   * For each type passed to {@link #getModificationCount}, the value of {@link #modificationCount}
+   * when the sequences that {@link #getSequencesForType} returns for the type last changed.
+   */
+  private Map<Type, Integer> queryModificationCounts = new HashMap<>();
+
+  /**
+   * For each type in {@link #typeSet}, the types in {@link #queryModificationCounts} that it
+   * matches. Adding a sequence of the type changes the modification counts of these types.
+   */
+  private Map<Type, List<Type>> matchingQueries = new HashMap<>();
+
+  /** The file that holds the sequences moved out of this collection, or null if there is none. */
+  private @Nullable SequenceSpillFile spillFile = null;
+
+  /**
+   * For each type, the records of the spilled sequences that produce a value of the type and have
+   * not been read back into this collection.
+   */
+  private final Map<Type, List<SpilledSequence>> spilledSequenceMap = new HashMap<>();
+
+  /** The types in {@link #spilledSequenceMap}. */
+  private final SubTypeSet spilledTypeSet = new SubTypeSet(false);
+
+  /** The records of the spilled sequences, indexed by fingerprint, for {@link #isSpilled}. */
+  private final Map<Integer, List<SpilledSequence>> spilledFingerprints = new HashMap<>();
+
+  /** The records of the spilled sequences that have been read back into this collection. */
+  private final Map<Sequence, SpilledSequence> pagedIn = new HashMap<>();
+
+  /** The number of sequences in {@link #spillFile}. */
+  private int spilledCount = 0;
+
+  /** The in-memory record of a sequence in {@link #spillFile}. */
+  private static final class SpilledSequence {
+
+    /** The offset of the sequence in the spill file. */
+    final long offset;
+
+    /** The hash code of the sequence, to check that it is read back correctly. */
+    final int fingerprint;
+
+    /** The types under which the sequence is stored, as computed by {@link #add}. */
+    final List<Type> types;
+
+    /**
+     * Creates a SpilledSequence.
+     *
+     * @param offset the offset of the sequence in the spill file
+     * @param fingerprint the hash code of the sequence
+     * @param types the types under which the sequence is stored
+     */
+    SpilledSequence(long offset, int fingerprint, List<Type> types) {
+      this.offset = offset;
+      this.fingerprint = fingerprint;
+      this.types = types;
+    }
+  }
+
   /**
    * SUT-parameter types that are not SUT-returned types. {@link
    * randoop.generation.DemandDrivenInputCreator} will create sequences for these types when no
@@ -94,6 +164,11 @@ public final class SequenceCollection {
     this.typeSet = new SubTypeSet(false);
     this.typesAndSupertypes = new TreeSet<>();
     this.sequenceCount = 0;
+    for (SpilledSequence record : pagedIn.values()) {
+      indexSpilled(record);
+    }
+    pagedIn.clear();
+    typeSetChanged();
     checkRep();
   }
 
@@ -176,9 +251,34 @@ public final class SequenceCollection {
    */
   @RequiresNonNull("this.sequenceMap")
   public void add(Sequence sequence) {
+    for (Type formalType : activeTypesOfLastStatement(sequence)) {
+      if (formalType.isClassOrInterfaceType()) {
+        // This adds all the supertypes, not just immediate ones.
+        typesAndSupertypes.addAll(((ClassOrInterfaceType) formalType).getSupertypesInclusive());
+      } else {
+        typesAndSupertypes.add(formalType);
+      }
+      if (!sequenceMap.containsKey(formalType)) {
+        typeSetChanged();
+      }
+      typeSet.add(formalType);
+      updateCompatibleMap(sequence, formalType);
+    }
+    checkRep();
+  }
+
+  /**
+   * Returns the types under which {@link #add} stores a sequence: the formal types of the variables
+   * of its last statement that are active. A type appears once for each such variable.
+   *
+   * @param sequence a sequence
+   * @return the types under which the sequence is stored
+   */
+  private static List<Type> activeTypesOfLastStatement(Sequence sequence) {
     List<Type> formalTypes = sequence.getTypesForLastStatement();
     List<Variable> arguments = sequence.getVariablesOfLastStatement();
     assert formalTypes.size() == arguments.size();
+    List<Type> result = new ArrayList<>(formalTypes.size());
     for (int i = 0; i < formalTypes.size(); i++) {
       Variable argument = arguments.get(i);
       Type formalType = formalTypes.get(i);
@@ -187,17 +287,271 @@ public final class SequenceCollection {
               + " should be assignable from "
               + argument.getType().getBinaryName();
       if (sequence.isActive(argument.getDeclIndex())) {
-        if (formalType.isClassOrInterfaceType()) {
-          // This adds all the supertypes, not just immediate ones.
-          typesAndSupertypes.addAll(((ClassOrInterfaceType) formalType).getSupertypesInclusive());
-        } else {
-          typesAndSupertypes.add(formalType);
+        result.add(formalType);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Removes the given sequences from this collection. A type for which no sequences remain is
+   * removed too, but its supertypes are still reported by {@link #getTypeInstantiator()}. Takes
+   * time proportional to the number of sequences of the types that the removed sequences produce.
+   *
+   * @param sequences the sequences to remove
+   * @return the number of sequences removed, counting a sequence once per type it produces
+   */
+  public int removeAll(Set<Sequence> sequences) {
+    if (sequences.isEmpty()) {
+      return 0;
+    }
+    Log.logPrintf("Removing %d sequences from sequence collection.%n", sequences.size());
+    for (Sequence s : sequences) {
+      SpilledSequence record = pagedIn.remove(s);
+      if (record != null) {
+        // The sequence is still in the spill file, and can be read back again.
+        indexSpilled(record);
+      }
+    }
+    // Only the lists of the types that the sequences produce change. The formal types of the last
+    // statement include those of its inactive variables, under which the sequence is not stored.
+    Set<Type> types = new LinkedHashSet<>();
+    for (Sequence s : sequences) {
+      types.addAll(s.getTypesForLastStatement());
+    }
+    int removed = 0;
+    boolean typeRemoved = false;
+    for (Type type : types) {
+      List<Sequence> oldList = sequenceMap.get(type);
+      if (oldList == null) {
+        continue;
+      }
+      // Build a new list rather than modifying the old one, which clients may hold views of.
+      List<Sequence> newList = new ArrayList<>(oldList.size());
+      for (Sequence s : oldList) {
+        if (!sequences.contains(s)) {
+          newList.add(s);
         }
-        typeSet.add(formalType);
-        updateCompatibleMap(sequence, formalType);
+      }
+      if (newList.size() == oldList.size()) {
+        continue;
+      }
+      removed += oldList.size() - newList.size();
+      if (newList.isEmpty()) {
+        sequenceMap.remove(type);
+        typeRemoved = true;
+      } else {
+        sequenceMap.put(type, newList);
+      }
+    }
+    if (typeRemoved) {
+      typeSet = new SubTypeSet(false);
+      for (Type t : sequenceMap.keySet()) {
+        typeSet.add(t);
       }
     }
+    sequenceCount -= removed;
+    typeSetChanged();
     checkRep();
+    return removed;
+  }
+
+  /**
+   * Sets the file into which {@link #spill} moves sequences.
+   *
+   * @param spillFile the spill file
+   */
+  public void setSpillFile(SequenceSpillFile spillFile) {
+    this.spillFile = spillFile;
+  }
+
+  /**
+   * Returns true if this collection has a spill file.
+   *
+   * @return true if {@link #spill} may be called
+   */
+  public boolean hasSpillFile() {
+    return spillFile != null;
+  }
+
+  /**
+   * Closes and deletes the spill file, and forgets the sequences in it. Afterward, this collection
+   * has no spill file. Does nothing if it has none.
+   *
+   * @throws IOException if the spill file cannot be closed or deleted
+   */
+  public void closeSpillFile() throws IOException {
+    SequenceSpillFile file = spillFile;
+    if (file == null) {
+      return;
+    }
+    spillFile = null;
+    spilledSequenceMap.clear();
+    spilledFingerprints.clear();
+    pagedIn.clear();
+    file.close();
+  }
+
+  /**
+   * Moves the given sequences from this collection into the spill file. Afterward, {@link #pageIn}
+   * may read them back. A sequence that was read back from the spill file is not written again.
+   *
+   * @param sequences the sequences to move
+   * @return the number of sequences written to the spill file
+   * @throws IOException if the spill file cannot be extended. Then some of the sequences may have
+   *     been written, but none has been removed from this collection.
+   */
+  public int spill(Set<Sequence> sequences) throws IOException {
+    SequenceSpillFile file = spillFile;
+    if (file == null) {
+      throw new IllegalStateException("spill() called without a spill file");
+    }
+    int written = 0;
+    for (Sequence sequence : sequences) {
+      if (pagedIn.containsKey(sequence)) {
+        continue;
+      }
+      List<Type> types = activeTypesOfLastStatement(sequence);
+      if (types.isEmpty()) {
+        continue;
+      }
+      long offset = file.append(sequence);
+      SpilledSequence record = new SpilledSequence(offset, sequence.hashCode(), types);
+      indexSpilled(record);
+      spilledFingerprints.computeIfAbsent(record.fingerprint, __ -> new ArrayList<>()).add(record);
+      spilledCount++;
+      written++;
+    }
+    removeAll(sequences);
+    return written;
+  }
+
+  /**
+   * Adds a record to {@link #spilledSequenceMap}, under each of its types.
+   *
+   * @param record the record of a spilled sequence that is not in this collection
+   */
+  private void indexSpilled(SpilledSequence record) {
+    for (Type type : record.types) {
+      spilledSequenceMap.computeIfAbsent(type, __ -> new ArrayList<>()).add(record);
+      spilledTypeSet.add(type);
+    }
+  }
+
+  /**
+   * Removes a record from {@link #spilledSequenceMap}, under each of its types.
+   *
+   * @param record the record of a spilled sequence that is being read back into this collection
+   */
+  private void unindexSpilled(SpilledSequence record) {
+    for (Type type : record.types) {
+      @SuppressWarnings("nullness:assignment") // the record is indexed under each of its types
+      @NonNull List<SpilledSequence> records = spilledSequenceMap.get(type);
+      // The order of the records does not matter, so move the last one into the vacated slot.
+      int index = records.indexOf(record);
+      SpilledSequence last = records.remove(records.size() - 1);
+      if (index < records.size()) {
+        records.set(index, last);
+      }
+    }
+  }
+
+  /**
+   * Returns true if the given sequence is in the spill file, whether or not it has been read back.
+   * Reads from the file only the sequences whose fingerprint matches.
+   *
+   * @param sequence a sequence
+   * @return true if an equal sequence was moved to the spill file
+   */
+  public boolean isSpilled(Sequence sequence) {
+    SequenceSpillFile file = spillFile;
+    if (file == null) {
+      return false;
+    }
+    List<SpilledSequence> records = spilledFingerprints.get(sequence.hashCode());
+    if (records == null) {
+      return false;
+    }
+    for (SpilledSequence record : records) {
+      if (file.read(record.offset).equals(sequence)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of sequences in the spill file.
+   *
+   * @return the number of spilled sequences, including those that have been read back
+   */
+  public int numSpilledSequences() {
+    return spilledCount;
+  }
+
+  /**
+   * Maybe reads back into this collection a spilled sequence that produces a value of the given
+   * type, or of a subtype. Each sequence of a matching type, whether in this collection or only in
+   * the spill file, is equally likely to be chosen; if the chosen sequence is in this collection,
+   * nothing is read. Sequences that have already been read back are indexed only as members of this
+   * collection, so each call takes time proportional to the number of matching types.
+   *
+   * <p>This lets sequences in the spill file be selected as inputs, without reading them back
+   * before they are needed.
+   *
+   * @param type the type desired for the sequences being sought
+   * @param onlyReceivers if true, only consider sequences that can be used as a method call
+   *     receiver
+   * @return the sequence that was read back, or null if none was
+   */
+  public @Nullable Sequence pageIn(Type type, boolean onlyReceivers) {
+    SequenceSpillFile file = spillFile;
+    if (file == null || spilledCount == 0) {
+      return null;
+    }
+    int inMemory = 0;
+    for (Type match : typeSet.getMatches(type)) {
+      if (!(onlyReceivers && match.isNonreceiverType())) {
+        @SuppressWarnings("nullness:assignment") // map key
+        @NonNull List<Sequence> sequences = sequenceMap.get(match);
+        inMemory += sequences.size();
+      }
+    }
+    List<List<SpilledSequence>> spilledLists = new ArrayList<>();
+    int spilled = 0;
+    for (Type match : spilledTypeSet.getMatches(type)) {
+      if (!(onlyReceivers && match.isNonreceiverType())) {
+        @SuppressWarnings("nullness:assignment") // map key
+        @NonNull List<SpilledSequence> records = spilledSequenceMap.get(match);
+        spilledLists.add(records);
+        spilled += records.size();
+      }
+    }
+    if (spilled == 0) {
+      return null;
+    }
+    int index = Randomness.nextRandomInt(inMemory + spilled) - inMemory;
+    if (index < 0) {
+      return null;
+    }
+    SpilledSequence record = null;
+    for (List<SpilledSequence> records : spilledLists) {
+      if (index < records.size()) {
+        record = records.get(index);
+        break;
+      }
+      index -= records.size();
+    }
+    assert record != null : "@AssumeAssertion(nullness): index < spilled";
+    Sequence sequence = file.read(record.offset);
+    if (sequence.hashCode() != record.fingerprint) {
+      throw new RandoopBug("Sequence read back from spill file differs from the one written");
+    }
+    unindexSpilled(record);
+    pagedIn.put(sequence, record);
+    Log.logPrintf("Read back spilled sequence of type %s%n", type);
+    add(sequence);
+    return sequence;
   }
 
   /**
@@ -238,6 +592,46 @@ public final class SequenceCollection {
     boolean added = sequences.add(sequence);
     assert added;
     sequenceCount++;
+    modificationCount++;
+    List<Type> queries = matchingQueries.get(type);
+    if (queries != null) {
+      for (Type query : queries) {
+        queryModificationCounts.put(query, modificationCount);
+      }
+    }
+  }
+
+  /**
+   * Records that types may have been added to or removed from {@link #typeSet}, which may change
+   * the result of {@link #getSequencesForType} for any type.
+   */
+  private void typeSetChanged() {
+    modificationCount++;
+    queryModificationCounts = new HashMap<>();
+    matchingQueries = new HashMap<>();
+  }
+
+  /**
+   * Returns a number that changes whenever the sequences that {@code getSequencesForType(type,
+   * false, onlyReceivers)} returns may change, for either value of {@code onlyReceivers}. Clients
+   * can use it to decide whether a result they computed earlier is still current. The result is
+   * unrelated to the sequences that demand-driven input creation finds for the type.
+   *
+   * <p>After the first call for a type, this takes constant time.
+   *
+   * @param type the type desired for the sequences being sought
+   * @return the modification count for queries of {@code type}
+   */
+  public int getModificationCount(Type type) {
+    Integer count = queryModificationCounts.get(type);
+    if (count != null) {
+      return count;
+    }
+    for (Type match : typeSet.getMatches(type)) {
+      matchingQueries.computeIfAbsent(match, __ -> new ArrayList<>()).add(type);
+    }
+    queryModificationCounts.put(type, modificationCount);
+    return modificationCount;
   }
 
   /**
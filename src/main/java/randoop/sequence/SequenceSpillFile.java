@@ -0,0 +1,284 @@
+package randoop.sequence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.plumelib.util.SIList;
+import randoop.main.RandoopBug;
+import randoop.operation.TypedOperation;
+
+/**
+ * An append-only file of sequences, mapped into memory outside the Java heap. It holds sequences
+ * that Randoop moves out of the component pool, so that they take no heap space until they are read
+ * back.
+ *
+ * <p>Each sequence is stored as a compact binary record. Operations are interned: the file refers
+ * to each operation by a number, and only the table of distinct operations stays on the heap. A
+ * record consists of, each as an unsigned variable-length integer:
+ *
+ * <ul>
+ *   <li>the number of statements, times 2, plus 1 if literals are not inlined in the sequence;
+ *   <li>for each statement, the number of its operation, the number of its inputs, and the distance
+ *       back from the statement to the statement that creates each input;
+ *   <li>the number of inactive statements, followed by their indices.
+ * </ul>
+ *
+ * <p>The file is mapped in chunks of equal size, and a record never spans two chunks.
+ */
+public final class SequenceSpillFile implements Closeable {
+
+  /** The default size of a mapped chunk of the file, in bytes. */
+  static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+  /** The file. */
+  private final Path file;
+
+  /** The channel through which the file is mapped. */
+  private final FileChannel channel;
+
+  /** The size of a mapped chunk of the file, in bytes. */
+  private final int chunkSize;
+
+  /** The mapped chunks of the file, in order. */
+  private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+  /** The offset in the last chunk at which the next record is written. */
+  private int position;
+
+  /** The number of each interned operation. */
+  private final Map<TypedOperation, Integer> operationNumbers = new HashMap<>();
+
+  /** The interned operations, indexed by number. */
+  private final List<TypedOperation> operations = new ArrayList<>();
+
+  /** The bytes of the record being written. */
+  private byte[] record = new byte[256];
+
+  /** The number of bytes of {@link #record} in use. */
+  private int recordLength;
+
+  /**
+   * Creates an empty spill file, replacing any existing file.
+   *
+   * @param file the file
+   * @throws IOException if the file cannot be created
+   */
+  public SequenceSpillFile(Path file) throws IOException {
+    this(file, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates an empty spill file, replacing any existing file.
+   *
+   * @param file the file
+   * @param chunkSize the size of a mapped chunk of the file, in bytes
+   * @throws IOException if the file cannot be created
+   */
+  SequenceSpillFile(Path file, int chunkSize) throws IOException {
+    this.file = file;
+    this.chunkSize = chunkSize;
+    this.channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    // Start with a full chunk, so that the first append maps one.
+    this.position = chunkSize;
+  }
+
+  /**
+   * Appends a sequence to this file.
+   *
+   * @param sequence the sequence to append
+   * @return the offset of the record of the sequence, to pass to {@link #read}
+   * @throws IOException if the file cannot be extended
+   */
+  public long append(Sequence sequence) throws IOException {
+    encode(sequence);
+    if (recordLength > chunkSize) {
+      throw new IllegalArgumentException(
+          String.format("Record of %d bytes exceeds chunk size %d", recordLength, chunkSize));
+    }
+    if (position + recordLength > chunkSize) {
+      long chunkStart = (long) chunks.size() * chunkSize;
+      chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, chunkSize));
+      position = 0;
+    }
+    MappedByteBuffer chunk = chunks.get(chunks.size() - 1);
+    for (int i = 0; i < recordLength; i++) {
+      chunk.put(position + i, record[i]);
+    }
+    long offset = (long) (chunks.size() - 1) * chunkSize + position;
+    position += recordLength;
+    return offset;
+  }
+
+  /**
+   * Reads the sequence whose record starts at the given offset.
+   *
+   * @param offset an offset returned by {@link #append}
+   * @return the sequence, equal to the one that was appended
+   */
+  public Sequence read(long offset) {
+    Reader reader =
+        new Reader(chunks.get((int) (offset / chunkSize)), (int) (offset % chunkSize));
+    int header = reader.next();
+    int size = header >>> 1;
+    List<Statement> statements = new ArrayList<>(size);
+    List<Sequence.RelativeNegativeIndex> inputs = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      TypedOperation operation = operations.get(reader.next());
+      int numInputs = reader.next();
+      inputs.clear();
+      for (int j = 0; j < numInputs; j++) {
+        inputs.add(new Sequence.RelativeNegativeIndex(-reader.next()));
+      }
+      // The Statement constructor copies the inputs.
+      statements.add(new Statement(operation, inputs));
+    }
+    Sequence result = new Sequence(SIList.from(statements));
+    int numInactive = reader.next();
+    for (int i = 0; i < numInactive; i++) {
+      result.clearActiveFlag(reader.next());
+    }
+    if ((header & 1) != 0) {
+      result.doNotInlineLiterals();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of bytes of this file that are mapped into memory.
+   *
+   * @return the mapped size of this file
+   */
+  public long mappedSize() {
+    return (long) chunks.size() * chunkSize;
+  }
+
+  /**
+   * Returns the number of distinct operations in the sequences in this file.
+   *
+   * @return the number of interned operations
+   */
+  public int numOperations() {
+    return operations.size();
+  }
+
+  /**
+   * Closes and deletes this file. The mapped chunks stay valid until they are garbage-collected,
+   * but this must not be used afterward.
+   *
+   * @throws IOException if the file cannot be closed or deleted
+   */
+  @Override
+  public void close() throws IOException {
+    chunks.clear();
+    channel.close();
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Sets {@link #record} to the encoding of a sequence.
+   *
+   * @param sequence the sequence to encode
+   */
+  private void encode(Sequence sequence) {
+    recordLength = 0;
+    int size = sequence.size();
+    writeInt(size * 2 + (sequence.shouldInlineLiterals() ? 0 : 1));
+    int numInactive = 0;
+    for (int i = 0; i < size; i++) {
+      Statement statement = sequence.getStatement(i);
+      TypedOperation operation = statement.getOperation();
+      Integer number = operationNumbers.get(operation);
+      if (number == null) {
+        number = operations.size();
+        operationNumbers.put(operation, number);
+        operations.add(operation);
+      }
+      writeInt(number);
+      writeInt(statement.inputs.size());
+      for (Sequence.RelativeNegativeIndex input : statement.inputs) {
+        writeInt(-input.index);
+      }
+      if (!sequence.isActive(i)) {
+        numInactive++;
+      }
+    }
+    writeInt(numInactive);
+    for (int i = 0; i < size; i++) {
+      if (!sequence.isActive(i)) {
+        writeInt(i);
+      }
+    }
+  }
+
+  /**
+   * Appends a non-negative integer to {@link #record}, 7 bits per byte, low bits first.
+   *
+   * @param value the integer to append
+   */
+  private void writeInt(int value) {
+    if (value < 0) {
+      throw new RandoopBug("Negative value in sequence record: " + value);
+    }
+    if (recordLength + 5 > record.length) {
+      record = Arrays.copyOf(record, record.length * 2);
+    }
+    while (value >= 0x80) {
+      record[recordLength++] = (byte) (value | 0x80);
+      value >>>= 7;
+    }
+    record[recordLength++] = (byte) value;
+  }
+
+  /** Reads the integers of a record. */
+  private static final class Reader {
+
+    /** The chunk that holds the record. */
+    private final MappedByteBuffer chunk;
+
+    /** The offset in the chunk of the next byte to read. */
+    private int position;
+
+    /**
+     * Creates a Reader.
+     *
+     * @param chunk the chunk that holds the record
+     * @param position the offset in the chunk of the record
+     */
+    Reader(MappedByteBuffer chunk, int position) {
+      this.chunk = chunk;
+      this.position = position;
+    }
+
+    /**
+     * Reads the next integer of the record.
+     *
+     * @return the next integer
+     */
+    int next() {
+      int result = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = chunk.get(position++);
+        result |= (b & 0x7f) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return result;
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package randoop.sequence;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Reads and writes files of sequences in the format of {@link Sequence#toParsableString()}. Each
+ * sequence is preceded by a line consisting of {@link #SEQUENCE_MARKER}, and, if some of its
+ * statements are not active, by a line consisting of {@link #INACTIVE_MARKER} followed by their
+ * indices.
+ *
+ * <p>This is used to pass sequences between Randoop processes, for example between the shards of a
+ * multi-process run, and to save them in checkpoints.
+ */
+public final class SequenceTextFile {
+
+  /** The line that precedes each sequence in a file. */
+  static final String SEQUENCE_MARKER = "# sequence";
+
+  /** The prefix of the line that lists the inactive statements of a sequence. */
+  static final String INACTIVE_MARKER = "# inactive";
+
+  /** Do not instantiate. */
+  private SequenceTextFile() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Writes the given sequences to a file. The file is written under a temporary name and then
+   * renamed, so a concurrent reader never sees a partially-written file.
+   *
+   * @param file the file to write
+   * @param sequences the sequences to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path file, Collection<Sequence> sequences) throws IOException {
+    Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try (BufferedWriter w = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+      w.write(format(sequences));
+    }
+    Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Returns the text that {@link #write} writes for the given sequences. The text of several
+   * collections of sequences can be concatenated.
+   *
+   * @param sequences the sequences to format
+   * @return the lines for the sequences, each terminated by a line separator
+   */
+  public static String format(Collection<Sequence> sequences) {
+    String lineSep = System.lineSeparator();
+    StringBuilder sb = new StringBuilder();
+    for (Sequence sequence : sequences) {
+      sb.append(SEQUENCE_MARKER).append(lineSep);
+      StringBuilder inactive = new StringBuilder();
+      for (int i = 0; i < sequence.size(); i++) {
+        if (!sequence.isActive(i)) {
+          inactive.append(' ').append(i);
+        }
+      }
+      if (inactive.length() > 0) {
+        sb.append(INACTIVE_MARKER).append(inactive).append(lineSep);
+      }
+      for (String statement : sequence.toParsableString().split("\\R")) {
+        sb.append(statement).append(lineSep);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Reads the sequences in a file written by {@link #write}.
+   *
+   * @param file the file to read
+   * @return the sequences in the file, in order
+   * @throws IOException if the file cannot be read
+   * @throws SequenceParseException if a sequence in the file cannot be parsed
+   */
+  public static List<Sequence> read(Path file) throws IOException, SequenceParseException {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return parse(reader);
+    }
+  }
+
+  /**
+   * Parses the sequences in text returned by {@link #format}.
+   *
+   * @param lines the lines of the text
+   * @return the sequences in the text, in order
+   * @throws SequenceParseException if a sequence in the text cannot be parsed
+   */
+  public static List<Sequence> parse(List<String> lines) throws SequenceParseException {
+    Parser parser = new Parser();
+    for (String line : lines) {
+      parser.parseLine(line);
+    }
+    return parser.finish();
+  }
+
+  /**
+   * Parses the sequences in text returned by {@link #format}, reading it one line at a time.
+   *
+   * @param reader the reader of the text
+   * @return the sequences in the text, in order
+   * @throws IOException if the text cannot be read
+   * @throws SequenceParseException if a sequence in the text cannot be parsed
+   */
+  public static List<Sequence> parse(BufferedReader reader)
+      throws IOException, SequenceParseException {
+    Parser parser = new Parser();
+    String line;
+    while ((line = reader.readLine()) != null) {
+      parser.parseLine(line);
+    }
+    return parser.finish();
+  }
+
+  /** Parses the lines of text returned by {@link #format}, in order. */
+  private static final class Parser {
+
+    /** The sequences parsed so far. */
+    private final List<Sequence> result = new ArrayList<>();
+
+    /** The statements of the current sequence. */
+    private List<String> statements = new ArrayList<>();
+
+    /** The indices of the inactive statements of the current sequence, or null if none. */
+    private @Nullable String inactive = null;
+
+    /** True if a sequence marker has been read. */
+    private boolean inSequence = false;
+
+    /**
+     * Parses the next line of the text.
+     *
+     * @param line the line
+     * @throws SequenceParseException if the line ends a sequence that cannot be parsed
+     */
+    void parseLine(String line) throws SequenceParseException {
+      if (line.equals(SEQUENCE_MARKER)) {
+        if (inSequence) {
+          result.add(parseSequence(statements, inactive));
+        }
+        statements = new ArrayList<>();
+        inactive = null;
+        inSequence = true;
+      } else if (line.startsWith(INACTIVE_MARKER)) {
+        inactive = line.substring(INACTIVE_MARKER.length()).trim();
+      } else if (!line.isEmpty()) {
+        statements.add(line);
+      }
+    }
+
+    /**
+     * Parses the last sequence, and returns all the sequences.
+     *
+     * @return the sequences in the text, in order
+     * @throws SequenceParseException if the last sequence cannot be parsed
+     */
+    List<Sequence> finish() throws SequenceParseException {
+      if (inSequence) {
+        result.add(parseSequence(statements, inactive));
+        inSequence = false;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Parses a sequence and clears the active flags of its inactive statements.
+   *
+   * @param statements the statements of the sequence
+   * @param inactive the indices of the inactive statements, separated by spaces; null if all the
+   *     statements are active
+   * @return the sequence
+   * @throws SequenceParseException if the sequence cannot be parsed
+   */
+  private static Sequence parseSequence(List<String> statements, @Nullable String inactive)
+      throws SequenceParseException {
+    Sequence sequence = Sequence.parse(statements);
+    if (inactive == null || inactive.isEmpty()) {
+      return sequence;
+    }
+    for (String index : inactive.split(" +")) {
+      try {
+        sequence.clearActiveFlag(Integer.parseInt(index));
+      } catch (NumberFormatException e) {
+        throw new SequenceParseException(
+            "Bad inactive statement index: " + index, statements, statements.size());
+      }
+    }
+    return sequence;
+  }
+}
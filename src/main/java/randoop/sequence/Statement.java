@@ -119,7 +119,8 @@ public final class Statement {
     StringBuilder b = new StringBuilder();
     b.append(variableName);
     b.append(" =  ");
-    b.append(operation.getClass().getSimpleName());
+    // The name of the untyped operation, which OperationParser uses to choose a parser.
+    b.append(operation.getOperation().getClass().getSimpleName());
     b.append(" : ");
     b.append(operation.toParsableString());
     b.append(" : ");
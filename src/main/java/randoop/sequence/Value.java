@@ -8,6 +8,7 @@ import org.plumelib.util.StringsPlume;
 import randoop.ExecutionOutcome;
 import randoop.NormalExecution;
 import randoop.contract.EnumValue;
+import randoop.execution.WorkerValue;
 import randoop.main.GenInputsAbstract;
 import randoop.main.RandoopBug;
 import randoop.types.JavaTypes;
@@ -268,6 +269,9 @@ public final class Value {
     if (v.getClass().isArray()) {
       return arrayLengthOk(v);
     }
+    if (v instanceof WorkerValue && ((WorkerValue) v).isArray()) {
+      return ((WorkerValue) v).getArrayLength() <= GenInputsAbstract.string_maxlen;
+    }
     return true;
   }
 
@@ -0,0 +1,493 @@
+package randoop.test;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.plumelib.util.StringsPlume;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.contract.EnumValue;
+import randoop.contract.IsNotNull;
+import randoop.contract.IsNull;
+import randoop.contract.ObjectContract;
+import randoop.contract.ObserverEqArray;
+import randoop.contract.ObserverEqValue;
+import randoop.contract.PrimValue;
+import randoop.operation.OperationParseException;
+import randoop.operation.OperationParser;
+import randoop.operation.TypedOperation;
+import randoop.reflection.AccessibilityPredicate;
+import randoop.reflection.TypeNames;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Variable;
+import randoop.types.Type;
+
+/**
+ * Writes the regression checks of a sequence as lines of text, and reads them back. Execution
+ * workers use these lines to send checks to the generator, and replay files use them to store
+ * checks. Workers also use them to send the failing check of an error-revealing sequence.
+ *
+ * <p>Each line starts with a tag and the index of the statement whose value it checks; the fields
+ * of a line are separated by tabs:
+ *
+ * <ul>
+ *   <li>{@code #null<TAB>i} and {@code #notnull<TAB>i}: the value is null, or not null.
+ *   <li>{@code #value<TAB>i<TAB>v}: the value is the primitive, string, or enum constant {@code v}.
+ *   <li>{@code #array<TAB>i<TAB>c<TAB>v...}: the value is an array with component class {@code c}
+ *       and the given elements.
+ *   <li>{@code #observer<TAB>i<TAB>op<TAB>v}: the observer {@code op}, called on the value, returns
+ *       {@code v}.
+ *   <li>{@code #throws<TAB>i<TAB>c} and {@code #may-throw<TAB>i<TAB>c}: the statement throws, or
+ *       may throw, an exception of class {@code c}.
+ *   <li>{@code #no-exception<TAB>i<TAB>c}: the statement threw an exception of class {@code c},
+ *       which reveals an error.
+ *   <li>{@code #violates<TAB>i<TAB>c<TAB>j...}: the values of statement {@code i} and of the
+ *       further statements {@code j...} violate the built-in contract {@code c}, a class in {@code
+ *       randoop.contract} with a {@code getInstance()} method.
+ * </ul>
+ *
+ * A value {@code v} is written by {@link #encodeValue}.
+ */
+public final class CheckLines {
+
+  /** The tag of a check that a value is null. */
+  private static final String NULL = "#null";
+
+  /** The tag of a check that a value is not null. */
+  private static final String NOT_NULL = "#notnull";
+
+  /** The tag of a check that a value is a given primitive, string, or enum constant. */
+  private static final String VALUE = "#value";
+
+  /** The tag of a check that a value is an array with given elements. */
+  private static final String ARRAY = "#array";
+
+  /** The tag of a check that an observer returns a given value. */
+  private static final String OBSERVER = "#observer";
+
+  /** The tag of a check that a statement throws an exception. */
+  public static final String THROWS = "#throws";
+
+  /** The tag of a check that a statement may throw an exception. */
+  public static final String MAY_THROW = "#may-throw";
+
+  /** The tag of a check that a statement threw an exception that reveals an error. */
+  private static final String NO_EXCEPTION = "#no-exception";
+
+  /** The tag of a check that values violate a built-in contract. */
+  private static final String VIOLATES = "#violates";
+
+  /** Do not instantiate. */
+  private CheckLines() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Returns the lines for regression checks, or null if one of the checks is not of a kind listed
+   * in the {@link CheckLines} documentation.
+   *
+   * @param checks the regression checks of a sequence
+   * @return the lines for the checks, each ending with a line terminator, or null
+   */
+  public static @Nullable String write(RegressionChecks checks) {
+    StringBuilder b = new StringBuilder();
+    for (Check check : checks.checks()) {
+      String line = checkLine(check);
+      if (line == null) {
+        return null;
+      }
+      b.append(line).append('\n');
+    }
+    ExceptionCheck exceptionCheck = checks.getExceptionCheck();
+    if (exceptionCheck != null) {
+      String tag;
+      if (exceptionCheck instanceof ExpectedExceptionCheck) {
+        tag = THROWS;
+      } else if (exceptionCheck instanceof EmptyExceptionCheck) {
+        tag = MAY_THROW;
+      } else {
+        return null;
+      }
+      String catchClassName = exceptionCheck.getCatchClassName();
+      if (catchClassName == null) {
+        return null;
+      }
+      b.append(tag)
+          .append('\t')
+          .append(exceptionCheck.getStatementIndex())
+          .append('\t')
+          .append(catchClassName)
+          .append('\n');
+    }
+    return b.toString();
+  }
+
+  /**
+   * Returns the line for the failing check of an error-revealing sequence, or null if it is not of
+   * a kind listed in the {@link CheckLines} documentation: for example, if it is a failed
+   * postcondition of a specification.
+   *
+   * @param checks the error-revealing checks of a sequence
+   * @return the line for the failing check, ending with a line terminator, or null
+   */
+  public static @Nullable String writeFailure(ErrorRevealingChecks checks) {
+    if (checks.count() != 1) {
+      return null;
+    }
+    Check check = checks.checks().iterator().next();
+    if (check instanceof NoExceptionCheck) {
+      NoExceptionCheck noExceptionCheck = (NoExceptionCheck) check;
+      String exceptionName = noExceptionCheck.getExceptionName();
+      return join(NO_EXCEPTION, noExceptionCheck.getStatementIndex(), exceptionName) + "\n";
+    }
+    if (!(check instanceof ObjectCheck)) {
+      return null;
+    }
+    ObjectCheck objectCheck = (ObjectCheck) check;
+    ObjectContract contract = objectCheck.getContract();
+    String contractName = contract.getClass().getName();
+    try {
+      if (builtInContract(contractName) != contract) {
+        return null;
+      }
+    } catch (ClassNotFoundException | RuntimeException e) {
+      return null;
+    }
+    Variable[] vars = objectCheck.getVars();
+    if (vars.length == 0) {
+      return null;
+    }
+    StringBuilder b = new StringBuilder();
+    b.append(VIOLATES).append('\t').append(vars[0].getDeclIndex());
+    b.append('\t').append(contractName);
+    for (int i = 1; i < vars.length; i++) {
+      b.append('\t').append(vars[i].getDeclIndex());
+    }
+    return b.append('\n').toString();
+  }
+
+  /**
+   * Returns the line for a check, or null if the check cannot be represented.
+   *
+   * @param check a check of a regression test
+   * @return the line for the check, without a line terminator, or null
+   */
+  private static @Nullable String checkLine(Check check) {
+    if (!(check instanceof ObjectCheck)) {
+      return null;
+    }
+    ObjectCheck objectCheck = (ObjectCheck) check;
+    Variable[] vars = objectCheck.getVars();
+    if (vars.length != 1) {
+      return null;
+    }
+    int index = vars[0].getDeclIndex();
+    ObjectContract contract = objectCheck.getContract();
+    if (contract instanceof IsNull) {
+      return NULL + "\t" + index;
+    } else if (contract instanceof IsNotNull) {
+      return NOT_NULL + "\t" + index;
+    } else if (contract instanceof PrimValue) {
+      return join(VALUE, index, encodeValue(((PrimValue) contract).value));
+    } else if (contract instanceof EnumValue) {
+      return join(VALUE, index, encodeValue(((EnumValue) contract).value));
+    } else if (contract instanceof ObserverEqValue) {
+      ObserverEqValue observerEqValue = (ObserverEqValue) contract;
+      TypedOperation observer = observerEqValue.observer;
+      String operation =
+          observer.getOperation().getClass().getSimpleName() + " : " + observer.toParsableString();
+      String value = encodeValue(observerEqValue.value);
+      return value == null ? null : join(OBSERVER, index, operation, value);
+    } else if (contract instanceof ObserverEqArray) {
+      Object array = ((ObserverEqArray) contract).getValue();
+      StringBuilder b = new StringBuilder();
+      b.append(ARRAY).append('\t').append(index);
+      b.append('\t').append(array.getClass().getComponentType().getName());
+      for (int i = 0; i < Array.getLength(array); i++) {
+        String element = encodeValue(Array.get(array, i));
+        if (element == null) {
+          return null;
+        }
+        b.append('\t').append(element);
+      }
+      return b.toString();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Joins a tag, a statement index, and further fields with tabs.
+   *
+   * @param tag the tag of the line
+   * @param index the index of the statement
+   * @param fields the further fields; if any is null, the result is null
+   * @return the line, or null if a field is null
+   */
+  private static @Nullable String join(String tag, int index, @Nullable String... fields) {
+    StringBuilder b = new StringBuilder();
+    b.append(tag).append('\t').append(index);
+    for (String field : fields) {
+      if (field == null) {
+        return null;
+      }
+      b.append('\t').append(field);
+    }
+    return b.toString();
+  }
+
+  /**
+   * Returns the text for a value in a check, or null if the value cannot be represented. The text
+   * is a one-letter tag, a colon, and the value, or "null".
+   *
+   * @param value a primitive, string, enum constant, class, or null
+   * @return the text for the value, or null if it cannot be represented
+   */
+  public static @Nullable String encodeValue(@Nullable Object value) {
+    if (value == null) {
+      return "null";
+    } else if (value instanceof Boolean) {
+      return "Z:" + value;
+    } else if (value instanceof Byte) {
+      return "B:" + value;
+    } else if (value instanceof Short) {
+      return "S:" + value;
+    } else if (value instanceof Character) {
+      return "C:" + (int) (Character) value;
+    } else if (value instanceof Integer) {
+      return "I:" + value;
+    } else if (value instanceof Long) {
+      return "J:" + value;
+    } else if (value instanceof Float) {
+      return "F:" + value;
+    } else if (value instanceof Double) {
+      return "D:" + value;
+    } else if (value instanceof String) {
+      return "T:" + StringsPlume.escapeJava((String) value);
+    } else if (value instanceof Enum) {
+      Enum<?> e = (Enum<?>) value;
+      return "E:" + e.getDeclaringClass().getName() + ":" + e.name();
+    } else if (value instanceof Class) {
+      return "K:" + ((Class<?>) value).getName();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the value for text written by {@link #encodeValue}.
+   *
+   * @param text the text for a value
+   * @return the value
+   * @throws ClassNotFoundException if the value is an enum constant or class that cannot be loaded
+   */
+  public static @Nullable Object decodeValue(String text) throws ClassNotFoundException {
+    if (text.equals("null")) {
+      return null;
+    }
+    if (text.length() < 2 || text.charAt(1) != ':') {
+      throw new IllegalArgumentException("Malformed value: " + text);
+    }
+    String rest = text.substring(2);
+    switch (text.charAt(0)) {
+      case 'Z':
+        return Boolean.valueOf(rest);
+      case 'B':
+        return Byte.valueOf(rest);
+      case 'S':
+        return Short.valueOf(rest);
+      case 'C':
+        return (char) Integer.parseInt(rest);
+      case 'I':
+        return Integer.valueOf(rest);
+      case 'J':
+        return Long.valueOf(rest);
+      case 'F':
+        return Float.valueOf(rest);
+      case 'D':
+        return Double.valueOf(rest);
+      case 'T':
+        return StringsPlume.unescapeJava(rest);
+      case 'E':
+        int colon = rest.lastIndexOf(':');
+        String constantName = rest.substring(colon + 1);
+        for (Object constant : classForName(rest.substring(0, colon)).getEnumConstants()) {
+          if (((Enum<?>) constant).name().equals(constantName)) {
+            return constant;
+          }
+        }
+        throw new IllegalArgumentException("No enum constant: " + text);
+      case 'K':
+        return classForName(rest);
+      default:
+        throw new IllegalArgumentException("Malformed value: " + text);
+    }
+  }
+
+  /**
+   * Returns the class with the given name.
+   *
+   * @param name the name of a class, as returned by {@link Class#getName}, or of a primitive type
+   * @return the class
+   * @throws ClassNotFoundException if the class cannot be loaded
+   */
+  @SuppressWarnings("signature") // read from text written with Class.getName()
+  private static Class<?> classForName(String name) throws ClassNotFoundException {
+    return TypeNames.getTypeForName(name);
+  }
+
+  /**
+   * Returns the regression checks in lines written by {@link #write}, for a sequence that has been
+   * executed. The checks refer to the variables of the given sequence.
+   *
+   * @param lines the lines for the checks
+   * @param test the sequence whose checks were written, whose outcomes have been recorded
+   * @return the checks in the lines
+   * @throws IOException if a line is malformed, or refers to an operation or class that cannot be
+   *     loaded, or expects an exception that the statement did not throw
+   */
+  public static RegressionChecks read(String lines, ExecutableSequence test) throws IOException {
+    Set<Check> checks = new LinkedHashSet<>();
+    @Nullable ExceptionCheck exceptionCheck = null;
+    try {
+      for (String line : lines.split("\\R")) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        String[] fields = line.split("\t", -1);
+        String tag = fields[0];
+        int index = Integer.parseInt(fields[1]);
+        if (tag.equals(THROWS) || tag.equals(MAY_THROW)) {
+          ExecutionOutcome outcome = test.getResult(index);
+          if (!(outcome instanceof ExceptionalExecution)) {
+            throw new IllegalArgumentException("Statement " + index + " threw no exception");
+          }
+          Throwable exception = ((ExceptionalExecution) outcome).getException();
+          exceptionCheck =
+              tag.equals(THROWS)
+                  ? new ExpectedExceptionCheck(exception, index, fields[2])
+                  : new EmptyExceptionCheck(exception, index, fields[2]);
+          continue;
+        }
+        checks.add(parseCheck(fields, test.sequence.getVariable(index)));
+      }
+    } catch (OperationParseException | ClassNotFoundException | RuntimeException e) {
+      throw new IOException("Cannot read checks: " + e.getMessage(), e);
+    }
+    return new RegressionChecks(checks, exceptionCheck);
+  }
+
+  /**
+   * Returns the error-revealing checks in a line written by {@link #writeFailure}, for a sequence
+   * that has been executed. The check refers to the variables of the given sequence.
+   *
+   * @param line the line for the failing check
+   * @param test the sequence whose check was written, whose outcomes have been recorded
+   * @return the error-revealing checks in the line
+   * @throws IOException if the line is malformed, or refers to a contract that cannot be loaded, or
+   *     expects an exception that the statement did not throw
+   */
+  public static ErrorRevealingChecks readFailure(String line, ExecutableSequence test)
+      throws IOException {
+    try {
+      String[] fields = line.trim().split("\t", -1);
+      String tag = fields[0];
+      int index = Integer.parseInt(fields[1]);
+      if (tag.equals(NO_EXCEPTION)) {
+        if (!(test.getResult(index) instanceof ExceptionalExecution)) {
+          throw new IllegalArgumentException("Statement " + index + " threw no exception");
+        }
+        return new ErrorRevealingChecks(new NoExceptionCheck(index, fields[2]));
+      } else if (tag.equals(VIOLATES)) {
+        Variable[] vars = new Variable[fields.length - 2];
+        vars[0] = test.sequence.getVariable(index);
+        for (int i = 3; i < fields.length; i++) {
+          vars[i - 2] = test.sequence.getVariable(Integer.parseInt(fields[i]));
+        }
+        return new ErrorRevealingChecks(new ObjectCheck(builtInContract(fields[2]), vars));
+      } else {
+        throw new IllegalArgumentException("Unknown tag " + tag);
+      }
+    } catch (ClassNotFoundException | RuntimeException e) {
+      throw new IOException("Cannot read failing check: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns the instance of a built-in contract: a class in {@code randoop.contract} whose {@code
+   * getInstance()} method returns its only instance.
+   *
+   * @param className the name of the class of the contract
+   * @return the instance of the contract
+   * @throws ClassNotFoundException if the class cannot be loaded
+   */
+  private static ObjectContract builtInContract(String className) throws ClassNotFoundException {
+    Class<?> c = classForName(className);
+    if (!ObjectContract.class.isAssignableFrom(c)
+        || c.getPackage() != ObjectContract.class.getPackage()) {
+      throw new IllegalArgumentException("Not a built-in contract: " + className);
+    }
+    try {
+      return (ObjectContract) c.getMethod("getInstance").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalArgumentException("No instance of contract " + className, e);
+    }
+  }
+
+  /**
+   * Returns the check on a value in the fields of a line that is not an exception check.
+   *
+   * @param fields the fields of the line, starting with its tag and statement index
+   * @param var the variable that holds the value
+   * @return the check
+   * @throws OperationParseException if an observer cannot be parsed
+   * @throws ClassNotFoundException if a class in the check cannot be loaded
+   */
+  public static ObjectCheck parseCheck(String[] fields, Variable var)
+      throws OperationParseException, ClassNotFoundException {
+    String tag = fields[0];
+    ObjectContract contract;
+    if (tag.equals(NULL)) {
+      contract = new IsNull();
+    } else if (tag.equals(NOT_NULL)) {
+      contract = new IsNotNull();
+    } else if (tag.equals(VALUE)) {
+      contract = valueContract(decodeValue(fields[2]), var.getType());
+    } else if (tag.equals(OBSERVER)) {
+      contract = new ObserverEqValue(OperationParser.parse(fields[2]), decodeValue(fields[3]));
+    } else if (tag.equals(ARRAY)) {
+      Object array = Array.newInstance(classForName(fields[2]), fields.length - 3);
+      for (int i = 3; i < fields.length; i++) {
+        Array.set(array, i - 3, decodeValue(fields[i]));
+      }
+      contract = new ObserverEqArray(array, AccessibilityPredicate.IS_ANY);
+    } else {
+      throw new IllegalArgumentException("Unknown tag " + tag);
+    }
+    return new ObjectCheck(contract, var);
+  }
+
+  /**
+   * Returns the contract that a value is a given primitive, string, or enum constant.
+   *
+   * @param value the expected value
+   * @param type the declared type of the variable that holds the value
+   * @return the contract for the value
+   */
+  private static ObjectContract valueContract(@Nullable Object value, Type type) {
+    if (value instanceof Enum) {
+      return new EnumValue((Enum<?>) value);
+    }
+    if (value == null) {
+      throw new IllegalArgumentException("null is not a primitive value");
+    }
+    // As in RegressionCaptureGenerator.
+    PrimValue.EqualityMode equalityMode =
+        type.isPrimitive() || type.isBoxedPrimitive()
+            ? PrimValue.EqualityMode.EQUALSEQUALS
+            : PrimValue.EqualityMode.EQUALSMETHOD;
+    return new PrimValue(value, equalityMode);
+  }
+}
@@ -14,16 +14,25 @@ import org.checkerframework.checker.mustcall.qual.MustCall;
 import org.checkerframework.checker.mustcall.qual.Owning;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.compile.SequenceCompiler;
+import randoop.main.GenInputsAbstract;
 import randoop.main.GenTests;
 import randoop.output.JUnitCreator;
 import randoop.output.NameGenerator;
 import randoop.sequence.ExecutableSequence;
+import randoop.util.GenerationMetrics;
 import randoop.util.Log;
 
 /**
  * {@code TestPredicate} that returns true if the given {@link ExecutableSequence} is compilable.
  */
 @MustCall("close") public class CompilableTestPredicate implements Closeable, Predicate<ExecutableSequence> {
+
+  /** The name of the metrics counter of sequences whose compilability was decided without javac. */
+  public static final String STATIC_HITS = "compilability-static-check.hits";
+
+  /** The name of the metrics counter of sequences that were compiled by javac. */
+  public static final String STATIC_MISSES = "compilability-static-check.misses";
+
   /** The compiler for sequence code. */
   @Owning private final SequenceCompiler compiler;
 
@@ -42,6 +51,15 @@ import randoop.util.Log;
   /** The {@link GenTests} instance that created this predicate. */
   private final GenTests genTests;
 
+  /** Decides compilability without javac when it can, or null to always use javac. */
+  private final @Nullable StaticCompilabilityChecker staticChecker;
+
+  /**
+   * True once javac has compiled a test. Until then, the static checker is not used, because the
+   * test fixtures and the package of the tests might not compile.
+   */
+  private boolean javacSucceeded = false;
+
   /**
    * Creates a predicate using the given {@link JUnitCreator} to construct the test class for each
    * sequence.
@@ -67,6 +85,10 @@ import randoop.util.Log;
     this.classNameGenerator = new NameGenerator("RandoopTemporarySeqTest");
     this.methodNameGenerator = new NameGenerator("theSequence");
     this.genTests = genTests;
+    this.staticChecker =
+        GenInputsAbstract.static_compilability_check
+            ? new StaticCompilabilityChecker(junitCreator.getPackageName())
+            : null;
   }
 
   /** Releases resources held by this. */
@@ -85,6 +107,25 @@ import randoop.util.Log;
    */
   @Override
   public boolean test(ExecutableSequence eseq) {
+    long start = GenerationMetrics.start();
+    if (staticChecker != null && javacSucceeded) {
+      StaticCompilabilityChecker.Verdict verdict = staticChecker.check(eseq);
+      if (verdict != StaticCompilabilityChecker.Verdict.UNCERTAIN) {
+        GenerationMetrics.increment(STATIC_HITS, 1);
+        GenerationMetrics.record(
+            GenerationMetrics.Phase.COMPILABILITY, eseq.getOperation(), start);
+        if (verdict == StaticCompilabilityChecker.Verdict.NOT_COMPILABLE) {
+          genTests.incrementSequenceCompileFailureCount();
+          Log.logPrintf(
+              "%nCompilableTestPredicate => false (without javac) for%n%nsequence =%n%s%n", eseq);
+          return false;
+        }
+        return true;
+      }
+    }
+    if (staticChecker != null) {
+      GenerationMetrics.increment(STATIC_MISSES, 1);
+    }
     String testClassName = classNameGenerator.next();
     List<ExecutableSequence> sequences = Collections.singletonList(eseq);
     CompilationUnit source =
@@ -92,7 +133,10 @@ import randoop.util.Log;
     Optional<PackageDeclaration> oPkg = source.getPackageDeclaration();
     String packageName = oPkg.isPresent() ? oPkg.get().getName().toString() : null;
     boolean result = testSource(testClassName, source, packageName);
-    if (!result) {
+    GenerationMetrics.record(GenerationMetrics.Phase.COMPILABILITY, eseq.getOperation(), start);
+    if (result) {
+      javacSucceeded = true;
+    } else {
       genTests.incrementSequenceCompileFailureCount();
       Log.logPrintf(
           "%nCompilableTestPredicate => false for%n%nsequence =%n%s%nsource =%n%s%n", eseq, source);
@@ -3,6 +3,7 @@ package randoop.test;
 import java.util.Objects;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.Globals;
+import randoop.execution.WorkerException;
 
 /**
  * An {@code ExceptionCheck} indicates that an exception is expected at a particular statement in a
@@ -70,9 +71,7 @@ public abstract class ExceptionCheck implements Check {
 
   @Override
   public String toString() {
-    return "// throws exception of type "
-        + exception.getClass().getCanonicalName()
-        + Globals.lineSep;
+    return "// throws exception of type " + getExceptionName() + Globals.lineSep;
   }
 
   /**
@@ -133,9 +132,42 @@ public abstract class ExceptionCheck implements Check {
    * @return the canonical name of the exception class
    */
   public @Nullable String getExceptionName() {
+    if (exception instanceof WorkerException) {
+      return ((WorkerException) exception).getCanonicalName();
+    }
     return exception.getClass().getCanonicalName();
   }
 
+  /**
+   * Returns true if the class of the exception is anonymous.
+   *
+   * @return true if the class of the exception is anonymous
+   */
+  protected boolean isAnonymousException() {
+    if (exception instanceof WorkerException) {
+      return ((WorkerException) exception).isAnonymous();
+    }
+    return exception.getClass().isAnonymousClass();
+  }
+
+  /**
+   * Returns the index of the statement that throws the exception.
+   *
+   * @return the index of the statement that throws the exception
+   */
+  public int getStatementIndex() {
+    return statementIndex;
+  }
+
+  /**
+   * Returns the name of the exception class that is caught.
+   *
+   * @return the name of the exception class in the catch clause, or null if there is none
+   */
+  public @Nullable String getCatchClassName() {
+    return catchClassName;
+  }
+
   /**
    * Returns the exception.
    *
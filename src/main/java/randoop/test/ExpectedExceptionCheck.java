@@ -42,7 +42,7 @@ public class ExpectedExceptionCheck extends ExceptionCheck {
     String assertionMessage;
     {
       String message;
-      if (exception.getClass().isAnonymousClass()) {
+      if (isAnonymousException()) {
         message = "Expected anonymous exception";
       } else {
         String exceptionMessage;
@@ -85,7 +85,7 @@ public class ExpectedExceptionCheck extends ExceptionCheck {
    */
   @Override
   protected void appendCatchBehavior(StringBuilder b) {
-    if (exception.getClass().isAnonymousClass()) {
+    if (isAnonymousException()) {
       String condition = "e.getClass().isAnonymousClass()";
       String message = "Expected anonymous exception, got \" + e.getClass().getCanonicalName()";
       String assertion = "org.junit.Assert.fail(\"" + message + ")";
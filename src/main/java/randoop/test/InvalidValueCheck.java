@@ -26,6 +26,15 @@ public class InvalidValueCheck implements Check {
     this.index = index;
   }
 
+  /**
+   * Returns the index in the sequence of the statement that creates the value.
+   *
+   * @return the index of the statement that creates the value
+   */
+  public int getIndex() {
+    return index;
+  }
+
   @Override
   public String toCodeStringPreStatement() {
     return "";
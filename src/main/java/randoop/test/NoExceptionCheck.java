@@ -29,6 +29,24 @@ public class NoExceptionCheck implements Check {
     this.exceptionName = exceptionName;
   }
 
+  /**
+   * Returns the index of the statement that is expected to return normally.
+   *
+   * @return the index of the statement
+   */
+  public int getStatementIndex() {
+    return statementIdx;
+  }
+
+  /**
+   * Returns the name of the exception that the statement threw during generation.
+   *
+   * @return the name of the exception class
+   */
+  public String getExceptionName() {
+    return exceptionName;
+  }
+
   @Override
   public boolean equals(@Nullable Object o) {
     if (o == this) {
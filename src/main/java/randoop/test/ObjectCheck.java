@@ -82,6 +82,38 @@ public class ObjectCheck implements Check {
     return Objects.hash(contract, Arrays.hashCode(vars));
   }
 
+  /**
+   * Returns the contract that is checked.
+   *
+   * @return the contract of this check
+   */
+  public ObjectContract getContract() {
+    return contract;
+  }
+
+  /**
+   * Returns the variables to which the contract is applied.
+   *
+   * @return the variables of this check
+   */
+  public Variable[] getVars() {
+    return vars.clone();
+  }
+
+  /**
+   * Returns the index of the statement after which this check is performed: the last statement
+   * that defines one of its variables.
+   *
+   * @return the index of the last statement that defines a variable of this check
+   */
+  int getStatementIndex() {
+    int result = -1;
+    for (Variable var : vars) {
+      result = Math.max(result, var.getDeclIndex());
+    }
+    return result;
+  }
+
   @Override
   public String toString() {
     return "<check: "
@@ -8,7 +8,10 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.plumelib.util.StringsPlume;
@@ -37,6 +40,7 @@ import randoop.types.ExplicitTypeVariable;
 import randoop.types.PrimitiveTypes;
 import randoop.types.Type;
 import randoop.types.TypeVariable;
+import randoop.util.GenerationMetrics;
 import randoop.util.Log;
 import randoop.util.MultiMap;
 
@@ -77,6 +81,27 @@ public final class RegressionCaptureGenerator extends TestCheckGenerator {
   /** The maximum length (inclusive) of arrays in generated tests. */
   private static final int MAX_ARRAY_LENGTH = 25;
 
+  /** The name of the metrics counter of lookups that found an observer plan. */
+  public static final String OBSERVER_PLAN_HITS = "observer-plans.hits";
+
+  /** The name of the metrics counter of lookups that computed an observer plan. */
+  public static final String OBSERVER_PLAN_MISSES = "observer-plans.misses";
+
+  /**
+   * The observer plans: for the declared type of a variable and the run-time class of its value,
+   * the side-effect-free methods that can be called on the value in an assertion. Which observers
+   * are usable depends only on these two classes, not on the value itself, so the filtering is done
+   * once per pair rather than once per value.
+   */
+  private final Map<Type, Map<Class<?>, List<TypedClassOperation>>> observerPlans =
+      new HashMap<>();
+
+  /** The number of observer plan lookups that hit, not yet added to {@link GenerationMetrics}. */
+  private long numPlanHits = 0;
+
+  /** The number of observer plan lookups that missed, not yet added to {@link GenerationMetrics}. */
+  private long numPlanMisses = 0;
+
   /**
    * Create a RegressionCaptureGenerator.
    *
@@ -196,44 +221,23 @@ public final class RegressionCaptureGenerator extends TestCheckGenerator {
 
             // Put out any side-effect-free methods that exist for this type.
             Variable var0 = eseq.sequence.getVariable(i);
-            Set<TypedClassOperation> sideEffectFreeMethods =
-                sideEffectFreeMethodsByType.getValues(var0.getType());
-            if (sideEffectFreeMethods != null) {
-              for (TypedClassOperation m : sideEffectFreeMethods) {
-
-                AccessibleObject executable = m.getOperation().getReflectionObject();
-                if (executable instanceof Method) {
-                  if (!MethodCall.isUnarySelfType((Method) executable)) {
-                    continue;
-                  }
-                }
-
-                if (!isAssertableMethod(m, omitMethodsPredicate, isAccessible)) {
-                  continue;
-                }
-
-                // Avoid making a call that will fail looksLikeObjectToString.
-                if (isObjectToString(m) && runtimeValue.getClass() == Object.class) {
-                  continue;
-                }
-
-                ExecutionOutcome outcome = m.execute(new Object[] {runtimeValue});
-                if (outcome instanceof ExceptionalExecution) {
-                  // The program under test threw an exception.  Don't call this method in the test.
-                  continue;
-                }
-
-                Object value = ((NormalExecution) outcome).getRuntimeValue();
-
-                if (Value.isUnassertableString(value)) {
-                  continue;
-                }
-
-                ObjectContract observerEqValue = new ObserverEqValue(m, value);
-                ObjectCheck observerCheck = new ObjectCheck(observerEqValue, var);
-                Log.logPrintf("Adding observer check %s%n", observerCheck);
-                checks.add(observerCheck);
+            for (TypedClassOperation m : getObservers(var0.getType(), runtimeValue.getClass())) {
+              ExecutionOutcome outcome = m.execute(new Object[] {runtimeValue});
+              if (outcome instanceof ExceptionalExecution) {
+                // The program under test threw an exception.  Don't call this method in the test.
+                continue;
               }
+
+              Object value = ((NormalExecution) outcome).getRuntimeValue();
+
+              if (Value.isUnassertableString(value)) {
+                continue;
+              }
+
+              ObjectContract observerEqValue = new ObserverEqValue(m, value);
+              ObjectCheck observerCheck = new ObjectCheck(observerEqValue, var);
+              Log.logPrintf("Adding observer check %s%n", observerCheck);
+              checks.add(observerCheck);
             }
           }
         }
@@ -255,9 +259,72 @@ public final class RegressionCaptureGenerator extends TestCheckGenerator {
         throw new Error("Unexpected result type: " + StringsPlume.toStringAndClass(result));
       }
     }
+    if (numPlanHits != 0 || numPlanMisses != 0) {
+      GenerationMetrics.increment(OBSERVER_PLAN_HITS, numPlanHits);
+      GenerationMetrics.increment(OBSERVER_PLAN_MISSES, numPlanMisses);
+      numPlanHits = 0;
+      numPlanMisses = 0;
+    }
     return new RegressionChecks(checks, exceptionCheck);
   }
 
+  /**
+   * Returns the side-effect-free methods that can be called in an assertion about a value.
+   *
+   * @param declaredType the declared type of the variable that holds the value
+   * @param runtimeClass the run-time class of the value
+   * @return the observers for the value, in the order of {@code sideEffectFreeMethodsByType}
+   */
+  private List<TypedClassOperation> getObservers(Type declaredType, Class<?> runtimeClass) {
+    Map<Class<?>, List<TypedClassOperation>> plansForType =
+        observerPlans.computeIfAbsent(declaredType, t -> new HashMap<>());
+    List<TypedClassOperation> plan = plansForType.get(runtimeClass);
+    if (plan != null) {
+      numPlanHits++;
+      return plan;
+    }
+    numPlanMisses++;
+    plan = computeObservers(declaredType, runtimeClass);
+    plansForType.put(runtimeClass, plan);
+    return plan;
+  }
+
+  /**
+   * Computes the side-effect-free methods that can be called in an assertion about a value.
+   *
+   * @param declaredType the declared type of the variable that holds the value
+   * @param runtimeClass the run-time class of the value
+   * @return the observers for the value, in the order of {@code sideEffectFreeMethodsByType}
+   */
+  private List<TypedClassOperation> computeObservers(Type declaredType, Class<?> runtimeClass) {
+    Set<TypedClassOperation> sideEffectFreeMethods =
+        sideEffectFreeMethodsByType.getValues(declaredType);
+    if (sideEffectFreeMethods == null || sideEffectFreeMethods.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<TypedClassOperation> result = new ArrayList<>();
+    for (TypedClassOperation m : sideEffectFreeMethods) {
+      AccessibleObject executable = m.getOperation().getReflectionObject();
+      if (executable instanceof Method) {
+        if (!MethodCall.isUnarySelfType((Method) executable)) {
+          continue;
+        }
+      }
+
+      if (!isAssertableMethod(m, omitMethodsPredicate, isAccessible)) {
+        continue;
+      }
+
+      // Avoid making a call that will fail looksLikeObjectToString.
+      if (isObjectToString(m) && runtimeClass == Object.class) {
+        continue;
+      }
+
+      result.add(m);
+    }
+    return result.isEmpty() ? Collections.emptyList() : result;
+  }
+
   /**
    * Returns true if the method is {@code Object.toString} (which is nondeterministic for classes
    * that have not overridden it).
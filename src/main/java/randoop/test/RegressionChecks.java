@@ -123,6 +123,51 @@ public class RegressionChecks implements TestChecks<RegressionChecks> {
     return Objects.hash(checks, exceptionCheck);
   }
 
+  /**
+   * Returns the index of the earliest statement at which this and another set of checks for the
+   * same sequence differ. Used to find the statement responsible for nondeterminism.
+   *
+   * @param other checks for the same sequence as this
+   * @return the index of the earliest statement whose checks differ, or -1 if the checks are equal
+   *     or the statement cannot be determined
+   */
+  public int firstDifferingStatement(RegressionChecks other) {
+    int result = Integer.MAX_VALUE;
+    for (Check check : checks) {
+      if (!other.checks.contains(check)) {
+        result = Math.min(result, statementIndex(check));
+      }
+    }
+    for (Check check : other.checks) {
+      if (!checks.contains(check)) {
+        result = Math.min(result, statementIndex(check));
+      }
+    }
+    if (!Objects.equals(exceptionCheck, other.exceptionCheck)) {
+      if (exceptionCheck != null) {
+        result = Math.min(result, exceptionCheck.statementIndex);
+      }
+      if (other.exceptionCheck != null) {
+        result = Math.min(result, other.exceptionCheck.statementIndex);
+      }
+    }
+    return result == Integer.MAX_VALUE ? -1 : result;
+  }
+
+  /**
+   * Returns the index of the statement after which a non-exception check is performed.
+   *
+   * @param check a non-exception check
+   * @return the index of the statement of the check, or {@code Integer.MAX_VALUE} if unknown
+   */
+  private static int statementIndex(Check check) {
+    if (check instanceof ObjectCheck) {
+      int index = ((ObjectCheck) check).getStatementIndex();
+      return index < 0 ? Integer.MAX_VALUE : index;
+    }
+    return Integer.MAX_VALUE;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -0,0 +1,445 @@
+package randoop.test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.contract.EqualsHashcode;
+import randoop.contract.EqualsReflexive;
+import randoop.contract.EqualsReturnsNormally;
+import randoop.contract.EqualsSymmetric;
+import randoop.contract.EqualsToNullRetFalse;
+import randoop.contract.EqualsTransitive;
+import randoop.contract.HashCodeReturnsNormally;
+import randoop.contract.IsNotNull;
+import randoop.contract.IsNull;
+import randoop.contract.ObjectContract;
+import randoop.contract.PrimValue;
+import randoop.contract.ToStringReturnsNormally;
+import randoop.operation.CallableOperation;
+import randoop.operation.ConstructorCall;
+import randoop.operation.EnumConstant;
+import randoop.operation.MethodCall;
+import randoop.operation.TypedClassOperation;
+import randoop.operation.TypedClassOperationWithCast;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.Variable;
+import randoop.types.ArrayType;
+import randoop.types.Type;
+
+/**
+ * Decides, without running javac, whether the test for a sequence compiles. The checker examines
+ * the {@link randoop.types} model of each statement and of each check, and recognizes only
+ * statements and checks whose code is simple: calls to public, non-overloaded, non-varargs
+ * constructors and methods of non-generic public types, primitive and string literals, enum
+ * constants, and assertions that hold for any object or for any primitive value. Static member
+ * classes are named like top-level classes. For anything else (generic types, raw types, casts,
+ * field accesses, arrays, overloads, constructors of inner classes, which need an enclosing
+ * instance, and user-defined contracts), the result is {@link Verdict#UNCERTAIN}, and javac has to
+ * decide.
+ *
+ * <p>A sequence is {@link Verdict#NOT_COMPILABLE} if its code names a type that cannot be named in
+ * the package of the tests: an anonymous, local, or private class, or a class that is not public
+ * and is in another package.
+ */
+public class StaticCompilabilityChecker {
+
+  /** Whether the test for a sequence compiles. */
+  public enum Verdict {
+    /** The test surely compiles. */
+    COMPILABLE,
+    /** The test surely does not compile. */
+    NOT_COMPILABLE,
+    /** The checker cannot tell. */
+    UNCERTAIN;
+
+    /**
+     * Returns the verdict for code made of two parts with the given verdicts.
+     *
+     * @param other the verdict for the other part
+     * @return {@code NOT_COMPILABLE} if either is, otherwise {@code UNCERTAIN} if either is,
+     *     otherwise {@code COMPILABLE}
+     */
+    Verdict and(Verdict other) {
+      if (this == NOT_COMPILABLE || other == NOT_COMPILABLE) {
+        return NOT_COMPILABLE;
+      }
+      if (this == UNCERTAIN || other == UNCERTAIN) {
+        return UNCERTAIN;
+      }
+      return COMPILABLE;
+    }
+  }
+
+  /** Contracts whose code compiles for variables of any reference type. */
+  private static final Set<Class<? extends ObjectContract>> REFERENCE_CONTRACTS =
+      new HashSet<>(
+          Arrays.asList(
+              IsNull.class,
+              IsNotNull.class,
+              EqualsHashcode.class,
+              EqualsReflexive.class,
+              EqualsReturnsNormally.class,
+              EqualsSymmetric.class,
+              EqualsToNullRetFalse.class,
+              EqualsTransitive.class,
+              HashCodeReturnsNormally.class,
+              ToStringReturnsNormally.class));
+
+  /** The package of the tests, or null for the unnamed package. */
+  private final @Nullable String packageName;
+
+  /** The verdict for each operation, apart from the variables that it is applied to. */
+  private final Map<TypedOperation, Verdict> operationVerdicts = new HashMap<>();
+
+  /**
+   * Creates a checker for tests in the given package.
+   *
+   * @param packageName the package of the tests, or null for the unnamed package
+   */
+  public StaticCompilabilityChecker(@Nullable String packageName) {
+    this.packageName = packageName;
+  }
+
+  /**
+   * Returns whether the test for an executed sequence, with its checks, compiles.
+   *
+   * @param eseq an executed sequence
+   * @return whether the test for the sequence compiles
+   */
+  public Verdict check(ExecutableSequence eseq) {
+    Verdict result = Verdict.COMPILABLE;
+    for (int i = 0; i < eseq.sequence.size() && result != Verdict.NOT_COMPILABLE; i++) {
+      result = result.and(checkStatement(eseq.sequence, i));
+    }
+    for (Check check : eseq.getChecks().checks()) {
+      if (result == Verdict.NOT_COMPILABLE) {
+        break;
+      }
+      result = result.and(checkCheck(check));
+    }
+    return result;
+  }
+
+  /**
+   * Returns whether the code of a statement compiles.
+   *
+   * @param sequence a sequence
+   * @param i the index of a statement of the sequence
+   * @return whether the code of the statement compiles
+   */
+  Verdict checkStatement(Sequence sequence, int i) {
+    TypedOperation operation = sequence.getStatement(i).getOperation();
+    Verdict result = operationVerdicts.computeIfAbsent(operation, this::checkOperation);
+    if (result != Verdict.COMPILABLE) {
+      return result;
+    }
+    List<Variable> inputs = sequence.getInputs(i);
+    int firstArgument = 0;
+    if (operation.getOperation() instanceof MethodCall && !operation.isStatic()) {
+      // The receiver is not cast; the method is looked up in the declared type of the receiver.
+      Method method = ((MethodCall) operation.getOperation()).getMethod();
+      Class<?> receiverClass = inputs.get(0).getType().getRuntimeClass();
+      if (!method.getDeclaringClass().isAssignableFrom(receiverClass)
+          || isOverloaded(receiverClass, method)) {
+        return Verdict.UNCERTAIN;
+      }
+      firstArgument = 1;
+    }
+    for (int k = firstArgument; k < inputs.size(); k++) {
+      Type argumentType = inputs.get(k).getType();
+      Type formalType = operation.getInputTypes().get(k);
+      if (argumentType.equals(formalType)) {
+        continue;
+      }
+      // The argument is cast to the formal parameter type.
+      if (!isSimple(argumentType) || !isLegalCast(argumentType, formalType)) {
+        return Verdict.UNCERTAIN;
+      }
+      result = result.and(checkNamedType(formalType));
+    }
+    return result;
+  }
+
+  /**
+   * Returns whether the code of an operation compiles, for arguments whose declared types are the
+   * formal parameter types of the operation.
+   *
+   * @param operation an operation
+   * @return whether the code of the operation compiles
+   */
+  Verdict checkOperation(TypedOperation operation) {
+    Type outputType = operation.getOutputType();
+    if (operation.isNonreceivingValue()) {
+      if (outputType.isPrimitive() || outputType.isString()) {
+        return Verdict.COMPILABLE;
+      }
+      if (operation.getValue() == null && isSimple(outputType)) {
+        return checkNamedType(outputType);
+      }
+      return Verdict.UNCERTAIN;
+    }
+    if (!(operation instanceof TypedClassOperation)
+        || operation instanceof TypedClassOperationWithCast
+        || operation.isUncheckedCast()
+        || operation.isGeneric()
+        || operation.hasWildcardTypes()
+        || !isSimple(outputType)) {
+      return Verdict.UNCERTAIN;
+    }
+    for (Type inputType : operation.getInputTypes()) {
+      if (!isSimple(inputType)) {
+        return Verdict.UNCERTAIN;
+      }
+    }
+    Type declaringType = ((TypedClassOperation) operation).getDeclaringType();
+    Verdict result = outputType.isVoid() ? Verdict.COMPILABLE : checkNamedType(outputType);
+    CallableOperation callable = operation.getOperation();
+    if (callable instanceof EnumConstant) {
+      return result.and(checkNamedType(declaringType));
+    } else if (callable instanceof MethodCall) {
+      Method method = ((MethodCall) callable).getMethod();
+      if (!isPlainPublic(method)
+          || !Modifier.isPublic(method.getDeclaringClass().getModifiers())
+          || !outputType.getRuntimeClass().equals(method.getReturnType())) {
+        return Verdict.UNCERTAIN;
+      }
+      if (operation.isStatic()) {
+        // The method is called on the name of its declaring type.
+        if (isOverloaded(declaringType.getRuntimeClass(), method)) {
+          return Verdict.UNCERTAIN;
+        }
+        result = result.and(checkNamedType(declaringType));
+      }
+      return result;
+    } else if (callable instanceof ConstructorCall) {
+      Constructor<?> constructor = ((ConstructorCall) callable).getConstructor();
+      Class<?> c = constructor.getDeclaringClass();
+      if (!isPlainPublic(constructor)
+          || Modifier.isAbstract(c.getModifiers())
+          || (c.isMemberClass() && !Modifier.isStatic(c.getModifiers()))) {
+        return Verdict.UNCERTAIN;
+      }
+      for (Constructor<?> other : c.getDeclaredConstructors()) {
+        if (!other.equals(constructor)
+            && !Modifier.isPrivate(other.getModifiers())
+            && other.getParameterCount() == constructor.getParameterCount()) {
+          return Verdict.UNCERTAIN;
+        }
+      }
+      return result.and(checkNamedType(declaringType));
+    } else {
+      return Verdict.UNCERTAIN;
+    }
+  }
+
+  /**
+   * Returns whether the code of a check compiles.
+   *
+   * @param check a check of a sequence
+   * @return whether the code of the check compiles
+   */
+  Verdict checkCheck(Check check) {
+    if (check instanceof NoExceptionCheck) {
+      // Only a comment.
+      return Verdict.COMPILABLE;
+    }
+    if (check instanceof ExpectedExceptionCheck || check instanceof EmptyExceptionCheck) {
+      ExceptionCheck exceptionCheck = (ExceptionCheck) check;
+      String catchClassName = exceptionCheck.getCatchClassName();
+      for (Class<?> c = exceptionCheck.getException().getClass();
+          c != null;
+          c = c.getSuperclass()) {
+        boolean caught =
+            catchClassName == null
+                ? c == Exception.class
+                : catchClassName.equals(c.getCanonicalName());
+        if (caught) {
+          // javac rejects a catch clause for a checked exception that the try block cannot throw.
+          boolean unchecked =
+              RuntimeException.class.isAssignableFrom(c)
+                  || Error.class.isAssignableFrom(c)
+                  || c == Exception.class
+                  || c == Throwable.class;
+          return unchecked ? checkNamedClass(c) : Verdict.UNCERTAIN;
+        }
+      }
+      return Verdict.UNCERTAIN;
+    }
+    if (check instanceof ObjectCheck) {
+      ObjectCheck objectCheck = (ObjectCheck) check;
+      Class<?> contractClass = objectCheck.getContract().getClass();
+      for (Variable variable : objectCheck.getVars()) {
+        Type type = variable.getType();
+        boolean compiles;
+        if (contractClass == PrimValue.class) {
+          // The value is compared with a literal, by assertEquals or ==.
+          compiles = type.isPrimitive() || type.isString();
+        } else if (REFERENCE_CONTRACTS.contains(contractClass)) {
+          compiles = type.isReferenceType();
+        } else {
+          compiles = false;
+        }
+        if (!compiles) {
+          return Verdict.UNCERTAIN;
+        }
+      }
+      return Verdict.COMPILABLE;
+    }
+    return Verdict.UNCERTAIN;
+  }
+
+  /**
+   * Returns true if the type is not generic, parameterized, raw, or wildcard, and neither is its
+   * element type if it is an array type.
+   *
+   * @param type a type
+   * @return true if the type is neither generic nor raw
+   */
+  static boolean isSimple(Type type) {
+    if (type.isArray()) {
+      return isSimple(((ArrayType) type).getElementType());
+    }
+    return !type.isGeneric()
+        && !type.isParameterized()
+        && !type.isRawtype()
+        && !type.hasWildcard()
+        && !type.isVariable()
+        && (type.isPrimitive() || type.getRuntimeClass().getTypeParameters().length == 0);
+  }
+
+  /**
+   * Returns true if a value of the argument type can be cast to the formal type: both are
+   * primitive numeric types, or the formal type is a supertype of the argument type.
+   *
+   * @param argumentType the declared type of an argument
+   * @param formalType the type of the formal parameter
+   * @return true if the cast is surely legal
+   */
+  private static boolean isLegalCast(Type argumentType, Type formalType) {
+    if (argumentType.isPrimitive() && formalType.isPrimitive()) {
+      return !argumentType.runtimeClassIs(boolean.class)
+          && !formalType.runtimeClassIs(boolean.class);
+    }
+    return argumentType.isReferenceType()
+        && formalType.isReferenceType()
+        && formalType.getRuntimeClass().isAssignableFrom(argumentType.getRuntimeClass());
+  }
+
+  /**
+   * Returns true if the method or constructor is public and not varargs or synthetic.
+   *
+   * @param executable a method or constructor
+   * @return true if a call to it in a test is resolved without surprises
+   */
+  private static boolean isPlainPublic(Executable executable) {
+    return Modifier.isPublic(executable.getModifiers())
+        && !executable.isVarArgs()
+        && !executable.isSynthetic();
+  }
+
+  /**
+   * Returns true if a call of the method on a value of the given class might resolve to another
+   * method: the class has another method, not necessarily public, with the same name and the same
+   * number of parameters.
+   *
+   * @param c the class in which the method is looked up
+   * @param method a method
+   * @return true if the method has an overload with the same number of parameters
+   */
+  private static boolean isOverloaded(Class<?> c, Method method) {
+    for (Method other : c.getMethods()) {
+      if (isOverload(other, method)) {
+        return true;
+      }
+    }
+    for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+      for (Method other : k.getDeclaredMethods()) {
+        if (!Modifier.isPrivate(other.getModifiers()) && isOverload(other, method)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if {@code other} has the name and number of parameters of {@code method}, but
+   * different parameter types.
+   *
+   * @param other a method
+   * @param method a method
+   * @return true if a call of {@code method} might resolve to {@code other}
+   */
+  private static boolean isOverload(Method other, Method method) {
+    return other.getName().equals(method.getName())
+        && other.getParameterCount() == method.getParameterCount()
+        && !Arrays.equals(other.getParameterTypes(), method.getParameterTypes());
+  }
+
+  /**
+   * Returns whether the name of a type can be used in a test.
+   *
+   * @param type a type that is named in the code of a test
+   * @return whether the name of the type can be used in the package of the tests
+   */
+  private Verdict checkNamedType(Type type) {
+    if (type.isArray()) {
+      return checkNamedType(((ArrayType) type).getElementType());
+    }
+    if (type.isPrimitive()) {
+      return Verdict.COMPILABLE;
+    }
+    return checkNamedClass(type.getRuntimeClass());
+  }
+
+  /**
+   * Returns whether the name of a class can be used in a test.
+   *
+   * @param c a class that is named in the code of a test
+   * @return whether the name of the class can be used in the package of the tests
+   */
+  Verdict checkNamedClass(Class<?> c) {
+    if (c.isAnonymousClass() || c.isLocalClass() || c.isSynthetic()) {
+      return Verdict.NOT_COMPILABLE;
+    }
+    String classPackage = packageOf(c);
+    if (classPackage.isEmpty() && packageName != null) {
+      // A class in the unnamed package cannot be named in another package.
+      return Verdict.NOT_COMPILABLE;
+    }
+    boolean samePackage = classPackage.equals(Objects.toString(packageName, ""));
+    for (Class<?> k = c; k != null; k = k.getEnclosingClass()) {
+      int modifiers = k.getModifiers();
+      if (Modifier.isPrivate(modifiers)) {
+        return Verdict.NOT_COMPILABLE;
+      }
+      if (!Modifier.isPublic(modifiers)) {
+        return samePackage ? Verdict.UNCERTAIN : Verdict.NOT_COMPILABLE;
+      }
+    }
+    return Verdict.COMPILABLE;
+  }
+
+  /**
+   * Returns the name of the package of a class.
+   *
+   * @param c a class that is not an array or primitive class
+   * @return the name of the package of the class, or the empty string for the unnamed package
+   */
+  private static String packageOf(Class<?> c) {
+    String name = c.getName();
+    int dot = name.lastIndexOf('.');
+    return dot == -1 ? "" : name.substring(0, dot);
+  }
+}
@@ -52,7 +52,7 @@ public final class ArrayType extends ReferenceType {
     }
 
     Type componentType = Type.forClass(arrayClass.getComponentType());
-    return new ArrayType(componentType, arrayClass);
+    return TypeInterner.intern(new ArrayType(componentType, arrayClass));
   }
 
   /**
@@ -89,10 +89,12 @@ public final class ArrayType extends ReferenceType {
    */
   public static ArrayType ofComponentType(Type componentType) {
     if (componentType instanceof TypeVariable) {
-      return new ArrayType(componentType, Array.newInstance(Object.class, 0).getClass());
+      return TypeInterner.intern(
+          new ArrayType(componentType, Array.newInstance(Object.class, 0).getClass()));
     }
-    return new ArrayType(
-        componentType, Array.newInstance(componentType.getRuntimeClass(), 0).getClass());
+    return TypeInterner.intern(
+        new ArrayType(
+            componentType, Array.newInstance(componentType.getRuntimeClass(), 0).getClass()));
   }
 
   @Override
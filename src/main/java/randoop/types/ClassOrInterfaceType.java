@@ -9,6 +9,7 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.util.StringsPlume;
 
@@ -39,6 +40,12 @@ public abstract class ClassOrInterfaceType extends ReferenceType {
    */
   protected @Nullable ClassOrInterfaceType enclosingType = null;
 
+  /**
+   * The strict supertypes of this type, in the order of {@link #getSupertypes}. Memoized only for
+   * interned types (see {@link TypeInterner}), which are complete and shared.
+   */
+  private volatile @MonotonicNonNull List<ClassOrInterfaceType> strictSupertypes;
+
   /** Creates a ClassOrInterfaceType. */
   public ClassOrInterfaceType() {}
 
@@ -394,6 +401,30 @@ public abstract class ClassOrInterfaceType extends ReferenceType {
    * @return the set of all supertypes of this type
    */
   public Set<ClassOrInterfaceType> getSupertypes(boolean includeSelf) {
+    if (internId == 0) {
+      return computeSupertypes(includeSelf);
+    }
+    List<ClassOrInterfaceType> supertypes = strictSupertypes;
+    if (supertypes == null) {
+      supertypes = Collections.unmodifiableList(new ArrayList<>(computeSupertypes(false)));
+      strictSupertypes = supertypes;
+    }
+    Set<ClassOrInterfaceType> result = new LinkedHashSet<>(supertypes.size() + 1);
+    if (includeSelf) {
+      result.add(this);
+    }
+    result.addAll(supertypes);
+    return result;
+  }
+
+  /**
+   * Computes the supertypes of this type by walking the type hierarchy.
+   *
+   * @param includeSelf if true, the result contains this type as well as all supertypes
+   * @return the set of all supertypes of this type
+   * @see #getSupertypes(boolean)
+   */
+  private Set<ClassOrInterfaceType> computeSupertypes(boolean includeSelf) {
     Set<ClassOrInterfaceType> result = new LinkedHashSet<>();
     Queue<ClassOrInterfaceType> worklist = new ArrayDeque<>();
     worklist.add(this);
@@ -494,14 +525,33 @@ public abstract class ClassOrInterfaceType extends ReferenceType {
    *
    * <p>Returns true if {@code otherType} is the same type as this type.
    *
+   * <p>The result is memoized for interned types (see {@link TypeInterner}). Subclasses refine
+   * {@link #computeIsSubtypeOfOrEqualTo} instead of this method.
+   *
    * @param otherType the possible supertype
    * @return true if this type is a subtype of the given type, false otherwise
    * @see #isAssignableFrom(Type)
    * @see ParameterizedType#isSubtypeOfOrEqualTo(Type)
    */
   @Override
-  public boolean isSubtypeOfOrEqualTo(Type otherType) {
-    // TODO: Cache and look up results, for efficiency?
+  public final boolean isSubtypeOfOrEqualTo(Type otherType) {
+    Boolean memoized = TypeInterner.getSubtypeResult(this, otherType);
+    if (memoized != null) {
+      return memoized;
+    }
+    boolean result = computeIsSubtypeOfOrEqualTo(otherType);
+    TypeInterner.putSubtypeResult(this, otherType, result);
+    return result;
+  }
+
+  /**
+   * Returns true if this type is a subtype of the given type, without using memoized results.
+   *
+   * @param otherType the possible supertype
+   * @return true if this type is a subtype of the given type, false otherwise
+   * @see #isSubtypeOfOrEqualTo(Type)
+   */
+  protected boolean computeIsSubtypeOfOrEqualTo(Type otherType) {
     if (debug) {
       System.out.printf(
           "isSubtypeOfOrEqualTo(%s, %s) [%s, %s]%n",
@@ -67,8 +67,10 @@ public class GenericClassType extends ParameterizedType {
             (TypeVariable variable) ->
                 TypeArgument.forType(substitution.getOrDefault(variable, variable)),
             parameters);
-    return (InstantiatedType)
-        substitute(substitution, new InstantiatedType(new GenericClassType(rawType), argumentList));
+    return TypeInterner.intern(
+        (InstantiatedType)
+            substitute(
+                substitution, new InstantiatedType(new GenericClassType(rawType), argumentList)));
   }
 
   @Override
@@ -257,12 +259,12 @@ public class GenericClassType extends ParameterizedType {
    * </ol>
    */
   @Override
-  public boolean isSubtypeOfOrEqualTo(Type otherType) {
+  protected boolean computeIsSubtypeOfOrEqualTo(Type otherType) {
     if (otherType == null) {
       throw new IllegalArgumentException("type must be non-null");
     }
 
-    if (super.isSubtypeOfOrEqualTo(otherType)) {
+    if (super.computeIsSubtypeOfOrEqualTo(otherType)) {
       return true;
     }
     if (otherType.runtimeClassIs(this.getRuntimeClass())) {
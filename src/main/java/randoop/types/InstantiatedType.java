@@ -1,10 +1,12 @@
 package randoop.types;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.util.CollectionsPlume;
 
@@ -25,6 +27,12 @@ public class InstantiatedType extends ParameterizedType {
   /** The type arguments for this class. */
   private final List<TypeArgument> argumentList;
 
+  /** The superclass of this type, or null if not yet computed. */
+  private volatile @MonotonicNonNull ClassOrInterfaceType superclass;
+
+  /** The directly-implemented interfaces of this type, or null if not yet computed. */
+  private volatile @MonotonicNonNull List<ClassOrInterfaceType> interfaces;
+
   /**
    * Create a parameterized type from the generic class type.
    *
@@ -70,8 +78,9 @@ public class InstantiatedType extends ParameterizedType {
     List<TypeArgument> argumentList =
         CollectionsPlume.mapList(
             (TypeArgument argument) -> argument.substitute(substitution), this.argumentList);
-    return (InstantiatedType)
-        substitute(substitution, new InstantiatedType(genericType, argumentList));
+    return TypeInterner.intern(
+        (InstantiatedType)
+            substitute(substitution, new InstantiatedType(genericType, argumentList)));
   }
 
   /**
@@ -128,15 +137,20 @@ public class InstantiatedType extends ParameterizedType {
   /**
    * Constructs the list of interfaces for this parameterized type.
    *
-   * <p>See the implementation note for {@link #getSuperclass()}.
+   * <p>See the implementation note for {@link #getSuperclass()}. The result is computed once.
    *
    * @return list of directly-implemented interfaces for this parameterized type
    */
   @Override
   public List<ClassOrInterfaceType> getInterfaces() {
-    Substitution substitution =
-        new Substitution(genericType.getTypeParameters(), getReferenceArguments());
-    return genericType.getInterfaces(substitution);
+    List<ClassOrInterfaceType> result = interfaces;
+    if (result == null) {
+      Substitution substitution =
+          new Substitution(genericType.getTypeParameters(), getReferenceArguments());
+      result = Collections.unmodifiableList(genericType.getInterfaces(substitution));
+      interfaces = result;
+    }
+    return result;
   }
 
   @Override
@@ -189,15 +203,21 @@ public class InstantiatedType extends ParameterizedType {
    * being represented as a generic class {@code A<F1,...,Fk>} with a substitution {@code [ Fi :=
    * Ti]} for all of the type parameters {@code Fi}. So, when we compute a superclass, we first find
    * the supertype of the generic class {@code B<F1,...,Fk>}, and then apply the substitution {@code
-   * [ Fi := Ti]} using the method {@link GenericClassType#getSuperclass(Substitution)}.
+   * [ Fi := Ti]} using the method {@link GenericClassType#getSuperclass(Substitution)}. The result
+   * is computed once.
    *
    * @return the superclass type for this parameterized type
    */
   @Override
   public ClassOrInterfaceType getSuperclass() {
-    Substitution substitution =
-        new Substitution(genericType.getTypeParameters(), getReferenceArguments());
-    return this.getGenericClassType().getSuperclass(substitution);
+    ClassOrInterfaceType result = superclass;
+    if (result == null) {
+      Substitution substitution =
+          new Substitution(genericType.getTypeParameters(), getReferenceArguments());
+      result = this.getGenericClassType().getSuperclass(substitution);
+      superclass = result;
+    }
+    return result;
   }
 
   /**
@@ -423,7 +443,7 @@ public class InstantiatedType extends ParameterizedType {
    * </ol>
    */
   @Override
-  public boolean isSubtypeOfOrEqualTo(Type otherType) {
+  protected boolean computeIsSubtypeOfOrEqualTo(Type otherType) {
     if (otherType.isParameterized()) {
 
       // second clause: rawtype same and parameters S_i of otherType contains T_i of this
@@ -451,7 +471,7 @@ public class InstantiatedType extends ParameterizedType {
       }
     }
 
-    if (super.isSubtypeOfOrEqualTo(otherType)) {
+    if (super.computeIsSubtypeOfOrEqualTo(otherType)) {
       return true;
     }
 
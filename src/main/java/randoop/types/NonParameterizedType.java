@@ -1,10 +1,10 @@
 package randoop.types;
 
 import java.lang.reflect.Modifier;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.dataflow.qual.Pure;
 import org.plumelib.util.CollectionsPlume;
@@ -19,8 +19,11 @@ public class NonParameterizedType extends ClassOrInterfaceType {
   /** The runtime class of this simple type. */
   private final Class<?> runtimeType;
 
-  /** A cache of all NonParameterizedTypes that have been created. */
-  private static final Map<Class<?>, NonParameterizedType> cache = new HashMap<>();
+  /**
+   * A cache of all NonParameterizedTypes that have been created. Concurrent, because pipelined
+   * generation creates types on more than one thread.
+   */
+  private static final Map<Class<?>, NonParameterizedType> cache = new ConcurrentHashMap<>();
 
   /**
    * Create a {@link NonParameterizedType} object for the runtime class.
@@ -36,8 +39,11 @@ public class NonParameterizedType extends ClassOrInterfaceType {
 
     NonParameterizedType cached = cache.get(runtimeType);
     if (cached == null) {
-      cached = new NonParameterizedType(runtimeType);
-      cache.put(runtimeType, cached);
+      NonParameterizedType created = TypeInterner.intern(new NonParameterizedType(runtimeType));
+      cached = cache.putIfAbsent(runtimeType, created);
+      if (cached == null) {
+        cached = created;
+      }
     }
     return cached;
   }
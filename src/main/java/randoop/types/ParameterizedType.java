@@ -1,9 +1,9 @@
 package randoop.types;
 
 import java.lang.reflect.Type;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.plumelib.util.CollectionsPlume;
 
@@ -17,8 +17,11 @@ import org.plumelib.util.CollectionsPlume;
  */
 public abstract class ParameterizedType extends ClassOrInterfaceType {
 
-  /** A cache of all ParameterizedTypes that have been created. */
-  private static final Map<Class<?>, GenericClassType> cache = new HashMap<>();
+  /**
+   * A cache of all ParameterizedTypes that have been created. Concurrent, because pipelined
+   * generation creates types on more than one thread.
+   */
+  private static final Map<Class<?>, GenericClassType> cache = new ConcurrentHashMap<>();
 
   /** Creates a ParameterizedType. */
   public ParameterizedType() {}
@@ -40,8 +43,11 @@ public abstract class ParameterizedType extends ClassOrInterfaceType {
 
     GenericClassType cached = cache.get(typeClass);
     if (cached == null) {
-      cached = new GenericClassType(typeClass);
-      cache.put(typeClass, cached);
+      GenericClassType created = new GenericClassType(typeClass);
+      cached = cache.putIfAbsent(typeClass, created);
+      if (cached == null) {
+        cached = created;
+      }
     }
     return cached;
   }
@@ -70,7 +76,7 @@ public abstract class ParameterizedType extends ClassOrInterfaceType {
     // rawtype, and then instantiate with the arguments collected from the
     // java.lang.reflect.ParameterizedType interface.
     GenericClassType genericClass = forClass((Class<?>) rawType);
-    return new InstantiatedType(genericClass, typeArguments);
+    return TypeInterner.intern(new InstantiatedType(genericClass, typeArguments));
   }
 
   @Override
@@ -1,7 +1,7 @@
 package randoop.types;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
@@ -15,7 +15,7 @@ public final class PrimitiveType extends Type {
   private final Class<?> runtimeClass;
 
   /** All the PrimitiveTypes that have been created. */
-  private static Map<Class<?>, PrimitiveType> cache = new HashMap<>();
+  private static final Map<Class<?>, PrimitiveType> cache = new ConcurrentHashMap<>();
 
   /**
    * Creates a primitive type from the given runtime class.
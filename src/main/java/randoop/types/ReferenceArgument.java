@@ -33,8 +33,19 @@ public final class ReferenceArgument extends TypeArgument {
     return forType(ReferenceType.forType(type));
   }
 
+  /**
+   * Creates a {@code ReferenceArgument} for the given reference type. If the type is interned,
+   * returns the canonical argument for it.
+   *
+   * @param referenceType the reference type
+   * @return a {@code ReferenceArgument} for the given type
+   */
   public static ReferenceArgument forType(ReferenceType referenceType) {
-    return new ReferenceArgument(referenceType);
+    ReferenceArgument argument = TypeInterner.getReferenceArgument(referenceType);
+    if (argument != null) {
+      return argument;
+    }
+    return TypeInterner.putReferenceArgument(referenceType, new ReferenceArgument(referenceType));
   }
 
   @Override
@@ -38,6 +38,12 @@ import org.plumelib.reflection.Signatures;
  */
 public abstract class Type implements Comparable<Type> {
 
+  /**
+   * The identifier of this type if it has been interned by {@link TypeInterner}, or 0. Set only
+   * by {@link TypeInterner}.
+   */
+  int internId = 0;
+
   /** Creates a Type. */
   public Type() {}
 
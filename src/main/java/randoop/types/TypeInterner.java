@@ -0,0 +1,184 @@
+package randoop.types;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Hash-conses class, interface, and array types, so that equal types that are created again and
+ * again (for example, by substitution during generic instantiation) are represented by one object.
+ * Because an interned type is shared, the results of expensive queries about it, such as its
+ * supertypes, can be memoized in the type itself.
+ *
+ * <p>Each interned type has a nonzero {@link Type#internId}. The subtype relation between two
+ * interned types is memoized here, keyed by their ids.
+ *
+ * <p>A type is interned only after it is fully constructed: the factory methods intern their
+ * results, but the constructors do not, because several callers set the enclosing type of a new
+ * type after constructing it. A type that contains a {@link CaptureTypeVariable} is never interned,
+ * because each capture conversion creates distinct variables whose bounds are set after creation.
+ * All caches are bounded; when a cache is full, types are simply not interned, and subtype results
+ * are recomputed.
+ */
+final class TypeInterner {
+
+  /** The maximum number of interned types. */
+  private static final int MAX_INTERNED_TYPES = 1 << 18;
+
+  /** The maximum number of memoized subtype results. */
+  private static final int MAX_SUBTYPE_RESULTS = 1 << 20;
+
+  /** The interned types. Each type maps to itself. */
+  private static final Map<Type, Type> types = new ConcurrentHashMap<>();
+
+  /** The interned type arguments, by their interned reference types. */
+  private static final Map<ReferenceType, ReferenceArgument> referenceArguments =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Whether one interned type is a subtype of (or equal to) another. The key holds the {@link
+   * Type#internId} of the possible subtype in its high 32 bits, and that of the possible supertype
+   * in its low 32 bits.
+   */
+  private static final Map<Long, Boolean> subtypeResults = new ConcurrentHashMap<>();
+
+  /** The id to assign to the next interned type. */
+  private static final AtomicInteger nextId = new AtomicInteger(1);
+
+  /** Do not instantiate. */
+  private TypeInterner() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Returns the canonical type that is equal to the given fully-constructed type. If there is none
+   * yet, the given type becomes canonical, unless it cannot be interned.
+   *
+   * @param <T> the class of the type
+   * @param type a class, interface, or array type
+   * @return the canonical type equal to {@code type}, or {@code type} itself
+   */
+  static <T extends ReferenceType> T intern(T type) {
+    if (type.internId != 0 || type.hasCaptureVariable()) {
+      return type;
+    }
+    Type canonical = types.get(type);
+    if (canonical == null) {
+      if (types.size() >= MAX_INTERNED_TYPES) {
+        return type;
+      }
+      // The type is not yet visible to other threads, so it can be given an id before it is
+      // published, and the id can be taken back if another thread wins the race.
+      type.internId = nextId.getAndIncrement();
+      canonical = types.putIfAbsent(type, type);
+      if (canonical == null) {
+        return type;
+      }
+      type.internId = 0;
+    }
+    if (canonical.getClass() != type.getClass() || !isInterchangeable(canonical, type)) {
+      return type;
+    }
+    @SuppressWarnings("unchecked") // canonical has the same class as type
+    T result = (T) canonical;
+    return result;
+  }
+
+  /**
+   * Returns true if two equal types can replace each other. Equality of parameterized types does not
+   * consider their enclosing types, so those are compared here.
+   *
+   * @param type1 a type
+   * @param type2 a type of the same class that is equal to {@code type1}
+   * @return true if the types have equal enclosing types, for class types or array components
+   */
+  private static boolean isInterchangeable(Type type1, Type type2) {
+    if (type1 instanceof ClassOrInterfaceType) {
+      return Objects.equals(
+          ((ClassOrInterfaceType) type1).enclosingType,
+          ((ClassOrInterfaceType) type2).enclosingType);
+    }
+    if (type1 instanceof ArrayType) {
+      Type component1 = ((ArrayType) type1).getComponentType();
+      Type component2 = ((ArrayType) type2).getComponentType();
+      return component1.getClass() == component2.getClass()
+          && isInterchangeable(component1, component2);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the canonical type argument for an interned reference type.
+   *
+   * @param referenceType an interned reference type
+   * @return the canonical {@link ReferenceArgument} for the type, or null if the type is not
+   *     interned and the caller should create a new argument
+   */
+  static @Nullable ReferenceArgument getReferenceArgument(ReferenceType referenceType) {
+    if (referenceType.internId == 0) {
+      return null;
+    }
+    return referenceArguments.get(referenceType);
+  }
+
+  /**
+   * Records the canonical type argument for an interned reference type.
+   *
+   * @param referenceType an interned reference type
+   * @param argument the type argument for {@code referenceType}
+   * @return the canonical type argument for {@code referenceType}
+   */
+  static ReferenceArgument putReferenceArgument(
+      ReferenceType referenceType, ReferenceArgument argument) {
+    if (referenceType.internId == 0 || referenceArguments.size() >= MAX_INTERNED_TYPES) {
+      return argument;
+    }
+    ReferenceArgument canonical = referenceArguments.putIfAbsent(referenceType, argument);
+    return canonical == null ? argument : canonical;
+  }
+
+  /**
+   * Returns the memoized result of {@code subtype.isSubtypeOfOrEqualTo(supertype)}.
+   *
+   * @param subtype the possible subtype
+   * @param supertype the possible supertype
+   * @return the memoized result, or null if none is known
+   */
+  static @Nullable Boolean getSubtypeResult(Type subtype, Type supertype) {
+    if (subtype.internId == 0 || supertype.internId == 0) {
+      return null;
+    }
+    return subtypeResults.get(subtypeKey(subtype, supertype));
+  }
+
+  /**
+   * Memoizes the result of {@code subtype.isSubtypeOfOrEqualTo(supertype)}, if both types are
+   * interned.
+   *
+   * @param subtype the possible subtype
+   * @param supertype the possible supertype
+   * @param result true if {@code subtype} is a subtype of or equal to {@code supertype}
+   */
+  static void putSubtypeResult(Type subtype, Type supertype, boolean result) {
+    if (subtype.internId == 0 || supertype.internId == 0) {
+      return;
+    }
+    if (subtypeResults.size() >= MAX_SUBTYPE_RESULTS) {
+      subtypeResults.clear();
+    }
+    subtypeResults.put(subtypeKey(subtype, supertype), result);
+  }
+
+  /**
+   * Returns the key of a pair of interned types in {@link #subtypeResults}.
+   *
+   * @param subtype the possible subtype
+   * @param supertype the possible supertype
+   * @return the key for the pair
+   */
+  private static long subtypeKey(Type subtype, Type supertype) {
+    return ((long) subtype.internId << 32) | (supertype.internId & 0xFFFFFFFFL);
+  }
+}
@@ -0,0 +1,368 @@
+package randoop.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.operation.TypedOperation;
+
+/**
+ * Timing metrics for the phases of test generation, such as operation selection, input selection,
+ * and execution. Each phase has a {@link Histogram} of its durations, and the time of each phase is
+ * also attributed to the operation it worked on, so that a report can show which operations are
+ * expensive.
+ *
+ * <p>Metrics are off by default. When off, {@link #start()} returns 0 and {@link #record} returns
+ * immediately, so the instrumentation costs almost nothing. The typical use is:
+ *
+ * <pre>
+ * long start = GenerationMetrics.start();
+ * ... do the work of the phase ...
+ * GenerationMetrics.record(Phase.INPUT_SELECTION, operation, start);
+ * </pre>
+ *
+ * <p>This class also holds named counters, which other components use to report statistics such as
+ * cache hit rates. Counters are always maintained, because they are cheap. For every pair of
+ * counters named {@code NAME.hits} and {@code NAME.misses}, the report also shows the hit rate.
+ */
+public final class GenerationMetrics {
+
+  /** The phases of test generation that are timed. */
+  public enum Phase {
+    /** Choosing the next operation to call. */
+    OPERATION_SELECTION("operation selection"),
+    /** Instantiating the type parameters of a generic operation. */
+    GENERIC_INSTANTIATION("generic instantiation"),
+    /** Choosing input sequences for the arguments of an operation. */
+    INPUT_SELECTION("input selection"),
+    /** Concatenating input sequences and extending them by a call. */
+    CONCATENATION("concatenation"),
+    /** Checking whether a new sequence has been created before. */
+    DUPLICATE_CHECK("duplicate check"),
+    /** Executing one statement of a sequence. */
+    EXECUTION("execution (per statement)"),
+    /** Creating the checks (assertions) for an executed sequence. */
+    CHECK_GENERATION("check generation"),
+    /** Deciding whether a sequence should be output, including the compilability check. */
+    OUTPUT_PREDICATES("output predicates"),
+    /** Compiling a sequence to check whether it is compilable. */
+    COMPILABILITY("compilability check"),
+    /** Adding a sequence to the component pool. */
+    POOL_INSERTION("pool insertion"),
+    /** Executing a regression sequence again, to detect nondeterminism. */
+    NONDETERMINISM_CHECK("nondeterminism check"),
+    /** Reducing an error-revealing sequence by executing smaller variants of it. */
+    ERROR_REDUCTION("error test reduction"),
+    /** Compiling a test class, to find failing assertions. */
+    TEST_COMPILATION("test compilation");
+
+    /** A human-readable description of the phase. */
+    private final String description;
+
+    /**
+     * Creates a phase.
+     *
+     * @param description a human-readable description of the phase
+     */
+    Phase(String description) {
+      this.description = description;
+    }
+
+    @Override
+    public String toString() {
+      return description;
+    }
+  }
+
+  /** The percentiles that are shown in the report. */
+  private static final double[] REPORTED_PERCENTILES = {50, 90, 99, 99.9};
+
+  /** The number of most expensive operations shown for each phase in the report. */
+  private static final int TOP_OPERATIONS = 10;
+
+  /** True if phase timing is enabled. */
+  private static boolean enabled = false;
+
+  /** True if a JFR event should be emitted for each timed phase. */
+  private static boolean emitJfrEvents = false;
+
+  /** The durations of each phase, indexed by {@link Phase#ordinal()}. */
+  private static final Histogram[] histograms = new Histogram[Phase.values().length];
+
+  static {
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new Histogram();
+    }
+  }
+
+  /**
+   * For each operation, the total time spent in each phase on its behalf. The array is indexed by
+   * {@link Phase#ordinal()}.
+   */
+  private static final Map<TypedOperation, long[]> operationNanos = new HashMap<>();
+
+  /** The suffix of the name of a counter of cache hits. */
+  private static final String HITS_SUFFIX = ".hits";
+
+  /** The suffix of the name of a counter of cache misses. */
+  private static final String MISSES_SUFFIX = ".misses";
+
+  /** Named counters, sorted by name for reporting. */
+  private static final Map<String, Long> counters = new TreeMap<>();
+
+  /** Do not instantiate. */
+  private GenerationMetrics() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Turns phase timing on or off. JFR events are emitted only if the running JVM supports JFR.
+   *
+   * @param timing if true, time each phase
+   * @param jfrEvents if true, also emit a JFR event for each timed phase
+   */
+  public static synchronized void enable(boolean timing, boolean jfrEvents) {
+    emitJfrEvents = jfrEvents && isJfrAvailable();
+    enabled = timing || emitJfrEvents;
+  }
+
+  /**
+   * Returns true if phase timing is enabled.
+   *
+   * @return true if phase timing is enabled
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns true if the running JVM supports Java Flight Recorder events.
+   *
+   * @return true if {@code jdk.jfr.Event} can be loaded
+   */
+  private static boolean isJfrAvailable() {
+    try {
+      Class.forName("jdk.jfr.Event");
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the start time of a phase, to be passed to {@link #record}.
+   *
+   * @return the current time in nanoseconds, or 0 if timing is disabled
+   */
+  public static long start() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Records that a phase, which began at {@code startNanos}, has just ended.
+   *
+   * @param phase the phase
+   * @param operation the operation the phase worked on, or null if none
+   * @param startNanos the value returned by {@link #start()} when the phase began
+   */
+  public static void record(Phase phase, @Nullable TypedOperation operation, long startNanos) {
+    if (!enabled) {
+      return;
+    }
+    recordDuration(phase, operation, System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Records the duration of a phase.
+   *
+   * @param phase the phase
+   * @param operation the operation the phase worked on, or null if none
+   * @param nanos the duration of the phase, in nanoseconds
+   */
+  public static synchronized void recordDuration(
+      Phase phase, @Nullable TypedOperation operation, long nanos) {
+    if (!enabled) {
+      return;
+    }
+    histograms[phase.ordinal()].record(nanos);
+    if (operation != null) {
+      long[] times = operationNanos.get(operation);
+      if (times == null) {
+        times = new long[Phase.values().length];
+        operationNanos.put(operation, times);
+      }
+      times[phase.ordinal()] += nanos;
+    }
+    if (emitJfrEvents) {
+      PhaseEvent.emit(phase, operation, nanos);
+    }
+  }
+
+  /**
+   * Adds {@code delta} to the named counter.
+   *
+   * @param counter the name of the counter
+   * @param delta the amount to add
+   */
+  public static synchronized void increment(String counter, long delta) {
+    Long old = counters.get(counter);
+    counters.put(counter, (old == null ? 0 : old) + delta);
+  }
+
+  /**
+   * Returns the value of the named counter.
+   *
+   * @param counter the name of the counter
+   * @return the value of the counter, or 0 if it has never been incremented
+   */
+  public static synchronized long getCounter(String counter) {
+    Long value = counters.get(counter);
+    return value == null ? 0 : value;
+  }
+
+  /**
+   * Returns the histogram of durations of the given phase. The result is live; clients must not
+   * modify it.
+   *
+   * @param phase a phase
+   * @return the histogram of the phase's durations, in nanoseconds
+   */
+  public static Histogram getHistogram(Phase phase) {
+    return histograms[phase.ordinal()];
+  }
+
+  /** Discards all recorded timings and counters. Does not change whether timing is enabled. */
+  public static synchronized void reset() {
+    for (Histogram histogram : histograms) {
+      histogram.reset();
+    }
+    operationNanos.clear();
+    counters.clear();
+  }
+
+  /**
+   * Writes a report of all recorded timings and counters to the given file.
+   *
+   * @param file the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static synchronized void writeReport(Path file) throws IOException {
+    try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        PrintWriter out = new PrintWriter(w)) {
+      writeReport(out);
+    }
+  }
+
+  /**
+   * Writes a report of all recorded timings and counters.
+   *
+   * @param out where to write the report
+   */
+  public static synchronized void writeReport(PrintWriter out) {
+    out.println("Randoop generation metrics (times in microseconds)");
+    out.println();
+    out.printf("%-26s %10s %12s %10s", "phase", "count", "total", "mean");
+    for (double p : REPORTED_PERCENTILES) {
+      out.printf(" %10s", "p" + formatPercentile(p));
+    }
+    out.printf(" %10s%n", "max");
+    for (Phase phase : Phase.values()) {
+      Histogram h = histograms[phase.ordinal()];
+      out.printf(
+          "%-26s %10d %12.1f %10.1f",
+          phase, h.getCount(), micros(h.getTotal()), h.getMean() / 1000.0);
+      for (double p : REPORTED_PERCENTILES) {
+        out.printf(" %10.1f", micros(h.getValueAtPercentile(p)));
+      }
+      out.printf(" %10.1f%n", micros(h.getMax()));
+    }
+
+    for (Phase phase : Phase.values()) {
+      List<Map.Entry<TypedOperation, long[]>> entries = new ArrayList<>();
+      for (Map.Entry<TypedOperation, long[]> entry : operationNanos.entrySet()) {
+        if (entry.getValue()[phase.ordinal()] > 0) {
+          entries.add(entry);
+        }
+      }
+      if (entries.isEmpty()) {
+        continue;
+      }
+      int index = phase.ordinal();
+      entries.sort((e1, e2) -> Long.compare(e2.getValue()[index], e1.getValue()[index]));
+      out.println();
+      out.printf("Most expensive operations for %s:%n", phase);
+      for (int i = 0; i < Math.min(TOP_OPERATIONS, entries.size()); i++) {
+        Map.Entry<TypedOperation, long[]> entry = entries.get(i);
+        out.printf("  %12.1f  %s%n", micros(entry.getValue()[index]), entry.getKey());
+      }
+    }
+
+    if (!counters.isEmpty()) {
+      out.println();
+      out.println("Counters:");
+      for (Map.Entry<String, Long> entry : counters.entrySet()) {
+        out.printf("  %-40s %12d%n", entry.getKey(), entry.getValue());
+      }
+      writeHitRates(out);
+    }
+  }
+
+  /**
+   * Writes the hit rate of each cache whose hits and misses are counted.
+   *
+   * @param out where to write the hit rates
+   */
+  private static void writeHitRates(PrintWriter out) {
+    boolean first = true;
+    for (Map.Entry<String, Long> entry : counters.entrySet()) {
+      String name = entry.getKey();
+      if (!name.endsWith(HITS_SUFFIX)) {
+        continue;
+      }
+      String cache = name.substring(0, name.length() - HITS_SUFFIX.length());
+      Long misses = counters.get(cache + MISSES_SUFFIX);
+      if (misses == null) {
+        continue;
+      }
+      long lookups = entry.getValue() + misses;
+      if (lookups == 0) {
+        continue;
+      }
+      if (first) {
+        out.println();
+        out.println("Cache hit rates:");
+        first = false;
+      }
+      out.printf(
+          "  %-40s %11.1f%% of %d lookups%n", cache, 100.0 * entry.getValue() / lookups, lookups);
+    }
+  }
+
+  /**
+   * Converts nanoseconds to microseconds.
+   *
+   * @param nanos a duration in nanoseconds
+   * @return the duration in microseconds
+   */
+  private static double micros(long nanos) {
+    return nanos / 1000.0;
+  }
+
+  /**
+   * Formats a percentile for a column header, without a trailing ".0".
+   *
+   * @param p a percentile
+   * @return the percentile as a short string
+   */
+  private static String formatPercentile(double p) {
+    return (p == Math.rint(p)) ? String.valueOf((long) p) : String.valueOf(p);
+  }
+}
@@ -0,0 +1,196 @@
+package randoop.util;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative {@code long} values, such as durations in nanoseconds, that can
+ * report percentiles with bounded relative error.
+ *
+ * <p>This uses the log-linear bucketing scheme of HdrHistogram: values smaller than {@link
+ * #SUB_BUCKET_COUNT} are recorded exactly, and larger values are recorded in buckets whose width
+ * doubles with each power of two, so that every bucket spans at most 1/{@link #SUB_BUCKET_HALF} of
+ * its lower bound. The memory use is fixed and small, and recording a value is a few arithmetic
+ * operations, so a histogram can be updated in Randoop's inner loop.
+ */
+public final class Histogram {
+
+  /** The number of sub-buckets in the first (exact) bucket. A power of two. */
+  private static final int SUB_BUCKET_COUNT = 128;
+
+  /** Half of {@link #SUB_BUCKET_COUNT}; the number of sub-buckets in each later bucket. */
+  private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+
+  /** log2({@link #SUB_BUCKET_HALF}). */
+  private static final int SUB_BUCKET_HALF_BITS = Integer.numberOfTrailingZeros(SUB_BUCKET_HALF);
+
+  /** The total number of counters, enough for any non-negative {@code long}. */
+  private static final int NUM_COUNTERS =
+      SUB_BUCKET_COUNT + (63 - SUB_BUCKET_HALF_BITS - 1) * SUB_BUCKET_HALF;
+
+  /** The number of recorded values in each bucket. */
+  private final long[] counts = new long[NUM_COUNTERS];
+
+  /** The number of recorded values. */
+  private long totalCount = 0;
+
+  /** The sum of the recorded values. */
+  private long totalValue = 0;
+
+  /** The smallest recorded value, or {@code Long.MAX_VALUE} if none. */
+  private long minValue = Long.MAX_VALUE;
+
+  /** The largest recorded value, or 0 if none. */
+  private long maxValue = 0;
+
+  /** Creates an empty histogram. */
+  public Histogram() {}
+
+  /**
+   * Records a value. Negative values are recorded as 0.
+   *
+   * @param value the value to record
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts[indexFor(value)]++;
+    totalCount++;
+    totalValue += value;
+    if (value < minValue) {
+      minValue = value;
+    }
+    if (value > maxValue) {
+      maxValue = value;
+    }
+  }
+
+  /**
+   * Adds all the values recorded in {@code other} to this histogram.
+   *
+   * @param other the histogram whose values to add
+   */
+  public void add(Histogram other) {
+    for (int i = 0; i < NUM_COUNTERS; i++) {
+      counts[i] += other.counts[i];
+    }
+    totalCount += other.totalCount;
+    totalValue += other.totalValue;
+    minValue = Math.min(minValue, other.minValue);
+    maxValue = Math.max(maxValue, other.maxValue);
+  }
+
+  /** Removes all recorded values. */
+  public void reset() {
+    Arrays.fill(counts, 0);
+    totalCount = 0;
+    totalValue = 0;
+    minValue = Long.MAX_VALUE;
+    maxValue = 0;
+  }
+
+  /**
+   * Returns the number of recorded values.
+   *
+   * @return the number of recorded values
+   */
+  public long getCount() {
+    return totalCount;
+  }
+
+  /**
+   * Returns the sum of the recorded values.
+   *
+   * @return the sum of the recorded values
+   */
+  public long getTotal() {
+    return totalValue;
+  }
+
+  /**
+   * Returns the smallest recorded value, or 0 if none.
+   *
+   * @return the smallest recorded value
+   */
+  public long getMin() {
+    return totalCount == 0 ? 0 : minValue;
+  }
+
+  /**
+   * Returns the largest recorded value, or 0 if none.
+   *
+   * @return the largest recorded value
+   */
+  public long getMax() {
+    return maxValue;
+  }
+
+  /**
+   * Returns the mean of the recorded values, or 0 if none.
+   *
+   * @return the mean of the recorded values
+   */
+  public double getMean() {
+    return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+  }
+
+  /**
+   * Returns a value that is at least as large as the given percentage of the recorded values. The
+   * result is the largest value that falls in the same bucket as the exact percentile, so it
+   * overestimates by at most the bucket's relative width. It never exceeds {@link #getMax()}.
+   *
+   * @param percentile a number in [0, 100]
+   * @return the value at the given percentile, or 0 if no values have been recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be in [0, 100]: " + percentile);
+    }
+    if (totalCount == 0) {
+      return 0;
+    }
+    long countAtPercentile = Math.max(1, (long) Math.ceil((percentile / 100) * totalCount));
+    long seen = 0;
+    for (int i = 0; i < NUM_COUNTERS; i++) {
+      seen += counts[i];
+      if (seen >= countAtPercentile) {
+        return Math.min(highestValueFor(i), maxValue);
+      }
+    }
+    return maxValue;
+  }
+
+  /**
+   * Returns the index of the counter for the given value.
+   *
+   * @param value a non-negative value
+   * @return the index into {@link #counts} for {@code value}
+   */
+  static int indexFor(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    // The shift that brings value into [SUB_BUCKET_HALF, SUB_BUCKET_COUNT).
+    int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_HALF_BITS;
+    int subBucket = (int) (value >>> shift) - SUB_BUCKET_HALF;
+    return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + subBucket;
+  }
+
+  /**
+   * Returns the largest value that is recorded in the counter with the given index.
+   *
+   * @param index an index into {@link #counts}
+   * @return the largest value whose counter is {@code index}
+   */
+  static long highestValueFor(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+    long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+    long lowest = subBucket << shift;
+    long width = 1L << shift;
+    // Avoid overflow in the very last bucket.
+    return (lowest > Long.MAX_VALUE - width) ? Long.MAX_VALUE : lowest + width - 1;
+  }
+}
@@ -0,0 +1,57 @@
+package randoop.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A Java Flight Recorder event for one timed phase of test generation. See {@link
+ * GenerationMetrics}.
+ *
+ * <p>This is the only class in Randoop that refers to {@code jdk.jfr}. It is loaded only after
+ * {@link GenerationMetrics} has checked that JFR is available, so Randoop still runs on JVMs that
+ * lack JFR.
+ */
+@Name("randoop.GenerationPhase")
+@Label("Randoop Generation Phase")
+@Category("Randoop")
+@Description("One timed phase of Randoop test generation")
+@StackTrace(false)
+final class PhaseEvent extends Event {
+
+  /** The phase, as given by {@link GenerationMetrics.Phase#name()}. */
+  @Label("Phase")
+  String phase = "";
+
+  /** The operation the phase worked on, or null if none. */
+  @Label("Operation")
+  @Nullable String operation;
+
+  /** How long the phase took, in nanoseconds. */
+  @Label("Duration")
+  @Timespan(Timespan.NANOSECONDS)
+  long nanos;
+
+  /**
+   * Commits an event for a phase that has already completed.
+   *
+   * @param phase the phase
+   * @param operation the operation the phase worked on, or null if none
+   * @param nanos how long the phase took, in nanoseconds
+   */
+  static void emit(GenerationMetrics.Phase phase, @Nullable Object operation, long nanos) {
+    PhaseEvent event = new PhaseEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    event.phase = phase.name();
+    event.operation = (operation == null) ? null : operation.toString();
+    event.nanos = nanos;
+    event.commit();
+  }
+}
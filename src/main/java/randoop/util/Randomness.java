@@ -1,6 +1,10 @@
 package randoop.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -49,6 +53,40 @@ public final class Randomness {
   /** Number of calls to the underlying Random instance that this wraps. */
   private static int totalCallsToRandom = 0;
 
+  /**
+   * Returns the state of this random number generator, from which {@link #setState} can continue
+   * the same sequence of random choices, possibly in another process.
+   *
+   * @return the state of this random number generator
+   */
+  public static byte[] getState() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeInt(totalCallsToRandom);
+      out.writeObject(random);
+    } catch (IOException e) {
+      throw new RandoopBug("Unable to save the state of the random number generator", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Restores the state of this random number generator.
+   *
+   * @param state a value returned by {@link #getState}
+   * @throws IllegalArgumentException if the state is malformed
+   */
+  public static void setState(byte[] state) {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+      int calls = in.readInt();
+      random = (Random) in.readObject();
+      totalCallsToRandom = calls;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      throw new IllegalArgumentException("Malformed random number generator state", e);
+    }
+    logSelection("[Random object]", "setState", totalCallsToRandom);
+  }
+
   /**
    * Call this before every use of Randomness.random.
    *
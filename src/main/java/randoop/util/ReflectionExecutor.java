@@ -2,6 +2,7 @@ package randoop.util;
 
 import java.io.IOException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.plumelib.options.Option;
 import org.plumelib.options.OptionGroup;
@@ -9,6 +10,7 @@ import org.plumelib.util.FileWriterWithName;
 import randoop.ExceptionalExecution;
 import randoop.ExecutionOutcome;
 import randoop.NormalExecution;
+import randoop.instrument.DeadlineTracker;
 import randoop.main.RandoopBug;
 
 /**
@@ -16,7 +18,9 @@ import randoop.main.RandoopBug;
  *
  * <p>If a test exceeds the timeout, it is canceled and reported as a timeout. When {@code
  * --usethreads} is true, each test is run on a separate thread, in parallel but not in isolation
- * (that is, not starting from a fresh JVM).
+ * (that is, not starting from a fresh JVM). Otherwise, when the covered-class agent adds deadline
+ * checks to the code under test (see {@link DeadlineTracker}), each test is run on the current
+ * thread with a deadline.
  */
 public final class ReflectionExecutor {
 
@@ -34,6 +38,12 @@ public final class ReflectionExecutor {
    * under test that results in an infinite loop or that waits for user input. The downside of this
    * option is a BIG (order-of-magnitude) decrease in generation speed. The tests are run in
    * parallel, but not in isolation.
+   *
+   * <p>A cheaper alternative is to run Randoop using the covered-class javaagent with the argument
+   * {@code --deadline-checks} ({@code -javaagent:covered-class.jar=--deadline-checks}), and without
+   * this option. The agent adds checks of a deadline to the loops and methods of the code under
+   * test, so a call that exceeds {@code --call-timeout-millis} is stopped in the thread that runs
+   * it. It does not stop code that is blocked, such as while waiting for input.
    */
   @OptionGroup("Threading")
   @Option("Execute each test in a separate thread, with timeout")
@@ -41,7 +51,8 @@ public final class ReflectionExecutor {
 
   /**
    * If specified, Randoop logs timed-out tests to the specified file. Has no effect unless the
-   * {@code --usethreads} command-line option is given.
+   * {@code --usethreads} command-line option is given or the covered-class agent adds deadline
+   * checks.
    */
   @Option("<filename> logs timed-out tests to the specified file")
   public static @MonotonicNonNull FileWriterWithName timed_out_tests = null;
@@ -54,12 +65,28 @@ public final class ReflectionExecutor {
 
   /**
    * After this many milliseconds, a non-returning method call, and its associated test, are stopped
-   * forcefully. Only meaningful if {@code --usethreads} is also specified.
+   * forcefully. Only meaningful if {@code --usethreads} or {@code --execution-workers} is also
+   * specified, or the covered-class agent adds deadline checks (see {@code --usethreads}).
    */
-  @Option("Maximum number of milliseconds a test may run. Only meaningful with --usethreads")
+  @Option(
+      "Maximum number of milliseconds a test may run. Only meaningful with --usethreads,"
+          + " --execution-workers, or deadline checks")
   public static int call_timeout_millis = CALL_TIMEOUT_MILLIS_DEFAULT;
 
-  // Execution statistics.
+  /** True if the covered-class agent adds deadline checks to the code under test. */
+  private static final boolean deadlineChecks = DeadlineTracker.isEnabled();
+
+  /**
+   * The number of threads that are executing code under test in {@link #executeReflectionCode}.
+   * Randoop executes code under test on one thread at a time, even with {@code --pipeline-depth}.
+   */
+  private static final AtomicInteger executingThreads = new AtomicInteger();
+
+  /** True if two threads have been in {@link #executeReflectionCode} at the same time. */
+  private static volatile boolean concurrentExecution = false;
+
+  // Execution statistics. They are guarded by the class's lock, so that they stay consistent if the
+  // thread that executes code under test changes, as with --pipeline-depth.
   /** The sum of durations for normal executions, in nanoseconds. */
   private static long normal_exec_duration_nanos = 0;
 
@@ -73,27 +100,38 @@ public final class ReflectionExecutor {
   private static int excep_exec_count = 0;
 
   /** Set statistics about normal and exceptional executions to zero. */
-  public static void resetStatistics() {
+  public static synchronized void resetStatistics() {
     normal_exec_duration_nanos = 0;
     normal_exec_count = 0;
     excep_exec_duration_nanos = 0;
     excep_exec_count = 0;
+    concurrentExecution = false;
   }
 
-  public static int normalExecs() {
+  public static synchronized int normalExecs() {
     return normal_exec_count;
   }
 
-  public static int excepExecs() {
+  public static synchronized int excepExecs() {
     return excep_exec_count;
   }
 
+  /**
+   * Returns true if two threads have executed code under test through this class at the same time
+   * since the statistics were last reset.
+   *
+   * @return true if two threads have been in {@link #executeReflectionCode} at the same time
+   */
+  public static boolean hadConcurrentExecution() {
+    return concurrentExecution;
+  }
+
   /**
    * Returns the average normal execution time, in milliseconds.
    *
    * @return the average normal execution time, in milliseconds
    */
-  public static double normalExecAvgMillis() {
+  public static synchronized double normalExecAvgMillis() {
     return ((normal_exec_duration_nanos / (double) normal_exec_count) / Math.pow(10, 6));
   }
 
@@ -102,7 +140,7 @@ public final class ReflectionExecutor {
    *
    * @return the average exceptional execution time, in milliseconds
    */
-  public static double excepExecAvgMillis() {
+  public static synchronized double excepExecAvgMillis() {
     return ((excep_exec_duration_nanos / (double) excep_exec_count) / Math.pow(10, 6));
   }
 
@@ -114,24 +152,41 @@ public final class ReflectionExecutor {
    * @return the execution result
    */
   public static ExecutionOutcome executeReflectionCode(ReflectionCode code) {
+    if (executingThreads.incrementAndGet() > 1) {
+      concurrentExecution = true;
+    }
+    try {
+      return executeAndRecord(code);
+    } finally {
+      executingThreads.decrementAndGet();
+    }
+  }
+
+  /**
+   * Executes {@code code.runReflectionCode()}, and adds the execution to the statistics.
+   *
+   * @param code the {@link ReflectionCode} to be executed
+   * @return the execution result
+   */
+  private static ExecutionOutcome executeAndRecord(ReflectionCode code) {
     long startTimeNanos = System.nanoTime();
     if (usethreads) {
       try {
         executeReflectionCodeThreaded(code);
       } catch (TimeoutException e) {
-        if (timed_out_tests != null) {
-          try {
-            String msg =
-                String.format(
-                    "Killed thread: %s%nReason: %s%n--------------------%n", code, e.getMessage());
-            timed_out_tests.write(msg);
-            timed_out_tests.flush();
-          } catch (IOException ex) {
-            throw new RandoopBug("Error writing to demand-driven logging file: " + ex);
-          }
-        }
-        return new ExceptionalExecution(
-            e, call_timeout_millis * 1_000_000L); // convert milliseconds to nanoseconds
+        return timedOut(code, "Killed thread", e);
+      }
+    } else if (deadlineChecks) {
+      DeadlineTracker.arm(call_timeout_millis);
+      boolean expired;
+      try {
+        executeReflectionCodeUnThreaded(code);
+      } finally {
+        expired = DeadlineTracker.disarm();
+      }
+      if (expired) {
+        Log.logPrintf("Exceeded deadline: aborted execution of call: %s%n", code);
+        return timedOut(code, "Exceeded deadline", new TimeoutException());
       }
     } else {
       executeReflectionCodeUnThreaded(code);
@@ -139,22 +194,61 @@ public final class ReflectionExecutor {
     long durationNanos = System.nanoTime() - startTimeNanos;
 
     if (code.getExceptionThrown() != null) {
+      recordExecution(true, durationNanos);
+      // System.out.println("exceptional execution: " + code);
+      return new ExceptionalExecution(code.getExceptionThrown(), durationNanos);
+    } else {
+      recordExecution(false, durationNanos);
+      // System.out.println("normal execution: " + code);
+      return new NormalExecution(code.getReturnValue(), durationNanos);
+    }
+  }
+
+  /**
+   * Adds an execution to the statistics.
+   *
+   * @param exceptional true if the execution threw an exception
+   * @param durationNanos the duration of the execution, in nanoseconds
+   */
+  private static synchronized void recordExecution(boolean exceptional, long durationNanos) {
+    if (exceptional) {
       // Add durationNanos to running sum for exceptional execution.
       excep_exec_duration_nanos += durationNanos;
       assert excep_exec_duration_nanos >= 0; // check no overflow.
       excep_exec_count++;
-      // System.out.println("exceptional execution: " + code);
-      return new ExceptionalExecution(code.getExceptionThrown(), durationNanos);
     } else {
       // Add durationNanos to running sum for normal execution.
       normal_exec_duration_nanos += durationNanos;
       assert normal_exec_duration_nanos >= 0; // check no overflow.
       normal_exec_count++;
-      // System.out.println("normal execution: " + code);
-      return new NormalExecution(code.getReturnValue(), durationNanos);
     }
   }
 
+  /**
+   * Records a call that exceeded {@code --call-timeout-millis} in {@code --timed-out-tests}, and
+   * returns its outcome.
+   *
+   * @param code the {@link ReflectionCode} that timed out
+   * @param action how the execution was stopped
+   * @param e the exception that represents the timeout
+   * @return the outcome of the execution
+   */
+  private static ExecutionOutcome timedOut(ReflectionCode code, String action, TimeoutException e) {
+    if (timed_out_tests != null) {
+      try {
+        String msg =
+            String.format(
+                "%s: %s%nReason: %s%n--------------------%n", action, code, e.getMessage());
+        timed_out_tests.write(msg);
+        timed_out_tests.flush();
+      } catch (IOException ex) {
+        throw new RandoopBug("Error writing to demand-driven logging file: " + ex);
+      }
+    }
+    return new ExceptionalExecution(
+        e, call_timeout_millis * 1_000_000L); // convert milliseconds to nanoseconds
+  }
+
   /**
    * Executes code.runReflectionCode() in its own thread.
    *
@@ -0,0 +1,225 @@
+package randoop.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.ExceptionalExecution;
+import randoop.NormalExecution;
+import randoop.condition.RandoopSpecificationError;
+import randoop.contract.EqualsSymmetric;
+import randoop.contract.IsNull;
+import randoop.main.GenInputsAbstract;
+import randoop.main.GenInputsAbstract.BehaviorType;
+import randoop.operation.TypedOperation;
+import randoop.reflection.AccessibilityPredicate;
+import randoop.reflection.OmitMethodsPredicate;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.CheckLines;
+import randoop.test.ContractCheckingGenerator;
+import randoop.test.ContractSet;
+import randoop.test.ErrorRevealingChecks;
+import randoop.test.ExceptionCheck;
+import randoop.test.ExpectedExceptionCheck;
+import randoop.test.ExpectedExceptionCheckGen;
+import randoop.test.ExtendGenerator;
+import randoop.test.NoExceptionCheck;
+import randoop.test.ObjectCheck;
+import randoop.test.RegressionCaptureGenerator;
+import randoop.test.RegressionChecks;
+import randoop.test.TestCheckGenerator;
+import randoop.util.MultiMap;
+
+/** Tests for {@link ExecutionWorker} and {@link WorkerProtocol}, without starting a process. */
+public class ExecutionWorkerTest {
+
+  /** Generates the contract and regression checks, as the generator does. */
+  private static final TestCheckGenerator CHECK_GENERATOR =
+      new ExtendGenerator(
+          new ContractCheckingGenerator(new ContractSet()),
+          new RegressionCaptureGenerator(
+              new ExpectedExceptionCheckGen(AccessibilityPredicate.IS_PUBLIC),
+              new MultiMap<>(),
+              AccessibilityPredicate.IS_PUBLIC,
+              OmitMethodsPredicate.NO_OMISSION,
+              true));
+
+  /**
+   * Sends a batch to {@link ExecutionWorker#serve} and returns the results.
+   *
+   * @param batch the sequences, in parsable form
+   * @return the results the worker wrote
+   * @throws IOException if there is a protocol error
+   */
+  private static List<WorkerResult> serve(List<String> batch) throws IOException {
+    ByteArrayOutputStream requests = new ByteArrayOutputStream();
+    DataOutputStream requestStream = new DataOutputStream(requests);
+    WorkerProtocol.writeBatch(requestStream, batch);
+    requestStream.writeByte(WorkerProtocol.SHUTDOWN);
+
+    ByteArrayOutputStream responses = new ByteArrayOutputStream();
+    ExecutionWorker.serve(
+        new DataInputStream(new ByteArrayInputStream(requests.toByteArray())),
+        new DataOutputStream(responses),
+        new DummyVisitor(),
+        CHECK_GENERATOR);
+
+    DataInputStream responseStream =
+        new DataInputStream(new ByteArrayInputStream(responses.toByteArray()));
+    List<WorkerResult> results = new ArrayList<>();
+    for (int i = 0; i < batch.size(); i++) {
+      results.add(WorkerProtocol.readResult(responseStream));
+    }
+    assertEquals(-1, responseStream.read());
+    return results;
+  }
+
+  @Test
+  public void testBatch() throws IOException, NoSuchMethodException, RandoopSpecificationError {
+    Sequence primitive = Sequence.createSequenceForPrimitive("hello");
+    Sequence builder =
+        new Sequence().extend(TypedOperation.forConstructor(StringBuilder.class.getConstructor()));
+    Sequence builderLength =
+        builder.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("length")),
+            Collections.singletonList(builder.getVariable(0)));
+    List<WorkerResult> results =
+        serve(
+            Arrays.asList(
+                primitive.toParsableString(),
+                builderLength.toParsableString(),
+                "not a sequence"));
+    assertEquals(3, results.size());
+
+    WorkerResult primitiveResult = results.get(0);
+    assertEquals(WorkerResult.Status.COMPLETED, primitiveResult.status);
+    assertEquals(1, primitiveResult.statements.size());
+    assertEquals("hello", primitiveResult.statements.get(0).summary);
+
+    WorkerResult lengthResult = results.get(1);
+    assertEquals(WorkerResult.Status.COMPLETED, lengthResult.status);
+    assertEquals("java.lang.StringBuilder", lengthResult.statements.get(0).summary);
+    assertEquals(WorkerResult.Kind.NORMAL, lengthResult.statements.get(1).kind);
+    assertEquals("0", lengthResult.statements.get(1).summary);
+    assertFalse(lengthResult.hasFailure);
+
+    assertEquals(WorkerResult.Status.PARSE_ERROR, results.get(2).status);
+    assertFalse(results.get(2).isSafe());
+
+    // The generator gets the outcomes and checks without executing the sequence.
+    ExecutableSequence eseq = new ExecutableSequence(builderLength);
+    assertTrue(lengthResult.applyTo(eseq));
+    assertTrue(eseq.isNormalExecution());
+    Object builderValue = ((NormalExecution) eseq.getResult(0)).getRuntimeValue();
+    assertTrue(builderValue instanceof WorkerValue);
+    assertEquals("java.lang.StringBuilder", ((WorkerValue) builderValue).getClassName());
+    assertEquals(0, ((NormalExecution) eseq.getResult(1)).getRuntimeValue());
+    assertTrue(eseq.getChecks().hasChecks());
+  }
+
+  @Test
+  public void testException()
+      throws IOException, NoSuchMethodException, RandoopSpecificationError {
+    Sequence charAt = charAtSequence();
+    WorkerResult result = serve(Collections.singletonList(charAt.toParsableString())).get(0);
+    assertEquals(WorkerResult.Status.COMPLETED, result.status);
+    assertEquals(WorkerResult.Kind.EXCEPTION, result.statements.get(2).kind);
+    assertEquals(
+        StringIndexOutOfBoundsException.class.getName(), result.statements.get(2).summary);
+
+    ExecutableSequence eseq = new ExecutableSequence(charAt);
+    assertTrue(result.applyTo(eseq));
+    Throwable exception = ((ExceptionalExecution) eseq.getResult(2)).getException();
+    assertTrue(exception instanceof WorkerException);
+    assertEquals(
+        StringIndexOutOfBoundsException.class.getName(),
+        ((WorkerException) exception).getClassName());
+    ExceptionCheck exceptionCheck = ((RegressionChecks) eseq.getChecks()).getExceptionCheck();
+    assertNotNull(exceptionCheck);
+    assertTrue(exceptionCheck instanceof ExpectedExceptionCheck);
+  }
+
+  @Test
+  public void testFailure() throws IOException, NoSuchMethodException, RandoopSpecificationError {
+    Sequence charAt = charAtSequence();
+    BehaviorType uncheckedException = GenInputsAbstract.unchecked_exception;
+    GenInputsAbstract.unchecked_exception = BehaviorType.ERROR;
+    WorkerResult result;
+    try {
+      result = serve(Collections.singletonList(charAt.toParsableString())).get(0);
+    } finally {
+      GenInputsAbstract.unchecked_exception = uncheckedException;
+    }
+    assertEquals(WorkerResult.ChecksKind.FAILURE, result.checksKind);
+
+    // The generator gets the failing check without executing the sequence.
+    ExecutableSequence eseq = new ExecutableSequence(charAt);
+    assertTrue(result.applyTo(eseq));
+    assertTrue(eseq.hasFailure());
+    NoExceptionCheck check = (NoExceptionCheck) eseq.getChecks().checks().iterator().next();
+    assertEquals(2, check.getStatementIndex());
+    assertEquals(StringIndexOutOfBoundsException.class.getName(), check.getExceptionName());
+    Throwable exception = ((ExceptionalExecution) eseq.getResult(2)).getException();
+    assertTrue(exception.getStackTrace().length > 0);
+  }
+
+  @Test
+  public void testContractFailureLines()
+      throws IOException, NoSuchMethodException, RandoopSpecificationError {
+    Sequence charAt = charAtSequence();
+    ExecutableSequence eseq = new ExecutableSequence(charAt);
+    ErrorRevealingChecks checks =
+        new ErrorRevealingChecks(
+            new ObjectCheck(
+                EqualsSymmetric.getInstance(), charAt.getVariable(1), charAt.getVariable(0)));
+    String line = CheckLines.writeFailure(checks);
+    assertNotNull(line);
+    assertEquals(checks, CheckLines.readFailure(line, eseq));
+
+    // A contract that is not a built-in singleton cannot be transferred.
+    assertNull(
+        CheckLines.writeFailure(
+            new ErrorRevealingChecks(new ObjectCheck(new IsNull(), charAt.getVariable(1)))));
+  }
+
+  /**
+   * Returns a sequence whose last statement throws StringIndexOutOfBoundsException.
+   *
+   * @return a sequence that calls {@code charAt(5)} on an empty StringBuilder
+   * @throws NoSuchMethodException if a method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static Sequence charAtSequence()
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence index = Sequence.createSequenceForPrimitive(5);
+    Sequence builder =
+        index.extend(TypedOperation.forConstructor(StringBuilder.class.getConstructor()));
+    return builder.extend(
+        TypedOperation.forMethod(StringBuilder.class.getMethod("charAt", int.class)),
+        Arrays.asList(builder.getVariable(1), builder.getVariable(0)));
+  }
+
+  @Test
+  public void testSummarize() {
+    assertEquals("null", ExecutionWorker.summarize(null));
+    assertEquals("42", ExecutionWorker.summarize(42));
+    assertEquals("int[3]", ExecutionWorker.summarize(new int[3]));
+    assertEquals(
+        "java.util.concurrent.TimeUnit.SECONDS", ExecutionWorker.summarize(TimeUnit.SECONDS));
+  }
+}
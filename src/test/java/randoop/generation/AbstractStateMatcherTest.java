@@ -0,0 +1,102 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Test;
+
+/** Tests for {@link AbstractStateMatcher}. */
+public class AbstractStateMatcherTest {
+
+  /** A node of a singly-linked list. */
+  @SuppressWarnings("UnusedVariable") // read reflectively
+  private static class Node {
+    /** The value of the node. */
+    double value;
+
+    /** The name of the node. */
+    String name;
+
+    /** The next node, or null. */
+    @Nullable Node next;
+
+    /**
+     * Creates a node.
+     *
+     * @param value the value of the node
+     * @param name the name of the node
+     * @param next the next node, or null
+     */
+    Node(double value, String name, @Nullable Node next) {
+      this.value = value;
+      this.name = name;
+      this.next = next;
+    }
+  }
+
+  @Test
+  public void testEqualStates() {
+    AbstractStateMatcher matcher = new AbstractStateMatcher(3, 0);
+    assertTrue(matcher.add(new Node(1.0, "a", new Node(2.0, "b", null))));
+    assertFalse(matcher.add(new Node(1.0, "a", new Node(2.0, "b", null))));
+    assertTrue(matcher.add(new Node(1.0, "a", new Node(3.0, "b", null))));
+    assertTrue(matcher.add(new Node(1.0, "a", null)));
+    assertEquals(3, matcher.size());
+
+    // NaN values are canonicalized.
+    assertTrue(matcher.add(new Node(Double.NaN, "a", null)));
+    assertFalse(matcher.add(new Node(Double.longBitsToDouble(0x7ff8000000000001L), "a", null)));
+  }
+
+  @Test
+  public void testDepth() {
+    AbstractStateMatcher matcher = new AbstractStateMatcher(1, 0);
+    assertTrue(matcher.add(new Node(1.0, "a", new Node(2.0, "b", null))));
+    // The nodes differ only beyond depth 1.
+    assertFalse(matcher.add(new Node(1.0, "a", new Node(3.0, "c", null))));
+    assertTrue(matcher.add(new Node(1.0, "a", null)));
+  }
+
+  @Test
+  public void testCycles() {
+    AbstractStateMatcher matcher = new AbstractStateMatcher(10, 0);
+    Node cycle1 = new Node(1.0, "a", null);
+    cycle1.next = cycle1;
+    Node cycle2 = new Node(1.0, "a", null);
+    cycle2.next = cycle2;
+    Node cycle3 = new Node(1.0, "a", null);
+    cycle3.next = new Node(1.0, "a", cycle3);
+    Long fingerprint = matcher.fingerprint(cycle1);
+    assertNotNull(fingerprint);
+    assertEquals(fingerprint, matcher.fingerprint(cycle2));
+    assertNotEquals(fingerprint, matcher.fingerprint(cycle3));
+  }
+
+  @Test
+  public void testArrays() {
+    AbstractStateMatcher matcher = new AbstractStateMatcher(3, 0);
+    assertTrue(matcher.add(new int[] {1, 2}));
+    assertFalse(matcher.add(new int[] {1, 2}));
+    assertTrue(matcher.add(new int[] {2, 1}));
+    assertTrue(matcher.add(new long[] {1, 2}));
+    // An array that is too long is always new.
+    assertNull(matcher.fingerprint(new int[AbstractStateMatcher.MAX_ARRAY_LENGTH + 1]));
+    assertTrue(matcher.add(new int[AbstractStateMatcher.MAX_ARRAY_LENGTH + 1]));
+    assertTrue(matcher.add(new int[AbstractStateMatcher.MAX_ARRAY_LENGTH + 1]));
+  }
+
+  @Test
+  public void testTooManyObjects() {
+    @Nullable Node list = null;
+    for (int i = 0; i <= AbstractStateMatcher.MAX_OBJECTS; i++) {
+      list = new Node(i, "n", list);
+    }
+    assertNull(new AbstractStateMatcher(Integer.MAX_VALUE, 0).fingerprint(list));
+    assertNotNull(new AbstractStateMatcher(3, 0).fingerprint(list));
+  }
+}
@@ -0,0 +1,139 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.stream.Stream;
+import org.junit.Test;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceParseException;
+
+/** Tests for {@link Checkpoint}. */
+public class CheckpointTest {
+
+  /**
+   * Returns a properties object with one property.
+   *
+   * @param key the key of the property
+   * @param value the value of the property
+   * @return the properties
+   */
+  private static Properties properties(String key, String value) {
+    Properties result = new Properties();
+    result.setProperty(key, value);
+    return result;
+  }
+
+  @Test
+  public void testSaveAndResume() throws IOException, SequenceParseException {
+    Path directory = Files.createTempDirectory("CheckpointTest");
+    Sequence a = Sequence.createSequenceForPrimitive("a");
+    Sequence b = Sequence.createSequenceForPrimitive(1);
+    Sequence c = Sequence.createSequenceForPrimitive(true);
+
+    Checkpoint checkpoint = new Checkpoint(directory, 1000);
+    assertNull(checkpoint.resume());
+    checkpoint.recordPoolSequence(a);
+    checkpoint.recordRegressionSequence(b);
+    checkpoint.save(properties("steps", "1"), Collections::emptyList, Collections::emptyList);
+    checkpoint.recordPoolSequence(c);
+    checkpoint.recordErrorSequence(c);
+    checkpoint.save(properties("steps", "2"), Collections::emptyList, Collections::emptyList);
+
+    // A process killed during a checkpoint leaves a partial record.
+    Files.write(
+        directory.resolve("pool.txt"),
+        "# sequence\nvar0 = ".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    Checkpoint resumed = new Checkpoint(directory, 1000);
+    Checkpoint.Contents contents = resumed.resume();
+    assertNotNull(contents);
+    assertEquals(Arrays.asList(a, c), contents.poolSequences);
+    assertEquals(Collections.singletonList(b), contents.regressionSequences);
+    assertEquals(Collections.singletonList(c), contents.errorSequences);
+    assertEquals("2", contents.state.getProperty("steps"));
+
+    // The next checkpoint overwrites the partial record.
+    resumed.recordPoolSequence(b);
+    resumed.save(properties("steps", "3"), Collections::emptyList, Collections::emptyList);
+    contents = new Checkpoint(directory, 1000).resume();
+    assertNotNull(contents);
+    assertEquals(Arrays.asList(a, c, b), contents.poolSequences);
+    assertEquals("3", contents.state.getProperty("steps"));
+
+    // Starting a new run discards the checkpoint.
+    new Checkpoint(directory, 1000).start();
+    assertNull(new Checkpoint(directory, 1000).resume());
+  }
+
+  @Test
+  public void testPoolRemoval() throws IOException, SequenceParseException {
+    Path directory = Files.createTempDirectory("CheckpointTest");
+    Sequence a = Sequence.createSequenceForPrimitive("a");
+    Sequence b = Sequence.createSequenceForPrimitive(1);
+    Sequence c = Sequence.createSequenceForPrimitive(true);
+
+    Checkpoint checkpoint = new Checkpoint(directory, 1000);
+    checkpoint.start();
+    checkpoint.recordPoolSequence(a);
+    checkpoint.recordPoolSequence(c);
+    checkpoint.save(properties("steps", "1"), Collections::emptyList, Collections::emptyList);
+
+    // After a removal, the pool is written as it is, to a new file.
+    checkpoint.recordPoolRemoval();
+    checkpoint.recordPoolSequence(b);
+    checkpoint.save(properties("steps", "2"), () -> Arrays.asList(c, b), Collections::emptyList);
+    assertFalse(Files.exists(directory.resolve("pool.txt")));
+    Checkpoint.Contents contents = new Checkpoint(directory, 1000).resume();
+    assertNotNull(contents);
+    assertEquals(Arrays.asList(c, b), contents.poolSequences);
+
+    // Later additions are appended to the new file.
+    checkpoint.recordPoolSequence(a);
+    checkpoint.save(properties("steps", "3"), Collections::emptyList, Collections::emptyList);
+    contents = new Checkpoint(directory, 1000).resume();
+    assertNotNull(contents);
+    assertEquals(Arrays.asList(c, b, a), contents.poolSequences);
+    assertEquals("3", contents.state.getProperty("steps"));
+
+    new Checkpoint(directory, 1000).start();
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test
+  public void testErrorRemoval() throws IOException, SequenceParseException {
+    Path directory = Files.createTempDirectory("CheckpointTest");
+    Sequence a = Sequence.createSequenceForPrimitive("a");
+    Sequence b = Sequence.createSequenceForPrimitive(1);
+    Sequence c = Sequence.createSequenceForPrimitive(true);
+
+    Checkpoint checkpoint = new Checkpoint(directory, 1000);
+    checkpoint.start();
+    checkpoint.recordErrorSequence(a);
+    checkpoint.recordErrorSequence(b);
+    checkpoint.save(properties("steps", "1"), Collections::emptyList, Collections::emptyList);
+
+    // A test that is no longer kept is not resumed.
+    checkpoint.recordErrorRemoval();
+    checkpoint.recordErrorSequence(c);
+    checkpoint.save(properties("steps", "2"), Collections::emptyList, () -> Arrays.asList(a, c));
+    assertFalse(Files.exists(directory.resolve("error.txt")));
+    Checkpoint.Contents contents = new Checkpoint(directory, 1000).resume();
+    assertNotNull(contents);
+    assertEquals(Arrays.asList(a, c), contents.errorSequences);
+    assertEquals(Collections.emptyList(), contents.poolSequences);
+  }
+}
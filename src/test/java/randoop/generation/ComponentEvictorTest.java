@@ -0,0 +1,80 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import randoop.sequence.Sequence;
+
+/** Tests for {@link ComponentEvictor}. */
+public class ComponentEvictorTest {
+
+  /**
+   * Returns a list of distinct one-statement sequences.
+   *
+   * @param n the number of sequences
+   * @return n distinct sequences
+   */
+  private static List<Sequence> sequences(int n) {
+    List<Sequence> result = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      result.add(Sequence.createSequenceForPrimitive(i));
+    }
+    return result;
+  }
+
+  @Test
+  public void testEvictsLeastUseful() {
+    ComponentEvictor evictor = new ComponentEvictor();
+    List<Sequence> seqs = sequences(8);
+    for (Sequence s : seqs) {
+      evictor.added(s, 0);
+    }
+    // Every old sequence but seqs.get(3) is selected.
+    for (int i = 0; i < 6; i++) {
+      if (i != 3) {
+        evictor.selected(Collections.singletonList(seqs.get(i)));
+      }
+    }
+    Set<Sequence> evicted = evictor.evict(0.1);
+    assertEquals(1, evicted.size());
+    assertTrue(evicted.contains(seqs.get(3)));
+    assertEquals(1, evictor.numEvicted());
+  }
+
+  @Test
+  public void testProductiveOutweighsSelected() {
+    ComponentEvictor evictor = new ComponentEvictor();
+    List<Sequence> seqs = sequences(8);
+    for (Sequence s : seqs) {
+      evictor.added(s, 0);
+    }
+    for (int i = 0; i < 3; i++) {
+      evictor.selected(Collections.singletonList(seqs.get(0)));
+    }
+    evictor.productive(Collections.singletonList(seqs.get(1)));
+    Set<Sequence> evicted = evictor.evict(0.6);
+    assertEquals(5, evicted.size());
+    assertTrue(evicted.contains(seqs.get(0)));
+    assertFalse(evicted.contains(seqs.get(1)));
+  }
+
+  @Test
+  public void testNewestAreProtected() {
+    ComponentEvictor evictor = new ComponentEvictor();
+    List<Sequence> seqs = sequences(4);
+    for (Sequence s : seqs) {
+      evictor.added(s, 0);
+    }
+    Set<Sequence> evicted = evictor.evict(1.0);
+    assertEquals(3, evicted.size());
+    assertFalse(evicted.contains(seqs.get(3)));
+    // Evicted sequences are no longer tracked.
+    assertEquals(0, evictor.evict(1.0).size());
+  }
+}
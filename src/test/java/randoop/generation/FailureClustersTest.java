@@ -0,0 +1,126 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.condition.RandoopSpecificationError;
+import randoop.contract.IsNotNull;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.ErrorRevealingChecks;
+import randoop.test.ObjectCheck;
+import randoop.test.TestCheckGenerator;
+import randoop.test.TestChecks;
+import randoop.types.JavaTypes;
+
+/** Tests for {@link FailureClusters}. */
+public class FailureClustersTest {
+
+  /** A check generator that reports a failure for the last statement of every sequence. */
+  private static final TestCheckGenerator ALWAYS_FAILS =
+      new TestCheckGenerator() {
+        @Override
+        public TestChecks<?> generateTestChecks(ExecutableSequence eseq) {
+          return new ErrorRevealingChecks(
+              new ObjectCheck(new IsNotNull(), eseq.sequence.getLastVariable()));
+        }
+      };
+
+  /**
+   * Returns an executed error-revealing sequence that creates unused strings, creates a
+   * StringBuilder, and calls a method on it.
+   *
+   * @param method the name of a method of StringBuilder that takes no arguments
+   * @param unused the number of unused strings to create
+   * @return the executed sequence
+   * @throws NoSuchMethodException if the method does not exist
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static ExecutableSequence failing(String method, int unused)
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence = new Sequence();
+    for (int i = 0; i < unused; i++) {
+      sequence =
+          sequence.extend(TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, "s"));
+    }
+    sequence =
+        sequence.extend(TypedOperation.forConstructor(StringBuilder.class.getConstructor()));
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod(method)),
+            Collections.singletonList(sequence.getLastVariable()));
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    eseq.execute(new DummyVisitor(), ALWAYS_FAILS);
+    return eseq;
+  }
+
+  @Test
+  public void testKeepsShortest() throws NoSuchMethodException, RandoopSpecificationError {
+    FailureClusters clusters = new FailureClusters(2);
+    ExecutableSequence long1 = failing("length", 2);
+    ExecutableSequence medium = failing("length", 1);
+    ExecutableSequence shortest = failing("length", 0);
+    ExecutableSequence long2 = failing("length", 3);
+    assertNull(clusters.add(long1));
+    assertNull(clusters.add(medium));
+    assertSame(long1, clusters.add(shortest));
+    assertSame(long2, clusters.add(long2));
+    assertEquals(1, clusters.numFailures());
+    assertEquals(2, clusters.numDiscarded());
+
+    // A different operation is a different failure.
+    assertNull(clusters.add(failing("toString", 3)));
+    assertEquals(2, clusters.numFailures());
+  }
+
+  @Test
+  public void testReplace() throws NoSuchMethodException, RandoopSpecificationError {
+    FailureClusters clusters = new FailureClusters(1);
+    ExecutableSequence unreduced = failing("length", 3);
+    assertNull(clusters.add(unreduced));
+    clusters.replace(unreduced, failing("length", 0));
+    // The replacement is shorter than a new sequence, which is therefore not kept.
+    ExecutableSequence medium = failing("length", 1);
+    assertSame(medium, clusters.add(medium));
+    assertEquals(1, clusters.numFailures());
+  }
+
+  @Test
+  public void testRestore() throws NoSuchMethodException, RandoopSpecificationError {
+    FailureClusters clusters = new FailureClusters(1);
+    // Restored sequences are kept even if the cluster is full.
+    ExecutableSequence restored = failing("length", 2);
+    clusters.restore(restored);
+    clusters.restore(failing("length", 1));
+    assertEquals(1, clusters.numFailures());
+    assertEquals(0, clusters.numDiscarded());
+    // New sequences are compared with the restored ones.
+    ExecutableSequence longer = failing("length", 3);
+    assertSame(longer, clusters.add(longer));
+    assertSame(restored, clusters.add(failing("length", 0)));
+  }
+
+  @Test
+  public void testTopFrames() {
+    Throwable exception = new IllegalStateException();
+    exception.setStackTrace(
+        new StackTraceElement[] {
+          new StackTraceElement("java.util.ArrayList", "get", "ArrayList.java", 10),
+          new StackTraceElement("com.example.Foo", "lambda$run$3", "Foo.java", 20),
+          new StackTraceElement("com.example.Foo$$Lambda$14/0x0000000800c03000", "apply", null, -1),
+          new StackTraceElement("randoop.reflection.MethodCall", "execute", "MethodCall.java", 30),
+          new StackTraceElement("com.example.Foo", "run", "Foo.java", 40),
+          new StackTraceElement("com.example.Bar", "main", "Bar.java", 50)
+        });
+    assertEquals(
+        Arrays.asList("com.example.Foo.lambda$run", "com.example.Foo$$Lambda.apply"),
+        FailureClusters.topFrames(exception, 2));
+    assertEquals(4, FailureClusters.topFrames(exception, 10).size());
+  }
+}
@@ -0,0 +1,123 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.condition.RandoopSpecificationError;
+import randoop.main.GenInputsAbstract;
+import randoop.main.GenTests;
+import randoop.main.OptionsCache;
+import randoop.operation.TypedOperation;
+import randoop.reflection.DefaultReflectionPredicate;
+import randoop.reflection.OmitMethodsPredicate;
+import randoop.reflection.OperationExtractor;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.ContractSet;
+import randoop.util.MultiMap;
+import randoop.util.Randomness;
+import randoop.util.ReflectionExecutor;
+
+/** Tests for {@link GenInputsAbstract#nondeterminism_check_fraction}. */
+public class NondeterminismCheckTest {
+
+  private static OptionsCache optionsCache;
+
+  @BeforeClass
+  public static void setup() {
+    optionsCache = new OptionsCache();
+    optionsCache.saveState();
+  }
+
+  @AfterClass
+  public static void restore() {
+    optionsCache.restoreState();
+  }
+
+  /** A class with a nondeterministic method and a deterministic one. */
+  public static class Counter {
+    /** The number of calls to {@link #next}. */
+    private static int count = 0;
+
+    /**
+     * Returns a different value on each call.
+     *
+     * @param i any value
+     * @return the number of calls so far, plus {@code i}
+     */
+    public static int next(int i) {
+      return ++count + i;
+    }
+
+    /**
+     * Returns the same value on each call.
+     *
+     * @param i any value
+     * @return twice {@code i}
+     */
+    public static int twice(int i) {
+      return 2 * i;
+    }
+  }
+
+  @Test
+  public void testNondeterministicTestsAreDiscarded() throws RandoopSpecificationError {
+    Randomness.setSeed(0);
+    ReflectionExecutor.resetStatistics();
+    GenInputsAbstract.nondeterminism_check_fraction = 1;
+    GenInputsAbstract.generated_limit = 200;
+    GenInputsAbstract.output_limit = 1000;
+    GenInputsAbstract.dont_output_tests = false;
+    GenInputsAbstract.no_regression_tests = false;
+    GenInputsAbstract.no_regression_assertions = false;
+
+    Collection<TypedOperation> operations =
+        OperationExtractor.operations(
+            randoop.types.ClassOrInterfaceType.forClass(Counter.class),
+            new DefaultReflectionPredicate(new HashSet<>()),
+            OmitMethodsPredicate.NO_OMISSION,
+            IS_PUBLIC);
+    Collection<Sequence> components = new LinkedHashSet<>(SeedSequences.defaultSeeds());
+    ForwardGenerator gen =
+        new ForwardGenerator(
+            new ArrayList<>(operations),
+            new LinkedHashSet<TypedOperation>(),
+            new GenInputsAbstract.Limits(),
+            new ComponentManager(components, IS_PUBLIC),
+            /* stopper= */ null,
+            Collections.emptySet());
+    gen.setTestPredicate(
+        new GenTests()
+            .createTestOutputPredicate(new HashSet<Sequence>(), new HashSet<Class<?>>(), null));
+    gen.setTestCheckGenerator(
+        GenTests.createTestCheckGenerator(
+            IS_PUBLIC, new ContractSet(), new MultiMap<>(), OmitMethodsPredicate.NO_OMISSION));
+    gen.setExecutionVisitor(new DummyVisitor());
+    gen.createAndClassifySequences();
+
+    Set<TypedOperation> nondeterministic = gen.getNondeterministicOperations();
+    assertEquals(1, nondeterministic.size());
+    assertEquals("next", nondeterministic.iterator().next().getName());
+    assertTrue(gen.num_nondeterministic_sequences > 0);
+
+    List<ExecutableSequence> regressionTests = gen.getRegressionSequences();
+    assertFalse(regressionTests.isEmpty());
+    for (ExecutableSequence eSeq : regressionTests) {
+      assertNotEquals("next", eSeq.getOperation().getName());
+    }
+  }
+}
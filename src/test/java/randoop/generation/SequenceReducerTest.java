@@ -0,0 +1,197 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.ExecutionOutcome;
+import randoop.NormalExecution;
+import randoop.condition.RandoopSpecificationError;
+import randoop.contract.IsNotNull;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.ErrorRevealingChecks;
+import randoop.test.ObjectCheck;
+import randoop.test.TestCheckGenerator;
+import randoop.test.TestChecks;
+import randoop.types.JavaTypes;
+
+/** Tests for {@link SequenceReducer}. */
+public class SequenceReducerTest {
+
+  /**
+   * Returns a check generator that reports a failure if the last statement of a sequence returns
+   * the given value.
+   *
+   * @param value the value that reveals an error
+   * @return the check generator
+   */
+  private static TestCheckGenerator failsIfLastValueIs(Object value) {
+    return new TestCheckGenerator() {
+      @Override
+      public TestChecks<?> generateTestChecks(ExecutableSequence eseq) {
+        int last = eseq.sequence.size() - 1;
+        ExecutionOutcome outcome = eseq.getResult(last);
+        if (outcome instanceof NormalExecution
+            && value.equals(((NormalExecution) outcome).getRuntimeValue())) {
+          return new ErrorRevealingChecks(
+              new ObjectCheck(new IsNotNull(), eseq.sequence.getVariable(last)));
+        }
+        return ErrorRevealingChecks.EMPTY;
+      }
+    };
+  }
+
+  /**
+   * Returns a sequence that creates a StringBuilder, appends "abc" to it, creates an unrelated
+   * string and an unrelated StringBuilder, and gets the length of the first StringBuilder.
+   *
+   * @return the sequence
+   * @throws NoSuchMethodException if a StringBuilder method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static Sequence builder() throws NoSuchMethodException, RandoopSpecificationError {
+    TypedOperation constructor =
+        TypedOperation.forConstructor(StringBuilder.class.getConstructor());
+    Sequence sequence = new Sequence().extend(constructor);
+    sequence =
+        sequence.extend(TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, "abc"));
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("append", String.class)),
+            Arrays.asList(sequence.getVariable(0), sequence.getVariable(1)));
+    sequence =
+        sequence.extend(TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, "xyz"));
+    sequence = sequence.extend(constructor);
+    return sequence.extend(
+        TypedOperation.forMethod(StringBuilder.class.getMethod("length")),
+        Collections.singletonList(sequence.getVariable(0)));
+  }
+
+  /**
+   * Executes a sequence.
+   *
+   * @param sequence the sequence
+   * @param checkGenerator the check generator
+   * @return the executed sequence
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static ExecutableSequence execute(Sequence sequence, TestCheckGenerator checkGenerator)
+      throws RandoopSpecificationError {
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    eseq.execute(new DummyVisitor(), checkGenerator);
+    return eseq;
+  }
+
+  @Test
+  public void testRemoveUnused() throws NoSuchMethodException, RandoopSpecificationError {
+    // An empty StringBuilder reveals the error: only the constructor and the last call are needed.
+    TypedOperation constructor =
+        TypedOperation.forConstructor(StringBuilder.class.getConstructor());
+    Sequence sequence = new Sequence().extend(constructor);
+    sequence =
+        sequence.extend(TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, "xyz"));
+    sequence = sequence.extend(constructor);
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("length")),
+            Collections.singletonList(sequence.getVariable(0)));
+    TestCheckGenerator checkGenerator = failsIfLastValueIs(0);
+    ExecutableSequence eseq = execute(sequence, checkGenerator);
+    assertTrue(eseq.hasFailure());
+
+    ExecutableSequence reduced = new SequenceReducer(checkGenerator, 100).reduce(eseq);
+    assertEquals(2, reduced.sequence.size());
+    assertEquals(constructor, reduced.sequence.getStatement(0).getOperation());
+    assertTrue(reduced.hasFailure());
+  }
+
+  @Test
+  public void testReduce() throws NoSuchMethodException, RandoopSpecificationError {
+    TestCheckGenerator checkGenerator = failsIfLastValueIs(3);
+    ExecutableSequence eseq = execute(builder(), checkGenerator);
+    assertTrue(eseq.hasFailure());
+
+    ExecutableSequence reduced = new SequenceReducer(checkGenerator, 100).reduce(eseq);
+    assertTrue(reduced.hasFailure());
+    // The unrelated string and StringBuilder are removed; "abc" cannot be replaced by "".
+    assertEquals(4, reduced.sequence.size());
+    assertEquals(
+        SequenceReducer.failureSignature(eseq), SequenceReducer.failureSignature(reduced));
+  }
+
+  @Test
+  public void testReplaceByPooledLiteral() throws NoSuchMethodException, RandoopSpecificationError {
+    // Math.abs("abc".length()) is 3, which reveals the error; so does Math.abs(3).
+    Sequence sequence =
+        new Sequence()
+            .extend(TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, "abc"));
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(String.class.getMethod("length")),
+            Collections.singletonList(sequence.getVariable(0)));
+    TypedOperation abs = TypedOperation.forMethod(Math.class.getMethod("abs", int.class));
+    sequence = sequence.extend(abs, Collections.singletonList(sequence.getVariable(1)));
+    TestCheckGenerator checkGenerator = failsIfLastValueIs(3);
+    ExecutableSequence eseq = execute(sequence, checkGenerator);
+    assertTrue(eseq.hasFailure());
+
+    // Without a pool, 0 is the only replacement, and it does not reveal the error.
+    assertEquals(3, new SequenceReducer(checkGenerator, 100).reduce(eseq).sequence.size());
+
+    Sequence three = Sequence.createSequenceForPrimitive(3);
+    ComponentManager pool = new ComponentManager(Collections.singleton(three), IS_PUBLIC);
+    ExecutableSequence reduced = new SequenceReducer(checkGenerator, pool, 100).reduce(eseq);
+    assertTrue(reduced.hasFailure());
+    assertEquals(2, reduced.sequence.size());
+    assertEquals(three.getStatement(0), reduced.sequence.getStatement(0));
+    assertEquals(abs, reduced.sequence.getStatement(1).getOperation());
+  }
+
+  @Test
+  public void testBudget() throws NoSuchMethodException, RandoopSpecificationError {
+    TestCheckGenerator checkGenerator = failsIfLastValueIs(3);
+    ExecutableSequence eseq = execute(builder(), checkGenerator);
+    assertSame(eseq, new SequenceReducer(checkGenerator, 0).reduce(eseq));
+  }
+
+  @Test
+  public void testNotFailing() throws NoSuchMethodException, RandoopSpecificationError {
+    ExecutableSequence eseq = execute(builder(), failsIfLastValueIs(4));
+    assertSame(eseq, new SequenceReducer(failsIfLastValueIs(4), 100).reduce(eseq));
+  }
+
+  @Test
+  public void testRemoveStatement() throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence = builder();
+    // The string "abc" is used by the append call.
+    assertNull(SequenceReducer.removeStatement(sequence, 1));
+    Sequence removed = SequenceReducer.removeStatement(sequence, 3);
+    assertEquals(sequence.size() - 1, removed.size());
+    assertEquals(sequence.getStatement(4), removed.getStatement(3));
+  }
+
+  @Test
+  public void testReplaceInput() throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence = builder();
+    TypedOperation append = sequence.getStatement(2).getOperation();
+    TypedOperation empty = SequenceReducer.simplerInput(append, 1);
+    assertEquals(
+        TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, ""), empty);
+    // The receiver is never replaced by null.
+    assertNull(SequenceReducer.simplerInput(append, 0));
+
+    Sequence replaced = SequenceReducer.replaceInput(sequence, 2, 1, empty);
+    assertEquals(sequence.size() + 1, replaced.size());
+    assertEquals(empty, replaced.getStatement(2).getOperation());
+    assertEquals(2, replaced.getInputs(3).get(1).getDeclIndex());
+    assertEquals(0, replaced.getInputs(3).get(0).getDeclIndex());
+  }
+}
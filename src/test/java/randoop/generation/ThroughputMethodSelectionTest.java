@@ -0,0 +1,143 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import org.junit.Test;
+import randoop.condition.RandoopSpecificationError;
+import randoop.operation.TypedOperation;
+import randoop.sequence.Sequence;
+import randoop.util.GenerationMetrics;
+import randoop.util.Randomness;
+
+/** Tests for {@link ThroughputMethodSelection}. */
+public class ThroughputMethodSelectionTest {
+
+  /**
+   * Returns three operations to select from.
+   *
+   * @return three operations
+   * @throws NoSuchMethodException if a method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static List<TypedOperation> operations()
+      throws NoSuchMethodException, RandoopSpecificationError {
+    return Arrays.asList(
+        TypedOperation.forMethod(String.class.getMethod("length")),
+        TypedOperation.forMethod(String.class.getMethod("trim")),
+        TypedOperation.forMethod(String.class.getMethod("isEmpty")));
+  }
+
+  @Test
+  public void testWeightIsSuccessPerTime() throws NoSuchMethodException, RandoopSpecificationError {
+    List<TypedOperation> operations = operations();
+    TypedOperation fast = operations.get(0);
+    TypedOperation useless = operations.get(1);
+    TypedOperation slow = operations.get(2);
+    ThroughputMethodSelection selector = new ThroughputMethodSelection(operations);
+    for (int i = 0; i < 100; i++) {
+      selector.recordStep(fast, 1_000, true);
+      selector.recordStep(useless, 1_000, false);
+      selector.recordStep(slow, 50_000, true);
+    }
+    assertTrue(selector.getWeight(fast) > selector.getWeight(slow));
+    assertTrue(selector.getWeight(slow) > selector.getWeight(useless));
+    assertTrue(selector.getWeight(useless) > 0);
+  }
+
+  @Test
+  public void testUntriedOperationIsTried()
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Randomness.setSeed(0);
+    List<TypedOperation> operations = operations();
+    ThroughputMethodSelection selector = new ThroughputMethodSelection(operations);
+    for (int i = 0; i < 100; i++) {
+      selector.recordStep(operations.get(0), 1_000, false);
+      selector.recordStep(operations.get(1), 1_000, false);
+    }
+    // The prior for an untried operation is better than the record of the others.
+    assertTrue(selector.getWeight(operations.get(2)) > selector.getWeight(operations.get(0)));
+    Set<TypedOperation> selected = new HashSet<>();
+    for (int i = 0; i < 10; i++) {
+      selected.add(selector.selectOperation());
+    }
+    assertTrue(selected.contains(operations.get(2)));
+  }
+
+  @Test
+  public void testRejectedSelectionIsNotCharged()
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Randomness.setSeed(0);
+    List<TypedOperation> operations = operations();
+    ThroughputMethodSelection selector = new ThroughputMethodSelection(operations);
+    double initialWeight = selector.getWeight(operations.get(0));
+    for (int i = 0; i < 100; i++) {
+      selector.rejectedSelectionHook(selector.selectOperation());
+    }
+    selector.selectOperation();
+    for (TypedOperation operation : operations) {
+      assertEquals(initialWeight, selector.getWeight(operation), 0);
+    }
+  }
+
+  @Test
+  public void testTimedOutOperationIsQuarantined()
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Randomness.setSeed(0);
+    GenerationMetrics.reset();
+    List<TypedOperation> operations = operations();
+    TypedOperation slow = operations.get(1);
+    ThroughputMethodSelection selector = new ThroughputMethodSelection(operations);
+    int timeouts = 0;
+    for (int i = 0; i < 1000 && timeouts < ThroughputMethodSelection.QUARANTINE_TIMEOUTS; i++) {
+      if (selector.selectOperation().equals(slow)) {
+        selector.timedOutSequenceHook(new Sequence());
+        timeouts++;
+      }
+    }
+    assertEquals(ThroughputMethodSelection.QUARANTINE_TIMEOUTS, timeouts);
+    // The last timeout is charged when the next step starts.
+    assertFalse(selector.isQuarantined(slow));
+    for (int i = 0; i < 1000; i++) {
+      assertNotEquals(slow, selector.selectOperation());
+    }
+    assertTrue(selector.isQuarantined(slow));
+    assertEquals(0, selector.getWeight(slow), 0);
+    assertEquals(1, GenerationMetrics.getCounter(ThroughputMethodSelection.QUARANTINED_COUNTER));
+    GenerationMetrics.reset();
+  }
+
+  @Test
+  public void testSaveAndRestoreState() throws NoSuchMethodException, RandoopSpecificationError {
+    List<TypedOperation> operations = operations();
+    ThroughputMethodSelection selector = new ThroughputMethodSelection(operations);
+    for (int i = 0; i < 100; i++) {
+      selector.recordStep(operations.get(0), 1_000, true);
+      selector.recordStep(operations.get(1), 50_000, false);
+    }
+    Properties state = new Properties();
+    selector.saveState(state);
+
+    ThroughputMethodSelection restored = new ThroughputMethodSelection(operations);
+    restored.restoreState(state);
+    for (TypedOperation operation : operations) {
+      assertEquals(selector.getWeight(operation), restored.getWeight(operation), 0);
+    }
+
+    // An operation that timed out too often in the saved run stays quarantined.
+    state.setProperty(
+        "throughput.operation." + operations.get(2).toParsableString(),
+        "2 0 2000 " + ThroughputMethodSelection.QUARANTINE_TIMEOUTS);
+    restored = new ThroughputMethodSelection(operations);
+    restored.restoreState(state);
+    assertTrue(restored.isQuarantined(operations.get(2)));
+    assertFalse(restored.isQuarantined(operations.get(0)));
+  }
+}
@@ -0,0 +1,82 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/** Tests for {@link ValueSizeEstimator}. */
+public class ValueSizeEstimatorTest {
+
+  /** A class with one primitive field and one reference field. */
+  private static class Node {
+    /** A primitive field. */
+    long value;
+
+    /** A reference field. */
+    Node next;
+
+    /**
+     * Creates a Node.
+     *
+     * @param next the next node
+     */
+    Node(Node next) {
+      this.next = next;
+    }
+  }
+
+  @Test
+  public void testPrimitiveArray() {
+    ValueSizeEstimator estimator = new ValueSizeEstimator(1 << 20);
+    assertEquals(
+        ValueSizeEstimator.align(ValueSizeEstimator.ARRAY_HEADER_SIZE + 10 * 8),
+        estimator.estimate(new long[10]));
+    assertEquals(
+        ValueSizeEstimator.align(ValueSizeEstimator.ARRAY_HEADER_SIZE + 3),
+        estimator.estimate(new byte[3]));
+    assertEquals(0, estimator.estimate(null));
+  }
+
+  @Test
+  public void testCycle() {
+    ValueSizeEstimator estimator = new ValueSizeEstimator(1 << 20);
+    Node node = new Node(null);
+    long one = estimator.estimate(node);
+    assertTrue(one > 0);
+    node.next = node;
+    assertEquals(one, estimator.estimate(node));
+    assertEquals(2 * one, estimator.estimate(new Node(node)));
+  }
+
+  @Test
+  public void testSharedObjects() {
+    ValueSizeEstimator estimator = new ValueSizeEstimator(1 << 20);
+    assertEquals(0, estimator.estimate(TimeUnit.SECONDS));
+    assertEquals(0, estimator.estimate(String.class));
+  }
+
+  @Test
+  public void testLimit() {
+    ValueSizeEstimator estimator = new ValueSizeEstimator(1000);
+    assertFalse(estimator.exceedsLimit(new int[10]));
+    assertTrue(estimator.exceedsLimit(new int[1000]));
+
+    List<Object> list = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      list.add(new Node(null));
+    }
+    assertTrue(estimator.exceedsLimit(list));
+    list.subList(1, list.size()).clear();
+    assertFalse(estimator.exceedsLimit(list));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveLimit() {
+    new ValueSizeEstimator(0);
+  }
+}
@@ -0,0 +1,110 @@
+package randoop.instrument;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.plumelib.util.FileWriterWithName;
+import randoop.main.GenInputsAbstract;
+import randoop.main.GenTests;
+import randoop.main.RandoopUsageError;
+import randoop.util.ReflectionExecutor;
+
+/** Tests for {@link DeadlineTracker}. */
+public class DeadlineTrackerTest {
+
+  /**
+   * Calls {@link DeadlineTracker#check} many times.
+   *
+   * @return true if a check threw {@link DeadlineExceededError}
+   */
+  private static boolean checkMany() {
+    try {
+      for (int i = 0; i < 10_000; i++) {
+        DeadlineTracker.check();
+      }
+      return false;
+    } catch (DeadlineExceededError e) {
+      return true;
+    }
+  }
+
+  @Test
+  public void testUnarmed() {
+    assertFalse(checkMany());
+    assertFalse(DeadlineTracker.disarm());
+  }
+
+  @Test
+  public void testDeadlineNotReached() {
+    DeadlineTracker.arm(60_000);
+    assertFalse(checkMany());
+    assertFalse(DeadlineTracker.disarm());
+  }
+
+  @Test
+  public void testDeadlinePassed() {
+    DeadlineTracker.arm(0);
+    assertTrue(checkMany());
+    // Once the deadline has passed, every check fails, even if the error was caught.
+    try {
+      DeadlineTracker.check();
+      fail("expected DeadlineExceededError");
+    } catch (DeadlineExceededError e) {
+      // expected
+    }
+    assertTrue(DeadlineTracker.disarm());
+    assertFalse(checkMany());
+  }
+
+  /**
+   * Asserts that the options are rejected.
+   *
+   * @param options the command-line options
+   */
+  private static void assertRejected(GenTests options) {
+    try {
+      options.checkOptionsValid();
+      fail("expected RandoopUsageError");
+    } catch (RandoopUsageError e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testTimeoutOptions() throws IOException {
+    assumeFalse(DeadlineTracker.isEnabled());
+    GenTests options = new GenTests();
+    List<String> oldTestclass = GenInputsAbstract.testclass;
+    int oldCallTimeoutMillis = ReflectionExecutor.call_timeout_millis;
+    File timedOutTests = File.createTempFile("timed-out-tests", ".txt");
+    timedOutTests.deleteOnExit();
+    GenInputsAbstract.testclass = Collections.singletonList("java.lang.String");
+    try {
+      ReflectionExecutor.call_timeout_millis = 500;
+      assertRejected(options);
+      ReflectionExecutor.call_timeout_millis = oldCallTimeoutMillis;
+      ReflectionExecutor.timed_out_tests = new FileWriterWithName(timedOutTests.getPath());
+      assertRejected(options);
+
+      // With deadline checks, both options are meaningful.
+      DeadlineTracker.enable();
+      ReflectionExecutor.call_timeout_millis = 500;
+      options.checkOptionsValid();
+    } finally {
+      DeadlineTracker.disable();
+      if (ReflectionExecutor.timed_out_tests != null) {
+        ReflectionExecutor.timed_out_tests.close();
+        ReflectionExecutor.timed_out_tests = null;
+      }
+      ReflectionExecutor.call_timeout_millis = oldCallTimeoutMillis;
+      GenInputsAbstract.testclass = oldTestclass;
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package randoop.output;
+
+import static org.junit.Assert.assertEquals;
+
+import com.github.javaparser.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.ExceptionalExecution;
+import randoop.condition.RandoopSpecificationError;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.DummyCheckGenerator;
+import randoop.test.ExpectedExceptionCheck;
+import randoop.test.RegressionChecks;
+import randoop.test.TestCheckGenerator;
+import randoop.test.TestChecks;
+import randoop.types.JavaTypes;
+
+/**
+ * Tests that {@link JUnitCreator#createTestClassSource} produces the same text as printing the
+ * result of {@link JUnitCreator#createTestClass}.
+ */
+public class JUnitCreatorSourceTest {
+
+  /**
+   * Returns executed sequences that use a StringBuilder, including one whose last statement throws
+   * an expected exception.
+   *
+   * @return the executed sequences
+   * @throws NoSuchMethodException if a StringBuilder method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static List<ExecutableSequence> getSequences()
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence builder =
+        new Sequence().extend(TypedOperation.forConstructor(StringBuilder.class.getConstructor()));
+    // The comment-like text must not confuse the emitter.
+    TypedOperation textInit =
+        TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, "a // b");
+    Sequence text = builder.extend(textInit);
+    Sequence append =
+        text.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("append", String.class)),
+            Arrays.asList(text.getVariable(0), text.getVariable(1)));
+    Sequence length =
+        append.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("length")),
+            Collections.singletonList(append.getVariable(0)));
+    Sequence index =
+        append.extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, 100));
+    Sequence charAt =
+        index.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("charAt", int.class)),
+            Arrays.asList(index.getVariable(0), index.getVariable(3)));
+
+    List<ExecutableSequence> result = new ArrayList<>();
+    for (Sequence sequence : Arrays.asList(builder, append, length, builder, append)) {
+      ExecutableSequence eseq = new ExecutableSequence(sequence);
+      eseq.execute(new DummyVisitor(), new DummyCheckGenerator());
+      result.add(eseq);
+    }
+    ExecutableSequence exceptional = new ExecutableSequence(charAt);
+    exceptional.execute(new DummyVisitor(), new ExpectedExceptionGenerator());
+    result.add(exceptional);
+    return result;
+  }
+
+  /** Expects the exception thrown by the last statement of a sequence. */
+  private static class ExpectedExceptionGenerator extends TestCheckGenerator {
+    @Override
+    public TestChecks<?> generateTestChecks(ExecutableSequence eseq) {
+      int last = eseq.size() - 1;
+      Throwable exception = ((ExceptionalExecution) eseq.getResult(last)).getException();
+      return new RegressionChecks(
+          new ExpectedExceptionCheck(exception, last, exception.getClass().getCanonicalName()));
+    }
+  }
+
+  /**
+   * Asserts that both ways of creating a test class produce the same text.
+   *
+   * @param creator the JUnitCreator to use
+   * @throws NoSuchMethodException if a StringBuilder method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static void assertSameSource(JUnitCreator creator)
+      throws NoSuchMethodException, RandoopSpecificationError {
+    List<ExecutableSequence> sequences = getSequences();
+    List<String> methodNames = new ArrayList<>();
+    NameGenerator nameGenerator = new NameGenerator("test", 1, sequences.size());
+    for (int i = 0; i < sequences.size(); i++) {
+      methodNames.add(nameGenerator.next());
+    }
+    String expected =
+        creator
+            .createTestClass(
+                "SourceTest", new NameGenerator("test", 1, sequences.size()), sequences)
+            .toString();
+    assertEquals(expected, creator.createTestClassSource("SourceTest", methodNames, sequences));
+    // The second time, statements come from the cache.
+    assertEquals(expected, creator.createTestClassSource("SourceTest", methodNames, sequences));
+  }
+
+  @Test
+  public void testWithoutFixtures() throws NoSuchMethodException, RandoopSpecificationError {
+    assertSameSource(JUnitCreator.getTestCreator("pkg", null, null, null, null));
+  }
+
+  @Test
+  public void testWithFixtures()
+      throws NoSuchMethodException, ParseException, RandoopSpecificationError {
+    assertSameSource(
+        JUnitCreator.getTestCreator(
+            "pkg",
+            JUnitCreator.parseFixture(Collections.singletonList("System.out.println(1);")),
+            JUnitCreator.parseFixture(Collections.singletonList("// after all")),
+            null,
+            JUnitCreator.parseFixture(Arrays.asList("int x = 1;", "x++;"))));
+  }
+}
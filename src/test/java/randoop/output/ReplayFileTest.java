@@ -0,0 +1,340 @@
+package randoop.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import randoop.DummyVisitor;
+import randoop.condition.RandoopSpecificationError;
+import randoop.contract.ObserverEqValue;
+import randoop.main.GenTests;
+import randoop.operation.TypedClassOperation;
+import randoop.operation.TypedOperation;
+import randoop.reflection.OmitMethodsPredicate;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.ContractSet;
+import randoop.test.ExpectedExceptionCheck;
+import randoop.test.ObjectCheck;
+import randoop.test.RegressionChecks;
+import randoop.test.TestCheckGenerator;
+import randoop.types.JavaTypes;
+import randoop.types.Type;
+import randoop.util.MultiMap;
+
+/** Tests for {@link ReplayFile} and {@link ReplayRunner}. */
+public class ReplayFileTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Returns a sequence that creates a StringBuilder, appends a string to it, and gets its length.
+   *
+   * @return the sequence
+   * @throws NoSuchMethodException if a StringBuilder method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static Sequence builder() throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence =
+        new Sequence().extend(TypedOperation.forConstructor(StringBuilder.class.getConstructor()));
+    sequence =
+        sequence.extend(
+            TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, "a\tb"));
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("append", String.class)),
+            Arrays.asList(sequence.getVariable(0), sequence.getVariable(1)));
+    return sequence.extend(
+        TypedOperation.forMethod(StringBuilder.class.getMethod("length")),
+        Collections.singletonList(sequence.getVariable(0)));
+  }
+
+  /**
+   * Returns a sequence that calls a method on a string.
+   *
+   * @param string the string
+   * @param methodName the name of a no-argument method of String
+   * @return the sequence
+   * @throws NoSuchMethodException if the method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static Sequence stringCall(String string, String methodName)
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence = Sequence.createSequenceForPrimitive(string);
+    return sequence.extend(
+        TypedOperation.forMethod(String.class.getMethod(methodName)),
+        Collections.singletonList(sequence.getVariable(0)));
+  }
+
+  /**
+   * Returns a sequence that parses a string as an integer.
+   *
+   * @param string the string
+   * @return the sequence
+   * @throws NoSuchMethodException if the method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static Sequence parseInt(String string)
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence = Sequence.createSequenceForPrimitive(string);
+    return sequence.extend(
+        TypedOperation.forMethod(Integer.class.getMethod("parseInt", String.class)),
+        Collections.singletonList(sequence.getVariable(0)));
+  }
+
+  /**
+   * Executes the sequences and generates their regression checks. {@code StringBuilder.length()}
+   * is used as an observer.
+   *
+   * @param sequences the sequences
+   * @return the executed sequences
+   * @throws NoSuchMethodException if a StringBuilder method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static List<ExecutableSequence> execute(List<Sequence> sequences)
+      throws NoSuchMethodException, RandoopSpecificationError {
+    MultiMap<Type, TypedClassOperation> observers = new MultiMap<>();
+    observers.add(
+        Type.forClass(StringBuilder.class),
+        TypedOperation.forMethod(StringBuilder.class.getMethod("length")));
+    TestCheckGenerator checkGenerator =
+        GenTests.createTestCheckGenerator(
+            IS_PUBLIC, new ContractSet(), observers, OmitMethodsPredicate.NO_OMISSION);
+    List<ExecutableSequence> result = new ArrayList<>();
+    for (Sequence sequence : sequences) {
+      ExecutableSequence eseq = new ExecutableSequence(sequence);
+      eseq.execute(new DummyVisitor(), checkGenerator);
+      result.add(eseq);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the names of the given number of tests.
+   *
+   * @param count the number of tests
+   * @return the names {@code test1}, {@code test2}, etc.
+   */
+  private static List<String> names(int count) {
+    List<String> result = new ArrayList<>();
+    NameGenerator nameGenerator = new NameGenerator("test", 1, count);
+    for (int i = 0; i < count; i++) {
+      result.add(nameGenerator.next());
+    }
+    return result;
+  }
+
+  /**
+   * Returns the tests used by most of the tests in this class.
+   *
+   * @return executed sequences with value, array, observer, and exception checks
+   * @throws NoSuchMethodException if a method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static List<ExecutableSequence> tests()
+      throws NoSuchMethodException, RandoopSpecificationError {
+    return execute(
+        Arrays.asList(
+            builder(),
+            stringCall("hello", "toCharArray"),
+            stringCall("hello", "isEmpty"),
+            parseInt("x")));
+  }
+
+  @Test
+  public void testRoundTrip() throws Throwable {
+    List<ExecutableSequence> tests = tests();
+    assertTrue(tests.get(3).getChecks().getExceptionCheck() instanceof ExpectedExceptionCheck);
+    Path file = folder.getRoot().toPath().resolve("tests.replay");
+    assertEquals(Collections.emptyList(), ReplayFile.write(file, names(tests.size()), tests));
+
+    List<ReplayFile.Entry> entries = ReplayFile.readIndex(file);
+    assertEquals(tests.size(), entries.size());
+    for (int i = 0; i < tests.size(); i++) {
+      ReplayFile.Entry entry = entries.get(i);
+      assertEquals("test" + (i + 1), entry.getName());
+      ReplayTest test = ReplayFile.readTest(file, entry);
+      assertEquals(entry.getName(), test.getName());
+      ExecutableSequence eseq = tests.get(i);
+      assertTrue(test.represents(eseq.sequence, (RegressionChecks) eseq.getChecks()));
+      test.run();
+    }
+  }
+
+  @Test
+  public void testFailingCheck() throws Throwable {
+    String record = ReplayFile.toRecord("test1", execute(Arrays.asList(builder())).get(0));
+    assertNotNull(record);
+    assertTrue(record, record.contains("\t3\tI:3\n"));
+    ReplayTest test = ReplayFile.parseRecord(record.replace("\t3\tI:3\n", "\t3\tI:4\n"));
+    try {
+      test.run();
+      fail("The check should fail");
+    } catch (AssertionError e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("test1: check failed"));
+    }
+  }
+
+  @Test
+  public void testMissingException() throws Throwable {
+    String record = ReplayFile.toRecord("test1", execute(Arrays.asList(parseInt("x"))).get(0));
+    assertNotNull(record);
+    ReplayTest test = ReplayFile.parseRecord(record.replace("\"x\"", "\"1\""));
+    try {
+      test.run();
+      fail("The statement should be expected to throw");
+    } catch (AssertionError e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("NumberFormatException"));
+    }
+  }
+
+  @Test
+  public void testIncompleteFile()
+      throws NoSuchMethodException, IOException, RandoopSpecificationError {
+    Path file = folder.getRoot().toPath().resolve("tests.replay");
+    ReplayFile.write(file, names(4), tests());
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+    try {
+      ReplayFile.readIndex(file);
+      fail("An incomplete file should be rejected");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("no index"));
+    }
+  }
+
+  /**
+   * Compiles a class that runs a replay file with {@link ReplayRunner}, and runs it.
+   *
+   * @param packageName the package of the class, or null for the default package
+   * @param dataFilePath the path of the replay file in the {@link ReplayRunner.DataFile} annotation
+   * @param classDir the directory to which to write the source and the compiled class
+   * @return the result of running the class
+   * @throws IOException if the class cannot be written or loaded
+   * @throws ClassNotFoundException if the compiled class cannot be loaded
+   */
+  private Result runReplayClass(@Nullable String packageName, String dataFilePath, Path classDir)
+      throws IOException, ClassNotFoundException {
+    JUnitCreator creator = JUnitCreator.getTestCreator(packageName, null, null, null, null);
+    String source = creator.createReplayTestClass("RegressionTestReplay", dataFilePath);
+    Path sourceFile = classDir.resolve("RegressionTestReplay.java");
+    Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    int status =
+        compiler.run(
+            null,
+            null,
+            null,
+            "-classpath",
+            System.getProperty("java.class.path"),
+            "-d",
+            classDir.toString(),
+            sourceFile.toString());
+    assertEquals("compilation failed:" + System.lineSeparator() + source, 0, status);
+
+    String className =
+        packageName == null ? "RegressionTestReplay" : packageName + ".RegressionTestReplay";
+    try (URLClassLoader loader =
+        new URLClassLoader(new URL[] {classDir.toUri().toURL()}, getClass().getClassLoader())) {
+      return JUnitCore.runClasses(loader.loadClass(className));
+    }
+  }
+
+  @Test
+  public void testRunner()
+      throws IOException, ClassNotFoundException, NoSuchMethodException, RandoopSpecificationError {
+    Path dir = folder.getRoot().toPath();
+    List<ExecutableSequence> tests = tests();
+    ReplayFile.write(dir.resolve("RegressionTest.replay"), names(tests.size()), tests);
+    Result result = runReplayClass(null, "RegressionTest.replay", dir);
+    assertEquals(tests.size(), result.getRunCount());
+    assertTrue(result.getFailures().toString(), result.wasSuccessful());
+  }
+
+  @Test
+  public void testRunnerInPackage()
+      throws IOException, ClassNotFoundException, NoSuchMethodException, RandoopSpecificationError {
+    Path dir = folder.newFolder("classes").toPath();
+    Path packageDir = Files.createDirectories(dir.resolve("replay").resolve("data"));
+    List<ExecutableSequence> tests = tests();
+    ReplayFile.write(packageDir.resolve("RegressionTest.replay"), names(tests.size()), tests);
+    // The path is relative to the package of the class, not to the current directory.
+    Result result = runReplayClass("replay", "data/RegressionTest.replay", dir);
+    assertEquals(tests.size(), result.getRunCount());
+    assertTrue(result.getFailures().toString(), result.wasSuccessful());
+  }
+
+  @Test
+  public void testRunnerMissingFile() throws IOException, ClassNotFoundException {
+    Result result =
+        runReplayClass("replay", "RegressionTest.replay", folder.newFolder("classes").toPath());
+    assertEquals(1, result.getFailureCount());
+    String message = result.getFailures().get(0).getMessage();
+    assertTrue(message, message.contains("Cannot find replay file RegressionTest.replay"));
+  }
+
+  /**
+   * Returns a test that parses a string as a double and checks the result with {@code
+   * Double.doubleValue()}.
+   *
+   * @param string the string to parse
+   * @param expected the value that the observer is expected to return
+   * @return the test
+   * @throws NoSuchMethodException if a Double method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static ReplayTest doubleObserverTest(String string, double expected)
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence = Sequence.createSequenceForPrimitive(string);
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(Double.class.getMethod("valueOf", String.class)),
+            Collections.singletonList(sequence.getVariable(0)));
+    TypedOperation doubleValue = TypedOperation.forMethod(Double.class.getMethod("doubleValue"));
+    ObjectCheck check =
+        new ObjectCheck(new ObserverEqValue(doubleValue, expected), sequence.getVariable(1));
+    return new ReplayTest(
+        "test1", sequence, Collections.singleton(check), -1, null, /* exceptionRequired= */ false);
+  }
+
+  @Test
+  public void testObserverTolerance() throws Throwable {
+    // 0.1 + 0.2 is 0.30000000000000004.
+    doubleObserverTest("0.3", 0.1 + 0.2).run();
+    doubleObserverTest("NaN", Double.NaN).run();
+    try {
+      doubleObserverTest("0.31", 0.1 + 0.2).run();
+      fail("The check should fail");
+    } catch (AssertionError e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("test1: check failed"));
+    }
+  }
+
+  @Test
+  public void testObserverIsExact() throws Throwable {
+    TypedOperation doubleValue = TypedOperation.forMethod(Double.class.getMethod("doubleValue"));
+    ObserverEqValue observer = new ObserverEqValue(doubleValue, 0.1 + 0.2);
+    assertFalse(observer.evaluate(0.3));
+    assertTrue(observer.evaluate(0.1 + 0.2));
+  }
+}
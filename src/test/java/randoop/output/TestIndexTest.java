@@ -0,0 +1,134 @@
+package randoop.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import randoop.DummyVisitor;
+import randoop.condition.RandoopSpecificationError;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.DummyCheckGenerator;
+
+/** Tests for {@link TestIndex}. */
+public class TestIndexTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Returns an executed sequence that creates a StringBuilder and gets its length.
+   *
+   * @return the executed sequence
+   * @throws NoSuchMethodException if a StringBuilder method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static ExecutableSequence builder()
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence =
+        new Sequence().extend(TypedOperation.forConstructor(StringBuilder.class.getConstructor()));
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("length")),
+            Collections.singletonList(sequence.getVariable(0)));
+    return execute(sequence);
+  }
+
+  /**
+   * Returns an executed sequence that creates a point, an instance of a nested class.
+   *
+   * @return the executed sequence
+   * @throws NoSuchMethodException if the constructor is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static ExecutableSequence point()
+      throws NoSuchMethodException, RandoopSpecificationError {
+    TypedOperation constructor =
+        TypedOperation.forConstructor(Point2D.Double.class.getConstructor());
+    return execute(new Sequence().extend(constructor));
+  }
+
+  /**
+   * Executes a sequence.
+   *
+   * @param sequence the sequence
+   * @return the executed sequence
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static ExecutableSequence execute(Sequence sequence) throws RandoopSpecificationError {
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    eseq.execute(new DummyVisitor(), new DummyCheckGenerator());
+    return eseq;
+  }
+
+  @Test
+  public void testWriteAndSelect()
+      throws IOException, NoSuchMethodException, RandoopSpecificationError {
+    Path file = folder.getRoot().toPath().resolve("tests.idx");
+    TestIndex index = new TestIndex(file);
+    index.add("pkg", "RegressionTest0", "test1", builder());
+    index.add("pkg", "RegressionTest0", "test2", point());
+    index.add(null, "ErrorTest0", "test1", builder());
+    index.close();
+
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    assertEquals(TestIndex.HEADER, lines.get(0));
+    assertTrue(
+        lines.toString(),
+        lines.contains("pkg.RegressionTest0\ttest1\tclass\tjava.lang.StringBuilder"));
+    assertTrue(
+        lines.toString(),
+        lines.contains("pkg.RegressionTest0\ttest1\tmethod\tjava.lang.StringBuilder.length()"));
+    assertTrue(
+        lines.toString(), lines.contains("ErrorTest0\ttest1\tclass\tjava.lang.StringBuilder"));
+
+    SortedMap<String, SortedSet<String>> selected =
+        TestIndex.select(file, Collections.singleton("java.lang.StringBuilder"));
+    assertEquals(
+        new TreeSet<>(Arrays.asList("ErrorTest0", "pkg.RegressionTest0")), selected.keySet());
+    assertEquals(Collections.singleton("test1"), selected.get("pkg.RegressionTest0"));
+
+    // A change to a class affects the classes nested in it.
+    selected = TestIndex.select(file, Collections.singleton("java.awt.geom.Point2D"));
+    assertEquals(Collections.singleton("pkg.RegressionTest0"), selected.keySet());
+    assertEquals(Collections.singleton("test2"), selected.get("pkg.RegressionTest0"));
+
+    assertTrue(TestIndex.select(file, Collections.singleton("java.lang.String")).isEmpty());
+  }
+
+  @Test
+  public void testIsAffected() {
+    List<String> changed = Arrays.asList("a.B", "a.C$D");
+    assertTrue(TestIndex.isAffected("a.B", changed));
+    assertTrue(TestIndex.isAffected("a.B$1", changed));
+    assertTrue(TestIndex.isAffected("a.C$D", changed));
+    assertFalse(TestIndex.isAffected("a.C", changed));
+    assertFalse(TestIndex.isAffected("a.BB", changed));
+  }
+
+  @Test
+  public void testNotAnIndex() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("tests.idx");
+    Files.write(file, Collections.singletonList("not an index"), StandardCharsets.UTF_8);
+    try {
+      TestIndex.select(file, Collections.singleton("a.B"));
+      fail("A file without the header should be rejected");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("not a Randoop test index"));
+    }
+  }
+}
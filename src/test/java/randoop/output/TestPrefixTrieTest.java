@@ -0,0 +1,218 @@
+package randoop.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import randoop.DummyVisitor;
+import randoop.condition.RandoopSpecificationError;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.DummyCheckGenerator;
+import randoop.types.JavaTypes;
+import randoop.util.GenerationMetrics;
+
+/** Tests for {@link JUnitCreator#createTestClassSourceWithSharedPrefixes}. */
+public class TestPrefixTrieTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Returns a sequence that creates a StringBuilder.
+   *
+   * @return the sequence
+   * @throws NoSuchMethodException if the StringBuilder constructor is missing
+   */
+  private static Sequence constructor() throws NoSuchMethodException {
+    TypedOperation constructor =
+        TypedOperation.forConstructor(StringBuilder.class.getConstructor());
+    return new Sequence().extend(constructor);
+  }
+
+  /**
+   * Returns a sequence that creates a StringBuilder and appends eight strings to it.
+   *
+   * @return the sequence
+   * @throws NoSuchMethodException if a StringBuilder method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static Sequence builder() throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence = constructor();
+    TypedOperation append =
+        TypedOperation.forMethod(StringBuilder.class.getMethod("append", String.class));
+    for (String text : Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h")) {
+      sequence =
+          sequence.extend(
+              TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, text));
+      sequence =
+          sequence.extend(
+              append,
+              Arrays.asList(sequence.getVariable(0), sequence.getVariable(sequence.size() - 1)));
+    }
+    return sequence;
+  }
+
+  /**
+   * Returns the sequence extended by a call to a no-argument StringBuilder method on its first
+   * variable.
+   *
+   * @param sequence a sequence whose first variable is a StringBuilder
+   * @param methodName the name of the method
+   * @return the extended sequence
+   * @throws NoSuchMethodException if the method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static Sequence call(Sequence sequence, String methodName)
+      throws NoSuchMethodException, RandoopSpecificationError {
+    return sequence.extend(
+        TypedOperation.forMethod(StringBuilder.class.getMethod(methodName)),
+        Collections.singletonList(sequence.getVariable(0)));
+  }
+
+  /**
+   * Executes the sequences.
+   *
+   * @param sequences the sequences
+   * @return the executed sequences
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static List<ExecutableSequence> execute(List<Sequence> sequences)
+      throws RandoopSpecificationError {
+    List<ExecutableSequence> result = new ArrayList<>();
+    for (Sequence sequence : sequences) {
+      ExecutableSequence eseq = new ExecutableSequence(sequence);
+      eseq.execute(new DummyVisitor(), new DummyCheckGenerator());
+      result.add(eseq);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the names of the test methods for the given number of tests.
+   *
+   * @param count the number of tests
+   * @return the names of the test methods
+   */
+  private static List<String> methodNames(int count) {
+    List<String> result = new ArrayList<>();
+    NameGenerator nameGenerator = new NameGenerator("test", 1, count);
+    for (int i = 0; i < count; i++) {
+      result.add(nameGenerator.next());
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of occurrences of a string in some text.
+   *
+   * @param text the text
+   * @param s the string to count
+   * @return the number of occurrences of {@code s} in {@code text}
+   */
+  private static int count(String text, String s) {
+    int count = 0;
+    for (int i = text.indexOf(s); i != -1; i = text.indexOf(s, i + 1)) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Compiles a test class in the default package and runs its tests.
+   *
+   * @param className the name of the class
+   * @param source the source of the class
+   * @return the result of running the tests
+   * @throws IOException if the class cannot be written or loaded
+   * @throws ClassNotFoundException if the compiled class cannot be loaded
+   */
+  private Result compileAndRun(String className, String source)
+      throws IOException, ClassNotFoundException {
+    Path dir = folder.getRoot().toPath();
+    Path sourceFile = dir.resolve(className + ".java");
+    Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    int status =
+        compiler.run(
+            null,
+            null,
+            null,
+            "-classpath",
+            System.getProperty("java.class.path"),
+            "-d",
+            dir.toString(),
+            sourceFile.toString());
+    assertEquals("compilation failed:" + System.lineSeparator() + source, 0, status);
+    try (URLClassLoader loader =
+        new URLClassLoader(new URL[] {dir.toUri().toURL()}, getClass().getClassLoader())) {
+      return JUnitCore.runClasses(loader.loadClass(className));
+    }
+  }
+
+  @Test
+  public void testSharedPrefix() throws Exception {
+    Sequence builder = builder();
+    List<ExecutableSequence> tests =
+        execute(
+            Arrays.asList(
+                call(builder, "length"),
+                call(builder, "reverse"),
+                call(builder, "toString"),
+                call(builder, "capacity"),
+                // Shares only the constructor call, which is too short to share.
+                call(call(constructor(), "reverse"), "length")));
+    JUnitCreator creator = JUnitCreator.getTestCreator(null, null, null, null, null);
+    GenerationMetrics.reset();
+    String shared =
+        creator.createTestClassSourceWithSharedPrefixes(
+            "SharedTest", methodNames(tests.size()), tests);
+    String unshared = creator.createTestClassSource("SharedTest", methodNames(tests.size()), tests);
+
+    assertEquals(1, count(shared, "private static final class SharedPrefix0"));
+    assertFalse(shared.contains("SharedPrefix1"));
+    assertEquals(4, count(shared, "SharedPrefix0 prefix = new SharedPrefix0();"));
+    assertEquals(8, count(shared, ".append("));
+    assertEquals(32, count(unshared, ".append("));
+    int sharedLines = shared.split("\n").length;
+    int unsharedLines = unshared.split("\n").length;
+    assertTrue(sharedLines < unsharedLines);
+
+    // The line counts recorded while creating the shared source: the unshared count is estimated.
+    assertEquals(sharedLines, GenerationMetrics.getCounter(JUnitCreator.SHARED_PREFIX_LINES), 1);
+    assertEquals(unsharedLines, GenerationMetrics.getCounter(JUnitCreator.UNSHARED_LINES), 2);
+    GenerationMetrics.reset();
+
+    Result result = compileAndRun("SharedTest", shared);
+    assertEquals(tests.size(), result.getRunCount());
+    assertTrue(result.getFailures().toString(), result.wasSuccessful());
+  }
+
+  @Test
+  public void testNoSharedPrefix() throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence builder = builder();
+    List<ExecutableSequence> tests =
+        execute(Arrays.asList(call(builder, "length"), call(constructor(), "length")));
+    JUnitCreator creator = JUnitCreator.getTestCreator("pkg", null, null, null, null);
+    List<String> methodNames = methodNames(tests.size());
+    assertEquals(
+        creator.createTestClassSource("NotSharedTest", methodNames, tests),
+        creator.createTestClassSourceWithSharedPrefixes("NotSharedTest", methodNames, tests));
+  }
+}
@@ -0,0 +1,117 @@
+package randoop.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/** Tests that {@link OmitPatternMatcher} agrees with trying each pattern in turn. */
+public class OmitPatternMatcherTest {
+
+  /** Patterns of every kind that the matcher distinguishes. */
+  private static final List<String> REGEXES =
+      Arrays.asList(
+          "^java\\.util\\.Random\\.next",
+          "^java\\.util\\.Random\\.nextInt\\(int\\)$",
+          "^java\\.lang\\.Object\\.hashCode\\(\\)",
+          "^java\\.io\\.File\\.",
+          "^java\\.lang\\.Sys?tem\\.exit",
+          "^java\\.util\\.Date\\.(get|set)Time",
+          "\\.toString\\(\\)$",
+          "hashCode",
+          "\\bwait\\b",
+          "^(?:javax|sun)\\.",
+          "(.)\\1\\.",
+          "(?i)THREAD",
+          "\\Qjava.lang.Class.\\E",
+          "(?<pkg>java\\.net)\\.");
+
+  /** Signatures to test. */
+  private static final List<String> SIGNATURES =
+      Arrays.asList(
+          "java.util.Random.nextInt(int)",
+          "java.util.Random.nextLong()",
+          "java.util.Random.setSeed(long)",
+          "java.lang.Object.hashCode()",
+          "java.lang.Object.toString()",
+          "java.lang.Object.wait(long)",
+          "java.lang.System.exit(int)",
+          "java.lang.Stem.exit(int)",
+          "java.lang.Thread.start()",
+          "java.lang.Class.forName(java.lang.String)",
+          "java.net.URL.openConnection()",
+          "java.io.File.delete()",
+          "java.util.Date.getTime()",
+          "javax.swing.JFrame.show()",
+          "java.util.ArrayList.add(java.lang.Object)",
+          "java.lang.Integer.parseInt(java.lang.String)",
+          "aa.B.m()",
+          "");
+
+  /**
+   * Returns true if some pattern is found in the signature, by trying the patterns in turn.
+   *
+   * @param patterns the patterns
+   * @param signature a signature
+   * @return true if some pattern is found in the signature
+   */
+  private static boolean naiveFind(List<Pattern> patterns, String signature) {
+    for (Pattern pattern : patterns) {
+      if (pattern.matcher(signature).find()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Test
+  public void testAgreesWithEachPattern() {
+    List<Pattern> all = new ArrayList<>();
+    for (String regex : REGEXES) {
+      all.add(Pattern.compile(regex));
+    }
+    all.add(Pattern.compile("^JAVA\\.LANG\\.INTEGER\\.", Pattern.CASE_INSENSITIVE));
+    // Each pattern alone, and all of them together.
+    List<List<Pattern>> patternLists = new ArrayList<>();
+    for (Pattern pattern : all) {
+      patternLists.add(Collections.singletonList(pattern));
+    }
+    patternLists.add(all);
+    patternLists.add(Collections.emptyList());
+    for (List<Pattern> patterns : patternLists) {
+      OmitPatternMatcher matcher = new OmitPatternMatcher(patterns);
+      for (String signature : SIGNATURES) {
+        assertEquals(
+            patterns + " on " + signature,
+            naiveFind(patterns, signature),
+            matcher.find(signature));
+      }
+    }
+  }
+
+  @Test
+  public void testIsCombinable() {
+    assertTrue(OmitPatternMatcher.isCombinable(Pattern.compile("^java\\.util\\.(?:List|Set)")));
+    assertTrue(OmitPatternMatcher.isCombinable(Pattern.compile("a\\\\1")));
+    assertFalse(OmitPatternMatcher.isCombinable(Pattern.compile("(a)\\1")));
+    assertFalse(OmitPatternMatcher.isCombinable(Pattern.compile("(?i)a")));
+    assertFalse(OmitPatternMatcher.isCombinable(Pattern.compile("\\Qa)")));
+    assertFalse(OmitPatternMatcher.isCombinable(Pattern.compile("a", Pattern.LITERAL)));
+  }
+
+  @Test
+  public void testAnchoredPrefix() {
+    assertEquals("java.util.R", OmitPatternMatcher.anchoredPrefix("^java\\.util\\.R"));
+    assertEquals("java.lang.Sy", OmitPatternMatcher.anchoredPrefix("^java\\.lang\\.Sys?tem"));
+    assertEquals("java.util.", OmitPatternMatcher.anchoredPrefix("^java\\.util\\.\\w"));
+    assertEquals("", OmitPatternMatcher.anchoredPrefix("java\\.util\\."));
+    assertEquals("", OmitPatternMatcher.anchoredPrefix("^a|b"));
+    assertEquals("", OmitPatternMatcher.anchoredPrefix("^.*"));
+  }
+}
@@ -0,0 +1,59 @@
+package randoop.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/** Tests for {@link StaticCache}. */
+public class StaticCacheTest {
+
+  /** A class with static fields to save and restore. */
+  private static class Counters {
+    /** A primitive field. */
+    private static int count = 3;
+
+    /** A reference field. */
+    private static List<String> names = new ArrayList<>();
+
+    /** A final field, which is not saved. */
+    private static final List<String> FIXED = new ArrayList<>();
+  }
+
+  @Test
+  public void testRestoreChangedState() {
+    List<String> initialNames = Counters.names;
+    StaticCache cache = new StaticCache(Counters.class);
+    cache.saveState();
+
+    assertEquals(0, cache.restoreChangedState());
+
+    Counters.count = 4;
+    assertEquals(1, cache.restoreChangedState());
+    assertEquals(3, Counters.count);
+
+    // A modified object that was not replaced is not restored.
+    Counters.names.add("a");
+    Counters.FIXED.add("b");
+    assertEquals(0, cache.restoreChangedState());
+    Counters.names.clear();
+    Counters.FIXED.clear();
+
+    Counters.count = 5;
+    Counters.names = new ArrayList<>();
+    assertEquals(2, cache.restoreChangedState());
+    assertEquals(3, Counters.count);
+    assertSame(initialNames, Counters.names);
+  }
+
+  @Test
+  public void testRestoreState() {
+    StaticCache cache = new StaticCache(Counters.class);
+    cache.saveState();
+    Counters.count = 7;
+    cache.restoreState();
+    assertEquals(3, Counters.count);
+  }
+}
@@ -0,0 +1,120 @@
+package randoop.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.junit.Test;
+import randoop.operation.TypedOperation;
+import randoop.types.JavaTypes;
+import randoop.types.Type;
+
+/** Tests for {@link SequenceCollection}. */
+public class SequenceCollectionTest {
+
+  /**
+   * Returns a sequence that creates a value.
+   *
+   * @param type the type of the value
+   * @param value the value
+   * @return a sequence of one statement that creates {@code value}
+   */
+  private static Sequence valueSequence(Type type, Object value) {
+    return new Sequence().extend(TypedOperation.createPrimitiveInitialization(type, value));
+  }
+
+  @Test
+  public void testModificationCount() {
+    SequenceCollection collection =
+        new SequenceCollection(
+            Collections.singletonList(valueSequence(JavaTypes.STRING_TYPE, "a")));
+    collection.add(valueSequence(JavaTypes.INT_TYPE, 1));
+
+    int objectCount = collection.getModificationCount(JavaTypes.OBJECT_TYPE);
+    int intCount = collection.getModificationCount(JavaTypes.INT_TYPE);
+    assertEquals(objectCount, collection.getModificationCount(JavaTypes.OBJECT_TYPE));
+
+    // A new String changes the sequences for Object, but not those for int.
+    collection.add(valueSequence(JavaTypes.STRING_TYPE, "b"));
+    int newObjectCount = collection.getModificationCount(JavaTypes.OBJECT_TYPE);
+    assertNotEquals(objectCount, newObjectCount);
+    assertEquals(intCount, collection.getModificationCount(JavaTypes.INT_TYPE));
+
+    // A value of a new type may change the sequences for any type.
+    collection.add(valueSequence(JavaTypes.BOOLEAN_TYPE, true));
+    assertNotEquals(intCount, collection.getModificationCount(JavaTypes.INT_TYPE));
+    assertNotEquals(newObjectCount, collection.getModificationCount(JavaTypes.OBJECT_TYPE));
+  }
+
+  @Test
+  public void testSpillAndPageIn() throws IOException {
+    Path file = Files.createTempFile("SequenceCollectionTest", ".bin");
+    try (SequenceSpillFile spillFile = new SequenceSpillFile(file)) {
+      SequenceCollection collection = new SequenceCollection();
+      collection.setSpillFile(spillFile);
+      Set<Sequence> strings = new LinkedHashSet<>();
+      for (int i = 0; i < 3; i++) {
+        strings.add(valueSequence(JavaTypes.STRING_TYPE, "s" + i));
+      }
+      collection.addAll(strings);
+      collection.add(valueSequence(JavaTypes.INT_TYPE, 1));
+
+      assertEquals(3, collection.spill(strings));
+      assertEquals(1, collection.size());
+      assertEquals(3, collection.numSpilledSequences());
+      // No int is spilled.
+      assertNull(collection.pageIn(JavaTypes.INT_TYPE, false));
+
+      // All the strings are spilled, so one of them is read back.
+      Sequence pagedIn = collection.pageIn(JavaTypes.STRING_TYPE, false);
+      assertNotNull(pagedIn);
+      assertTrue(strings.contains(pagedIn));
+      assertEquals(2, collection.size());
+
+      // A sequence that was read back is not written again.
+      assertEquals(0, collection.spill(Collections.singleton(pagedIn)));
+      assertEquals(1, collection.size());
+      assertEquals(3, collection.numSpilledSequences());
+    }
+  }
+
+  @Test
+  public void testPageInAllAndClose() throws IOException {
+    Path file = Files.createTempFile("SequenceCollectionTest", ".bin");
+    SequenceCollection collection = new SequenceCollection();
+    collection.setSpillFile(new SequenceSpillFile(file));
+    Set<Sequence> strings = new LinkedHashSet<>();
+    for (int i = 0; i < 3; i++) {
+      strings.add(valueSequence(JavaTypes.STRING_TYPE, "s" + i));
+    }
+    collection.addAll(strings);
+    collection.spill(strings);
+
+    // An equal sequence is found in the file; a different one is not.
+    assertTrue(collection.isSpilled(valueSequence(JavaTypes.STRING_TYPE, "s1")));
+    assertFalse(collection.isSpilled(valueSequence(JavaTypes.STRING_TYPE, "t")));
+
+    for (int i = 0; i < 1000 && collection.size() < 3; i++) {
+      collection.pageIn(JavaTypes.STRING_TYPE, false);
+    }
+    assertEquals(3, collection.size());
+    // Every spilled string is in the collection, so none is chosen again.
+    assertNull(collection.pageIn(JavaTypes.STRING_TYPE, false));
+    assertTrue(collection.isSpilled(valueSequence(JavaTypes.STRING_TYPE, "s1")));
+
+    collection.closeSpillFile();
+    assertFalse(collection.hasSpillFile());
+    assertFalse(Files.exists(file));
+    assertFalse(collection.isSpilled(valueSequence(JavaTypes.STRING_TYPE, "s1")));
+    assertNull(collection.pageIn(JavaTypes.STRING_TYPE, false));
+  }
+}
@@ -0,0 +1,70 @@
+package randoop.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import randoop.condition.RandoopSpecificationError;
+import randoop.operation.TypedOperation;
+
+/** Tests for {@link SequenceSpillFile}. */
+public class SequenceSpillFileTest {
+
+  /**
+   * Returns a sequence that creates a StringBuilder, appends a string to it, and gets its length.
+   *
+   * @param string the string to append
+   * @return the sequence
+   * @throws NoSuchMethodException if a StringBuilder method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static Sequence builderLength(String string)
+      throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence =
+        new Sequence().extend(TypedOperation.forConstructor(StringBuilder.class.getConstructor()));
+    sequence = sequence.extend(Sequence.createSequenceForPrimitive(string).getOperation());
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("append", String.class)),
+            sequence.getVariable(0),
+            sequence.getVariable(1));
+    return sequence.extend(
+        TypedOperation.forMethod(StringBuilder.class.getMethod("length")),
+        Collections.singletonList(sequence.getVariable(0)));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException, NoSuchMethodException, RandoopSpecificationError {
+    Path file = Files.createTempFile("SequenceSpillFileTest", ".bin");
+    // A small chunk size, so that the records occupy several chunks.
+    try (SequenceSpillFile spillFile = new SequenceSpillFile(file, 64)) {
+      List<Sequence> sequences = new ArrayList<>();
+      List<Long> offsets = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        Sequence sequence = builderLength("s" + i);
+        if (i % 2 == 0) {
+          sequence.clearActiveFlag(1);
+        }
+        sequences.add(sequence);
+        offsets.add(spillFile.append(sequence));
+      }
+      assertTrue(spillFile.mappedSize() > 64);
+      // The constructor, append, and length are shared; each string is a distinct operation.
+      assertEquals(3 + 20, spillFile.numOperations());
+      for (int i = sequences.size() - 1; i >= 0; i--) {
+        Sequence read = spillFile.read(offsets.get(i));
+        assertEquals(sequences.get(i), read);
+        assertEquals(i % 2 != 0, read.isActive(1));
+        assertTrue(read.isActive(0));
+      }
+    }
+    assertFalse(Files.exists(file));
+  }
+}
@@ -0,0 +1,70 @@
+package randoop.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import randoop.condition.RandoopSpecificationError;
+import randoop.operation.TypedOperation;
+
+/** Tests for {@link SequenceTextFile}. */
+public class SequenceTextFileTest {
+
+  @Test
+  public void testRoundTrip()
+      throws IOException, SequenceParseException, NoSuchMethodException, RandoopSpecificationError {
+    Sequence primitive = Sequence.createSequenceForPrimitive("a \"quoted\"\nstring");
+    Sequence builder =
+        new Sequence().extend(TypedOperation.forConstructor(StringBuilder.class.getConstructor()));
+    Sequence builderLength =
+        builder.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("length")),
+            Collections.singletonList(builder.getVariable(0)));
+    List<Sequence> sequences = Arrays.asList(primitive, builder, builderLength);
+
+    Path file = Files.createTempFile("SequenceTextFileTest", ".txt");
+    try {
+      SequenceTextFile.write(file, sequences);
+      assertEquals(sequences, SequenceTextFile.read(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testInactiveStatements()
+      throws SequenceParseException, NoSuchMethodException, RandoopSpecificationError {
+    Sequence builder =
+        new Sequence().extend(TypedOperation.forConstructor(StringBuilder.class.getConstructor()));
+    Sequence builderLength =
+        builder.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("length")),
+            Collections.singletonList(builder.getVariable(0)));
+    builderLength.clearActiveFlag(1);
+
+    String text = SequenceTextFile.format(Arrays.asList(builder, builderLength));
+    List<Sequence> parsed = SequenceTextFile.parse(Arrays.asList(text.split("\\R")));
+    assertEquals(Arrays.asList(builder, builderLength), parsed);
+    assertTrue(parsed.get(0).isActive(0));
+    assertTrue(parsed.get(1).isActive(0));
+    assertFalse(parsed.get(1).isActive(1));
+  }
+
+  @Test
+  public void testEmpty() throws IOException, SequenceParseException {
+    Path file = Files.createTempFile("SequenceTextFileTest", ".txt");
+    try {
+      SequenceTextFile.write(file, Collections.emptyList());
+      assertEquals(Collections.emptyList(), SequenceTextFile.read(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package randoop.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import randoop.condition.RandoopSpecificationError;
+import randoop.generation.ComponentManager;
+import randoop.generation.ForwardGenerator;
+import randoop.generation.SeedSequences;
+import randoop.main.GenInputsAbstract;
+import randoop.main.GenTests;
+import randoop.main.OptionsCache;
+import randoop.operation.TypedOperation;
+import randoop.reflection.DefaultReflectionPredicate;
+import randoop.reflection.OmitMethodsPredicate;
+import randoop.reflection.OperationExtractor;
+import randoop.sequence.ExecutableSequence;
+import randoop.types.ClassOrInterfaceType;
+import randoop.util.MultiMap;
+import randoop.util.Randomness;
+import randoop.util.ReflectionExecutor;
+
+/** Tests for generation with {@code --pipeline-depth}. */
+public class PipelinedGenerationTest {
+
+  private static OptionsCache optionsCache;
+
+  @BeforeClass
+  public static void setup() {
+    optionsCache = new OptionsCache();
+    optionsCache.saveState();
+  }
+
+  @AfterClass
+  public static void restore() {
+    optionsCache.restoreState();
+  }
+
+  /**
+   * Generates sequences for BiSort with a fixed seed.
+   *
+   * @return the code of the generated regression sequences, in order
+   * @throws RandoopSpecificationError if the operations cannot be extracted
+   */
+  private static List<String> generate() throws RandoopSpecificationError {
+    Randomness.setSeed(0);
+    List<ClassOrInterfaceType> types =
+        OperationExtractor.classListToTypeList(Arrays.asList(BiSortVal.class, BiSort.class));
+    List<TypedOperation> model =
+        OperationExtractor.operations(types, new DefaultReflectionPredicate(), IS_PUBLIC);
+    ComponentManager mgr = new ComponentManager(SeedSequences.defaultSeeds(), IS_PUBLIC);
+    ForwardGenerator explorer =
+        new ForwardGenerator(
+            model,
+            new LinkedHashSet<TypedOperation>(),
+            new GenInputsAbstract.Limits(0, 200, 200, 200),
+            mgr,
+            null,
+            null);
+    explorer.setTestCheckGenerator(
+        GenTests.createTestCheckGenerator(
+            IS_PUBLIC, new ContractSet(), new MultiMap<>(), OmitMethodsPredicate.NO_OMISSION));
+    explorer.setTestPredicate(eseq -> true);
+    explorer.createAndClassifySequences();
+    List<String> result = new ArrayList<>();
+    for (ExecutableSequence eseq : explorer.getRegressionSequences()) {
+      result.add(eseq.sequence.toCodeString());
+    }
+    return result;
+  }
+
+  @Test
+  public void testDeterministic() throws RandoopSpecificationError {
+    GenInputsAbstract.pipeline_depth = 2;
+    List<String> first = generate();
+    assertFalse(first.isEmpty());
+    assertEquals(first, generate());
+  }
+
+  @Test
+  public void testOneThreadExecutesCodeUnderTest() throws RandoopSpecificationError {
+    GenInputsAbstract.pipeline_depth = 2;
+    ReflectionExecutor.resetStatistics();
+    generate();
+    assertTrue(ReflectionExecutor.normalExecs() > 0);
+    // The generator's thread and the output predicates' thread never execute code under test.
+    assertFalse(ReflectionExecutor.hadConcurrentExecution());
+  }
+}
@@ -57,4 +57,21 @@ public class RandomnessTest extends TestCase {
       assertTrue(Math.abs(actualRatio - expectedRatio) < epsilon);
     }
   }
+
+  /** Checks that restoring a saved state repeats the random choices made after it was saved. */
+  public void testGetAndSetState() {
+    Randomness.setSeed(42);
+    Randomness.nextRandomInt(100);
+    byte[] state = Randomness.getState();
+    List<Integer> first = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      first.add(Randomness.nextRandomInt(1000));
+    }
+    Randomness.setState(state);
+    List<Integer> second = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      second.add(Randomness.nextRandomInt(1000));
+    }
+    assertEquals(first, second);
+  }
 }
@@ -0,0 +1,60 @@
+package randoop.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.condition.RandoopSpecificationError;
+import randoop.operation.TypedClassOperation;
+import randoop.operation.TypedOperation;
+import randoop.reflection.AccessibilityPredicate;
+import randoop.reflection.OmitMethodsPredicate;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.types.Type;
+import randoop.util.GenerationMetrics;
+import randoop.util.MultiMap;
+
+/** Tests for the observer plans of {@link RegressionCaptureGenerator}. */
+public class RegressionCaptureGeneratorTest {
+
+  @Test
+  public void testObserverPlanIsReused() throws NoSuchMethodException, RandoopSpecificationError {
+    TypedClassOperation constructor =
+        TypedOperation.forConstructor(StringBuilder.class.getConstructor());
+    MultiMap<Type, TypedClassOperation> observers = new MultiMap<>();
+    observers.add(
+        constructor.getOutputType(),
+        TypedOperation.forMethod(StringBuilder.class.getMethod("length")));
+    RegressionCaptureGenerator generator =
+        new RegressionCaptureGenerator(
+            new ExpectedExceptionCheckGen(AccessibilityPredicate.IS_PUBLIC),
+            observers,
+            AccessibilityPredicate.IS_PUBLIC,
+            OmitMethodsPredicate.NO_OMISSION,
+            true);
+
+    ExecutableSequence eseq =
+        new ExecutableSequence(new Sequence().extend(constructor).extend(constructor));
+    eseq.execute(new DummyVisitor(), new DummyCheckGenerator());
+
+    GenerationMetrics.reset();
+    RegressionChecks checks = generator.generateTestChecks(eseq);
+    // One "length() == 0" check per StringBuilder; a constructor result is never null.
+    assertEquals(2, checks.count());
+    assertEquals(1, GenerationMetrics.getCounter(RegressionCaptureGenerator.OBSERVER_PLAN_MISSES));
+    assertEquals(1, GenerationMetrics.getCounter(RegressionCaptureGenerator.OBSERVER_PLAN_HITS));
+
+    assertEquals(checks, generator.generateTestChecks(eseq));
+    assertEquals(1, GenerationMetrics.getCounter(RegressionCaptureGenerator.OBSERVER_PLAN_MISSES));
+    assertEquals(3, GenerationMetrics.getCounter(RegressionCaptureGenerator.OBSERVER_PLAN_HITS));
+
+    StringWriter report = new StringWriter();
+    GenerationMetrics.writeReport(new PrintWriter(report));
+    assertTrue(report.toString().contains("75.0% of 4 lookups"));
+    GenerationMetrics.reset();
+  }
+}
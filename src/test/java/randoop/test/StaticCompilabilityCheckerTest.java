@@ -0,0 +1,153 @@
+package randoop.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.condition.RandoopSpecificationError;
+import randoop.contract.IsNotNull;
+import randoop.contract.PrimValue;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.StaticCompilabilityChecker.Verdict;
+import randoop.types.JavaTypes;
+
+/** Tests for {@link StaticCompilabilityChecker}. */
+public class StaticCompilabilityCheckerTest {
+
+  /** A public class that can be named in any package. */
+  public static class PublicNested {}
+
+  /** A class that can be named only in this package. */
+  static class PackagePrivateNested {}
+
+  /** A class that cannot be named outside this class. */
+  private static class PrivateNested {}
+
+  /** A class that can be named only in this package, with a public constructor. */
+  static class PackagePrivateWithPublicConstructor {
+    /** Creates a PackagePrivateWithPublicConstructor. */
+    public PackagePrivateWithPublicConstructor() {}
+  }
+
+  /** An inner class, whose constructor needs an enclosing instance. */
+  public class Inner {
+    /** Creates an Inner. */
+    public Inner() {}
+  }
+
+  /**
+   * Returns a sequence that creates a Random and gets a random boolean.
+   *
+   * @return the sequence
+   * @throws NoSuchMethodException if a Random method is missing
+   * @throws RandoopSpecificationError if a specification cannot be read
+   */
+  private static Sequence nextBoolean() throws NoSuchMethodException, RandoopSpecificationError {
+    Sequence sequence =
+        new Sequence().extend(TypedOperation.forConstructor(Random.class.getConstructor()));
+    return sequence.extend(
+        TypedOperation.forMethod(Random.class.getMethod("nextBoolean")),
+        Collections.singletonList(sequence.getVariable(0)));
+  }
+
+  @Test
+  public void testSimpleSequence() throws NoSuchMethodException, RandoopSpecificationError {
+    StaticCompilabilityChecker checker = new StaticCompilabilityChecker("com.example");
+    ExecutableSequence eseq = new ExecutableSequence(nextBoolean());
+    eseq.execute(new DummyVisitor(), new DummyCheckGenerator());
+    assertEquals(Verdict.COMPILABLE, checker.check(eseq));
+  }
+
+  @Test
+  public void testOverloadedMethod() throws NoSuchMethodException, RandoopSpecificationError {
+    StaticCompilabilityChecker checker = new StaticCompilabilityChecker("com.example");
+    Sequence sequence =
+        new Sequence().extend(TypedOperation.forConstructor(StringBuilder.class.getConstructor()));
+    sequence =
+        sequence.extend(TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, "a"));
+    sequence =
+        sequence.extend(
+            TypedOperation.forMethod(StringBuilder.class.getMethod("append", String.class)),
+            sequence.getVariable(0),
+            sequence.getVariable(1));
+    assertEquals(Verdict.COMPILABLE, checker.checkStatement(sequence, 0));
+    assertEquals(Verdict.COMPILABLE, checker.checkStatement(sequence, 1));
+    // StringBuilder has many methods named append with one parameter.
+    assertEquals(Verdict.UNCERTAIN, checker.checkStatement(sequence, 2));
+  }
+
+  @Test
+  public void testChecks() throws NoSuchMethodException, RandoopSpecificationError {
+    StaticCompilabilityChecker checker = new StaticCompilabilityChecker(null);
+    Sequence sequence = nextBoolean();
+    assertEquals(
+        Verdict.COMPILABLE,
+        checker.checkCheck(new ObjectCheck(new IsNotNull(), sequence.getVariable(0))));
+    PrimValue isTrue = new PrimValue(true, PrimValue.EqualityMode.EQUALSEQUALS);
+    assertEquals(
+        Verdict.COMPILABLE, checker.checkCheck(new ObjectCheck(isTrue, sequence.getVariable(1))));
+    // assertNotNull of a boolean value is not a known pattern.
+    assertEquals(
+        Verdict.UNCERTAIN,
+        checker.checkCheck(new ObjectCheck(new IsNotNull(), sequence.getVariable(1))));
+  }
+
+  @Test
+  public void testGenericType() throws NoSuchMethodException, RandoopSpecificationError {
+    StaticCompilabilityChecker checker = new StaticCompilabilityChecker("com.example");
+    assertEquals(
+        Verdict.UNCERTAIN,
+        checker.checkOperation(TypedOperation.forConstructor(ArrayList.class.getConstructor())));
+    assertEquals(
+        Verdict.UNCERTAIN,
+        checker.checkOperation(
+            TypedOperation.forMethod(Collections.class.getMethod("emptyList"))));
+  }
+
+  @Test
+  public void testVarargs() throws NoSuchMethodException, RandoopSpecificationError {
+    StaticCompilabilityChecker checker = new StaticCompilabilityChecker("com.example");
+    TypedOperation format =
+        TypedOperation.forMethod(String.class.getMethod("format", String.class, Object[].class));
+    assertEquals(Verdict.UNCERTAIN, checker.checkOperation(format));
+  }
+
+  @Test
+  public void testInaccessibleType() throws NoSuchMethodException {
+    TypedOperation constructor =
+        TypedOperation.forConstructor(PackagePrivateWithPublicConstructor.class.getConstructor());
+    StaticCompilabilityChecker other = new StaticCompilabilityChecker("com.example");
+    assertEquals(Verdict.NOT_COMPILABLE, other.checkOperation(constructor));
+    // In the same package, javac decides whether the class is accessible.
+    StaticCompilabilityChecker same = new StaticCompilabilityChecker("randoop.test");
+    assertEquals(Verdict.UNCERTAIN, same.checkOperation(constructor));
+  }
+
+  @Test
+  public void testNestedClasses() throws NoSuchMethodException {
+    StaticCompilabilityChecker checker = new StaticCompilabilityChecker("com.example");
+    assertEquals(
+        Verdict.COMPILABLE,
+        checker.checkOperation(TypedOperation.forConstructor(PublicNested.class.getConstructor())));
+    TypedOperation innerConstructor =
+        TypedOperation.forConstructor(
+            Inner.class.getConstructor(StaticCompilabilityCheckerTest.class));
+    assertEquals(Verdict.UNCERTAIN, checker.checkOperation(innerConstructor));
+  }
+
+  @Test
+  public void testNamedClasses() {
+    StaticCompilabilityChecker other = new StaticCompilabilityChecker("com.example");
+    StaticCompilabilityChecker same = new StaticCompilabilityChecker("randoop.test");
+    assertEquals(Verdict.COMPILABLE, other.checkNamedClass(PublicNested.class));
+    assertEquals(Verdict.NOT_COMPILABLE, other.checkNamedClass(PackagePrivateNested.class));
+    assertEquals(Verdict.UNCERTAIN, same.checkNamedClass(PackagePrivateNested.class));
+    assertEquals(Verdict.NOT_COMPILABLE, same.checkNamedClass(PrivateNested.class));
+    assertEquals(Verdict.NOT_COMPILABLE, same.checkNamedClass(new Object() {}.getClass()));
+  }
+}
@@ -0,0 +1,74 @@
+package randoop.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/** Tests for {@link TypeInterner}. */
+public class TypeInternerTest {
+
+  /**
+   * Returns {@code ArrayList<String>}, created anew.
+   *
+   * @return the type {@code ArrayList<String>}
+   */
+  private static InstantiatedType arrayListOfString() {
+    GenericClassType arrayList = JDKTypes.ARRAY_LIST_TYPE;
+    return arrayList.substitute(
+        new Substitution(arrayList.getTypeParameters(), JavaTypes.STRING_TYPE));
+  }
+
+  @Test
+  public void testInstantiatedTypesAreShared() {
+    InstantiatedType type = arrayListOfString();
+    assertSame(type, arrayListOfString());
+    assertSame(type.getSuperclass(), arrayListOfString().getSuperclass());
+    assertSame(type.getInterfaces(), arrayListOfString().getInterfaces());
+    assertEquals(type.getSupertypesInclusive(), arrayListOfString().getSupertypesInclusive());
+  }
+
+  @Test
+  public void testArrayTypesAreShared() {
+    assertSame(ArrayType.forClass(String[].class), ArrayType.forClass(String[].class));
+    assertSame(
+        ArrayType.ofComponentType(arrayListOfString()),
+        ArrayType.ofComponentType(arrayListOfString()));
+  }
+
+  @Test
+  public void testCaptureVariablesAreNotInterned() {
+    // List<? extends Number>
+    ParameterBound bound = ParameterBound.forType(ReferenceType.forClass(Number.class));
+    TypeArgument argument = new WildcardArgument(new WildcardType(bound, true));
+    InstantiatedType listOfWildcard =
+        new InstantiatedType(JDKTypes.LIST_TYPE, Collections.singletonList(argument));
+    InstantiatedType captured = listOfWildcard.applyCaptureConversion();
+    assertTrue(captured.hasCaptureVariable());
+    assertNotSame(captured, listOfWildcard.applyCaptureConversion());
+  }
+
+  @Test
+  public void testSubtypeResultsAreStable() {
+    InstantiatedType arrayListOfString = arrayListOfString();
+    InstantiatedType listOfString =
+        JDKTypes.LIST_TYPE.substitute(
+            new Substitution(JDKTypes.LIST_TYPE.getTypeParameters(), JavaTypes.STRING_TYPE));
+    List<Boolean> results = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      results.add(arrayListOfString.isSubtypeOfOrEqualTo(listOfString));
+      results.add(listOfString.isSubtypeOfOrEqualTo(arrayListOfString));
+      results.add(arrayListOfString.isSubtypeOfOrEqualTo(JavaTypes.OBJECT_TYPE));
+    }
+    assertEquals(results.subList(0, 3), results.subList(3, 6));
+    assertTrue(results.get(0));
+    assertFalse(results.get(1));
+    assertTrue(results.get(2));
+  }
+}
@@ -0,0 +1,81 @@
+package randoop.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/** Tests for {@link Histogram}. */
+public class HistogramTest {
+
+  @Test
+  public void testEmpty() {
+    Histogram h = new Histogram();
+    assertEquals(0, h.getCount());
+    assertEquals(0, h.getMin());
+    assertEquals(0, h.getMax());
+    assertEquals(0, h.getValueAtPercentile(50));
+    assertEquals(0.0, h.getMean(), 0.0);
+  }
+
+  @Test
+  public void testSmallValuesAreExact() {
+    Histogram h = new Histogram();
+    for (int i = 1; i <= 100; i++) {
+      h.record(i);
+    }
+    assertEquals(100, h.getCount());
+    assertEquals(5050, h.getTotal());
+    assertEquals(1, h.getMin());
+    assertEquals(100, h.getMax());
+    assertEquals(50, h.getValueAtPercentile(50));
+    assertEquals(90, h.getValueAtPercentile(90));
+    assertEquals(100, h.getValueAtPercentile(100));
+    assertEquals(1, h.getValueAtPercentile(0));
+  }
+
+  @Test
+  public void testLargeValuesHaveBoundedError() {
+    Histogram h = new Histogram();
+    for (long i = 1; i <= 10_000; i++) {
+      h.record(i * 1_000_000);
+    }
+    long exact = 9_900L * 1_000_000;
+    long p99 = h.getValueAtPercentile(99);
+    assertTrue(p99 >= exact);
+    assertTrue(p99 - exact <= exact / 64);
+    assertEquals(10_000L * 1_000_000, h.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void testIndexAndHighestValueAgree() {
+    long[] values = {0, 1, 127, 128, 129, 255, 256, 1_000_003, Long.MAX_VALUE};
+    for (long value : values) {
+      int index = Histogram.indexFor(value);
+      assertTrue(Histogram.highestValueFor(index) >= value);
+      if (index > 0) {
+        assertTrue(Histogram.highestValueFor(index - 1) < value);
+      }
+    }
+  }
+
+  @Test
+  public void testAddAndReset() {
+    Histogram h1 = new Histogram();
+    Histogram h2 = new Histogram();
+    h1.record(5);
+    h2.record(500);
+    h1.add(h2);
+    assertEquals(2, h1.getCount());
+    assertEquals(5, h1.getMin());
+    assertEquals(500, h1.getMax());
+    h1.reset();
+    assertEquals(0, h1.getCount());
+    assertEquals(0, h1.getMax());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPercentileOutOfRange() {
+    new Histogram().getValueAtPercentile(101);
+  }
+}